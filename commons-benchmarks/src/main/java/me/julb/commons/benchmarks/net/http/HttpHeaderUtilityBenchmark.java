@@ -0,0 +1,179 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.benchmarks.net.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.julb.commons.net.http.AuthorizationHeader;
+import me.julb.commons.net.http.HttpHeaderUtility;
+
+/**
+ * Benchmarks the {@link HttpHeaderUtility} authorization scanners against the former regular expressions.
+ * <br>
+ * @author Julb.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpHeaderUtilityBenchmark {
+
+    /**
+     * The former bearer token pattern.
+     */
+    private static final Pattern BEARER_TOKEN_PATTERN = Pattern.compile("^Bearer\\s(?<token>[\\w.\\-=]+)$");
+
+    /**
+     * The former basic token pattern.
+     */
+    private static final Pattern BASIC_TOKEN_PATTERN = Pattern.compile("^Basic\\s(?<token>[\\w+\\/\\-=]+)$");
+
+    /**
+     * The former basic user name and password pattern.
+     */
+    private static final Pattern BASIC_USERNAME_PASSWORD_PATTERN =
+            Pattern.compile("^(?<userName>[^:]+):(?<password>.*)$");
+
+    /**
+     * The bearer authorization header.
+     */
+    private String bearerHeader;
+
+    /**
+     * The basic authorization header.
+     */
+    private String basicHeader;
+
+    /**
+     * Sets-up the benchmark.
+     */
+    @Setup
+    public void setUp() {
+        var token = "eyJhbGciOiJSUzI1NiJ9.eyJzdWIiOiJqdWxiIn0." + "Zm9vYmFy".repeat(43);
+        this.bearerHeader = HttpHeaderUtility.toBearerToken(token);
+        this.basicHeader = HttpHeaderUtility.toBasicToken("admin@julb.me", "my:very-secret:password");
+    }
+
+    /**
+     * Extracts the bearer token with the former regular expression.
+     * @return the token.
+     */
+    @Benchmark
+    public String fromBearerTokenWithRegex() {
+        var matcher = BEARER_TOKEN_PATTERN.matcher(this.bearerHeader);
+        return matcher.matches() ? matcher.group("token") : null;
+    }
+
+    /**
+     * Extracts the bearer token with the scanner.
+     * @return the token.
+     */
+    @Benchmark
+    public String fromBearerToken() {
+        return HttpHeaderUtility.fromBearerToken(this.bearerHeader);
+    }
+
+    /**
+     * Checks the bearer token with the former regular expression.
+     * @return <code>true</code> if the header is a bearer token.
+     */
+    @Benchmark
+    public boolean isBearerTokenWithRegex() {
+        return BEARER_TOKEN_PATTERN.matcher(this.bearerHeader).matches();
+    }
+
+    /**
+     * Checks the bearer token with the scanner.
+     * @return <code>true</code> if the header is a bearer token.
+     */
+    @Benchmark
+    public boolean isBearerToken() {
+        return HttpHeaderUtility.isBearerToken(this.bearerHeader);
+    }
+
+    /**
+     * Parses the bearer header into a view, without copying the token.
+     * @return the token view.
+     */
+    @Benchmark
+    public CharSequence parseBearerAuthorization() {
+        return HttpHeaderUtility.parseAuthorization(this.bearerHeader).getCredentialsView();
+    }
+
+    /**
+     * Extracts the basic credentials with the former regular expressions.
+     * @return the credentials.
+     */
+    @Benchmark
+    public Pair<String, String> fromBasicTokenWithRegex() {
+        var matcher = BASIC_TOKEN_PATTERN.matcher(this.basicHeader);
+        if (!matcher.matches()) {
+            return null;
+        }
+        var userNameWithPassword = new String(Base64.decodeBase64(matcher.group("token")), StandardCharsets.UTF_8);
+        var userNamePasswordMatcher = BASIC_USERNAME_PASSWORD_PATTERN.matcher(userNameWithPassword);
+        if (!userNamePasswordMatcher.matches()) {
+            return null;
+        }
+        return new ImmutablePair<>(
+                userNamePasswordMatcher.group("userName"),
+                userNamePasswordMatcher.group("password"));
+    }
+
+    /**
+     * Extracts the basic credentials with the scanner.
+     * @return the credentials.
+     */
+    @Benchmark
+    public Pair<String, String> fromBasicToken() {
+        return HttpHeaderUtility.fromBasicToken(this.basicHeader);
+    }
+
+    /**
+     * Detects the scheme of the basic header, without decoding the credentials.
+     * @return the header.
+     */
+    @Benchmark
+    public AuthorizationHeader parseBasicAuthorization() {
+        return HttpHeaderUtility.parseAuthorization(this.basicHeader);
+    }
+}
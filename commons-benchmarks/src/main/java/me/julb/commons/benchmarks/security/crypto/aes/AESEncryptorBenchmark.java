@@ -0,0 +1,109 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.benchmarks.security.crypto.aes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.encrypt.Encryptors;
+
+import me.julb.commons.security.crypto.aes.AESEncryptor;
+
+/**
+ * Benchmarks {@link AESEncryptor} against {@link Encryptors#text(CharSequence, CharSequence)} created per value.
+ * <br>
+ * @author Julb.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AESEncryptorBenchmark {
+
+    /**
+     * The key.
+     */
+    private static final String KEY = "aaaabbbbccccddddaaaabbbbccccdddd";
+
+    /**
+     * The salt.
+     */
+    private static final String SALT = "aaaabbbbccccaaaabbbbccccaaaabbbb";
+
+    /**
+     * The value to encrypt.
+     */
+    private static final String PLAIN_TEXT = "john.doe@example.com";
+
+    /**
+     * The encrypted value.
+     */
+    private String cipherText;
+
+    /**
+     * Sets-up the benchmark.
+     */
+    @Setup
+    public void setUp() {
+        this.cipherText = AESEncryptor.encrypt(PLAIN_TEXT, KEY, SALT);
+    }
+
+    /**
+     * Encrypts with an encryptor created for the value.
+     * @return the encrypted value.
+     */
+    @Benchmark
+    public String encryptWithSpringEncryptors() {
+        return Encryptors.text(KEY, SALT).encrypt(PLAIN_TEXT);
+    }
+
+    /**
+     * Encrypts with the cached encryptor.
+     * @return the encrypted value.
+     */
+    @Benchmark
+    public String encrypt() {
+        return AESEncryptor.encrypt(PLAIN_TEXT, KEY, SALT);
+    }
+
+    /**
+     * Decrypts with the cached encryptor.
+     * @return the decrypted value.
+     */
+    @Benchmark
+    public String decrypt() {
+        return AESEncryptor.decrypt(this.cipherText, KEY, SALT);
+    }
+}
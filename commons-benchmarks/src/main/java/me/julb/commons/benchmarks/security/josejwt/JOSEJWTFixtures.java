@@ -0,0 +1,138 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.benchmarks.security.josejwt;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jwt.JWTClaimsSet;
+
+import me.julb.commons.security.josejwt.jwk.IJWKProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualAsymmetricJWKProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualSymmetricJWKProvider;
+
+/**
+ * Keys and claims shared by the JOSE/JWT benchmarks.
+ * <br>
+ * @author Julb.
+ */
+final class JOSEJWTFixtures {
+
+    /**
+     * The issuer of the tokens.
+     */
+    static final String ISSUER = "benchmark-issuer";
+
+    /**
+     * The audience of the tokens.
+     */
+    static final String AUDIENCE = "benchmark-audience";
+
+    /**
+     * Constructor.
+     */
+    private JOSEJWTFixtures() {
+        super();
+    }
+
+    /**
+     * Generates a signature key for the given algorithm.
+     * @param algorithm the JWS algorithm: HS256, RS256, RS384, ES256 or ES384.
+     * @return the key, holding both the private and the public parts.
+     * @throws GeneralSecurityException if the key cannot be generated.
+     */
+    static IJWKProvider newSignatureJWKProvider(String algorithm) throws GeneralSecurityException {
+        var jwsAlgorithm = JWSAlgorithm.parse(algorithm);
+        if (JWSAlgorithm.Family.HMAC_SHA.contains(jwsAlgorithm)) {
+            // @formatter:off
+            return new ManualSymmetricJWKProvider.Builder()
+                    .algorithm(algorithm)
+                    .keyId(UUID.randomUUID().toString())
+                    .secretKey(UUID.randomUUID().toString())
+                    .useForSignature()
+                    .build();
+            // @formatter:on
+        }
+
+        KeyPairGenerator keyPairGenerator;
+        if (JWSAlgorithm.Family.EC.contains(jwsAlgorithm)) {
+            keyPairGenerator = KeyPairGenerator.getInstance("EC");
+            keyPairGenerator.initialize(
+                    new ECGenParameterSpec(JWSAlgorithm.ES256.equals(jwsAlgorithm) ? "secp256r1" : "secp384r1"));
+        } else {
+            keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+            keyPairGenerator.initialize(2048);
+        }
+
+        // @formatter:off
+        return new ManualAsymmetricJWKProvider.Builder()
+                .algorithm(algorithm)
+                .keyId(UUID.randomUUID().toString())
+                .keyPair(keyPairGenerator.generateKeyPair())
+                .useForSignature()
+                .build();
+        // @formatter:on
+    }
+
+    /**
+     * Generates a direct encryption key.
+     * @return the key.
+     */
+    static IJWKProvider newEncryptionJWKProvider() {
+        // @formatter:off
+        return new ManualSymmetricJWKProvider.Builder()
+                .algorithm("dir")
+                .keyId(UUID.randomUUID().toString())
+                .secretKey("aaaaaaaabbbbbbbbccccccccdddddddd")
+                .useForEncryption()
+                .build();
+        // @formatter:on
+    }
+
+    /**
+     * Builds the claims of a token valid for one hour.
+     * @return the claims.
+     */
+    static String newJWTClaims() {
+        var now = Instant.now();
+
+        // @formatter:off
+        return new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .audience(AUDIENCE)
+                .jwtID(UUID.randomUUID().toString())
+                .subject("contact@julb.io")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(1, ChronoUnit.HOURS)))
+                .build()
+                .toString();
+        // @formatter:on
+    }
+}
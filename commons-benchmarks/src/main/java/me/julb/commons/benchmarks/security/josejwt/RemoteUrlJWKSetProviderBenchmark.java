@@ -0,0 +1,194 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.benchmarks.security.josejwt;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import me.julb.commons.security.josejwt.jwk.IJWKProvider;
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
+import me.julb.commons.security.josejwt.jwk.impl.ManualJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.impl.RemoteUrlJWKSetProvider;
+
+/**
+ * Benchmarks {@link RemoteUrlJWKSetProvider} against a local HTTP stub.
+ * <br>
+ * @author Julb.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemoteUrlJWKSetProviderBenchmark {
+
+    /**
+     * The number of keys in the JWK set.
+     */
+    @Param({"1", "10", "100"})
+    private int keyCount;
+
+    /**
+     * The local HTTP stub.
+     */
+    private HttpServer httpServer;
+
+    /**
+     * The JWK sets served by the stub, alternately on the rotating URL.
+     */
+    private byte[][] bodies;
+
+    /**
+     * The number of requests received on the rotating URL.
+     */
+    private final AtomicLong rotatingRequestCount = new AtomicLong();
+
+    /**
+     * The provider fetching an unchanged JWK set.
+     */
+    private RemoteUrlJWKSetProvider stableProvider;
+
+    /**
+     * The provider fetching a JWK set changing on every request.
+     */
+    private RemoteUrlJWKSetProvider rotatingProvider;
+
+    /**
+     * Sets-up the benchmark.
+     * @throws Exception if an error occurs.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        this.bodies = new byte[][] {newJWKSetBody(), newJWKSetBody()};
+
+        this.httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.httpServer.createContext("/jwks", exchange -> respond(exchange, this.bodies[0]));
+        this.httpServer.createContext(
+                "/jwks-rotating",
+                exchange -> respond(exchange, this.bodies[(int) (this.rotatingRequestCount.getAndIncrement() % 2)]));
+        this.httpServer.start();
+
+        var baseUrl = "http://127.0.0.1:" + this.httpServer.getAddress().getPort();
+        // @formatter:off
+        this.stableProvider = new RemoteUrlJWKSetProvider.Builder()
+                .url(baseUrl + "/jwks")
+                .minRefreshInterval(0)
+                .build();
+        this.rotatingProvider = new RemoteUrlJWKSetProvider.Builder()
+                .url(baseUrl + "/jwks-rotating")
+                .minRefreshInterval(0)
+                .build();
+        // @formatter:on
+        this.stableProvider.toJWKSetSnapshot();
+        this.rotatingProvider.toJWKSetSnapshot();
+    }
+
+    /**
+     * Tears-down the benchmark.
+     */
+    @TearDown
+    public void tearDown() {
+        this.httpServer.stop(0);
+    }
+
+    /**
+     * Gets the cached JWK set snapshot.
+     * @return the snapshot.
+     */
+    @Benchmark
+    public JWKSetSnapshot getCachedSnapshot() {
+        return this.stableProvider.toJWKSetSnapshot();
+    }
+
+    /**
+     * Fetches the JWK set, unchanged, from the stub.
+     * @return <code>true</code> if the JWK set has changed.
+     */
+    @Benchmark
+    public boolean refreshUnchanged() {
+        return this.stableProvider.refreshJWKSet();
+    }
+
+    /**
+     * Fetches the JWK set, changed, from the stub, and parses it.
+     * @return <code>true</code> if the JWK set has changed.
+     */
+    @Benchmark
+    public boolean refreshChanged() {
+        return this.rotatingProvider.refreshJWKSet();
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Generates the JSON body of a JWK set.
+     * @return the body.
+     * @throws Exception if a key cannot be generated.
+     */
+    private byte[] newJWKSetBody() throws Exception {
+        var jwkProviders = new ArrayList<IJWKProvider>();
+        for (int i = 0; i < this.keyCount; i++) {
+            jwkProviders.add(JOSEJWTFixtures.newSignatureJWKProvider("ES256"));
+        }
+        var jwkSet = new ManualJWKSetProvider.Builder().addAllJWKProviders(jwkProviders).build().toJWKSet();
+        return new JWKSet(jwkSet.toPublicJWKSet().getKeys())
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sends a body.
+     * @param exchange the exchange.
+     * @param body the body.
+     * @throws IOException if the body cannot be sent.
+     */
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (var outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
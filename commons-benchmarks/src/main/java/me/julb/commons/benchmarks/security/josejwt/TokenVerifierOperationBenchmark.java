@@ -0,0 +1,122 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.benchmarks.security.josejwt;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.julb.commons.security.josejwt.jwk.IJWKProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualJWKSetProvider;
+import me.julb.commons.security.josejwt.operations.JWSVerifierCache;
+import me.julb.commons.security.josejwt.operations.TokenSignatureOperation;
+import me.julb.commons.security.josejwt.operations.TokenVerifierOperation;
+
+/**
+ * Benchmarks {@link TokenVerifierOperation#execute(String)} against JWK sets of growing size.
+ * <br>
+ * The keys are HMAC keys: the signature check is cheap, so that the cost of the key lookup remains visible.
+ * <br>
+ * @author Julb.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenVerifierOperationBenchmark {
+
+    /**
+     * The number of keys in the JWK set.
+     */
+    @Param({"1", "10", "100"})
+    private int keyCount;
+
+    /**
+     * The operation creating a verifier for each token.
+     */
+    private TokenVerifierOperation tokenVerifierOperation;
+
+    /**
+     * The operation reusing the verifiers.
+     */
+    private TokenVerifierOperation cachedTokenVerifierOperation;
+
+    /**
+     * The token to verify, signed with the last key of the set.
+     */
+    private String token;
+
+    /**
+     * Sets-up the benchmark.
+     * @throws Exception if an error occurs.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        var jwkProviders = new ArrayList<IJWKProvider>();
+        for (int i = 0; i < this.keyCount; i++) {
+            jwkProviders.add(JOSEJWTFixtures.newSignatureJWKProvider("HS256"));
+        }
+        var jwkSetProvider =
+                new ManualJWKSetProvider.Builder().addAllJWKProviders(jwkProviders).build();
+
+        this.tokenVerifierOperation =
+                new TokenVerifierOperation(jwkSetProvider, JOSEJWTFixtures.AUDIENCE, JOSEJWTFixtures.ISSUER);
+        this.cachedTokenVerifierOperation = new TokenVerifierOperation(
+                jwkSetProvider, JOSEJWTFixtures.AUDIENCE, JOSEJWTFixtures.ISSUER, new JWSVerifierCache());
+
+        this.token = new TokenSignatureOperation(jwkProviders.get(this.keyCount - 1))
+                .execute(JOSEJWTFixtures.newJWTClaims());
+    }
+
+    /**
+     * Verifies a token, creating a new verifier.
+     * @return the claims of the token.
+     */
+    @Benchmark
+    public String execute() {
+        return this.tokenVerifierOperation.execute(this.token);
+    }
+
+    /**
+     * Verifies a token, reusing the verifier.
+     * @return the claims of the token.
+     */
+    @Benchmark
+    public String executeWithVerifierCache() {
+        return this.cachedTokenVerifierOperation.execute(this.token);
+    }
+}
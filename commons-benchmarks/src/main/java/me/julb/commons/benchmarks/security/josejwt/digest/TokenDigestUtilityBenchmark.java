@@ -0,0 +1,101 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.benchmarks.security.josejwt.digest;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.julb.commons.security.josejwt.digest.TokenDigestUtility;
+
+/**
+ * Benchmarks {@link TokenDigestUtility} against {@link DigestUtils#sha256Hex(String)}.
+ * <br>
+ * @author Julb.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenDigestUtilityBenchmark {
+
+    /**
+     * The length of the token.
+     */
+    @Param({"256", "1024", "4096"})
+    private int tokenLength;
+
+    /**
+     * The token.
+     */
+    private String token;
+
+    /**
+     * Sets-up the benchmark.
+     */
+    @Setup
+    public void setUp() {
+        this.token = "eyJhbGciOiJIUzI1NiJ9.".repeat(this.tokenLength / 21 + 1).substring(0, this.tokenLength);
+    }
+
+    /**
+     * Hashes with commons-codec.
+     * @return the digest.
+     */
+    @Benchmark
+    public String sha256Hex() {
+        return DigestUtils.sha256Hex(this.token);
+    }
+
+    /**
+     * Hashes with the thread-local engine.
+     * @return the digest.
+     */
+    @Benchmark
+    public String hash() {
+        return TokenDigestUtility.hash(this.token);
+    }
+
+    /**
+     * Computes the 64-bit fingerprint.
+     * @return the fingerprint.
+     */
+    @Benchmark
+    public String fingerprint() {
+        return TokenDigestUtility.fingerprint(this.token);
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.benchmarks.security.otp;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.julb.commons.security.otp.TotpUtility;
+
+import dev.samstevens.totp.code.DefaultCodeGenerator;
+import dev.samstevens.totp.exceptions.CodeGenerationException;
+import dev.samstevens.totp.time.SystemTimeProvider;
+
+/**
+ * Benchmarks the verification of a TOTP within a window of +/- 1 time period.
+ * <br>
+ * The code verified almost never matches, so that both approaches compute every time period of the window and the replay
+ * cache is never filled.
+ * <br>
+ * @author Julb.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TotpVerifierBenchmark {
+
+    /**
+     * The secret.
+     */
+    private static final String SECRET = "JBSWY3DPEHPK3PXPJBSWY3DPEHPK3PXP";
+
+    /**
+     * The code verified.
+     */
+    private static final String CODE = "123456";
+
+    /**
+     * Verifies by generating the valid codes with the TOTP library, as done before.
+     * @return <code>true</code> if the code is valid.
+     * @throws CodeGenerationException if the codes cannot be generated.
+     */
+    @Benchmark
+    public boolean generateAndContains() throws CodeGenerationException {
+        var timeProvider = new SystemTimeProvider();
+        var codeGenerator = new DefaultCodeGenerator();
+        var currentBucket = Math.floorDiv(timeProvider.getTime(), 30);
+        var validTotps = new ArrayList<String>();
+        for (int i = -1; i <= 1; i++) {
+            validTotps.add(codeGenerator.generate(SECRET, currentBucket + i));
+        }
+        return validTotps.contains(CODE);
+    }
+
+    /**
+     * Verifies with the TOTP verifier.
+     * @return <code>true</code> if the code is valid.
+     */
+    @Benchmark
+    public boolean verify() {
+        return TotpUtility.verify(SECRET, CODE, 1);
+    }
+}
@@ -23,9 +23,12 @@
  */
 package me.julb.commons.dto.http.analytics;
 
+import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import me.julb.commons.dto.http.client.UserAgentDTO;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -68,6 +71,33 @@ public abstract class AbstractWebAnalyticsEventDTO {
     @NotBlank
     private String visitorId;
 
+    // @formatter:off
+    /**
+     * The userAgent attribute.
+     * -- GETTER --
+     * Getter for {@link #userAgent} property.
+     * @return the value.
+     * -- SETTER --
+     * Setter for {@link #userAgent} property.
+     * @param userAgent the value to set.
+     */
+    // @formatter:on
+    private String userAgent;
+
+    // @formatter:off
+    /**
+     * The userAgentDetails attribute, parsed from the {@link #userAgent}.
+     * -- GETTER --
+     * Getter for {@link #userAgentDetails} property.
+     * @return the value.
+     * -- SETTER --
+     * Setter for {@link #userAgentDetails} property.
+     * @param userAgentDetails the value to set.
+     */
+    // @formatter:on
+    @Valid
+    private UserAgentDTO userAgentDetails;
+
     /**
      * Constructor.
      * @param eventType the event type.
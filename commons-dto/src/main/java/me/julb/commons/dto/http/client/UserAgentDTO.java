@@ -0,0 +1,93 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.dto.http.client;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The user agent DTO, grouping the browser, the operating system and the device parsed from a user agent.
+ * <br>
+ * @author Julb.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(
+        includeFieldNames = false,
+        of = {"browser", "operatingSystem", "device"})
+public class UserAgentDTO {
+
+    // @formatter:off
+    /**
+     * The browser attribute.
+     * -- GETTER --
+     * Getter for {@link #browser} property.
+     * @return the value.
+     * -- SETTER --
+     * Setter for {@link #browser} property.
+     * @param browser the value to set.
+     */
+    // @formatter:on
+    @NotNull
+    @Valid
+    private BrowserDTO browser;
+
+    // @formatter:off
+    /**
+     * The operatingSystem attribute.
+     * -- GETTER --
+     * Getter for {@link #operatingSystem} property.
+     * @return the value.
+     * -- SETTER --
+     * Setter for {@link #operatingSystem} property.
+     * @param operatingSystem the value to set.
+     */
+    // @formatter:on
+    @NotNull
+    @Valid
+    private OperatingSystemDTO operatingSystem;
+
+    // @formatter:off
+    /**
+     * The device attribute.
+     * -- GETTER --
+     * Getter for {@link #device} property.
+     * @return the value.
+     * -- SETTER --
+     * Setter for {@link #device} property.
+     * @param device the value to set.
+     */
+    // @formatter:on
+    @NotNull
+    @Valid
+    private DeviceDTO device;
+}
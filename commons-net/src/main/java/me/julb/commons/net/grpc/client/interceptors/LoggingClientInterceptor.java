@@ -23,10 +23,7 @@
  */
 package me.julb.commons.net.grpc.client.interceptors;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import io.grpc.CallOptions;
 import io.grpc.Channel;
@@ -39,6 +36,7 @@ import io.grpc.MethodDescriptor;
 import io.grpc.Status;
 
 import me.julb.commons.enums.LoggingLevel;
+import me.julb.commons.net.grpc.logging.LoggingLevelTable;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -54,14 +52,9 @@ import lombok.extern.slf4j.Slf4j;
 public class LoggingClientInterceptor implements ClientInterceptor {
 
     /**
-     * The default log level.
+     * The log levels.
      */
-    private LoggingLevel defaultLogLevel = LoggingLevel.TRACE;
-
-    /**
-     * The log levels per service.
-     */
-    private Map<String, LoggingLevel> logLevelPerService = new HashMap<>();
+    private final LoggingLevelTable logLevelTable = new LoggingLevelTable();
 
     /**
      * {@inheritDoc}
@@ -70,6 +63,11 @@ public class LoggingClientInterceptor implements ClientInterceptor {
     @SuppressWarnings({"java:S119", "java:S1188"})
     public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
             MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        final var logLevel = logLevelTable.getLogLevel(method);
+        if (!LoggingLevelTable.isEnabled(LOGGER, logLevel)) {
+            return next.newCall(method, callOptions);
+        }
+
         return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
 
             /**
@@ -77,12 +75,11 @@ public class LoggingClientInterceptor implements ClientInterceptor {
              */
             @Override
             public void start(Listener<RespT> responseListener, Metadata headers) {
-                final var serviceName = method.getServiceName();
                 final var fullMethodName = method.getFullMethodName();
-                final var startTime = Instant.now();
+                final var startTime = System.nanoTime();
 
                 // Log outbound request
-                logMessage(serviceName, ">>> {}", fullMethodName);
+                logMessage(logLevel, ">>> {}", fullMethodName);
 
                 // Register a close listener
                 ClientCall.Listener<RespT> onCloseClientCallListener = new ForwardingClientCallListener<>() {
@@ -105,9 +102,9 @@ public class LoggingClientInterceptor implements ClientInterceptor {
                         } finally {
                             // Log response
                             final var durationTimeMs =
-                                    Duration.between(startTime, Instant.now()).toMillis();
+                                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
                             logMessage(
-                                    serviceName,
+                                    logLevel,
                                     "<<< {} - {} - ({} ms)",
                                     fullMethodName,
                                     status.getCode().name(),
@@ -127,7 +124,7 @@ public class LoggingClientInterceptor implements ClientInterceptor {
      * @param defaultLogLevel the default logging level.
      */
     public void setDefaultLogLevel(@NonNull LoggingLevel defaultLogLevel) {
-        this.defaultLogLevel = defaultLogLevel;
+        this.logLevelTable.setDefaultLogLevel(defaultLogLevel);
     }
 
     /**
@@ -136,37 +133,17 @@ public class LoggingClientInterceptor implements ClientInterceptor {
      * @param loggingLevel the logging level.
      */
     public void setServiceLogLevel(@NonNull String serviceName, @NonNull LoggingLevel loggingLevel) {
-        this.logLevelPerService.put(serviceName, loggingLevel);
+        this.logLevelTable.setServiceLogLevel(serviceName, loggingLevel);
     }
 
     /**
      * Logs the given message in the appropriate level.
-     * @param serviceName the service name.
+     * @param logLevel the log level of the call.
      * @param message the message to log.
      * @param args the optional arguments to add to the message.
      */
     @SuppressWarnings({"java:S923"})
-    void logMessage(@NonNull String serviceName, @NonNull String message, Object... args) {
-        var logLevel = this.logLevelPerService.computeIfAbsent(serviceName, s -> defaultLogLevel);
-        switch (logLevel) {
-            case TRACE:
-                LOGGER.trace(message, args);
-                break;
-            case DEBUG:
-                LOGGER.debug(message, args);
-                break;
-            case INFO:
-                LOGGER.info(message, args);
-                break;
-            case WARN:
-                LOGGER.warn(message, args);
-                break;
-            case ERROR, FATAL:
-                LOGGER.error(message, args);
-                break;
-            case OFF:
-            default:
-                break;
-        }
+    void logMessage(@NonNull LoggingLevel logLevel, @NonNull String message, Object... args) {
+        LoggingLevelTable.log(LOGGER, logLevel, message, args);
     }
 }
@@ -0,0 +1,176 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.grpc.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+
+import io.grpc.MethodDescriptor;
+
+import me.julb.commons.enums.LoggingLevel;
+
+import lombok.NonNull;
+
+/**
+ * The log levels of the GRPC calls, per service.
+ * <br>
+ * The level of a method is read by the service name of its {@link MethodDescriptor} from an immutable snapshot of
+ * the configuration, replaced on each change: reads never lock, and nothing is retained per method called.
+ *
+ * @author Julb.
+ */
+public class LoggingLevelTable {
+
+    /**
+     * The current configuration.
+     */
+    private volatile Configuration configuration = new Configuration(LoggingLevel.TRACE, Map.of());
+
+    /**
+     * Gets the log level of a method.
+     * @param methodDescriptor the method.
+     * @return the log level of the service of the method, or the default log level.
+     */
+    public LoggingLevel getLogLevel(@NonNull MethodDescriptor<?, ?> methodDescriptor) {
+        return this.configuration.resolve(methodDescriptor.getServiceName());
+    }
+
+    /**
+     * Sets the default log level.
+     * @param defaultLogLevel the default logging level.
+     */
+    public synchronized void setDefaultLogLevel(@NonNull LoggingLevel defaultLogLevel) {
+        this.configuration = new Configuration(defaultLogLevel, this.configuration.logLevelPerService);
+    }
+
+    /**
+     * Sets the service log level.
+     * @param serviceName the service name.
+     * @param loggingLevel the logging level.
+     */
+    public synchronized void setServiceLogLevel(@NonNull String serviceName, @NonNull LoggingLevel loggingLevel) {
+        var logLevelPerService = new HashMap<>(this.configuration.logLevelPerService);
+        logLevelPerService.put(serviceName, loggingLevel);
+        this.configuration = new Configuration(this.configuration.defaultLogLevel, Map.copyOf(logLevelPerService));
+    }
+
+    /**
+     * Checks if the logger is enabled for the given level.
+     * @param logger the logger.
+     * @param logLevel the log level.
+     * @return <code>true</code> if a message logged at this level is output, <code>false</code> otherwise.
+     */
+    public static boolean isEnabled(@NonNull Logger logger, @NonNull LoggingLevel logLevel) {
+        switch (logLevel) {
+            case TRACE:
+                return logger.isTraceEnabled();
+            case DEBUG:
+                return logger.isDebugEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case WARN:
+                return logger.isWarnEnabled();
+            case ERROR, FATAL:
+                return logger.isErrorEnabled();
+            case OFF:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Logs the given message in the given level.
+     * @param logger the logger.
+     * @param logLevel the log level.
+     * @param message the message to log.
+     * @param args the optional arguments to add to the message.
+     */
+    @SuppressWarnings({"java:S923"})
+    public static void log(@NonNull Logger logger, @NonNull LoggingLevel logLevel, @NonNull String message,
+        Object... args) {
+        switch (logLevel) {
+            case TRACE:
+                logger.trace(message, args);
+                break;
+            case DEBUG:
+                logger.debug(message, args);
+                break;
+            case INFO:
+                logger.info(message, args);
+                break;
+            case WARN:
+                logger.warn(message, args);
+                break;
+            case ERROR, FATAL:
+                logger.error(message, args);
+                break;
+            case OFF:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * A snapshot of the configuration.
+     * <br>
+     *
+     * @author Julb.
+     */
+    private static final class Configuration {
+
+        /**
+         * The default log level.
+         */
+        private final LoggingLevel defaultLogLevel;
+
+        /**
+         * The log levels per service.
+         */
+        private final Map<String, LoggingLevel> logLevelPerService;
+
+        /**
+         * Constructor.
+         * @param defaultLogLevel the default log level.
+         * @param logLevelPerService the log levels per service.
+         */
+        private Configuration(LoggingLevel defaultLogLevel, Map<String, LoggingLevel> logLevelPerService) {
+            this.defaultLogLevel = defaultLogLevel;
+            this.logLevelPerService = logLevelPerService;
+        }
+
+        /**
+         * Resolves the log level of a service.
+         * @param serviceName the service name, <code>null</code> if the method name has none.
+         * @return the log level of the service, or the default log level.
+         */
+        private LoggingLevel resolve(String serviceName) {
+            if (serviceName == null) {
+                return this.defaultLogLevel;
+            }
+            return this.logLevelPerService.getOrDefault(serviceName, this.defaultLogLevel);
+        }
+    }
+}
@@ -23,10 +23,7 @@
  */
 package me.julb.commons.net.grpc.server.interceptors;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import io.grpc.ForwardingServerCallListener;
 import io.grpc.Metadata;
@@ -35,6 +32,7 @@ import io.grpc.ServerCallHandler;
 import io.grpc.ServerInterceptor;
 
 import me.julb.commons.enums.LoggingLevel;
+import me.julb.commons.net.grpc.logging.LoggingLevelTable;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -50,14 +48,9 @@ import lombok.extern.slf4j.Slf4j;
 public class LoggingServerInterceptor implements ServerInterceptor {
 
     /**
-     * The default log level.
+     * The log levels.
      */
-    private LoggingLevel defaultLogLevel = LoggingLevel.TRACE;
-
-    /**
-     * The log levels per service.
-     */
-    private Map<String, LoggingLevel> logLevelPerService = new HashMap<>();
+    private final LoggingLevelTable logLevelTable = new LoggingLevelTable();
 
     /**
      * A flag indicating if the metadata content should be logged.
@@ -71,14 +64,17 @@ public class LoggingServerInterceptor implements ServerInterceptor {
     @SuppressWarnings({"java:S119", "java:S1188"})
     public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
             ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
-        final var serviceName = call.getMethodDescriptor().getServiceName();
+        final var logLevel = logLevelTable.getLogLevel(call.getMethodDescriptor());
+        if (!LoggingLevelTable.isEnabled(LOGGER, logLevel)) {
+            return next.startCall(call, headers);
+        }
         final var fullMethodName = call.getMethodDescriptor().getFullMethodName();
-        final var startTime = Instant.now();
+        final var startTime = System.nanoTime();
 
         // Log inbound request
-        logMessage(serviceName, ">>> {}", fullMethodName);
+        logMessage(logLevel, ">>> {}", fullMethodName);
         if (metadataContentLogged) {
-            logMessage(serviceName, "    = Metadata: {}", headers);
+            logMessage(logLevel, "    = Metadata: {}", headers);
         }
 
         // Forward the call to the next
@@ -92,9 +88,8 @@ public class LoggingServerInterceptor implements ServerInterceptor {
                     super.onCancel();
                 } finally {
                     // Log response
-                    final var durationTimeMs =
-                            Duration.between(startTime, Instant.now()).toMillis();
-                    logMessage(serviceName, "<<< {} - CANCELLED - ({} ms)", fullMethodName, durationTimeMs);
+                    final var durationTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                    logMessage(logLevel, "<<< {} - CANCELLED - ({} ms)", fullMethodName, durationTimeMs);
                 }
             }
 
@@ -107,9 +102,8 @@ public class LoggingServerInterceptor implements ServerInterceptor {
                     super.onComplete();
                 } finally {
                     // Log response
-                    final var durationTimeMs =
-                            Duration.between(startTime, Instant.now()).toMillis();
-                    logMessage(serviceName, "<<< {} - COMPLETED - ({} ms)", fullMethodName, durationTimeMs);
+                    final var durationTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                    logMessage(logLevel, "<<< {} - COMPLETED - ({} ms)", fullMethodName, durationTimeMs);
                 }
             }
         };
@@ -120,7 +114,7 @@ public class LoggingServerInterceptor implements ServerInterceptor {
      * @param defaultLogLevel the default logging level.
      */
     public void setDefaultLogLevel(@NonNull LoggingLevel defaultLogLevel) {
-        this.defaultLogLevel = defaultLogLevel;
+        this.logLevelTable.setDefaultLogLevel(defaultLogLevel);
     }
 
     /**
@@ -129,7 +123,7 @@ public class LoggingServerInterceptor implements ServerInterceptor {
      * @param loggingLevel the logging level.
      */
     public void setServiceLogLevel(@NonNull String serviceName, @NonNull LoggingLevel loggingLevel) {
-        this.logLevelPerService.put(serviceName, loggingLevel);
+        this.logLevelTable.setServiceLogLevel(serviceName, loggingLevel);
     }
 
     /**
@@ -143,32 +137,12 @@ public class LoggingServerInterceptor implements ServerInterceptor {
 
     /**
      * Logs the given message in the appropriate level.
-     * @param serviceName the service name.
+     * @param logLevel the log level of the call.
      * @param message the message to log.
      * @param args the optional arguments to add to the message.
      */
     @SuppressWarnings({"java:S923"})
-    void logMessage(@NonNull String serviceName, @NonNull String message, Object... args) {
-        var logLevel = this.logLevelPerService.computeIfAbsent(serviceName, s -> defaultLogLevel);
-        switch (logLevel) {
-            case TRACE:
-                LOGGER.trace(message, args);
-                break;
-            case DEBUG:
-                LOGGER.debug(message, args);
-                break;
-            case INFO:
-                LOGGER.info(message, args);
-                break;
-            case WARN:
-                LOGGER.warn(message, args);
-                break;
-            case ERROR, FATAL:
-                LOGGER.error(message, args);
-                break;
-            case OFF:
-            default:
-                break;
-        }
+    void logMessage(@NonNull LoggingLevel logLevel, @NonNull String message, Object... args) {
+        LoggingLevelTable.log(LOGGER, logLevel, message, args);
     }
 }
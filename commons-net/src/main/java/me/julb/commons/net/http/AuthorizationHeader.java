@@ -0,0 +1,138 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import java.nio.CharBuffer;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * A parsed <code>Authorization</code> header.
+ * <br>
+ * The header keeps the original value and the offset of its credentials: the credentials are only copied or decoded
+ * when asked for.
+ * <br>
+ * @author Julb.
+ */
+public final class AuthorizationHeader {
+
+    /**
+     * The authorization schemes.
+     */
+    public enum Scheme {
+        /**
+         * The basic scheme.
+         */
+        BASIC,
+
+        /**
+         * The bearer scheme.
+         */
+        BEARER;
+    }
+
+    /**
+     * The scheme.
+     */
+    private final Scheme scheme;
+
+    /**
+     * The original header value.
+     */
+    private final String value;
+
+    /**
+     * The offset of the credentials in the header value.
+     */
+    private final int credentialsOffset;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param scheme the scheme.
+     * @param value the original header value.
+     * @param credentialsOffset the offset of the credentials in the header value.
+     */
+    AuthorizationHeader(Scheme scheme, String value, int credentialsOffset) {
+        super();
+        this.scheme = scheme;
+        this.value = value;
+        this.credentialsOffset = credentialsOffset;
+    }
+
+    // ------------------------------------------ Getters.
+
+    /**
+     * Getter for property scheme.
+     * @return Value of property scheme.
+     */
+    public Scheme getScheme() {
+        return this.scheme;
+    }
+
+    /**
+     * Getter for property value.
+     * @return Value of property value.
+     */
+    public String getValue() {
+        return this.value;
+    }
+
+    /**
+     * Getter for property credentialsOffset.
+     * @return Value of property credentialsOffset.
+     */
+    public int getCredentialsOffset() {
+        return this.credentialsOffset;
+    }
+
+    /**
+     * Gets the credentials, i.e. the token of a bearer header or the encoded credentials of a basic header.
+     * @return the credentials.
+     */
+    public String getCredentials() {
+        return this.value.substring(this.credentialsOffset);
+    }
+
+    /**
+     * Gets a read-only view of the credentials, without copying them.
+     * @return the view of the credentials.
+     */
+    public CharSequence getCredentialsView() {
+        return CharBuffer.wrap(this.value, this.credentialsOffset, this.value.length());
+    }
+
+    /**
+     * Decodes the credentials of a basic header.
+     * @return the userName as left value, the password as right value, or <code>null</code> if the header is not a
+     * basic header or if its credentials are invalid.
+     */
+    public Pair<String, String> getBasicCredentials() {
+        if (this.scheme != Scheme.BASIC) {
+            return null;
+        }
+        return AuthorizationHeaderScanner.decodeBasicCredentials(this.value, this.credentialsOffset);
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single-pass scanners of the <code>Authorization</code> header values.
+ * <br>
+ * The scanners accept exactly the values matched by the former regular expressions: the scheme, a single whitespace
+ * and credentials made of the characters of the scheme alphabet only. They return the offset of the credentials in
+ * the header instead of copying them.
+ * <br>
+ * @author Julb.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class AuthorizationHeaderScanner {
+
+    /**
+     * The alphabet of the bearer credentials: <code>[\w.\-=]</code>.
+     */
+    private static final boolean[] BEARER_ALPHABET = alphabet("._-=");
+
+    /**
+     * The alphabet of the basic credentials: <code>[\w+/\-=]</code>.
+     */
+    private static final boolean[] BASIC_ALPHABET = alphabet("_+/-=");
+
+    /**
+     * The value of the Base64 characters, both standard and URL-safe, indexed by character.
+     */
+    private static final byte[] BASE64_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        var alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+        BASE64_VALUES['-'] = 62;
+        BASE64_VALUES['_'] = 63;
+    }
+
+    /**
+     * Scans a bearer authorization header.
+     * @param header the header value.
+     * @return the offset of the token, or -1 if the value is not a bearer authorization.
+     */
+    static int scanBearer(String header) {
+        return scan(header, HttpHeaderUtility.BEARER, BEARER_ALPHABET);
+    }
+
+    /**
+     * Scans a basic authorization header.
+     * @param header the header value.
+     * @return the offset of the encoded credentials, or -1 if the value is not a basic authorization.
+     */
+    static int scanBasic(String header) {
+        return scan(header, HttpHeaderUtility.BASIC, BASIC_ALPHABET);
+    }
+
+    /**
+     * Decodes the credentials of a basic authorization header.
+     * <br>
+     * The Base64 decoding is as lenient as commons-codec: both alphabets are accepted, the decoding stops at the first
+     * padding character and a trailing incomplete byte is dropped. The user name and the password are then built
+     * straight from the decoded bytes.
+     * @param header the header value.
+     * @param offset the offset of the encoded credentials, as returned by {@link #scanBasic(String)}.
+     * @return the user name as left value, the password as right value, or <code>null</code> if the credentials have
+     * no user name or a password spanning several lines.
+     */
+    static Pair<String, String> decodeBasicCredentials(String header, int offset) {
+        // Decode the credentials.
+        var decoded = new byte[(header.length() - offset) * 3 / 4 + 1];
+        var length = 0;
+        var bits = 0;
+        var sextetCount = 0;
+        for (int i = offset; i < header.length(); i++) {
+            var c = header.charAt(i);
+            if (c == '=') {
+                break;
+            }
+            bits = (bits << 6) | BASE64_VALUES[c];
+            if (++sextetCount == 4) {
+                decoded[length++] = (byte) (bits >> 16);
+                decoded[length++] = (byte) (bits >> 8);
+                decoded[length++] = (byte) bits;
+                bits = 0;
+                sextetCount = 0;
+            }
+        }
+        if (sextetCount == 2) {
+            decoded[length++] = (byte) (bits >> 4);
+        } else if (sextetCount == 3) {
+            decoded[length++] = (byte) (bits >> 10);
+            decoded[length++] = (byte) (bits >> 2);
+        }
+
+        // Split on the first colon, which is never part of a multi-byte UTF-8 sequence.
+        var colon = -1;
+        for (int i = 0; i < length; i++) {
+            if (decoded[i] == ':') {
+                colon = i;
+                break;
+            }
+        }
+        if (colon <= 0) {
+            return null;
+        }
+
+        var password = new String(decoded, colon + 1, length - colon - 1, StandardCharsets.UTF_8);
+        if (containsLineTerminator(password)) {
+            return null;
+        }
+        return new ImmutablePair<>(new String(decoded, 0, colon, StandardCharsets.UTF_8), password);
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Scans an authorization header.
+     * @param header the header value.
+     * @param scheme the expected scheme.
+     * @param credentialsAlphabet the alphabet of the credentials.
+     * @return the offset of the credentials, or -1 if the value does not match.
+     */
+    private static int scan(String header, String scheme, boolean[] credentialsAlphabet) {
+        var offset = scheme.length() + 1;
+        if (header.length() <= offset
+                || !header.startsWith(scheme)
+                || !isWhitespace(header.charAt(scheme.length()))) {
+            return -1;
+        }
+        for (int i = offset; i < header.length(); i++) {
+            var c = header.charAt(i);
+            if (c >= credentialsAlphabet.length || !credentialsAlphabet[c]) {
+                return -1;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Checks if a character is a whitespace as matched by <code>\s</code>.
+     * @param c the character.
+     * @return <code>true</code> if the character is a whitespace, <code>false</code> otherwise.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Checks if a string contains a line terminator, i.e. a character not matched by <code>.</code>.
+     * @param s the string.
+     * @return <code>true</code> if the string contains a line terminator, <code>false</code> otherwise.
+     */
+    private static boolean containsLineTerminator(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            var c = s.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds an alphabet made of the word characters and the given extra characters.
+     * @param extraCharacters the extra characters.
+     * @return the alphabet, indexed by character.
+     */
+    private static boolean[] alphabet(String extraCharacters) {
+        var alphabet = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++) {
+            alphabet[c] = true;
+            alphabet[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            alphabet[c] = true;
+        }
+        for (int i = 0; i < extraCharacters.length(); i++) {
+            alphabet[extraCharacters.charAt(i)] = true;
+        }
+        return alphabet;
+    }
+}
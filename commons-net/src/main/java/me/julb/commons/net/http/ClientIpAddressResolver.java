@@ -0,0 +1,191 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import javax.servlet.http.HttpServletRequest;
+
+import me.julb.commons.constants.CustomHttpHeaders;
+
+import lombok.NonNull;
+
+/**
+ * Resolves the client IP address behind trusted proxies.
+ * <br>
+ * The peer address and the <code>X-Forwarded-For</code> hops are walked from right to left: the hops that belong to
+ * the trusted networks are skipped and the first other one is the client. A hop that is not an IP address literal is
+ * never trusted. If every hop is trusted, the leftmost one is returned. The walk does not allocate: the only
+ * allocation is the returned address when it is a substring of the header.
+ * <br>
+ * @author Julb.
+ */
+public final class ClientIpAddressResolver {
+
+    /**
+     * The trusted proxies.
+     */
+    private final TrustedNetworks trustedProxies;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param trustedProxies the trusted proxies.
+     */
+    public ClientIpAddressResolver(@NonNull TrustedNetworks trustedProxies) {
+        super();
+        this.trustedProxies = trustedProxies;
+    }
+
+    // ------------------------------------------ Read methods.
+
+    /**
+     * Resolves the client IP address of a request.
+     * @param httpServletRequest the request.
+     * @return the client IP address.
+     */
+    public String resolve(@NonNull HttpServletRequest httpServletRequest) {
+        var forwardedFor = httpServletRequest.getHeader(CustomHttpHeaders.X_FORWARDED_FOR);
+        return resolve(forwardedFor, httpServletRequest.getRemoteAddr());
+    }
+
+    /**
+     * Resolves the client IP address.
+     * @param forwardedFor the <code>X-Forwarded-For</code> header, <code>null</code> if absent.
+     * @param remoteAddress the address of the peer, <code>null</code> if unknown.
+     * @return the client IP address, <code>null</code> if neither the header nor the peer address is available.
+     */
+    public String resolve(String forwardedFor, String remoteAddress) {
+        if (remoteAddress != null && !this.trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        if (forwardedFor == null) {
+            return remoteAddress;
+        }
+
+        var leftmostStart = -1;
+        var leftmostEnd = -1;
+        var end = forwardedFor.length();
+        while (end >= 0) {
+            var comma = forwardedFor.lastIndexOf(',', end - 1);
+
+            // Trim the hop.
+            var start = comma + 1;
+            while (start < end && isWhitespace(forwardedFor.charAt(start))) {
+                start++;
+            }
+            var hopEnd = end;
+            while (hopEnd > start && isWhitespace(forwardedFor.charAt(hopEnd - 1))) {
+                hopEnd--;
+            }
+
+            if (start < hopEnd) {
+                var addressStart = addressStart(forwardedFor, start, hopEnd);
+                var addressEnd = addressEnd(forwardedFor, start, hopEnd);
+                if (!this.trustedProxies.contains(forwardedFor, addressStart, addressEnd)) {
+                    return forwardedFor.substring(addressStart, addressEnd);
+                }
+                leftmostStart = addressStart;
+                leftmostEnd = addressEnd;
+            }
+            end = comma;
+        }
+
+        if (leftmostStart < 0) {
+            return remoteAddress;
+        }
+        return forwardedFor.substring(leftmostStart, leftmostEnd);
+    }
+
+    /**
+     * Getter for property trustedProxies.
+     * @return Value of property trustedProxies.
+     */
+    public TrustedNetworks getTrustedProxies() {
+        return this.trustedProxies;
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Gets the start of the address in a hop, skipping the bracket of <code>[ipv6]:port</code>.
+     * @param s the header.
+     * @param start the start of the hop, inclusive.
+     * @param end the end of the hop, exclusive.
+     * @return the start of the address.
+     */
+    private static int addressStart(String s, int start, int end) {
+        if (s.charAt(start) == '[' && bracketEnd(s, start, end) > 0) {
+            return start + 1;
+        }
+        return start;
+    }
+
+    /**
+     * Gets the end of the address in a hop, dropping the port of <code>ipv4:port</code> and <code>[ipv6]:port</code>.
+     * @param s the header.
+     * @param start the start of the hop, inclusive.
+     * @param end the end of the hop, exclusive.
+     * @return the end of the address.
+     */
+    private static int addressEnd(String s, int start, int end) {
+        if (s.charAt(start) == '[') {
+            var bracketEnd = bracketEnd(s, start, end);
+            return bracketEnd > 0 ? bracketEnd : end;
+        }
+        var colon = -1;
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == ':') {
+                if (colon >= 0) {
+                    return end;
+                }
+                colon = i;
+            }
+        }
+        return colon >= 0 ? colon : end;
+    }
+
+    /**
+     * Gets the index of the closing bracket of <code>[ipv6]</code> or <code>[ipv6]:port</code>.
+     * @param s the header.
+     * @param start the start of the hop, inclusive.
+     * @param end the end of the hop, exclusive.
+     * @return the index of the closing bracket, -1 if the hop is not in one of these forms.
+     */
+    private static int bracketEnd(String s, int start, int end) {
+        var bracket = s.indexOf(']', start);
+        if (bracket < 0 || bracket >= end || (bracket + 1 < end && s.charAt(bracket + 1) != ':')) {
+            return -1;
+        }
+        return bracket;
+    }
+
+    /**
+     * Checks if a character is a whitespace around a hop.
+     * @param c the character.
+     * @return <code>true</code> if the character is a whitespace, <code>false</code> otherwise.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
@@ -24,11 +24,9 @@
 package me.julb.commons.net.http;
 
 import java.nio.charset.StandardCharsets;
-import java.util.regex.Pattern;
 
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import me.julb.commons.constants.Chars;
@@ -36,11 +34,12 @@ import me.julb.commons.constants.Strings;
 import me.julb.commons.dto.http.client.BrowserDTO;
 import me.julb.commons.dto.http.client.DeviceDTO;
 import me.julb.commons.dto.http.client.OperatingSystemDTO;
+import me.julb.commons.dto.http.client.UserAgentDTO;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
-import ua_parser.Parser;
+import ua_parser.Client;
 
 /**
  * A generic configuration class for a SSL client.
@@ -55,42 +54,11 @@ public final class HttpHeaderUtility {
      */
     public static final String BASIC = "Basic";
 
-    /**
-     * The pattern matcher to extract basic token value.
-     */
-    private static final Pattern BASIC_TOKEN_PATTERN_MATCHER = Pattern.compile("^Basic\\s(?<token>[\\w+\\/\\-=]+)$");
-
-    /**
-     * The pattern matcher to extract basic username and password value.
-     */
-    private static final Pattern BASIC_USERNAME_PASSWORD_PATTERN_MATCHER =
-            Pattern.compile("^(?<userName>[^:]+):(?<password>.*)$");
-
     /**
      * The 'bearer' value.
      */
     public static final String BEARER = "Bearer";
 
-    /**
-     * The pattern matcher to extract bearer token value.
-     */
-    private static final Pattern BEARER_TOKEN_PATTERN_MATCHER = Pattern.compile("^Bearer\\s(?<token>[\\w.\\-=]+)$");
-
-    /**
-     * The 'token' capturing group name.
-     */
-    private static final String TOKEN_CAPTURING_GROUP_NAME = "token";
-
-    /**
-     * The 'userName' capturing group name.
-     */
-    private static final String USERNAME_CAPTURING_GROUP_NAME = "userName";
-
-    /**
-     * The 'password' capturing group name.
-     */
-    private static final String PASSWORD_CAPTURING_GROUP_NAME = "password";
-
     /**
      * Builds a bearer token.
      * @param token the token.
@@ -100,7 +68,7 @@ public final class HttpHeaderUtility {
         if (StringUtils.isBlank(token)) {
             return null;
         }
-        return StringUtils.joinWith(Strings.SPACE, BEARER, token);
+        return BEARER + Strings.SPACE + token;
     }
 
     /**
@@ -109,7 +77,7 @@ public final class HttpHeaderUtility {
      * @return the token value.
      */
     public static boolean isBearerToken(@NonNull String bearerToken) {
-        return fromBearerToken(bearerToken) != null;
+        return AuthorizationHeaderScanner.scanBearer(bearerToken) >= 0;
     }
 
     /**
@@ -121,12 +89,11 @@ public final class HttpHeaderUtility {
         if (StringUtils.isBlank(bearerToken)) {
             return null;
         }
-        var matcher = BEARER_TOKEN_PATTERN_MATCHER.matcher(bearerToken);
-        if (matcher.matches()) {
-            return matcher.group(TOKEN_CAPTURING_GROUP_NAME);
-        } else {
+        var offset = AuthorizationHeaderScanner.scanBearer(bearerToken);
+        if (offset < 0) {
             return null;
         }
+        return bearerToken.substring(offset);
     }
 
     /**
@@ -140,8 +107,8 @@ public final class HttpHeaderUtility {
             return null;
         }
         var token = Base64.encodeBase64URLSafeString(
-                StringUtils.joinWith(Strings.SEMICOLON, userName, password).getBytes(StandardCharsets.UTF_8));
-        return StringUtils.joinWith(Strings.SPACE, BASIC, token);
+                (userName + Strings.SEMICOLON + password).getBytes(StandardCharsets.UTF_8));
+        return BASIC + Strings.SPACE + token;
     }
 
     /**
@@ -153,21 +120,33 @@ public final class HttpHeaderUtility {
         if (StringUtils.isBlank(basicToken)) {
             return null;
         }
-        var matcher = BASIC_TOKEN_PATTERN_MATCHER.matcher(basicToken);
-        if (matcher.matches()) {
-            var token = matcher.group(TOKEN_CAPTURING_GROUP_NAME);
-            var userNameWithPassword = new String(Base64.decodeBase64(token), StandardCharsets.UTF_8);
-            var userNamePasswordMatcher = BASIC_USERNAME_PASSWORD_PATTERN_MATCHER.matcher(userNameWithPassword);
-            if (userNamePasswordMatcher.matches()) {
-                return new ImmutablePair<>(
-                        userNamePasswordMatcher.group(USERNAME_CAPTURING_GROUP_NAME),
-                        userNamePasswordMatcher.group(PASSWORD_CAPTURING_GROUP_NAME));
-            } else {
-                return null;
-            }
-        } else {
+        var offset = AuthorizationHeaderScanner.scanBasic(basicToken);
+        if (offset < 0) {
             return null;
         }
+        return AuthorizationHeaderScanner.decodeBasicCredentials(basicToken, offset);
+    }
+
+    /**
+     * Parses an authorization header, detecting its scheme once.
+     * <br>
+     * The returned header refers to the given value: the credentials are neither copied nor decoded until asked for.
+     * @param authorization the authorization header value.
+     * @return the parsed header, or <code>null</code> if the value is neither a valid basic nor bearer authorization.
+     */
+    public static AuthorizationHeader parseAuthorization(@NonNull String authorization) {
+        if (authorization.startsWith(BEARER)) {
+            var offset = AuthorizationHeaderScanner.scanBearer(authorization);
+            if (offset >= 0) {
+                return new AuthorizationHeader(AuthorizationHeader.Scheme.BEARER, authorization, offset);
+            }
+        } else if (authorization.startsWith(BASIC)) {
+            var offset = AuthorizationHeaderScanner.scanBasic(authorization);
+            if (offset >= 0) {
+                return new AuthorizationHeader(AuthorizationHeader.Scheme.BASIC, authorization, offset);
+            }
+        }
+        return null;
     }
 
     /**
@@ -180,14 +159,7 @@ public final class HttpHeaderUtility {
             return null;
         }
 
-        var uaParser = new Parser();
-        var client = uaParser.parse(userAgent);
-        return new BrowserDTO(
-                client.userAgent.family,
-                client.userAgent.major,
-                StringUtils.join(
-                        new String[] {client.userAgent.major, client.userAgent.minor, client.userAgent.patch},
-                        Chars.DOT));
+        return toBrowser(UserAgentParser.parse(userAgent));
     }
 
     /**
@@ -200,14 +172,7 @@ public final class HttpHeaderUtility {
             return null;
         }
 
-        var uaParser = new Parser();
-        var client = uaParser.parse(userAgent);
-        return new OperatingSystemDTO(
-                client.os.family,
-                client.os.major,
-                StringUtils.join(
-                        new String[] {client.os.major, client.os.minor, client.os.patch, client.os.patchMinor},
-                        Chars.DOT));
+        return toOperatingSystem(UserAgentParser.parse(userAgent));
     }
 
     /**
@@ -220,8 +185,65 @@ public final class HttpHeaderUtility {
             return null;
         }
 
-        var uaParser = new Parser();
-        var client = uaParser.parse(userAgent);
+        return toDevice(UserAgentParser.parse(userAgent));
+    }
+
+    /**
+     * Gets the browser, the operating system and the device, parsing the user agent once.
+     * @param userAgent the user agent.
+     * @return the browser, the operating system and the device.
+     */
+    public static UserAgentDTO getUserAgentDetails(@NonNull String userAgent) {
+        if (StringUtils.isBlank(userAgent)) {
+            return null;
+        }
+
+        return toUserAgent(UserAgentParser.parse(userAgent));
+    }
+
+    /**
+     * Builds the browser, the operating system and the device of a parsed user agent.
+     * @param client the parsed user agent.
+     * @return the browser, the operating system and the device.
+     */
+    static UserAgentDTO toUserAgent(Client client) {
+        return new UserAgentDTO(toBrowser(client), toOperatingSystem(client), toDevice(client));
+    }
+
+    /**
+     * Builds the browser of a parsed user agent.
+     * @param client the parsed user agent.
+     * @return the browser.
+     */
+    private static BrowserDTO toBrowser(Client client) {
+        return new BrowserDTO(
+                client.userAgent.family,
+                client.userAgent.major,
+                StringUtils.join(
+                        new String[] {client.userAgent.major, client.userAgent.minor, client.userAgent.patch},
+                        Chars.DOT));
+    }
+
+    /**
+     * Builds the operating system of a parsed user agent.
+     * @param client the parsed user agent.
+     * @return the operating system.
+     */
+    private static OperatingSystemDTO toOperatingSystem(Client client) {
+        return new OperatingSystemDTO(
+                client.os.family,
+                client.os.major,
+                StringUtils.join(
+                        new String[] {client.os.major, client.os.minor, client.os.patch, client.os.patchMinor},
+                        Chars.DOT));
+    }
+
+    /**
+     * Builds the device of a parsed user agent.
+     * @param client the parsed user agent.
+     * @return the device.
+     */
+    private static DeviceDTO toDevice(Client client) {
         return new DeviceDTO(client.device.family);
     }
 }
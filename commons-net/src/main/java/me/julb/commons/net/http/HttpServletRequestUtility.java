@@ -29,6 +29,7 @@ import me.julb.commons.constants.CustomHttpHeaders;
 import me.julb.commons.dto.http.client.BrowserDTO;
 import me.julb.commons.dto.http.client.DeviceDTO;
 import me.julb.commons.dto.http.client.OperatingSystemDTO;
+import me.julb.commons.dto.http.client.UserAgentDTO;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -57,6 +58,18 @@ public class HttpServletRequestUtility {
         return ip;
     }
 
+    /**
+     * Gets the user IP address, walking the <code>X-Forwarded-For</code> header through the trusted proxies only.
+     * @param httpServletRequest the request.
+     * @param clientIpAddressResolver the resolver holding the trusted proxies.
+     * @return the IP address if available.
+     * @see ClientIpAddressResolver
+     */
+    public static String getUserIpAddress(
+            @NonNull HttpServletRequest httpServletRequest, @NonNull ClientIpAddressResolver clientIpAddressResolver) {
+        return clientIpAddressResolver.resolve(httpServletRequest);
+    }
+
     /**
      * Gets the user agent.
      * @param httpServletRequest the request.
@@ -95,4 +108,14 @@ public class HttpServletRequestUtility {
         var userAgent = getUserAgent(httpServletRequest);
         return HttpHeaderUtility.getDevice(userAgent);
     }
+
+    /**
+     * Gets the browser, the operating system and the device, parsing the user agent once.
+     * @param httpServletRequest the request.
+     * @return the browser, the operating system and the device.
+     */
+    public static UserAgentDTO getUserAgentDetails(@NonNull HttpServletRequest httpServletRequest) {
+        var userAgent = getUserAgent(httpServletRequest);
+        return HttpHeaderUtility.getUserAgentDetails(userAgent);
+    }
 }
@@ -0,0 +1,226 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Parses IP address literals into primitives, without allocating.
+ * <br>
+ * IPv4 addresses are returned as an unsigned 32-bit value, IPv6 addresses as their high and low 64 bits. Host names,
+ * zone identifiers and IPv4 octets with leading zeros are rejected.
+ * <br>
+ * @author Julb.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class IpAddressParser {
+
+    /**
+     * The number of 16-bit groups in an IPv6 address.
+     */
+    private static final int IPV6_GROUP_COUNT = 8;
+
+    /**
+     * A predicate on an IPv6 address.
+     */
+    @FunctionalInterface
+    interface IPv6AddressPredicate {
+
+        /**
+         * Tests an IPv6 address.
+         * @param high the high 64 bits of the address.
+         * @param low the low 64 bits of the address.
+         * @return the result of the test.
+         */
+        boolean test(long high, long low);
+    }
+
+    /**
+     * Parses an IPv4 address.
+     * @param s the characters.
+     * @param start the start index of the address, inclusive.
+     * @param end the end index of the address, exclusive.
+     * @return the address as an unsigned 32-bit value, or -1 if the characters are not an IPv4 address.
+     */
+    static long parseIPv4(CharSequence s, int start, int end) {
+        if (end - start < 7 || end - start > 15) {
+            return -1;
+        }
+        long address = 0;
+        var octet = 0;
+        var digits = 0;
+        var dots = 0;
+        for (int i = start; i < end; i++) {
+            var c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits == 1 && octet == 0) {
+                    return -1;
+                }
+                octet = octet * 10 + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+                digits++;
+            } else if (c == '.' && digits > 0 && dots < 3) {
+                address = (address << 8) | octet;
+                octet = 0;
+                digits = 0;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || digits == 0) {
+            return -1;
+        }
+        return (address << 8) | octet;
+    }
+
+    /**
+     * Parses an IPv6 address, including the compressed and IPv4-embedded forms, and tests it.
+     * @param s the characters.
+     * @param start the start index of the address, inclusive.
+     * @param end the end index of the address, exclusive.
+     * @param predicate the predicate to test the parsed address with.
+     * @return the result of the predicate, or <code>false</code> if the characters are not an IPv6 address.
+     */
+    static boolean parseIPv6(CharSequence s, int start, int end, IPv6AddressPredicate predicate) {
+        if (end - start < 2 || end - start > 45) {
+            return false;
+        }
+
+        // The groups before and after the "::" are accumulated separately.
+        long headHigh = 0;
+        long headLow = 0;
+        var headCount = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        var tailCount = 0;
+        var compressed = false;
+
+        var i = start;
+        if (s.charAt(i) == ':') {
+            if (s.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            // Parse a group.
+            var groupStart = i;
+            var group = 0;
+            while (i < end && hexValue(s.charAt(i)) >= 0) {
+                group = (group << 4) | hexValue(s.charAt(i));
+                i++;
+            }
+
+            if (i < end && s.charAt(i) == '.') {
+                // Trailing embedded IPv4 address, i.e. two groups.
+                var ipv4 = parseIPv4(s, groupStart, end);
+                if (ipv4 < 0 || headCount + tailCount > IPV6_GROUP_COUNT - 2) {
+                    return false;
+                }
+                if (compressed) {
+                    tailHigh = (tailHigh << 32) | (tailLow >>> 32);
+                    tailLow = (tailLow << 32) | ipv4;
+                    tailCount += 2;
+                } else {
+                    headHigh = (headHigh << 32) | (headLow >>> 32);
+                    headLow = (headLow << 32) | ipv4;
+                    headCount += 2;
+                }
+                break;
+            }
+
+            if (i == groupStart || i - groupStart > 4 || headCount + tailCount == IPV6_GROUP_COUNT) {
+                return false;
+            }
+            if (compressed) {
+                tailHigh = (tailHigh << 16) | (tailLow >>> 48);
+                tailLow = (tailLow << 16) | group;
+                tailCount++;
+            } else {
+                headHigh = (headHigh << 16) | (headLow >>> 48);
+                headLow = (headLow << 16) | group;
+                headCount++;
+            }
+
+            // Parse the separator.
+            if (i == end) {
+                break;
+            }
+            if (s.charAt(i) != ':' || ++i == end) {
+                return false;
+            }
+            if (s.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+
+        if (!compressed) {
+            return headCount == IPV6_GROUP_COUNT && predicate.test(headHigh, headLow);
+        }
+        if (headCount + tailCount >= IPV6_GROUP_COUNT) {
+            return false;
+        }
+
+        // Move the head groups to the top of the address.
+        var shift = 16 * (IPV6_GROUP_COUNT - headCount);
+        if (shift >= 128) {
+            headHigh = 0;
+            headLow = 0;
+        } else if (shift >= 64) {
+            headHigh = headLow << (shift - 64);
+            headLow = 0;
+        } else {
+            headHigh = (headHigh << shift) | (headLow >>> (64 - shift));
+            headLow = headLow << shift;
+        }
+        return predicate.test(headHigh | tailHigh, headLow | tailLow);
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Gets the value of an hexadecimal digit.
+     * @param c the character.
+     * @return the value of the digit, or -1 if the character is not an hexadecimal digit.
+     */
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import java.util.Arrays;
+
+import lombok.NonNull;
+
+/**
+ * A compiled set of IPv4 and IPv6 networks, e.g. the trusted proxies.
+ * <br>
+ * The networks are stored in binary prefix tries flattened into arrays: a lookup walks at most one node per bit of the
+ * address and does not allocate. IPv4-mapped IPv6 addresses (<code>::ffff:a.b.c.d</code>) match the IPv4 networks.
+ * <br>
+ * @author Julb.
+ */
+public final class TrustedNetworks {
+
+    /**
+     * The IPv4 networks.
+     */
+    private final PrefixTrie ipv4Networks;
+
+    /**
+     * The IPv6 networks.
+     */
+    private final PrefixTrie ipv6Networks;
+
+    /**
+     * The predicate matching parsed IPv6 addresses.
+     */
+    private final IpAddressParser.IPv6AddressPredicate ipv6Matcher = this::containsIPv6;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param ipv4Networks the IPv4 networks.
+     * @param ipv6Networks the IPv6 networks.
+     */
+    private TrustedNetworks(PrefixTrie ipv4Networks, PrefixTrie ipv6Networks) {
+        super();
+        this.ipv4Networks = ipv4Networks;
+        this.ipv6Networks = ipv6Networks;
+    }
+
+    // ------------------------------------------ Read methods.
+
+    /**
+     * Checks if an IPv4 address belongs to one of the networks.
+     * @param address the address.
+     * @return <code>true</code> if the address belongs to one of the networks, <code>false</code> otherwise.
+     */
+    public boolean containsIPv4(int address) {
+        return this.ipv4Networks.contains(((long) address) << 32, 0L, 32);
+    }
+
+    /**
+     * Checks if an IPv6 address belongs to one of the networks.
+     * @param high the high 64 bits of the address.
+     * @param low the low 64 bits of the address.
+     * @return <code>true</code> if the address belongs to one of the networks, <code>false</code> otherwise.
+     */
+    public boolean containsIPv6(long high, long low) {
+        if (high == 0L && (low >>> 32) == 0xFFFFL) {
+            return containsIPv4((int) low);
+        }
+        return this.ipv6Networks.contains(high, low, 128);
+    }
+
+    /**
+     * Checks if an IP address literal belongs to one of the networks.
+     * @param address the address.
+     * @return <code>true</code> if the address belongs to one of the networks, <code>false</code> otherwise or if the
+     * value is not an IP address literal.
+     */
+    public boolean contains(@NonNull CharSequence address) {
+        return contains(address, 0, address.length());
+    }
+
+    /**
+     * Checks if an IP address literal belongs to one of the networks.
+     * @param s the characters.
+     * @param start the start index of the address, inclusive.
+     * @param end the end index of the address, exclusive.
+     * @return <code>true</code> if the address belongs to one of the networks, <code>false</code> otherwise or if the
+     * value is not an IP address literal.
+     */
+    public boolean contains(@NonNull CharSequence s, int start, int end) {
+        var ipv4 = IpAddressParser.parseIPv4(s, start, end);
+        if (ipv4 >= 0) {
+            return containsIPv4((int) ipv4);
+        }
+        return IpAddressParser.parseIPv6(s, start, end, this.ipv6Matcher);
+    }
+
+    // ------------------------------------------ Inner classes.
+
+    /**
+     * A binary prefix trie flattened into arrays.
+     * <br>
+     * @author Julb.
+     */
+    private static final class PrefixTrie {
+
+        /**
+         * The initial number of nodes.
+         */
+        private static final int INITIAL_CAPACITY = 64;
+
+        /**
+         * The children of the nodes: <code>2 * node</code> for a 0 bit, <code>2 * node + 1</code> for a 1 bit. The root
+         * is never a child so 0 means no child.
+         */
+        private int[] children = new int[2 * INITIAL_CAPACITY];
+
+        /**
+         * Whether a network ends at the node.
+         */
+        private boolean[] terminal = new boolean[INITIAL_CAPACITY];
+
+        /**
+         * The number of nodes, the root included.
+         */
+        private int size = 1;
+
+        /**
+         * Adds a network.
+         * @param high the high 64 bits of the network address.
+         * @param low the low 64 bits of the network address.
+         * @param prefixLength the prefix length.
+         */
+        void add(long high, long low, int prefixLength) {
+            var node = 0;
+            for (int depth = 0; depth < prefixLength; depth++) {
+                if (this.terminal[node]) {
+                    return;
+                }
+                var index = 2 * node + bit(high, low, depth);
+                if (this.children[index] == 0) {
+                    if (this.size == this.terminal.length) {
+                        this.terminal = Arrays.copyOf(this.terminal, 2 * this.size);
+                        this.children = Arrays.copyOf(this.children, 4 * this.size);
+                    }
+                    this.children[index] = this.size++;
+                }
+                node = this.children[index];
+            }
+            this.terminal[node] = true;
+        }
+
+        /**
+         * Checks if an address belongs to one of the networks.
+         * @param high the high 64 bits of the address.
+         * @param low the low 64 bits of the address.
+         * @param length the number of bits of the address.
+         * @return <code>true</code> if the address belongs to one of the networks, <code>false</code> otherwise.
+         */
+        boolean contains(long high, long low, int length) {
+            var node = 0;
+            for (int depth = 0; depth < length; depth++) {
+                if (this.terminal[node]) {
+                    return true;
+                }
+                node = this.children[2 * node + bit(high, low, depth)];
+                if (node == 0) {
+                    return false;
+                }
+            }
+            return this.terminal[node];
+        }
+
+        /**
+         * Gets a bit of a 128-bit value, from the most significant one.
+         * @param high the high 64 bits.
+         * @param low the low 64 bits.
+         * @param index the index of the bit.
+         * @return the bit.
+         */
+        private static int bit(long high, long low, int index) {
+            if (index < 64) {
+                return (int) (high >>> (63 - index)) & 1;
+            }
+            return (int) (low >>> (127 - index)) & 1;
+        }
+    }
+
+    /**
+     * The builder of {@link TrustedNetworks}.
+     * <br>
+     * @author Julb.
+     */
+    public static class Builder {
+
+        /**
+         * The IPv4 networks.
+         */
+        private final PrefixTrie ipv4Networks = new PrefixTrie();
+
+        /**
+         * The IPv6 networks.
+         */
+        private final PrefixTrie ipv6Networks = new PrefixTrie();
+
+        /**
+         * Adds a network in CIDR notation, e.g. <code>10.0.0.0/8</code> or <code>fd00::/8</code>. A single address
+         * is a network of its own. The host bits of the network address are ignored.
+         * @param cidr the network.
+         * @return this builder.
+         * @throws IllegalArgumentException if the value is not a network in CIDR notation.
+         */
+        public Builder add(@NonNull String cidr) {
+            var slash = cidr.indexOf('/');
+            var addressEnd = slash < 0 ? cidr.length() : slash;
+
+            var ipv4 = IpAddressParser.parseIPv4(cidr, 0, addressEnd);
+            if (ipv4 >= 0) {
+                this.ipv4Networks.add(ipv4 << 32, 0L, prefixLength(cidr, slash, 32));
+                return this;
+            }
+
+            var prefixLength = prefixLength(cidr, slash, 128);
+            var ipv6 = IpAddressParser.parseIPv6(cidr, 0, addressEnd, (high, low) -> {
+                this.ipv6Networks.add(high, low, prefixLength);
+                return true;
+            });
+            if (!ipv6) {
+                throw new IllegalArgumentException("Invalid network: " + cidr);
+            }
+            return this;
+        }
+
+        /**
+         * Adds networks in CIDR notation.
+         * @param cidrs the networks.
+         * @return this builder.
+         * @throws IllegalArgumentException if a value is not a network in CIDR notation.
+         * @see #add(String)
+         */
+        public Builder addAll(@NonNull Iterable<String> cidrs) {
+            for (String cidr : cidrs) {
+                add(cidr);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the networks.
+         * @return the networks.
+         */
+        public TrustedNetworks build() {
+            return new TrustedNetworks(copyOf(this.ipv4Networks), copyOf(this.ipv6Networks));
+        }
+
+        /**
+         * Parses the prefix length of a network.
+         * @param cidr the network.
+         * @param slash the index of the slash, -1 if none.
+         * @param maximum the number of bits of the address.
+         * @return the prefix length.
+         */
+        private static int prefixLength(String cidr, int slash, int maximum) {
+            if (slash < 0) {
+                return maximum;
+            }
+            try {
+                var prefixLength = Integer.parseInt(cidr.substring(slash + 1));
+                if (prefixLength < 0 || prefixLength > maximum) {
+                    throw new IllegalArgumentException("Invalid prefix length: " + cidr);
+                }
+                return prefixLength;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid prefix length: " + cidr, e);
+            }
+        }
+
+        /**
+         * Copies a trie, so that the built networks are not altered by further additions.
+         * @param trie the trie.
+         * @return the compacted copy.
+         */
+        private static PrefixTrie copyOf(PrefixTrie trie) {
+            var copy = new PrefixTrie();
+            copy.children = Arrays.copyOf(trie.children, 2 * trie.size);
+            copy.terminal = Arrays.copyOf(trie.terminal, trie.size);
+            copy.size = trie.size;
+            return copy;
+        }
+    }
+}
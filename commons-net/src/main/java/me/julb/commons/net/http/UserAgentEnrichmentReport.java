@@ -0,0 +1,142 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+/**
+ * The report of a batch enrichment by {@link UserAgentEnrichmentUtility}.
+ * <br>
+ * @author Julb.
+ */
+public final class UserAgentEnrichmentReport {
+
+    /**
+     * The number of items of the batch.
+     */
+    private final int itemCount;
+
+    /**
+     * The number of items having a user agent.
+     */
+    private final int userAgentCount;
+
+    /**
+     * The number of distinct user agents.
+     */
+    private final int distinctUserAgentCount;
+
+    /**
+     * The number of distinct user agents found in the parse cache.
+     */
+    private final int cacheHitCount;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param itemCount the number of items of the batch.
+     * @param userAgentCount the number of items having a user agent.
+     * @param distinctUserAgentCount the number of distinct user agents.
+     * @param cacheHitCount the number of distinct user agents found in the parse cache.
+     */
+    UserAgentEnrichmentReport(int itemCount, int userAgentCount, int distinctUserAgentCount, int cacheHitCount) {
+        super();
+        this.itemCount = itemCount;
+        this.userAgentCount = userAgentCount;
+        this.distinctUserAgentCount = distinctUserAgentCount;
+        this.cacheHitCount = cacheHitCount;
+    }
+
+    // ------------------------------------------ Getters.
+
+    /**
+     * Getter for property itemCount.
+     * @return Value of property itemCount.
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Getter for property userAgentCount.
+     * @return Value of property userAgentCount, the number of items having a user agent.
+     */
+    public int getUserAgentCount() {
+        return userAgentCount;
+    }
+
+    /**
+     * Getter for property distinctUserAgentCount.
+     * @return Value of property distinctUserAgentCount.
+     */
+    public int getDistinctUserAgentCount() {
+        return distinctUserAgentCount;
+    }
+
+    /**
+     * Getter for property cacheHitCount.
+     * @return Value of property cacheHitCount, the number of distinct user agents found in the parse cache.
+     */
+    public int getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    /**
+     * Gets the number of distinct user agents actually parsed.
+     * @return the number of distinct user agents not found in the parse cache.
+     */
+    public int getCacheMissCount() {
+        return distinctUserAgentCount - cacheHitCount;
+    }
+
+    /**
+     * Gets the de-duplication ratio, i.e. the share of the user agents which did not need a lookup of their own.
+     * @return the ratio, between 0 and 1, 0 if the batch has no user agent.
+     */
+    public double getDeduplicationRatio() {
+        return userAgentCount == 0 ? 0 : 1 - (double) distinctUserAgentCount / userAgentCount;
+    }
+
+    /**
+     * Gets the hit rate of the parse cache among the distinct user agents.
+     * @return the rate, between 0 and 1, 0 if the batch has no user agent.
+     */
+    public double getCacheHitRate() {
+        return distinctUserAgentCount == 0 ? 0 : (double) cacheHitCount / distinctUserAgentCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "items=%d, userAgents=%d, distinct=%d, cacheHits=%d, deduplicationRatio=%.3f, cacheHitRate=%.3f",
+                itemCount,
+                userAgentCount,
+                distinctUserAgentCount,
+                cacheHitCount,
+                getDeduplicationRatio(),
+                getCacheHitRate());
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.StringUtils;
+
+import me.julb.commons.dto.http.analytics.AbstractWebAnalyticsEventDTO;
+import me.julb.commons.dto.http.client.BrowserDTO;
+import me.julb.commons.dto.http.client.DeviceDTO;
+import me.julb.commons.dto.http.client.OperatingSystemDTO;
+import me.julb.commons.dto.http.client.UserAgentDTO;
+import me.julb.commons.dto.messaging.events.WebAnalyticsAsyncMessageDTO;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import ua_parser.Client;
+
+/**
+ * The utility to enrich batches of items with the browser, the operating system and the device of their user agent.
+ * <br>
+ * The user agents of a batch are de-duplicated first. The distinct ones are then looked up in the parse cache of
+ * {@link HttpHeaderUtility}, and the missing ones are parsed, in parallel if requested. The results are finally fanned
+ * out to the items, each item receiving its own DTOs. The items without user agent are left untouched.
+ * <br>
+ * @author Julb.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class UserAgentEnrichmentUtility {
+
+    /**
+     * Enriches web analytics events with the details of their user agent, in parallel.
+     * @param events the events.
+     * @return the report of the enrichment.
+     */
+    public static UserAgentEnrichmentReport enrichWebAnalyticsEvents(
+            @NonNull Collection<? extends AbstractWebAnalyticsEventDTO> events) {
+        return enrich(
+                events,
+                AbstractWebAnalyticsEventDTO::getUserAgent,
+                AbstractWebAnalyticsEventDTO::setUserAgentDetails,
+                true);
+    }
+
+    /**
+     * Enriches the web analytics events carried by messages with the details of their user agent, in parallel.
+     * @param <E> the type of the events.
+     * @param messages the messages.
+     * @return the report of the enrichment, the items being the events of the messages.
+     */
+    public static <E extends AbstractWebAnalyticsEventDTO> UserAgentEnrichmentReport enrichWebAnalyticsMessages(
+            @NonNull Collection<? extends WebAnalyticsAsyncMessageDTO<E>> messages) {
+        var events = new ArrayList<E>(messages.size());
+        for (WebAnalyticsAsyncMessageDTO<E> message : messages) {
+            if (message != null && message.getBody() != null) {
+                events.add(message.getBody());
+            }
+        }
+        return enrichWebAnalyticsEvents(events);
+    }
+
+    /**
+     * Enriches items with the details of their user agent.
+     * @param <T> the type of the items.
+     * @param items the items.
+     * @param userAgentGetter the function returning the user agent of an item.
+     * @param userAgentDetailsSetter the function setting the details of the user agent of an item.
+     * @param parallel <code>true</code> to parse the distinct user agents in parallel, <code>false</code> otherwise.
+     * @return the report of the enrichment.
+     */
+    public static <T> UserAgentEnrichmentReport enrich(
+            @NonNull Collection<T> items,
+            @NonNull Function<? super T, String> userAgentGetter,
+            @NonNull BiConsumer<? super T, UserAgentDTO> userAgentDetailsSetter,
+            boolean parallel) {
+        // 1. De-duplicate the user agents.
+        var userAgents = new String[items.size()];
+        var userAgentDetailsByUserAgent = new HashMap<String, UserAgentDTO>();
+        var userAgentCount = 0;
+        var index = 0;
+        for (T item : items) {
+            var userAgent = item != null ? userAgentGetter.apply(item) : null;
+            if (StringUtils.isNotBlank(userAgent)) {
+                userAgents[index] = userAgent;
+                userAgentCount++;
+                userAgentDetailsByUserAgent.put(userAgent, null);
+            }
+            index++;
+        }
+
+        // 2. Look the distinct user agents up in the cache.
+        var missingUserAgents = new ArrayList<String>();
+        for (var entry : userAgentDetailsByUserAgent.entrySet()) {
+            var client = UserAgentParser.getIfCached(entry.getKey());
+            if (client != null) {
+                entry.setValue(HttpHeaderUtility.toUserAgent(client));
+            } else {
+                missingUserAgents.add(entry.getKey());
+            }
+        }
+        var cacheHitCount = userAgentDetailsByUserAgent.size() - missingUserAgents.size();
+
+        // 3. Parse the missing ones.
+        var parsedClients = new Client[missingUserAgents.size()];
+        var parseIndexes = IntStream.range(0, parsedClients.length);
+        (parallel ? parseIndexes.parallel() : parseIndexes)
+                .forEach(i -> parsedClients[i] = UserAgentParser.parse(missingUserAgents.get(i)));
+        for (int i = 0; i < parsedClients.length; i++) {
+            userAgentDetailsByUserAgent.put(missingUserAgents.get(i), HttpHeaderUtility.toUserAgent(parsedClients[i]));
+        }
+
+        // 4. Fan the results out to the items.
+        index = 0;
+        for (T item : items) {
+            var userAgent = userAgents[index++];
+            if (userAgent != null) {
+                userAgentDetailsSetter.accept(item, copyOf(userAgentDetailsByUserAgent.get(userAgent)));
+            }
+        }
+
+        return new UserAgentEnrichmentReport(
+                items.size(), userAgentCount, userAgentDetailsByUserAgent.size(), cacheHitCount);
+    }
+
+    /**
+     * Copies the details of a user agent, so that items do not share mutable DTOs.
+     * @param userAgentDetails the details of a user agent.
+     * @return the copy.
+     */
+    private static UserAgentDTO copyOf(UserAgentDTO userAgentDetails) {
+        var browser = userAgentDetails.getBrowser();
+        var operatingSystem = userAgentDetails.getOperatingSystem();
+        return new UserAgentDTO(
+                new BrowserDTO(browser.getName(), browser.getMajorVersion(), browser.getVersion()),
+                new OperatingSystemDTO(
+                        operatingSystem.getName(), operatingSystem.getMajorVersion(), operatingSystem.getVersion()),
+                new DeviceDTO(userAgentDetails.getDevice().getType()));
+    }
+}
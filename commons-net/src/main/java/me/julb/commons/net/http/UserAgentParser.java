@@ -0,0 +1,179 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ua_parser.Client;
+import ua_parser.Parser;
+
+/**
+ * The shared user agent parser.
+ * <br>
+ * Building a {@link Parser} loads and compiles the whole uap-core regex set, so a single thread-safe instance is built
+ * on first use. The results are cached by user agent, as real traffic has few distinct user agents. The cache is
+ * bounded: when full, the entries not used since the previous eviction are evicted (second chance), so that frequent
+ * user agents stay cached while one-off ones are dropped. Very long user agents are parsed but never cached.
+ * <br>
+ * @author Julb.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class UserAgentParser {
+
+    /**
+     * The maximum number of user agents cached.
+     */
+    static final int MAXIMUM_CACHE_SIZE = 1024;
+
+    /**
+     * The maximum length of a user agent to be cached.
+     */
+    static final int MAXIMUM_CACHED_USER_AGENT_LENGTH = 512;
+
+    /**
+     * The parsed user agents, indexed by user agent.
+     */
+    private static final ConcurrentHashMap<String, CachedClient> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Parses a user agent.
+     * @param userAgent the user agent.
+     * @return the parsed user agent, shared between callers and immutable.
+     */
+    static Client parse(String userAgent) {
+        var cachedClient = getIfCached(userAgent);
+        if (cachedClient != null) {
+            return cachedClient;
+        }
+
+        var client = ParserHolder.PARSER.parse(userAgent);
+        if (userAgent.length() <= MAXIMUM_CACHED_USER_AGENT_LENGTH) {
+            if (CACHE.size() >= MAXIMUM_CACHE_SIZE) {
+                evict();
+            }
+            if (CACHE.size() < MAXIMUM_CACHE_SIZE) {
+                CACHE.putIfAbsent(userAgent, new CachedClient(client));
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Gets a parsed user agent from the cache only.
+     * @param userAgent the user agent.
+     * @return the parsed user agent, or <code>null</code> if not cached.
+     */
+    static Client getIfCached(String userAgent) {
+        var cachedClient = CACHE.get(userAgent);
+        if (cachedClient == null) {
+            return null;
+        }
+        cachedClient.markUsed();
+        return cachedClient.client;
+    }
+
+    /**
+     * Gets the number of user agents cached.
+     * @return the number of user agents cached.
+     */
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    /**
+     * Clears the cache.
+     */
+    static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Evicts the entries not used since the previous eviction, and clears the flag of the other ones.
+     */
+    private static void evict() {
+        CACHE.values().removeIf(CachedClient::evictable);
+    }
+
+    /**
+     * The holder of the parser, built on first use only.
+     * <br>
+     * @author Julb.
+     */
+    private static final class ParserHolder {
+
+        /**
+         * The parser.
+         */
+        private static final Parser PARSER = new Parser();
+    }
+
+    /**
+     * A cached parsed user agent.
+     * <br>
+     * @author Julb.
+     */
+    private static final class CachedClient {
+
+        /**
+         * The parsed user agent.
+         */
+        private final Client client;
+
+        /**
+         * <code>true</code> if the entry has been used since the previous eviction. A hint only, races are harmless.
+         */
+        private boolean used;
+
+        /**
+         * Constructor.
+         * @param client the parsed user agent.
+         */
+        private CachedClient(Client client) {
+            this.client = client;
+        }
+
+        /**
+         * Marks the entry as used.
+         */
+        private void markUsed() {
+            if (!this.used) {
+                this.used = true;
+            }
+        }
+
+        /**
+         * Checks if the entry can be evicted, giving it a second chance if it has been used.
+         * @return <code>true</code> if the entry has not been used since the previous eviction.
+         */
+        private boolean evictable() {
+            if (this.used) {
+                this.used = false;
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.grpc.logging;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import io.grpc.MethodDescriptor;
+
+import me.julb.commons.enums.LoggingLevel;
+
+/**
+ * Test class for {@link LoggingLevelTable} class. <br>
+ * @author Julb.
+ */
+class LoggingLevelTableTest {
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingLogLevelWithoutConfiguration_thenReturnTrace() {
+        var logLevelTable = new LoggingLevelTable();
+
+        Assertions.assertEquals(LoggingLevel.TRACE, logLevelTable.getLogLevel(methodDescriptor("a.Service/Method")));
+        Assertions.assertEquals(LoggingLevel.TRACE, logLevelTable.getLogLevel(methodDescriptor("Method")));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingLogLevelOfConfiguredService_thenReturnServiceLogLevel() {
+        var logLevelTable = new LoggingLevelTable();
+        logLevelTable.setDefaultLogLevel(LoggingLevel.OFF);
+        logLevelTable.setServiceLogLevel("a.Service", LoggingLevel.INFO);
+
+        Assertions.assertEquals(LoggingLevel.INFO, logLevelTable.getLogLevel(methodDescriptor("a.Service/Method")));
+        Assertions.assertEquals(LoggingLevel.OFF, logLevelTable.getLogLevel(methodDescriptor("b.Service/Method")));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenChangingConfigurationAfterResolution_thenReturnNewLogLevel() {
+        var logLevelTable = new LoggingLevelTable();
+        var methodDescriptor = methodDescriptor("a.Service/Method");
+        Assertions.assertEquals(LoggingLevel.TRACE, logLevelTable.getLogLevel(methodDescriptor));
+
+        logLevelTable.setServiceLogLevel("a.Service", LoggingLevel.WARN);
+        Assertions.assertEquals(LoggingLevel.WARN, logLevelTable.getLogLevel(methodDescriptor));
+
+        logLevelTable.setDefaultLogLevel(LoggingLevel.DEBUG);
+        Assertions.assertEquals(LoggingLevel.WARN, logLevelTable.getLogLevel(methodDescriptor));
+        Assertions.assertEquals(LoggingLevel.DEBUG, logLevelTable.getLogLevel(methodDescriptor("b.Service/Method")));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingLogLevelConcurrently_thenReturnConfiguredLogLevel() {
+        var logLevelTable = new LoggingLevelTable();
+        logLevelTable.setServiceLogLevel("a.Service", LoggingLevel.ERROR);
+        var methodDescriptors = new ArrayList<MethodDescriptor<?, ?>>();
+        for (int i = 0; i < 100; i++) {
+            methodDescriptors.add(methodDescriptor((i % 2 == 0 ? "a.Service/Method" : "b.Service/Method") + i));
+        }
+
+        var futures = new ArrayList<CompletableFuture<Void>>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < methodDescriptors.size(); i++) {
+                    var expected = i % 2 == 0 ? LoggingLevel.ERROR : LoggingLevel.TRACE;
+                    Assertions.assertEquals(expected, logLevelTable.getLogLevel(methodDescriptors.get(i)));
+                }
+            }));
+        }
+        futures.forEach(CompletableFuture::join);
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCheckingIfEnabled_thenAskLoggerForLevel() {
+        var logger = mock(Logger.class);
+        when(logger.isTraceEnabled()).thenReturn(false);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        when(logger.isErrorEnabled()).thenReturn(true);
+
+        Assertions.assertFalse(LoggingLevelTable.isEnabled(logger, LoggingLevel.TRACE));
+        Assertions.assertTrue(LoggingLevelTable.isEnabled(logger, LoggingLevel.WARN));
+        Assertions.assertTrue(LoggingLevelTable.isEnabled(logger, LoggingLevel.FATAL));
+        Assertions.assertFalse(LoggingLevelTable.isEnabled(logger, LoggingLevel.OFF));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenLogging_thenLogAtLevel() {
+        var logger = mock(Logger.class);
+        LoggingLevelTable.log(logger, LoggingLevel.INFO, ">>> {}", "method");
+        verify(logger).info(">>> {}", new Object[] {"method"});
+
+        var offLogger = mock(Logger.class);
+        LoggingLevelTable.log(offLogger, LoggingLevel.OFF, ">>> {}", "method");
+        verifyNoInteractions(offLogger);
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Builds a method descriptor.
+     * @param fullMethodName the full method name.
+     * @return the method descriptor.
+     */
+    private static MethodDescriptor<String, String> methodDescriptor(String fullMethodName) {
+        var marshaller = new MethodDescriptor.Marshaller<String>() {
+            @Override
+            public InputStream stream(String value) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            @Override
+            public String parse(InputStream stream) {
+                return "";
+            }
+        };
+        // @formatter:off
+        return MethodDescriptor.<String, String>newBuilder()
+                .setType(MethodDescriptor.MethodType.UNARY)
+                .setFullMethodName(fullMethodName)
+                .setRequestMarshaller(marshaller)
+                .setResponseMarshaller(marshaller)
+                .build();
+        // @formatter:on
+    }
+}
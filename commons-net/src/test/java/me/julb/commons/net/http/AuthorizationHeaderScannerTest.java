@@ -0,0 +1,209 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link AuthorizationHeaderScanner} class. <br>
+ * @author Julb.
+ */
+class AuthorizationHeaderScannerTest {
+
+    /**
+     * The former bearer token pattern.
+     */
+    private static final Pattern BEARER_TOKEN_PATTERN = Pattern.compile("^Bearer\\s(?<token>[\\w.\\-=]+)$");
+
+    /**
+     * The former basic token pattern.
+     */
+    private static final Pattern BASIC_TOKEN_PATTERN = Pattern.compile("^Basic\\s(?<token>[\\w+\\/\\-=]+)$");
+
+    /**
+     * The former basic user name and password pattern.
+     */
+    private static final Pattern BASIC_USERNAME_PASSWORD_PATTERN =
+            Pattern.compile("^(?<userName>[^:]+):(?<password>.*)$");
+
+    /**
+     * The characters used to generate headers.
+     */
+    private static final String CHARACTERS = "BearerBasic \t\nab09_.-=+/:@é";
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenScanningBearer_thenReturnTokenOffset() {
+        Assertions.assertEquals(7, AuthorizationHeaderScanner.scanBearer("Bearer token"));
+        Assertions.assertEquals(7, AuthorizationHeaderScanner.scanBearer("Bearer\ttoken"));
+        Assertions.assertEquals(-1, AuthorizationHeaderScanner.scanBearer("Bearer  token"));
+        Assertions.assertEquals(-1, AuthorizationHeaderScanner.scanBearer("Bearer tok/en"));
+        Assertions.assertEquals(-1, AuthorizationHeaderScanner.scanBearer("Bearer tokén"));
+        Assertions.assertEquals(-1, AuthorizationHeaderScanner.scanBearer("Basic token"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenDecodingBasicCredentials_thenReturnUserNameAndPassword() {
+        var credentials = AuthorizationHeaderScanner.decodeBasicCredentials(
+                "Basic " + Base64.encodeBase64String("usér:pass:wörd".getBytes(StandardCharsets.UTF_8)), 6);
+        Assertions.assertEquals("usér", credentials.getLeft());
+        Assertions.assertEquals("pass:wörd", credentials.getRight());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenDecodingInvalidBasicCredentials_thenReturnNull() {
+        Assertions.assertNull(AuthorizationHeaderScanner.decodeBasicCredentials("Basic " + encode(":password"), 6));
+        Assertions.assertNull(AuthorizationHeaderScanner.decodeBasicCredentials("Basic " + encode("user"), 6));
+        Assertions.assertNull(AuthorizationHeaderScanner.decodeBasicCredentials("Basic " + encode("user:a\nb"), 6));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenScanningRandomHeaders_thenMatchFormerRegularExpressions() {
+        var random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            var header = randomHeader(random);
+            Assertions.assertEquals(fromBearerTokenWithRegex(header), fromBearerToken(header), header);
+            Assertions.assertEquals(fromBasicTokenWithRegex(header), fromBasicToken(header), header);
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenDecodingRandomBasicCredentials_thenMatchFormerDecoding() {
+        var random = new Random(42);
+        var alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/-_=";
+        for (int i = 0; i < 20000; i++) {
+            var credentials = new StringBuilder("Basic ");
+            var length = 1 + random.nextInt(24);
+            for (int j = 0; j < length; j++) {
+                credentials.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            var header = credentials.toString();
+            Assertions.assertEquals(fromBasicTokenWithRegex(header), fromBasicToken(header), header);
+        }
+        for (int i = 0; i < 20000; i++) {
+            var bytes = new byte[1 + random.nextInt(16)];
+            random.nextBytes(bytes);
+            var header = "Basic " + Base64.encodeBase64URLSafeString(bytes);
+            Assertions.assertEquals(fromBasicTokenWithRegex(header), fromBasicToken(header), header);
+        }
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Generates a random header.
+     * @param random the random generator.
+     * @return a random header.
+     */
+    private static String randomHeader(Random random) {
+        var prefix = random.nextBoolean() ? "Bearer" : "Basic";
+        var header = new StringBuilder(random.nextInt(8) == 0 ? "" : prefix);
+        var length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            header.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+        return header.toString();
+    }
+
+    /**
+     * Encodes a string in Base64.
+     * @param value the value.
+     * @return the encoded value.
+     */
+    private static String encode(String value) {
+        return Base64.encodeBase64URLSafeString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Extracts a bearer token with the scanner.
+     * @param header the header.
+     * @return the token or <code>null</code>.
+     */
+    private static String fromBearerToken(String header) {
+        var offset = AuthorizationHeaderScanner.scanBearer(header);
+        return offset < 0 ? null : header.substring(offset);
+    }
+
+    /**
+     * Extracts basic credentials with the scanner.
+     * @param header the header.
+     * @return the credentials or <code>null</code>.
+     */
+    private static Pair<String, String> fromBasicToken(String header) {
+        var offset = AuthorizationHeaderScanner.scanBasic(header);
+        return offset < 0 ? null : AuthorizationHeaderScanner.decodeBasicCredentials(header, offset);
+    }
+
+    /**
+     * Extracts a bearer token with the former regular expression.
+     * @param header the header.
+     * @return the token or <code>null</code>.
+     */
+    private static String fromBearerTokenWithRegex(String header) {
+        var matcher = BEARER_TOKEN_PATTERN.matcher(header);
+        return matcher.matches() ? matcher.group("token") : null;
+    }
+
+    /**
+     * Extracts basic credentials with the former regular expressions.
+     * @param header the header.
+     * @return the credentials or <code>null</code>.
+     */
+    private static Pair<String, String> fromBasicTokenWithRegex(String header) {
+        var matcher = BASIC_TOKEN_PATTERN.matcher(header);
+        if (!matcher.matches()) {
+            return null;
+        }
+        var userNameWithPassword = new String(Base64.decodeBase64(matcher.group("token")), StandardCharsets.UTF_8);
+        var userNamePasswordMatcher = BASIC_USERNAME_PASSWORD_PATTERN.matcher(userNameWithPassword);
+        if (!userNamePasswordMatcher.matches()) {
+            return null;
+        }
+        return new ImmutablePair<>(
+                userNamePasswordMatcher.group("userName"),
+                userNamePasswordMatcher.group("password"));
+    }
+}
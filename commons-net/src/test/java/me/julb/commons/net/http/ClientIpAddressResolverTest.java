@@ -0,0 +1,142 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import static org.mockito.Mockito.when;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import me.julb.commons.constants.CustomHttpHeaders;
+
+/**
+ * Test class for {@link ClientIpAddressResolver} class. <br>
+ * @author Julb.
+ */
+@ExtendWith(MockitoExtension.class)
+class ClientIpAddressResolverTest {
+
+    /**
+     * A mock for the request.
+     */
+    @Mock
+    private HttpServletRequest httpServletRequestMock;
+
+    /**
+     * The resolver to test.
+     */
+    private ClientIpAddressResolver resolver;
+
+    /**
+     * Setup method.
+     */
+    @BeforeEach
+    void setUp() {
+        var trustedProxies = new TrustedNetworks.Builder().add("10.0.0.0/8").add("fd00::/8").build();
+        this.resolver = new ClientIpAddressResolver(trustedProxies);
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenResolvingFromUntrustedPeer_thenReturnPeer() {
+        Assertions.assertEquals("8.8.8.8", resolver.resolve("1.1.1.1", "8.8.8.8"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenResolvingThroughTrustedProxies_thenReturnFirstUntrustedHop() {
+        Assertions.assertEquals("2.2.2.2", resolver.resolve("1.1.1.1, 2.2.2.2, 10.0.0.2", "10.0.0.1"));
+        Assertions.assertEquals("2.2.2.2", resolver.resolve("1.1.1.1,2.2.2.2,10.0.0.2", "10.0.0.1"));
+        Assertions.assertEquals("2001:db8::1", resolver.resolve("2001:db8::1, fd00::2", "fd00::1"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenResolvingHopsWithPorts_thenReturnAddressOnly() {
+        Assertions.assertEquals("2.2.2.2", resolver.resolve("2.2.2.2:1234, 10.0.0.2:443", "10.0.0.1"));
+        Assertions.assertEquals("2001:db8::1", resolver.resolve("[2001:db8::1]:1234, [fd00::2]", "10.0.0.1"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenResolvingInvalidHop_thenReturnIt() {
+        Assertions.assertEquals("unknown", resolver.resolve("1.1.1.1, unknown, 10.0.0.2", "10.0.0.1"));
+        Assertions.assertEquals("[::1", resolver.resolve("[::1 , 10.0.0.2", "10.0.0.1"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenResolvingOnlyTrustedHops_thenReturnLeftmostHop() {
+        Assertions.assertEquals("10.0.0.3", resolver.resolve(" 10.0.0.3 ,, 10.0.0.2 ", "10.0.0.1"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenResolvingWithoutHeader_thenReturnPeer() {
+        Assertions.assertEquals("10.0.0.1", resolver.resolve(null, "10.0.0.1"));
+        Assertions.assertEquals("10.0.0.1", resolver.resolve(" , ", "10.0.0.1"));
+        Assertions.assertNull(resolver.resolve(null, null));
+        Assertions.assertEquals("1.1.1.1", resolver.resolve("1.1.1.1", null));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenResolvingRequest_thenReturnClient() {
+        when(httpServletRequestMock.getHeader(CustomHttpHeaders.X_FORWARDED_FOR)).thenReturn("1.1.1.1, 10.0.0.2");
+        when(httpServletRequestMock.getRemoteAddr()).thenReturn("10.0.0.1");
+
+        Assertions.assertEquals("1.1.1.1", resolver.resolve(httpServletRequestMock));
+        Assertions.assertEquals("1.1.1.1",
+            HttpServletRequestUtility.getUserIpAddress(httpServletRequestMock, resolver));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenResolvingNullRequest_thenThrowNullPointerException() {
+        Assertions.assertThrows(NullPointerException.class, () -> resolver.resolve(null));
+        Assertions.assertThrows(NullPointerException.class, () -> new ClientIpAddressResolver(null));
+    }
+}
@@ -203,4 +203,31 @@ class HttpServletRequestUtilityTest {
     void whenGetDeviceFromNull_thenThrowNullPointerException() {
         Assertions.assertThrows(NullPointerException.class, () -> HttpServletRequestUtility.getDevice(null));
     }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGetUserAgentDetails_thenReturnUserAgentDetails() {
+        var userAgent =
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/101.0.4951.64 Safari/537.36";
+        when(httpServletRequestMock.getHeader(CustomHttpHeaders.USER_AGENT)).thenReturn(userAgent);
+
+        var userAgentDetails = HttpServletRequestUtility.getUserAgentDetails(httpServletRequestMock);
+        Assertions.assertNotNull(userAgentDetails);
+        Assertions.assertEquals("Chrome", userAgentDetails.getBrowser().getName());
+        Assertions.assertEquals("Windows", userAgentDetails.getOperatingSystem().getName());
+        Assertions.assertEquals("Other", userAgentDetails.getDevice().getType());
+
+        verify(httpServletRequestMock).getHeader(CustomHttpHeaders.USER_AGENT);
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGetUserAgentDetailsFromNull_thenThrowNullPointerException() {
+        Assertions.assertThrows(
+                NullPointerException.class, () -> HttpServletRequestUtility.getUserAgentDetails(null));
+    }
 }
@@ -0,0 +1,109 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link IpAddressParser} class. <br>
+ * @author Julb.
+ */
+class IpAddressParserTest {
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenParsingIPv4_thenReturnUnsignedValue() {
+        Assertions.assertEquals(0x0A000001L, parseIPv4("10.0.0.1"));
+        Assertions.assertEquals(0xFFFFFFFFL, parseIPv4("255.255.255.255"));
+        Assertions.assertEquals(0L, parseIPv4("0.0.0.0"));
+        Assertions.assertEquals(0xC0A80101L, IpAddressParser.parseIPv4("x192.168.1.1x", 1, 12));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenParsingInvalidIPv4_thenReturnMinusOne() {
+        Assertions.assertEquals(-1L, parseIPv4(""));
+        Assertions.assertEquals(-1L, parseIPv4("1.2.3"));
+        Assertions.assertEquals(-1L, parseIPv4("1.2.3.4.5"));
+        Assertions.assertEquals(-1L, parseIPv4("1.2.3.256"));
+        Assertions.assertEquals(-1L, parseIPv4("1.2..4"));
+        Assertions.assertEquals(-1L, parseIPv4("1.2.3.04"));
+        Assertions.assertEquals(-1L, parseIPv4("1.2.3.4."));
+        Assertions.assertEquals(-1L, parseIPv4("a.b.c.d"));
+        Assertions.assertEquals(-1L, parseIPv4("::1"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenParsingIPv6_thenReturnHighAndLow() throws Exception {
+        for (String address : new String[] {"::", "::1", "1::", "2001:db8::8a2e:370:7334", "fe80::1:2:3:4:5",
+            "2001:0db8:85a3:0000:0000:8a2e:0370:7334", "1:2:3:4:5:6:7::", "::ffff:192.168.1.1",
+            "64:ff9b::10.0.0.1", "1:2:3:4:5:6:1.2.3.4", "FFFF:ffff:FFFF:ffff:FFFF:ffff:FFFF:ffff"}) {
+            var expected = ByteBuffer.wrap(InetAddress.getByName(address).getAddress());
+            if (expected.capacity() == 4) {
+                // Mapped addresses are returned as IPv4 by the JDK.
+                var ipv4 = expected.getInt() & 0xFFFFFFFFL;
+                expected = ByteBuffer.allocate(16).putLong(0L).putLong(0xFFFF00000000L | ipv4).flip();
+            }
+            var expectedHigh = expected.getLong();
+            var expectedLow = expected.getLong();
+            Assertions.assertTrue(IpAddressParser.parseIPv6(address, 0, address.length(),
+                (high, low) -> high == expectedHigh && low == expectedLow), address);
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenParsingInvalidIPv6_thenReturnFalse() {
+        for (String address : new String[] {"", ":", ":::", "1", "1:2", "1:", ":1", "1::2::3", "1:::2", "12345::",
+            "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7", "1:2:3:4:5:6:7::8", "::g", "fe80::1%eth0", "::1.2.3",
+            "1.2.3.4::", "::1.2.3.4:5", "1:2:3:4:5:6:7:1.2.3.4"}) {
+            Assertions.assertFalse(IpAddressParser.parseIPv6(address, 0, address.length(), (high, low) -> true),
+                address);
+        }
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Parses an IPv4 address.
+     * @param address the address.
+     * @return the parsed address.
+     */
+    private static long parseIPv4(String address) {
+        return IpAddressParser.parseIPv4(address, 0, address.length());
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link TrustedNetworks} class. <br>
+ * @author Julb.
+ */
+class TrustedNetworksTest {
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCheckingIPv4Networks_thenMatchPrefixes() {
+        var networks = new TrustedNetworks.Builder().add("10.0.0.0/8").add("192.168.1.0/24").add("1.2.3.4").build();
+
+        Assertions.assertTrue(networks.contains("10.0.0.1"));
+        Assertions.assertTrue(networks.contains("10.255.255.255"));
+        Assertions.assertFalse(networks.contains("11.0.0.1"));
+        Assertions.assertTrue(networks.contains("192.168.1.200"));
+        Assertions.assertFalse(networks.contains("192.168.2.1"));
+        Assertions.assertTrue(networks.contains("1.2.3.4"));
+        Assertions.assertFalse(networks.contains("1.2.3.5"));
+        Assertions.assertTrue(networks.contains("::ffff:10.1.2.3"));
+        Assertions.assertTrue(networks.containsIPv4(0x0A010203));
+        Assertions.assertFalse(networks.contains("::1"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCheckingIPv6Networks_thenMatchPrefixes() {
+        var networks = new TrustedNetworks.Builder().addAll(List.of("fd00::/8", "2001:db8:1::/48", "::1")).build();
+
+        Assertions.assertTrue(networks.contains("fd12:3456::1"));
+        Assertions.assertFalse(networks.contains("fe80::1"));
+        Assertions.assertTrue(networks.contains("2001:db8:1:ffff::1"));
+        Assertions.assertFalse(networks.contains("2001:db8:2::1"));
+        Assertions.assertTrue(networks.contains("::1"));
+        Assertions.assertTrue(networks.containsIPv6(0L, 1L));
+        Assertions.assertFalse(networks.contains("::2"));
+        Assertions.assertFalse(networks.contains("10.0.0.1"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCheckingAllNetworks_thenMatchEverything() {
+        var networks = new TrustedNetworks.Builder().add("0.0.0.0/0").add("::/0").build();
+
+        Assertions.assertTrue(networks.contains("8.8.8.8"));
+        Assertions.assertTrue(networks.contains("2001:4860:4860::8888"));
+        Assertions.assertFalse(networks.contains("unknown"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCheckingEmptyNetworks_thenMatchNothing() {
+        var networks = new TrustedNetworks.Builder().build();
+
+        Assertions.assertFalse(networks.contains("10.0.0.1"));
+        Assertions.assertFalse(networks.contains("::1"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenAddingNetworksAfterBuild_thenBuiltNetworksUnchanged() {
+        var builder = new TrustedNetworks.Builder().add("10.0.0.0/8");
+        var networks = builder.build();
+        builder.add("11.0.0.0/8");
+
+        Assertions.assertFalse(networks.contains("11.0.0.1"));
+        Assertions.assertTrue(builder.build().contains("11.0.0.1"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenAddingInvalidNetwork_thenThrowIllegalArgumentException() {
+        var builder = new TrustedNetworks.Builder();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.add("10.0.0.0/33"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.add("10.0.0.0/-1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.add("10.0.0.0/a"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.add("::/129"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.add("localhost"));
+        Assertions.assertThrows(NullPointerException.class, () -> builder.add(null));
+    }
+}
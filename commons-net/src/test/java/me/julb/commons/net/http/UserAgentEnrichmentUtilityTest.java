@@ -0,0 +1,162 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import me.julb.commons.dto.http.analytics.AbstractWebAnalyticsEventDTO;
+import me.julb.commons.dto.http.analytics.PageChangeWebAnalyticsEventDTO;
+import me.julb.commons.dto.messaging.events.WebAnalyticsAsyncMessageDTO;
+
+/**
+ * Unit test class for {@link UserAgentEnrichmentUtility}.
+ * <br>
+ * @author Julb.
+ */
+class UserAgentEnrichmentUtilityTest {
+
+    /**
+     * A Chrome user agent.
+     */
+    private static final String CHROME_USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/101.0.4951.64";
+
+    /**
+     * A Firefox user agent.
+     */
+    private static final String FIREFOX_USER_AGENT =
+            "Mozilla/5.0 (X11; Linux x86_64; rv:100.0) Gecko/20100101 Firefox/100.0";
+
+    // ------------------------------------------ Before/After methods.
+
+    /**
+     * Sets-up the test.
+     */
+    @BeforeEach
+    void setUp() {
+        UserAgentParser.clearCache();
+    }
+
+    /**
+     * Tears-down the test.
+     */
+    @AfterEach
+    void tearDown() {
+        UserAgentParser.clearCache();
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenEnrichingEvents_thenDeduplicateAndFanOut() {
+        var events = new ArrayList<PageChangeWebAnalyticsEventDTO>();
+        for (int i = 0; i < 10; i++) {
+            events.add(newEvent(i % 2 == 0 ? CHROME_USER_AGENT : FIREFOX_USER_AGENT));
+        }
+        events.add(newEvent(null));
+        events.add(newEvent(" "));
+
+        var report = UserAgentEnrichmentUtility.enrichWebAnalyticsEvents(events);
+
+        Assertions.assertEquals(12, report.getItemCount());
+        Assertions.assertEquals(10, report.getUserAgentCount());
+        Assertions.assertEquals(2, report.getDistinctUserAgentCount());
+        Assertions.assertEquals(0, report.getCacheHitCount());
+        Assertions.assertEquals(2, report.getCacheMissCount());
+        Assertions.assertEquals(0.8, report.getDeduplicationRatio(), 1e-9);
+        Assertions.assertEquals(0.0, report.getCacheHitRate(), 1e-9);
+
+        for (int i = 0; i < 10; i++) {
+            var userAgentDetails = events.get(i).getUserAgentDetails();
+            Assertions.assertEquals(i % 2 == 0 ? "Chrome" : "Firefox", userAgentDetails.getBrowser().getName());
+        }
+        Assertions.assertNotSame(events.get(0).getUserAgentDetails(), events.get(2).getUserAgentDetails());
+        Assertions.assertNotSame(
+                events.get(0).getUserAgentDetails().getBrowser(), events.get(2).getUserAgentDetails().getBrowser());
+        Assertions.assertNull(events.get(10).getUserAgentDetails());
+        Assertions.assertNull(events.get(11).getUserAgentDetails());
+
+        // Second batch served by the parse cache.
+        var secondReport = UserAgentEnrichmentUtility.enrichWebAnalyticsEvents(events);
+        Assertions.assertEquals(2, secondReport.getCacheHitCount());
+        Assertions.assertEquals(1.0, secondReport.getCacheHitRate(), 1e-9);
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenEnrichingMessages_thenEnrichTheirEvents() {
+        var message = new WebAnalyticsAsyncMessageDTO<AbstractWebAnalyticsEventDTO>();
+        message.setBody(newEvent(FIREFOX_USER_AGENT));
+        var emptyMessage = new WebAnalyticsAsyncMessageDTO<AbstractWebAnalyticsEventDTO>();
+
+        var report = UserAgentEnrichmentUtility.enrichWebAnalyticsMessages(List.of(message, emptyMessage));
+
+        Assertions.assertEquals(1, report.getItemCount());
+        Assertions.assertEquals(1, report.getDistinctUserAgentCount());
+        Assertions.assertEquals("Linux", message.getBody().getUserAgentDetails().getOperatingSystem().getName());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenEnrichingEmptyBatch_thenReportNothing() {
+        var report = UserAgentEnrichmentUtility.enrich(
+                List.<String>of(), s -> s, (s, userAgentDetails) -> Assertions.fail(), false);
+
+        Assertions.assertEquals(0, report.getItemCount());
+        Assertions.assertEquals(0.0, report.getDeduplicationRatio(), 1e-9);
+        Assertions.assertEquals(0.0, report.getCacheHitRate(), 1e-9);
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenEnrichingNull_thenThrowNullPointerException() {
+        Assertions.assertThrows(
+                NullPointerException.class, () -> UserAgentEnrichmentUtility.enrichWebAnalyticsEvents(null));
+    }
+
+    /**
+     * Creates an event.
+     * @param userAgent the user agent.
+     * @return the event.
+     */
+    private PageChangeWebAnalyticsEventDTO newEvent(String userAgent) {
+        var event = new PageChangeWebAnalyticsEventDTO();
+        event.setVisitorId("visitor");
+        event.setUserAgent(userAgent);
+        return event;
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.net.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test class for {@link UserAgentParser}.
+ * <br>
+ * @author Julb.
+ */
+class UserAgentParserTest {
+
+    /**
+     * A user agent.
+     */
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (X11; Linux x86_64; rv:100.0) Gecko/20100101 Firefox/100.0";
+
+    // ------------------------------------------ Before/After methods.
+
+    /**
+     * Sets-up the test.
+     */
+    @BeforeEach
+    void setUp() {
+        UserAgentParser.clearCache();
+    }
+
+    /**
+     * Tears-down the test.
+     */
+    @AfterEach
+    void tearDown() {
+        UserAgentParser.clearCache();
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenParsingSameUserAgentTwice_thenServeFromCache() {
+        var client = UserAgentParser.parse(USER_AGENT);
+
+        Assertions.assertEquals("Firefox", client.userAgent.family);
+        Assertions.assertSame(client, UserAgentParser.parse(USER_AGENT));
+        Assertions.assertEquals(1, UserAgentParser.cacheSize());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenParsingLongUserAgent_thenNotCached() {
+        var userAgent = USER_AGENT + " " + "x".repeat(UserAgentParser.MAXIMUM_CACHED_USER_AGENT_LENGTH);
+
+        Assertions.assertEquals("Firefox", UserAgentParser.parse(userAgent).userAgent.family);
+        Assertions.assertEquals(0, UserAgentParser.cacheSize());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCacheIsFull_thenEvictUnusedUserAgents() {
+        var client = UserAgentParser.parse(USER_AGENT);
+        for (int i = 1; i < UserAgentParser.MAXIMUM_CACHE_SIZE; i++) {
+            UserAgentParser.parse("Agent/" + i);
+        }
+        Assertions.assertEquals(UserAgentParser.MAXIMUM_CACHE_SIZE, UserAgentParser.cacheSize());
+
+        // Use the first user agent, then overflow the cache.
+        Assertions.assertSame(client, UserAgentParser.parse(USER_AGENT));
+        UserAgentParser.parse("Agent/overflow");
+
+        Assertions.assertEquals(2, UserAgentParser.cacheSize());
+        Assertions.assertSame(client, UserAgentParser.parse(USER_AGENT));
+    }
+}
@@ -23,7 +23,15 @@
  */
 package me.julb.commons.security.crypto.aes;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -31,11 +39,59 @@ import lombok.NoArgsConstructor;
 /**
  * This class enables encryption and decryption of a {@link String} using AES256.
  * <br>
+ * The encryptors of a key and a salt are kept in a bounded cache, so that the expensive key derivation done by
+ * {@link Encryptors#text(CharSequence, CharSequence)} happens once per pair instead of once per value. Once
+ * the cache is full, the least recently used pair is evicted.
+ * <br>
  * @author Julb.
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class AESEncryptor {
 
+    /**
+     * The maximum number of encryptors kept in the cache.
+     */
+    public static final int MAXIMUM_CACHE_SIZE = 64;
+
+    /**
+     * The encryptors indexed by key and salt, in least recently used order.
+     */
+    private static final Map<CacheKey, TextEncryptor> ENCRYPTORS =
+            Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, TextEncryptor> eldest) {
+                    return size() > MAXIMUM_CACHE_SIZE;
+                }
+            });
+
+    /**
+     * Gets the encryptor of a key and a salt, deriving the key if it is not cached yet.
+     * <br>
+     * The key is derived outside of the cache lock, so that a slow derivation does not block the other pairs.
+     * @param key the key.
+     * @param salt the salt.
+     * @return the encryptor.
+     */
+    public static TextEncryptor of(String key, String salt) {
+        var cacheKey = new CacheKey(key, salt);
+        var encryptor = ENCRYPTORS.get(cacheKey);
+        if (encryptor != null) {
+            return encryptor;
+        }
+        encryptor = Encryptors.text(key, salt);
+        var cached = ENCRYPTORS.putIfAbsent(cacheKey, encryptor);
+        return cached != null ? cached : encryptor;
+    }
+
+    /**
+     * Clears the cache of the encryptors.
+     */
+    public static void clearCache() {
+        ENCRYPTORS.clear();
+    }
+
     /**
      * Encrypts the value.
      * @param plainText the text to encrypt.
@@ -44,7 +100,7 @@ public class AESEncryptor {
      * @return the ciphered value.
      */
     public static String encrypt(String plainText, String key, String salt) {
-        return Encryptors.text(key, salt).encrypt(plainText);
+        return of(key, salt).encrypt(plainText);
     }
 
     /**
@@ -55,6 +111,45 @@ public class AESEncryptor {
      * @return the raw value.
      */
     public static String decrypt(String cipherText, String key, String salt) {
-        return Encryptors.text(key, salt).decrypt(cipherText);
+        return of(key, salt).decrypt(cipherText);
     }
+
+    /**
+     * Encrypts all the values.
+     * @param plainTexts the texts to encrypt.
+     * @param key the key.
+     * @param salt the salt.
+     * @return the ciphered values, in the iteration order of the given collection.
+     */
+    public static List<String> encryptAll(Collection<String> plainTexts, String key, String salt) {
+        var encryptor = of(key, salt);
+        var cipherTexts = new ArrayList<String>(plainTexts.size());
+        for (String plainText : plainTexts) {
+            cipherTexts.add(encryptor.encrypt(plainText));
+        }
+        return cipherTexts;
+    }
+
+    /**
+     * Decrypts all the values.
+     * @param cipherTexts the texts to decrypt.
+     * @param key the key.
+     * @param salt the salt.
+     * @return the raw values, in the iteration order of the given collection.
+     */
+    public static List<String> decryptAll(Collection<String> cipherTexts, String key, String salt) {
+        var encryptor = of(key, salt);
+        var plainTexts = new ArrayList<String>(cipherTexts.size());
+        for (String cipherText : cipherTexts) {
+            plainTexts.add(encryptor.decrypt(cipherText));
+        }
+        return plainTexts;
+    }
+
+    /**
+     * The cache key.
+     * <br>
+     * @author Julb.
+     */
+    private record CacheKey(String key, String salt) {}
 }
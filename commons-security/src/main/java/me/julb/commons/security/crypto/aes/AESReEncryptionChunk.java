@@ -0,0 +1,110 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.crypto.aes;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A chunk of values re-encrypted by {@link AESReEncryptor}.
+ * <br>
+ * @author Julb.
+ */
+public final class AESReEncryptionChunk {
+
+    /**
+     * The index of the first value of the chunk in the source.
+     */
+    private final long offset;
+
+    /**
+     * The values encrypted with the old key.
+     */
+    private final List<String> cipherTexts;
+
+    /**
+     * The values encrypted with the new key, <code>null</code> for the values which could not be re-encrypted.
+     */
+    private final List<String> reEncryptedCipherTexts;
+
+    /**
+     * The number of values which could not be re-encrypted.
+     */
+    private final int failureCount;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param offset the index of the first value of the chunk in the source.
+     * @param cipherTexts the values encrypted with the old key.
+     * @param reEncryptedCipherTexts the values encrypted with the new key.
+     * @param failureCount the number of values which could not be re-encrypted.
+     */
+    AESReEncryptionChunk(
+            long offset,
+            List<String> cipherTexts,
+            List<String> reEncryptedCipherTexts,
+            int failureCount) {
+        super();
+        this.offset = offset;
+        this.cipherTexts = Collections.unmodifiableList(cipherTexts);
+        this.reEncryptedCipherTexts = Collections.unmodifiableList(reEncryptedCipherTexts);
+        this.failureCount = failureCount;
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Gets the index of the first value of the chunk in the source.
+     * @return the offset.
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Gets the values encrypted with the old key, in the order of the source.
+     * @return the values.
+     */
+    public List<String> getCipherTexts() {
+        return this.cipherTexts;
+    }
+
+    /**
+     * Gets the values encrypted with the new key, at the same indexes as {@link #getCipherTexts()}.
+     * @return the values, <code>null</code> for the values which could not be decrypted with the old key.
+     */
+    public List<String> getReEncryptedCipherTexts() {
+        return this.reEncryptedCipherTexts;
+    }
+
+    /**
+     * Gets the number of values of the chunk which could not be re-encrypted.
+     * @return the number of failures.
+     */
+    public int getFailureCount() {
+        return this.failureCount;
+    }
+}
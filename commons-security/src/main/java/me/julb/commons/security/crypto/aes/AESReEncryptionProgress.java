@@ -0,0 +1,111 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.crypto.aes;
+
+import java.time.Duration;
+
+/**
+ * The progress of a re-encryption run by {@link AESReEncryptor}.
+ * <br>
+ * @author Julb.
+ */
+public final class AESReEncryptionProgress {
+
+    /**
+     * The number of values processed.
+     */
+    private final long processedCount;
+
+    /**
+     * The number of values which could not be re-encrypted.
+     */
+    private final long failureCount;
+
+    /**
+     * The time elapsed since the start of the re-encryption.
+     */
+    private final Duration elapsed;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param processedCount the number of values processed.
+     * @param failureCount the number of values which could not be re-encrypted.
+     * @param elapsed the time elapsed since the start of the re-encryption.
+     */
+    AESReEncryptionProgress(long processedCount, long failureCount, Duration elapsed) {
+        super();
+        this.processedCount = processedCount;
+        this.failureCount = failureCount;
+        this.elapsed = elapsed;
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Gets the number of values processed, failures included.
+     * @return the number of values processed.
+     */
+    public long getProcessedCount() {
+        return this.processedCount;
+    }
+
+    /**
+     * Gets the number of values which could not be re-encrypted.
+     * @return the number of failures.
+     */
+    public long getFailureCount() {
+        return this.failureCount;
+    }
+
+    /**
+     * Gets the time elapsed since the start of the re-encryption.
+     * @return the elapsed time.
+     */
+    public Duration getElapsed() {
+        return this.elapsed;
+    }
+
+    /**
+     * Gets the average number of values processed per second.
+     * @return the throughput, <code>0</code> if no time has elapsed.
+     */
+    public double getThroughputPerSecond() {
+        var elapsedNanos = this.elapsed.toNanos();
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return this.processedCount * (double) Duration.ofSeconds(1).toNanos() / elapsedNanos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("%d values processed (%d failures) in %d ms, %.0f values/s", this.processedCount,
+            this.failureCount, this.elapsed.toMillis(), getThroughputPerSecond());
+    }
+}
@@ -0,0 +1,298 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.crypto.aes;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Re-encrypts values encrypted with an old AES key with a new one, as needed when rotating a key.
+ * <br>
+ * The source is read by chunks of {@link Builder#chunkSize(int)} values which are re-encrypted in parallel on the
+ * configured executor. At most {@link Builder#maxInFlightChunks(int)} chunks are held in memory at once: the source is
+ * not read further until the oldest chunk has been handed to the sink. The chunks are handed to the sink and the
+ * progress is reported on the calling thread, in the order of the source.
+ * <br>
+ * A value which cannot be decrypted with the old key does not stop the re-encryption: it is reported as a failure
+ * in its chunk and in the progress.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public class AESReEncryptor {
+
+    /**
+     * The default number of values per chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * The encryptor of the old key.
+     */
+    private TextEncryptor oldEncryptor;
+
+    /**
+     * The encryptor of the new key.
+     */
+    private TextEncryptor newEncryptor;
+
+    /**
+     * The number of values per chunk.
+     */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * The maximum number of chunks being re-encrypted or waiting for the sink.
+     */
+    private int maxInFlightChunks = ForkJoinPool.getCommonPoolParallelism() * 2;
+
+    /**
+     * The executor running the re-encryption of the chunks.
+     */
+    private Executor executor = ForkJoinPool.commonPool();
+
+    /**
+     * The listener notified of the progress after each chunk.
+     */
+    private Consumer<AESReEncryptionProgress> progressListener = progress -> {
+    };
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    AESReEncryptor() {
+        super();
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Re-encrypts all the values of the source.
+     * @param cipherTexts the values encrypted with the old key.
+     * @param sink the consumer of the re-encrypted chunks, called on the calling thread in the order of the source.
+     * @return the final progress.
+     */
+    public AESReEncryptionProgress reEncrypt(Iterator<String> cipherTexts, Consumer<AESReEncryptionChunk> sink) {
+        var startTimeInNanos = System.nanoTime();
+        var inFlightChunks = new ArrayDeque<CompletableFuture<AESReEncryptionChunk>>(this.maxInFlightChunks);
+        var offset = 0L;
+        var processedCount = 0L;
+        var failureCount = 0L;
+        var progress = new AESReEncryptionProgress(0, 0, Duration.ZERO);
+
+        try {
+            while (cipherTexts.hasNext() || !inFlightChunks.isEmpty()) {
+                // Fill the pipeline.
+                while (cipherTexts.hasNext() && inFlightChunks.size() < this.maxInFlightChunks) {
+                    var chunk = nextChunk(cipherTexts);
+                    var chunkOffset = offset;
+                    offset += chunk.size();
+                    inFlightChunks.add(
+                            CompletableFuture.supplyAsync(() -> reEncrypt(chunkOffset, chunk), this.executor));
+                }
+
+                // Drain the oldest chunk.
+                var reEncryptedChunk = inFlightChunks.poll().get();
+                sink.accept(reEncryptedChunk);
+                processedCount += reEncryptedChunk.getCipherTexts().size();
+                failureCount += reEncryptedChunk.getFailureCount();
+                progress = new AESReEncryptionProgress(
+                        processedCount,
+                        failureCount,
+                        Duration.ofNanos(System.nanoTime() - startTimeInNanos));
+                this.progressListener.accept(progress);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Re-encryption interrupted after " + processedCount + " values", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Re-encryption failed after " + processedCount + " values", e.getCause());
+        } finally {
+            inFlightChunks.forEach(future -> future.cancel(false));
+        }
+
+        LOGGER.debug("Re-encryption completed: {}.", progress);
+        return progress;
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Reads the next chunk of the source.
+     * @param cipherTexts the source.
+     * @return the chunk.
+     */
+    private List<String> nextChunk(Iterator<String> cipherTexts) {
+        var chunk = new ArrayList<String>(this.chunkSize);
+        while (chunk.size() < this.chunkSize && cipherTexts.hasNext()) {
+            chunk.add(cipherTexts.next());
+        }
+        return chunk;
+    }
+
+    /**
+     * Re-encrypts a chunk.
+     * @param offset the index of the first value of the chunk in the source.
+     * @param cipherTexts the values encrypted with the old key.
+     * @return the re-encrypted chunk.
+     */
+    private AESReEncryptionChunk reEncrypt(long offset, List<String> cipherTexts) {
+        var reEncryptedCipherTexts = new ArrayList<String>(cipherTexts.size());
+        var failureCount = 0;
+        for (String cipherText : cipherTexts) {
+            String reEncryptedCipherText = null;
+            if (cipherText != null) {
+                try {
+                    reEncryptedCipherText = this.newEncryptor.encrypt(this.oldEncryptor.decrypt(cipherText));
+                } catch (RuntimeException e) {
+                    var index = offset + reEncryptedCipherTexts.size();
+                    LOGGER.trace("Unable to re-encrypt the value at index <{}>.", index, e);
+                }
+            }
+            if (reEncryptedCipherText == null) {
+                failureCount++;
+            }
+            reEncryptedCipherTexts.add(reEncryptedCipherText);
+        }
+        return new AESReEncryptionChunk(offset, cipherTexts, reEncryptedCipherTexts, failureCount);
+    }
+
+    /**
+     * The builder for the re-encryptor.
+     * <br>
+     * @author Julb.
+     */
+    public static class Builder {
+
+        /**
+         * The built instance
+         */
+        private AESReEncryptor instance;
+
+        // ------------------------------------------ Constructors.
+
+        /**
+         * Constructor.
+         */
+        public Builder() {
+            super();
+            this.instance = new AESReEncryptor();
+        }
+
+        // ------------------------------------------ Getters/Setters.
+
+        /**
+         * Sets the old key, with which the values are currently encrypted.
+         * @param key the old key.
+         * @param salt the old salt.
+         * @return the builder instance.
+         */
+        public Builder oldKey(String key, String salt) {
+            this.instance.oldEncryptor = AESEncryptor.of(key, salt);
+            return this;
+        }
+
+        /**
+         * Sets the new key, with which the values are re-encrypted.
+         * @param key the new key.
+         * @param salt the new salt.
+         * @return the builder instance.
+         */
+        public Builder newKey(String key, String salt) {
+            this.instance.newEncryptor = AESEncryptor.of(key, salt);
+            return this;
+        }
+
+        /**
+         * Setter for property chunkSize.
+         * @param chunkSize New value of property chunkSize.
+         * @return the builder instance.
+         */
+        public Builder chunkSize(int chunkSize) {
+            this.instance.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Setter for property maxInFlightChunks.
+         * @param maxInFlightChunks New value of property maxInFlightChunks.
+         * @return the builder instance.
+         */
+        public Builder maxInFlightChunks(int maxInFlightChunks) {
+            this.instance.maxInFlightChunks = maxInFlightChunks;
+            return this;
+        }
+
+        /**
+         * Setter for property executor.
+         * @param executor New value of property executor.
+         * @return the builder instance.
+         */
+        public Builder executor(Executor executor) {
+            this.instance.executor = executor;
+            return this;
+        }
+
+        /**
+         * Setter for property progressListener.
+         * @param progressListener New value of property progressListener.
+         * @return the builder instance.
+         */
+        public Builder progressListener(Consumer<AESReEncryptionProgress> progressListener) {
+            this.instance.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Returns the built instance.
+         * @return the instance.
+         */
+        public AESReEncryptor build() {
+            if (this.instance.oldEncryptor == null || this.instance.newEncryptor == null) {
+                throw new IllegalArgumentException("oldKey and newKey are required");
+            }
+            if (this.instance.chunkSize <= 0) {
+                throw new IllegalArgumentException("chunkSize must be positive");
+            }
+            if (this.instance.maxInFlightChunks <= 0) {
+                throw new IllegalArgumentException("maxInFlightChunks must be positive");
+            }
+            return this.instance;
+        }
+    }
+}
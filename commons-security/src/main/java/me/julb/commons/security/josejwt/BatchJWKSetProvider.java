@@ -0,0 +1,110 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.nimbusds.jose.jwk.JWKSet;
+
+import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
+
+/**
+ * A JWKS provider pinning the snapshot of another provider for the duration of a batch.
+ * <br>
+ * All the tokens of the batch are checked against the same snapshot. A refresh for a given key ID is delegated at
+ * most once per batch, and its outcome is shared by all the tokens carrying this key ID.
+ * <br>
+ * @author Julb.
+ */
+final class BatchJWKSetProvider implements IJWKSetProvider {
+
+    /**
+     * The provider to which the refreshes are delegated.
+     */
+    private final IJWKSetProvider delegate;
+
+    /**
+     * The pinned snapshot.
+     */
+    private volatile JWKSetSnapshot snapshot;
+
+    /**
+     * The outcome of the refreshes already delegated, by key ID.
+     */
+    private final Map<String, Boolean> refreshedKids = new HashMap<>();
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param delegate the provider to pin.
+     */
+    BatchJWKSetProvider(IJWKSetProvider delegate) {
+        super();
+        this.delegate = delegate;
+        this.snapshot = delegate.toJWKSetSnapshot();
+    }
+
+    // ------------------------------------------ Overridden methods.
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JWKSet get() {
+        return this.snapshot.getJWKSet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JWKSetSnapshot toJWKSetSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getJWKSetAgeInMillis() {
+        return this.delegate.getJWKSetAgeInMillis();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean refreshJWKSet(String kid) {
+        return this.refreshedKids.computeIfAbsent(kid, k -> {
+            if (this.delegate.refreshJWKSet(k)) {
+                this.snapshot = this.delegate.toJWKSetSnapshot();
+                return Boolean.TRUE;
+            }
+            return Boolean.FALSE;
+        });
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import org.apache.commons.lang3.StringUtils;
+
+import me.julb.commons.security.josejwt.digest.TokenDigest;
+import me.julb.commons.security.josejwt.digest.TokenDigestAlgorithm;
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+import me.julb.commons.security.josejwt.jwk.IJWKProvider;
+import me.julb.commons.security.josejwt.metrics.ITokenMetricsRecorder;
+import me.julb.commons.security.josejwt.metrics.TokenStage;
+import me.julb.commons.security.josejwt.operations.PreparedEncryption;
+import me.julb.commons.security.josejwt.operations.PreparedSignature;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A JWT emitter resolving its keys once.
+ * <br>
+ * Unlike {@link TokenEmitter}, the keys, the signer, the encrypter, the algorithms and the headers are resolved when
+ * the keys are set, and then reused for every token. The emitter is safe for concurrent use: the keys can be rotated
+ * at any time, the prepared state being swapped atomically so that a token is always signed and encrypted with keys
+ * set together.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public class PreparedTokenEmitter {
+
+    /**
+     * The prepared state.
+     */
+    private volatile PreparedState preparedState = new PreparedState(null, null, null, null);
+
+    /**
+     * The algorithm used to digest the tokens in the log lines.
+     */
+    private volatile TokenDigestAlgorithm tokenDigestAlgorithm = TokenDigestAlgorithm.SHA_256;
+
+    /**
+     * The metrics recorder.
+     */
+    private volatile ITokenMetricsRecorder metricsRecorder = ITokenMetricsRecorder.NOOP;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Default Constructor.
+     */
+    public PreparedTokenEmitter() {
+        super();
+    }
+
+    // ------------------------------------------ Builder methods.
+
+    /**
+     * Setter for property encryptionJWKProvider.
+     * <br>
+     * The key is resolved immediately and used for the next tokens.
+     * @param encryptionJWKProvider New value of property encryptionJWKProvider.
+     * @return the current instance.
+     * @throws JOSEJWTException if the key is not supported.
+     */
+    public synchronized PreparedTokenEmitter setEncryptionJWKProvider(IJWKProvider encryptionJWKProvider)
+            throws JOSEJWTException {
+        return rotate(this.preparedState.signatureJWKProvider(), encryptionJWKProvider);
+    }
+
+    /**
+     * Setter for property signatureJWKProvider.
+     * <br>
+     * The key is resolved immediately and used for the next tokens.
+     * @param signatureJWKProvider New value of property signatureJWKProvider.
+     * @return the current instance.
+     * @throws JOSEJWTException if the key or its algorithm is not supported.
+     */
+    public synchronized PreparedTokenEmitter setSignatureJWKProvider(IJWKProvider signatureJWKProvider)
+            throws JOSEJWTException {
+        return rotate(signatureJWKProvider, this.preparedState.encryptionJWKProvider());
+    }
+
+    /**
+     * Setter for property tokenDigestAlgorithm.
+     * <br>
+     * The algorithm used to digest the tokens in the log lines, SHA-256 by default.
+     * @param tokenDigestAlgorithm New value of property tokenDigestAlgorithm.
+     * @return the current instance.
+     */
+    public PreparedTokenEmitter setTokenDigestAlgorithm(TokenDigestAlgorithm tokenDigestAlgorithm) {
+        this.tokenDigestAlgorithm = tokenDigestAlgorithm;
+        return this;
+    }
+
+    /**
+     * Setter for property metricsRecorder.
+     * @param metricsRecorder New value of property metricsRecorder.
+     * @return the current instance.
+     */
+    public PreparedTokenEmitter setMetricsRecorder(ITokenMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+        return this;
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Replaces both keys at once.
+     * <br>
+     * The keys are resolved immediately and used for the next tokens. If a key is not supported, the current keys
+     * are kept.
+     * @param signatureJWKProvider the signature private key.
+     * @param encryptionJWKProvider the encryption key, or <code>null</code> to sign the tokens only.
+     * @return the current instance.
+     * @throws JOSEJWTException if a key is not supported.
+     */
+    public synchronized PreparedTokenEmitter rotate(
+            IJWKProvider signatureJWKProvider, IJWKProvider encryptionJWKProvider) throws JOSEJWTException {
+        var preparedSignature =
+                signatureJWKProvider != null ? PreparedSignature.of(signatureJWKProvider.toJWK()) : null;
+        var preparedEncryption =
+                encryptionJWKProvider != null ? PreparedEncryption.of(encryptionJWKProvider.toJWK()) : null;
+        this.preparedState =
+                new PreparedState(signatureJWKProvider, encryptionJWKProvider, preparedSignature, preparedEncryption);
+        return this;
+    }
+
+    /**
+     * Resolves the keys again from the current providers, to pick up keys rotated by the providers themselves.
+     * @return the current instance.
+     * @throws JOSEJWTException if a key is not supported.
+     */
+    public synchronized PreparedTokenEmitter refresh() throws JOSEJWTException {
+        var currentState = this.preparedState;
+        return rotate(currentState.signatureJWKProvider(), currentState.encryptionJWKProvider());
+    }
+
+    /**
+     * Emits a JSON web token signed and encrypted.
+     * @param jwtClaims the raw JSON web token.
+     * @return the JSON web token signed and encrypted.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public String emit(String jwtClaims) throws JOSEJWTException {
+        try {
+            // Read the state once so that both keys belong to the same rotation.
+            var currentState = this.preparedState;
+
+            // Check all informations are provided.
+            if (StringUtils.isBlank(jwtClaims)) {
+                throw new IllegalArgumentException("token must not be blank");
+            }
+
+            if (currentState.preparedSignature() == null) {
+                throw new IllegalArgumentException("signature private key must not be null");
+            }
+
+            // Hash for tracking purpose, computed only if logged.
+            var hash = TokenDigest.of(jwtClaims, this.tokenDigestAlgorithm);
+            LOGGER.debug("Token <{}> - Start emitting.", hash);
+
+            // 1. Signing the token.
+            var startTime = System.nanoTime();
+            var signedToken = currentState.preparedSignature().sign(jwtClaims, hash);
+            metricsRecorder.recordStage(TokenStage.SIGN, System.nanoTime() - startTime);
+
+            // 2. Encrypting the token.
+            if (currentState.preparedEncryption() != null) {
+                startTime = System.nanoTime();
+                var encryptedToken = currentState.preparedEncryption().encrypt(signedToken, hash);
+                metricsRecorder.recordStage(TokenStage.ENCRYPT, System.nanoTime() - startTime);
+
+                // 3. Return the token
+                LOGGER.debug("Emitting token {} - Finish.", hash);
+                return encryptedToken;
+            } else {
+                // 3. Return the token
+                LOGGER.debug("Emitting token {} - Finish.", hash);
+                return signedToken;
+            }
+        } catch (JOSEJWTException e) {
+            LOGGER.error(e.getMessage(), e);
+            metricsRecorder.recordFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * The prepared state of the emitter.
+     * <br>
+     * @author Julb.
+     */
+    private record PreparedState(
+            IJWKProvider signatureJWKProvider,
+            IJWKProvider encryptionJWKProvider,
+            PreparedSignature preparedSignature,
+            PreparedEncryption preparedEncryption) {}
+}
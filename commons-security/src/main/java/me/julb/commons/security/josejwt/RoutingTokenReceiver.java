@@ -0,0 +1,302 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import me.julb.commons.security.josejwt.digest.TokenDigest;
+import me.julb.commons.security.josejwt.digest.TokenDigestAlgorithm;
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.badrequest.MalformedTokenJOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.badrequest.MissingIssuerInTokenJOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.unauthorized.InvalidIssuerInTokenJOSEJWTException;
+import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.metrics.ITokenMetricsRecorder;
+import me.julb.commons.security.josejwt.operations.JWSVerifierCache;
+import me.julb.commons.security.josejwt.operations.TokenDecryptionOperation;
+import me.julb.commons.security.josejwt.operations.TokenVerifierOperation;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The JWT receiver accepting tokens from several issuers.
+ * <br>
+ * Each issuer is registered with its own signature keys and expected audience. A token is first decrypted with the
+ * encryption keys of the receiver if any, then its unverified issuer is read with a cheap scan of its payload and used
+ * to select the issuer in a hash table. The token is finally verified against the signature keys, the issuer and the
+ * audience of this issuer only, so that a token is never tried against the keys of other issuers.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public class RoutingTokenReceiver {
+
+    /**
+     * The encryption keys.
+     */
+    private IJWKSetProvider encryptionJWKSetProvider;
+
+    /**
+     * The issuers, indexed by lower-case issuer as issuers are compared ignoring case.
+     */
+    private volatile Map<String, IssuerRoute> routes = Map.of();
+
+    /**
+     * The algorithm used to digest the tokens in the log lines.
+     */
+    private TokenDigestAlgorithm tokenDigestAlgorithm = TokenDigestAlgorithm.SHA_256;
+
+    /**
+     * The metrics recorder.
+     */
+    private ITokenMetricsRecorder metricsRecorder = ITokenMetricsRecorder.NOOP;
+
+    /**
+     * The pre-validator rejecting malformed tokens before parsing them.
+     */
+    private TokenPreValidator tokenPreValidator = new TokenPreValidator();
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    public RoutingTokenReceiver() {
+        super();
+    }
+
+    // ------------------------------------------ Builder methods.
+
+    /**
+     * Setter for property encryptionJWKSetProvider.
+     * @param encryptionJWKSetProvider New value of property encryptionJWKSetProvider.
+     * @return the current instance.
+     */
+    public RoutingTokenReceiver setEncryptionJWKSetProvider(IJWKSetProvider encryptionJWKSetProvider) {
+        this.encryptionJWKSetProvider = encryptionJWKSetProvider;
+        return this;
+    }
+
+    /**
+     * Registers an issuer, replacing the previous registration of the same issuer if any.
+     * <br>
+     * Issuers are compared ignoring case.
+     * @param issuer the issuer.
+     * @param expectedAudience the audience expected in the tokens of this issuer.
+     * @param signatureJWKSetProvider the signature keys of this issuer.
+     * @return the current instance.
+     */
+    public synchronized RoutingTokenReceiver addIssuer(
+            String issuer, String expectedAudience, IJWKSetProvider signatureJWKSetProvider) {
+        if (StringUtils.isBlank(issuer)) {
+            throw new IllegalArgumentException("issuer must not be blank");
+        }
+        if (StringUtils.isBlank(expectedAudience)) {
+            throw new IllegalArgumentException("audience must not be blank");
+        }
+        if (signatureJWKSetProvider == null) {
+            throw new IllegalArgumentException("signature key must be provided");
+        }
+
+        var newRoutes = new HashMap<>(this.routes);
+        newRoutes.put(
+                routeKey(issuer),
+                new IssuerRoute(issuer, expectedAudience, signatureJWKSetProvider, new JWSVerifierCache()));
+        this.routes = Map.copyOf(newRoutes);
+        return this;
+    }
+
+    /**
+     * Unregisters an issuer.
+     * <br>
+     * The issuer is compared ignoring case.
+     * @param issuer the issuer.
+     * @return the current instance.
+     */
+    public synchronized RoutingTokenReceiver removeIssuer(String issuer) {
+        if (issuer == null) {
+            return this;
+        }
+        var newRoutes = new HashMap<>(this.routes);
+        newRoutes.remove(routeKey(issuer));
+        this.routes = Map.copyOf(newRoutes);
+        return this;
+    }
+
+    /**
+     * Setter for property tokenDigestAlgorithm.
+     * <br>
+     * The algorithm used to digest the tokens in the log lines, SHA-256 by default.
+     * @param tokenDigestAlgorithm New value of property tokenDigestAlgorithm.
+     * @return the current instance.
+     */
+    public RoutingTokenReceiver setTokenDigestAlgorithm(TokenDigestAlgorithm tokenDigestAlgorithm) {
+        this.tokenDigestAlgorithm = tokenDigestAlgorithm;
+        return this;
+    }
+
+    /**
+     * Setter for property metricsRecorder.
+     * @param metricsRecorder New value of property metricsRecorder.
+     * @return the current instance.
+     */
+    public RoutingTokenReceiver setMetricsRecorder(ITokenMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+        return this;
+    }
+
+    /**
+     * Setter for property tokenPreValidator.
+     * <br>
+     * The pre-validator rejects the malformed tokens with a {@link MalformedTokenJOSEJWTException}, without stack
+     * trace nor error log, before they reach the parser. A default one is set.
+     * @param tokenPreValidator New value of property tokenPreValidator, or <code>null</code> to disable it.
+     * @return the current instance.
+     */
+    public RoutingTokenReceiver setTokenPreValidator(TokenPreValidator tokenPreValidator) {
+        this.tokenPreValidator = tokenPreValidator;
+        return this;
+    }
+
+    /**
+     * Getter for property tokenPreValidator.
+     * @return Value of property tokenPreValidator, which holds the rejection counts.
+     */
+    public TokenPreValidator getTokenPreValidator() {
+        return this.tokenPreValidator;
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Receives a JSON web token signed and optionally encrypted, decrypts it and check its signature against the keys
+     * of its issuer.
+     * @param token the ciphered and signed JSON web token.
+     * @return the JSON web token decrypted and valid for processing.
+     * @throws JOSEJWTException if an error occurs, in particular if the issuer of the token is not registered.
+     */
+    public String receive(String token) throws JOSEJWTException {
+        if (StringUtils.isBlank(token)) {
+            throw new IllegalArgumentException("token must not be blank");
+        }
+
+        // Reject the malformed tokens before parsing them.
+        if (tokenPreValidator != null) {
+            var preValidationResult = encryptionJWKSetProvider != null
+                    ? tokenPreValidator.validateJWE(token)
+                    : tokenPreValidator.validateJWS(token);
+            if (preValidationResult != TokenPreValidationResult.VALID) {
+                LOGGER.debug("Token rejected before parsing: <{}>.", preValidationResult);
+                var e = new MalformedTokenJOSEJWTException(preValidationResult);
+                metricsRecorder.recordFailure(e);
+                throw e;
+            }
+        }
+
+        try {
+            // Hash for tracking purpose, computed only if logged.
+            var hash = TokenDigest.of(token, tokenDigestAlgorithm);
+
+            LOGGER.debug("Token <{}> - Start receiving.", hash);
+
+            // 1. Decrypting the token.
+            String decryptedToken = null;
+            if (encryptionJWKSetProvider != null) {
+                var tokenDecryptionOperation =
+                        new TokenDecryptionOperation(encryptionJWKSetProvider).setMetricsRecorder(metricsRecorder);
+                decryptedToken = tokenDecryptionOperation.execute(token, hash);
+            } else {
+                decryptedToken = token;
+            }
+
+            // 2. Route the token to its issuer.
+            var route = route(decryptedToken);
+            LOGGER.debug("Token <{}> - Routed to issuer <{}>.", hash, route.issuer());
+
+            // 3. Check signature of token.
+            var tokenVerifierOperation = new TokenVerifierOperation(
+                            route.signatureJWKSetProvider(),
+                            route.expectedAudience(),
+                            route.issuer(),
+                            route.jwsVerifierCache())
+                    .setMetricsRecorder(metricsRecorder);
+            var jwtClaims = tokenVerifierOperation.verify(decryptedToken, hash).getPayload();
+
+            // 4. Finish
+            LOGGER.debug("Token <{}> - Finish receiving.", hash);
+            return jwtClaims;
+        } catch (JOSEJWTException e) {
+            LOGGER.error(e.getMessage(), e);
+            metricsRecorder.recordFailure(e);
+            throw e;
+        }
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Selects the issuer of a signed token from its unverified issuer claim.
+     * <br>
+     * The issuer is compared ignoring case, as in {@link TokenVerifierOperation}.
+     * @param signedToken the signed token.
+     * @return the issuer route.
+     * @throws JOSEJWTException if the token has no issuer or an issuer which is not registered.
+     */
+    private IssuerRoute route(String signedToken) throws JOSEJWTException {
+        var issuer = TokenPeeker.peekClaim(signedToken, TokenPeeker.ISS);
+        if (issuer == null) {
+            throw new MissingIssuerInTokenJOSEJWTException();
+        }
+
+        var route = this.routes.get(routeKey(issuer));
+        if (route == null) {
+            throw new InvalidIssuerInTokenJOSEJWTException(issuer);
+        }
+        return route;
+    }
+
+    /**
+     * Gets the key of an issuer in the routes.
+     * @param issuer the issuer.
+     * @return the key of the issuer.
+     */
+    private static String routeKey(String issuer) {
+        return issuer.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The configuration of an issuer.
+     * <br>
+     * @author Julb.
+     */
+    private record IssuerRoute(
+            String issuer,
+            String expectedAudience,
+            IJWKSetProvider signatureJWKSetProvider,
+            JWSVerifierCache jwsVerifierCache) {}
+}
@@ -25,9 +25,12 @@ package me.julb.commons.security.josejwt;
 
 import org.apache.commons.lang3.StringUtils;
 
-import me.julb.commons.security.josejwt.digest.TokenDigestUtility;
+import me.julb.commons.security.josejwt.digest.TokenDigest;
+import me.julb.commons.security.josejwt.digest.TokenDigestAlgorithm;
 import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
 import me.julb.commons.security.josejwt.jwk.IJWKProvider;
+import me.julb.commons.security.josejwt.metrics.ITokenMetricsRecorder;
+import me.julb.commons.security.josejwt.metrics.TokenStage;
 import me.julb.commons.security.josejwt.operations.TokenEncryptionOperation;
 import me.julb.commons.security.josejwt.operations.TokenSignatureOperation;
 
@@ -51,6 +54,16 @@ public class TokenEmitter {
      */
     private IJWKProvider encryptionJWKProvider;
 
+    /**
+     * The algorithm used to digest the tokens in the log lines.
+     */
+    private TokenDigestAlgorithm tokenDigestAlgorithm = TokenDigestAlgorithm.SHA_256;
+
+    /**
+     * The metrics recorder.
+     */
+    private ITokenMetricsRecorder metricsRecorder = ITokenMetricsRecorder.NOOP;
+
     // ------------------------------------------ Constructors.
 
     /**
@@ -82,6 +95,28 @@ public class TokenEmitter {
         return this;
     }
 
+    /**
+     * Setter for property tokenDigestAlgorithm.
+     * <br>
+     * The algorithm used to digest the tokens in the log lines, SHA-256 by default.
+     * @param tokenDigestAlgorithm New value of property tokenDigestAlgorithm.
+     * @return the current instance.
+     */
+    public TokenEmitter setTokenDigestAlgorithm(TokenDigestAlgorithm tokenDigestAlgorithm) {
+        this.tokenDigestAlgorithm = tokenDigestAlgorithm;
+        return this;
+    }
+
+    /**
+     * Setter for property metricsRecorder.
+     * @param metricsRecorder New value of property metricsRecorder.
+     * @return the current instance.
+     */
+    public TokenEmitter setMetricsRecorder(ITokenMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+        return this;
+    }
+
     // ------------------------------------------ Utility methods.
 
     /**
@@ -101,18 +136,22 @@ public class TokenEmitter {
                 throw new IllegalArgumentException("signature private key must not be null");
             }
 
-            // Hash for tracking purpose.
-            var hash = TokenDigestUtility.hash(jwtClaims);
+            // Hash for tracking purpose, computed only if logged.
+            var hash = TokenDigest.of(jwtClaims, this.tokenDigestAlgorithm);
             LOGGER.debug("Token <{}> - Start emitting.", hash);
 
             // 1. Signing the token.
+            var startTime = System.nanoTime();
             var tokenSignatureOperation = new TokenSignatureOperation(this.signatureJWKProvider);
-            var signedToken = tokenSignatureOperation.execute(jwtClaims);
+            var signedToken = tokenSignatureOperation.execute(jwtClaims, hash);
+            metricsRecorder.recordStage(TokenStage.SIGN, System.nanoTime() - startTime);
 
             // 2. Encrypting the token.
             if (this.encryptionJWKProvider != null) {
+                startTime = System.nanoTime();
                 var tokenEncryptionOperation = new TokenEncryptionOperation(this.encryptionJWKProvider);
-                var encryptedToken = tokenEncryptionOperation.execute(signedToken);
+                var encryptedToken = tokenEncryptionOperation.execute(signedToken, hash);
+                metricsRecorder.recordStage(TokenStage.ENCRYPT, System.nanoTime() - startTime);
 
                 // 3. Return the token
                 LOGGER.debug("Emitting token {} - Finish.", hash);
@@ -124,6 +163,7 @@ public class TokenEmitter {
             }
         } catch (JOSEJWTException e) {
             LOGGER.error(e.getMessage(), e);
+            metricsRecorder.recordFailure(e);
             throw e;
         }
     }
@@ -0,0 +1,320 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Reads unverified members of a compact JWS or JWE without parsing it.
+ * <br>
+ * Only the needed part of the token is decoded, and its JSON is scanned for a string member of the top-level object,
+ * without building any JSON tree. The values read are untrusted: they may only be used to select how to verify the
+ * token, never in place of the verification.
+ * <br>
+ * @author Julb.
+ */
+final class TokenPeeker {
+
+    /**
+     * The key ID header parameter.
+     */
+    static final String KID = "kid";
+
+    /**
+     * The issuer claim, which may also be replicated in the header of an encrypted token.
+     */
+    static final String ISS = "iss";
+
+    /**
+     * The number of parts of a compact JWS.
+     */
+    private static final int JWS_PARTS = 3;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    private TokenPeeker() {
+        super();
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Reads a string member of the header of a token.
+     * @param token the compact token.
+     * @param name the name of the member.
+     * @return the value, or <code>null</code> if the member is absent, not a string or the token is not parseable.
+     */
+    static String peekHeader(String token, String name) {
+        if (token == null) {
+            return null;
+        }
+        var headerEnd = token.indexOf('.');
+        if (headerEnd <= 0) {
+            return null;
+        }
+        return findString(decode(token, 0, headerEnd), name);
+    }
+
+    /**
+     * Reads a string claim of the payload of a signed token.
+     * @param token the compact JWS.
+     * @param name the name of the claim.
+     * @return the value, or <code>null</code> if the claim is absent, not a string, the token is not a JWS or is not
+     *         parseable.
+     */
+    static String peekClaim(String token, String name) {
+        if (!isJWS(token)) {
+            return null;
+        }
+        var payloadStart = token.indexOf('.') + 1;
+        var payloadEnd = token.indexOf('.', payloadStart);
+        return findString(decode(token, payloadStart, payloadEnd), name);
+    }
+
+    /**
+     * Checks if a token is a compact JWS, i.e. made of three parts.
+     * @param token the compact token.
+     * @return <code>true</code> if the token has three parts, <code>false</code> otherwise.
+     */
+    static boolean isJWS(String token) {
+        if (token == null) {
+            return false;
+        }
+        var parts = 1;
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) == '.') {
+                parts++;
+            }
+        }
+        return parts == JWS_PARTS;
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Decodes a Base64URL part of a token.
+     * @param token the token.
+     * @param start the start index of the part.
+     * @param end the end index of the part, exclusive.
+     * @return the decoded bytes, or <code>null</code> if the part is not valid Base64URL.
+     */
+    private static byte[] decode(String token, int start, int end) {
+        try {
+            return Base64.getUrlDecoder().decode(token.substring(start, end));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds a string member of the top-level JSON object.
+     * @param json the JSON, encoded in UTF-8.
+     * @param name the name of the member, without characters to escape.
+     * @return the value, or <code>null</code> if it cannot be found.
+     */
+    private static String findString(byte[] json, String name) {
+        if (json == null) {
+            return null;
+        }
+        var i = skipWhitespaces(json, 0);
+        if (i >= json.length || json[i] != '{') {
+            return null;
+        }
+        i = skipWhitespaces(json, i + 1);
+        while (i < json.length && json[i] == '"') {
+            // Read the name.
+            var nameEnd = endOfString(json, i);
+            if (nameEnd < 0) {
+                return null;
+            }
+            var matches = equalsAscii(json, i + 1, nameEnd, name);
+            i = skipWhitespaces(json, nameEnd + 1);
+            if (i >= json.length || json[i] != ':') {
+                return null;
+            }
+            i = skipWhitespaces(json, i + 1);
+            if (i >= json.length) {
+                return null;
+            }
+
+            // Read or skip the value.
+            if (matches) {
+                return json[i] == '"' ? readString(json, i) : null;
+            }
+            i = skipValue(json, i);
+            if (i < 0) {
+                return null;
+            }
+            i = skipWhitespaces(json, i);
+            if (i >= json.length || json[i] != ',') {
+                return null;
+            }
+            i = skipWhitespaces(json, i + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Skips the whitespaces.
+     * @param json the JSON.
+     * @param index the current index.
+     * @return the index of the next character which is not a whitespace.
+     */
+    private static int skipWhitespaces(byte[] json, int index) {
+        var i = index;
+        while (i < json.length && (json[i] == ' ' || json[i] == '\t' || json[i] == '\n' || json[i] == '\r')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Finds the end of a string.
+     * @param json the JSON.
+     * @param index the index of the opening quote.
+     * @return the index of the closing quote, or <code>-1</code> if the string is not terminated.
+     */
+    private static int endOfString(byte[] json, int index) {
+        for (int i = index + 1; i < json.length; i++) {
+            if (json[i] == '\\') {
+                i++;
+            } else if (json[i] == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips a value.
+     * @param json the JSON.
+     * @param index the index of the first character of the value.
+     * @return the index following the value, or <code>-1</code> if the value is not terminated.
+     */
+    private static int skipValue(byte[] json, int index) {
+        if (json[index] == '"') {
+            var end = endOfString(json, index);
+            return end < 0 ? -1 : end + 1;
+        }
+        var depth = 0;
+        for (int i = index; i < json.length; i++) {
+            var c = json[i];
+            if (c == '"') {
+                i = endOfString(json, i);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            } else if (c == ',' && depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a JSON string without escape equals an ASCII name.
+     * @param json the JSON.
+     * @param start the index of the first character of the string.
+     * @param end the index of the closing quote.
+     * @param name the name.
+     * @return <code>true</code> if they are equal, <code>false</code> otherwise.
+     */
+    private static boolean equalsAscii(byte[] json, int start, int end, String name) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (json[start + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a string value.
+     * @param json the JSON.
+     * @param index the index of the opening quote.
+     * @return the string, or <code>null</code> if it is not valid.
+     */
+    private static String readString(byte[] json, int index) {
+        var end = endOfString(json, index);
+        if (end < 0) {
+            return null;
+        }
+        var raw = new String(json, index + 1, end - index - 1, StandardCharsets.UTF_8);
+        if (raw.indexOf('\\') < 0) {
+            return raw;
+        }
+
+        var unescaped = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            var c = raw.charAt(i);
+            if (c != '\\') {
+                unescaped.append(c);
+                continue;
+            }
+            if (++i >= raw.length()) {
+                return null;
+            }
+            switch (raw.charAt(i)) {
+                case '"', '\\', '/' -> unescaped.append(raw.charAt(i));
+                case 'b' -> unescaped.append('\b');
+                case 'f' -> unescaped.append('\f');
+                case 'n' -> unescaped.append('\n');
+                case 'r' -> unescaped.append('\r');
+                case 't' -> unescaped.append('\t');
+                case 'u' -> {
+                    if (i + 4 >= raw.length()) {
+                        return null;
+                    }
+                    try {
+                        unescaped.append((char) Integer.parseInt(raw, i + 1, i + 5, 16));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    i += 4;
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+        return unescaped.toString();
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+/**
+ * The outcome of the pre-validation of a token by a {@link TokenPreValidator}.
+ * <br>
+ * @author Julb.
+ */
+public enum TokenPreValidationResult {
+
+    /**
+     * The token has the shape of a compact serialized token.
+     */
+    VALID,
+
+    /**
+     * The token is <code>null</code> or empty.
+     */
+    BLANK,
+
+    /**
+     * The token is longer than the maximum length.
+     */
+    TOO_LONG,
+
+    /**
+     * The token does not have the expected number of segments.
+     */
+    INVALID_SEGMENT_COUNT,
+
+    /**
+     * A segment of the token contains a character out of the Base64URL alphabet or has an impossible length.
+     */
+    INVALID_ENCODING,
+
+    /**
+     * The header of the token is not a JSON object.
+     */
+    INVALID_HEADER;
+}
@@ -0,0 +1,267 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cheap check of the shape of a compact serialized token, meant to run before the token is parsed.
+ * <br>
+ * The check counts the segments, verifies that they only contain Base64URL characters, optionally bounds the length of
+ * the token and decodes the header on the fly to verify that it is a JSON object. It allocates nothing and throws nothing, so
+ * that garbage tokens are rejected without paying for the Base64URL decoding, the JSON parsing and the exceptions of
+ * the parser. The outcomes are counted, which helps spotting a flood of malformed tokens.
+ * <br>
+ * Instances are thread-safe.
+ * <br>
+ * @author Julb.
+ */
+public class TokenPreValidator {
+
+    /**
+     * The maximum length meaning that the length of the tokens is not bounded, the default.
+     */
+    public static final int UNLIMITED_LENGTH = Integer.MAX_VALUE;
+
+    /**
+     * The number of segments of a JWS.
+     */
+    private static final int JWS_SEGMENT_COUNT = 3;
+
+    /**
+     * The number of segments of a JWE.
+     */
+    private static final int JWE_SEGMENT_COUNT = 5;
+
+    /**
+     * The value of the Base64URL characters, indexed by character, -1 if the character is not in the alphabet.
+     */
+    private static final byte[] BASE64URL_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL_VALUES, (byte) -1);
+        var alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    /**
+     * The maximum length of a token.
+     */
+    private final int maximumLength;
+
+    /**
+     * The number of tokens per outcome.
+     */
+    private final Map<TokenPreValidationResult, LongAdder> counts;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor, without bound on the length of the tokens.
+     */
+    public TokenPreValidator() {
+        this(UNLIMITED_LENGTH);
+    }
+
+    /**
+     * Constructor.
+     * <br>
+     * Bounding the length is opt-in: tokens such as nested JWE with large claim sets may be long, so the bound must be
+     * chosen according to the tokens actually issued.
+     * @param maximumLength the maximum length of a token, or {@link #UNLIMITED_LENGTH}.
+     */
+    public TokenPreValidator(int maximumLength) {
+        super();
+        if (maximumLength <= 0) {
+            throw new IllegalArgumentException("maximum length must be positive");
+        }
+        this.maximumLength = maximumLength;
+        this.counts = new EnumMap<>(TokenPreValidationResult.class);
+        for (TokenPreValidationResult result : TokenPreValidationResult.values()) {
+            this.counts.put(result, new LongAdder());
+        }
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Checks that a token has the shape of a compact serialized JWS.
+     * @param token the token.
+     * @return the outcome of the check.
+     */
+    public TokenPreValidationResult validateJWS(CharSequence token) {
+        return count(validate(token, JWS_SEGMENT_COUNT));
+    }
+
+    /**
+     * Checks that a token has the shape of a compact serialized JWE.
+     * @param token the token.
+     * @return the outcome of the check.
+     */
+    public TokenPreValidationResult validateJWE(CharSequence token) {
+        return count(validate(token, JWE_SEGMENT_COUNT));
+    }
+
+    /**
+     * Gets the number of tokens checked with the given outcome.
+     * @param result the outcome.
+     * @return the number of tokens.
+     */
+    public long getCount(TokenPreValidationResult result) {
+        return counts.get(result).sum();
+    }
+
+    /**
+     * Gets the number of tokens rejected, whatever the reason.
+     * @return the number of tokens rejected.
+     */
+    public long getRejectedCount() {
+        long rejectedCount = 0;
+        for (Map.Entry<TokenPreValidationResult, LongAdder> entry : counts.entrySet()) {
+            if (entry.getKey() != TokenPreValidationResult.VALID) {
+                rejectedCount += entry.getValue().sum();
+            }
+        }
+        return rejectedCount;
+    }
+
+    /**
+     * Resets the counts.
+     */
+    public void resetCounts() {
+        counts.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Getter for property maximumLength.
+     * @return Value of property maximumLength.
+     */
+    public int getMaximumLength() {
+        return maximumLength;
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Counts an outcome.
+     * @param result the outcome.
+     * @return the outcome.
+     */
+    private TokenPreValidationResult count(TokenPreValidationResult result) {
+        counts.get(result).increment();
+        return result;
+    }
+
+    /**
+     * Checks the shape of a compact serialized token.
+     * @param token the token.
+     * @param expectedSegmentCount the expected number of segments.
+     * @return the outcome of the check.
+     */
+    private TokenPreValidationResult validate(CharSequence token, int expectedSegmentCount) {
+        if (token == null || token.length() == 0) {
+            return TokenPreValidationResult.BLANK;
+        }
+
+        int length = token.length();
+        if (length > maximumLength) {
+            return TokenPreValidationResult.TOO_LONG;
+        }
+
+        // Check the alphabet and the segments in one pass.
+        int segmentCount = 1;
+        int segmentStart = 0;
+        int headerEnd = -1;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (!isValidSegmentLength(i - segmentStart)) {
+                    return TokenPreValidationResult.INVALID_ENCODING;
+                }
+                if (headerEnd < 0) {
+                    headerEnd = i;
+                }
+                if (++segmentCount > expectedSegmentCount) {
+                    return TokenPreValidationResult.INVALID_SEGMENT_COUNT;
+                }
+                segmentStart = i + 1;
+            } else if (c >= BASE64URL_VALUES.length || BASE64URL_VALUES[c] < 0) {
+                return TokenPreValidationResult.INVALID_ENCODING;
+            }
+        }
+        if (segmentCount != expectedSegmentCount) {
+            return TokenPreValidationResult.INVALID_SEGMENT_COUNT;
+        }
+        if (!isValidSegmentLength(length - segmentStart)) {
+            return TokenPreValidationResult.INVALID_ENCODING;
+        }
+
+        if (!isJSONObject(token, headerEnd)) {
+            return TokenPreValidationResult.INVALID_HEADER;
+        }
+        return TokenPreValidationResult.VALID;
+    }
+
+    /**
+     * Checks that a segment length is possible for an unpadded Base64URL value.
+     * @param segmentLength the segment length.
+     * @return <code>true</code> if the length is possible, <code>false</code> otherwise.
+     */
+    private static boolean isValidSegmentLength(int segmentLength) {
+        return segmentLength % 4 != 1;
+    }
+
+    /**
+     * Decodes the header on the fly and checks that its first and last non-whitespace bytes are curly brackets.
+     * @param token the token, whose characters are known to be in the Base64URL alphabet.
+     * @param headerEnd the end of the header, exclusive.
+     * @return <code>true</code> if the header looks like a JSON object, <code>false</code> otherwise.
+     */
+    private static boolean isJSONObject(CharSequence token, int headerEnd) {
+        int first = -1;
+        int last = -1;
+        int buffer = 0;
+        int bufferedBits = 0;
+        for (int i = 0; i < headerEnd; i++) {
+            buffer = (buffer << 6) | BASE64URL_VALUES[token.charAt(i)];
+            bufferedBits += 6;
+            if (bufferedBits >= 8) {
+                bufferedBits -= 8;
+                int b = (buffer >>> bufferedBits) & 0xFF;
+                if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                    if (first < 0) {
+                        first = b;
+                    }
+                    last = b;
+                }
+            }
+        }
+        return first == '{' && last == '}';
+    }
+}
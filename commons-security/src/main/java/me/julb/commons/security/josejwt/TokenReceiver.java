@@ -23,11 +23,29 @@
  */
 package me.julb.commons.security.josejwt;
 
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.commons.lang3.StringUtils;
 
+import com.nimbusds.jose.jwk.KeyUse;
+
+import me.julb.commons.security.josejwt.digest.TokenDigest;
+import me.julb.commons.security.josejwt.digest.TokenDigestAlgorithm;
 import me.julb.commons.security.josejwt.digest.TokenDigestUtility;
 import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.badrequest.MalformedTokenJOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.badrequest.TokenNotParseableJOSEJWTException;
 import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.metrics.ITokenMetricsRecorder;
+import me.julb.commons.security.josejwt.operations.JWSVerifierCache;
 import me.julb.commons.security.josejwt.operations.TokenDecryptionOperation;
 import me.julb.commons.security.josejwt.operations.TokenVerifierOperation;
 
@@ -41,6 +59,11 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TokenReceiver {
 
+    /**
+     * The maximum number of tokens of a batch received by a single task.
+     */
+    private static final int BATCH_CHUNK_SIZE = 64;
+
     /**
      * The signatures keys.
      */
@@ -51,6 +74,36 @@ public class TokenReceiver {
      */
     private IJWKSetProvider encryptionJWKSetProvider;
 
+    /**
+     * The cache of signature verifiers.
+     */
+    private JWSVerifierCache jwsVerifierCache = new JWSVerifierCache();
+
+    /**
+     * The cache of verified tokens, disabled by default.
+     */
+    private VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * The executor receiving the tokens of a batch.
+     */
+    private Executor batchExecutor = ForkJoinPool.commonPool();
+
+    /**
+     * The algorithm used to digest the tokens in the log lines.
+     */
+    private TokenDigestAlgorithm tokenDigestAlgorithm = TokenDigestAlgorithm.SHA_256;
+
+    /**
+     * The metrics recorder.
+     */
+    private ITokenMetricsRecorder metricsRecorder = ITokenMetricsRecorder.NOOP;
+
+    /**
+     * The pre-validator rejecting malformed tokens before parsing them.
+     */
+    private TokenPreValidator tokenPreValidator = new TokenPreValidator();
+
     // ------------------------------------------ Constructors.
 
     /**
@@ -82,6 +135,95 @@ public class TokenReceiver {
         return this;
     }
 
+    /**
+     * Setter for property jwsVerifierCache.
+     * @param jwsVerifierCache New value of property jwsVerifierCache, or <code>null</code> to disable the cache.
+     * @return the current instance.
+     */
+    public TokenReceiver setJWSVerifierCache(JWSVerifierCache jwsVerifierCache) {
+        this.jwsVerifierCache = jwsVerifierCache;
+        return this;
+    }
+
+    /**
+     * Getter for property jwsVerifierCache.
+     * @return Value of property jwsVerifierCache.
+     */
+    public JWSVerifierCache getJWSVerifierCache() {
+        return this.jwsVerifierCache;
+    }
+
+    /**
+     * Setter for property verifiedTokenCache.
+     * <br>
+     * When set, a token already received with the same expected issuer and audience is served from the cache instead
+     * of being decrypted and verified again, until it expires or the time-to-live of the cache elapses.
+     * <br>
+     * A cached token is served only while the key which has verified its signature is still in the signature JWK
+     * set: once the key is rotated out or revoked and the provider has reloaded the JWK set, the token is verified
+     * again. The cache cannot detect changes which the provider has not loaded yet, nor the revocation of the token
+     * itself.
+     * @param verifiedTokenCache New value of property verifiedTokenCache, or <code>null</code> to disable the cache.
+     * @return the current instance.
+     */
+    public TokenReceiver setVerifiedTokenCache(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        return this;
+    }
+
+    /**
+     * Setter for property batchExecutor.
+     * @param batchExecutor New value of property batchExecutor.
+     * @return the current instance.
+     */
+    public TokenReceiver setBatchExecutor(Executor batchExecutor) {
+        this.batchExecutor = batchExecutor;
+        return this;
+    }
+
+    /**
+     * Setter for property tokenDigestAlgorithm.
+     * <br>
+     * The algorithm used to digest the tokens in the log lines, SHA-256 by default.
+     * @param tokenDigestAlgorithm New value of property tokenDigestAlgorithm.
+     * @return the current instance.
+     */
+    public TokenReceiver setTokenDigestAlgorithm(TokenDigestAlgorithm tokenDigestAlgorithm) {
+        this.tokenDigestAlgorithm = tokenDigestAlgorithm;
+        return this;
+    }
+
+    /**
+     * Setter for property metricsRecorder.
+     * @param metricsRecorder New value of property metricsRecorder.
+     * @return the current instance.
+     */
+    public TokenReceiver setMetricsRecorder(ITokenMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+        return this;
+    }
+
+    /**
+     * Setter for property tokenPreValidator.
+     * <br>
+     * The pre-validator rejects the malformed tokens with a {@link MalformedTokenJOSEJWTException}, without stack
+     * trace nor error log, before they reach the parser. A default one is set.
+     * @param tokenPreValidator New value of property tokenPreValidator, or <code>null</code> to disable it.
+     * @return the current instance.
+     */
+    public TokenReceiver setTokenPreValidator(TokenPreValidator tokenPreValidator) {
+        this.tokenPreValidator = tokenPreValidator;
+        return this;
+    }
+
+    /**
+     * Getter for property tokenPreValidator.
+     * @return Value of property tokenPreValidator, which holds the rejection counts.
+     */
+    public TokenPreValidator getTokenPreValidator() {
+        return this.tokenPreValidator;
+    }
+
     // ------------------------------------------ Utility methods.
 
     /**
@@ -93,49 +235,229 @@ public class TokenReceiver {
      * @throws JOSEJWTException if an error occurs.
      */
     public String receive(String token, String expectedIssuer, String expectedAudience) throws JOSEJWTException {
-        try {
-            // Check all informations are provided.
-            if (StringUtils.isBlank(token)) {
-                throw new IllegalArgumentException("token must not be blank");
+        // Check all informations are provided.
+        if (StringUtils.isBlank(token)) {
+            throw new IllegalArgumentException("token must not be blank");
+        }
+
+        checkExpectations(expectedIssuer, expectedAudience);
+
+        return receive(token, expectedIssuer, expectedAudience, signatureJWKSetProvider, encryptionJWKSetProvider);
+    }
+
+    /**
+     * Receives a batch of JSON web tokens signed and encrypted, decrypts them and check their signature.
+     * <br>
+     * The tokens are grouped by key ID so that each key is resolved once, and all of them are checked against the
+     * same snapshot of the JWK sets. The tokens are then received in parallel on the batch executor. A token rejected
+     * does not affect the others: its error is reported in its result.
+     * @param tokens the ciphered and signed JSON web tokens.
+     * @param expectedIssuer the expected issuer.
+     * @param expectedAudience the expected audience.
+     * @return the results, in the order of the tokens.
+     * @throws IllegalArgumentException if the issuer, the audience or the signature keys are missing.
+     */
+    public List<TokenReceiverResult> receiveAll(
+            Collection<String> tokens, String expectedIssuer, String expectedAudience) {
+        checkExpectations(expectedIssuer, expectedAudience);
+
+        var tokenArray = tokens.toArray(new String[0]);
+        var results = new TokenReceiverResult[tokenArray.length];
+
+        // Pin the JWK sets for the whole batch.
+        var batchSignatureJWKSetProvider = new BatchJWKSetProvider(signatureJWKSetProvider);
+        var batchEncryptionJWKSetProvider =
+                encryptionJWKSetProvider != null ? new BatchJWKSetProvider(encryptionJWKSetProvider) : null;
+
+        // Group the tokens by the key ID of their outer header, and resolve each key once.
+        var outerJWKSetProvider =
+                batchEncryptionJWKSetProvider != null ? batchEncryptionJWKSetProvider : batchSignatureJWKSetProvider;
+        var outerKeyUse = batchEncryptionJWKSetProvider != null ? KeyUse.ENCRYPTION : KeyUse.SIGNATURE;
+        var tokenIndexesByKid = new LinkedHashMap<String, List<Integer>>();
+        for (int i = 0; i < tokenArray.length; i++) {
+            tokenIndexesByKid
+                    .computeIfAbsent(peekKeyID(tokenArray[i]), k -> new ArrayList<>())
+                    .add(i);
+        }
+        tokenIndexesByKid.keySet().forEach(kid -> {
+            if (kid != null
+                    && outerJWKSetProvider
+                            .toJWKSetSnapshot()
+                            .select(kid, outerKeyUse, false)
+                            .isEmpty()) {
+                outerJWKSetProvider.refreshJWKSet(kid);
             }
+        });
 
-            if (StringUtils.isBlank(expectedIssuer)) {
-                throw new IllegalArgumentException("issuer must not be blank");
+        // Receive the tokens in parallel.
+        var tasks = new ArrayList<CompletableFuture<Void>>();
+        for (List<Integer> tokenIndexes : tokenIndexesByKid.values()) {
+            for (int from = 0; from < tokenIndexes.size(); from += BATCH_CHUNK_SIZE) {
+                var chunk = tokenIndexes.subList(from, Math.min(from + BATCH_CHUNK_SIZE, tokenIndexes.size()));
+                tasks.add(CompletableFuture.runAsync(
+                        () -> chunk.forEach(i -> results[i] = receiveForBatch(
+                                tokenArray[i],
+                                expectedIssuer,
+                                expectedAudience,
+                                batchSignatureJWKSetProvider,
+                                batchEncryptionJWKSetProvider)),
+                        batchExecutor));
             }
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+
+        return Arrays.asList(results);
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Checks the expected issuer and audience, and that the signature keys are provided.
+     * @param expectedIssuer the expected issuer.
+     * @param expectedAudience the expected audience.
+     */
+    private void checkExpectations(String expectedIssuer, String expectedAudience) {
+        if (StringUtils.isBlank(expectedIssuer)) {
+            throw new IllegalArgumentException("issuer must not be blank");
+        }
+
+        if (StringUtils.isBlank(expectedAudience)) {
+            throw new IllegalArgumentException("audience must not be blank");
+        }
 
-            if (StringUtils.isBlank(expectedAudience)) {
-                throw new IllegalArgumentException("audience must not be blank");
+        if (signatureJWKSetProvider == null) {
+            throw new IllegalArgumentException("signature key must be provided");
+        }
+    }
+
+    /**
+     * Receives a token of a batch, reporting its rejection in the result.
+     * @param token the ciphered and signed JSON web token.
+     * @param expectedIssuer the expected issuer.
+     * @param expectedAudience the expected audience.
+     * @param signatureJWKSetProvider the signature keys.
+     * @param encryptionJWKSetProvider the encryption keys.
+     * @return the result.
+     */
+    private TokenReceiverResult receiveForBatch(
+            String token,
+            String expectedIssuer,
+            String expectedAudience,
+            IJWKSetProvider signatureJWKSetProvider,
+            IJWKSetProvider encryptionJWKSetProvider) {
+        try {
+            if (StringUtils.isBlank(token)) {
+                throw new IllegalArgumentException("token must not be blank");
             }
+            var jwtClaims = receive(
+                    token, expectedIssuer, expectedAudience, signatureJWKSetProvider, encryptionJWKSetProvider);
+            return TokenReceiverResult.valid(token, jwtClaims);
+        } catch (RuntimeException e) {
+            return TokenReceiverResult.rejected(token, e);
+        }
+    }
 
-            if (signatureJWKSetProvider == null) {
-                throw new IllegalArgumentException("signature key must be provided");
+    /**
+     * Receives a JSON web token signed and encrypted, decrypts it and check its signature.
+     * @param token the ciphered and signed JSON web token.
+     * @param expectedIssuer the expected issuer.
+     * @param expectedAudience the expected audience.
+     * @param signatureJWKSetProvider the signature keys.
+     * @param encryptionJWKSetProvider the encryption keys.
+     * @return the JSON web token decrypted and valid for processing.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    private String receive(
+            String token,
+            String expectedIssuer,
+            String expectedAudience,
+            IJWKSetProvider signatureJWKSetProvider,
+            IJWKSetProvider encryptionJWKSetProvider)
+            throws JOSEJWTException {
+        // Reject the malformed tokens before parsing them.
+        if (tokenPreValidator != null) {
+            var preValidationResult = encryptionJWKSetProvider != null
+                    ? tokenPreValidator.validateJWE(token)
+                    : tokenPreValidator.validateJWS(token);
+            if (preValidationResult != TokenPreValidationResult.VALID) {
+                LOGGER.debug("Token rejected before parsing: <{}>.", preValidationResult);
+                var e = new MalformedTokenJOSEJWTException(preValidationResult);
+                metricsRecorder.recordFailure(e);
+                throw e;
             }
+        }
 
-            // Hash for tracking purpose.
-            String hash = TokenDigestUtility.hash(token);
+        try {
+            // Hash for tracking purpose, computed only if logged or used as cache key.
+            var hash = TokenDigest.of(token, tokenDigestAlgorithm);
 
             LOGGER.debug("Token <{}> - Start receiving.", hash);
 
+            // 0. Lookup the token among the verified ones.
+            // The cache key must be collision-resistant, whatever the digest used for logging.
+            String cacheKey = null;
+            if (verifiedTokenCache != null) {
+                cacheKey = hash.getAlgorithm() == TokenDigestAlgorithm.SHA_256
+                        ? hash.toString()
+                        : TokenDigestUtility.hash(token);
+                var cachedJwtClaims = verifiedTokenCache.get(
+                        cacheKey, expectedIssuer, expectedAudience, signatureJWKSetProvider.toJWKSetSnapshot());
+                if (cachedJwtClaims != null) {
+                    LOGGER.debug("Token <{}> - Finish receiving (cached).", hash);
+                    return cachedJwtClaims;
+                }
+            }
+
             // 1. Decrypting the token.
             String decryptedToken = null;
             if (encryptionJWKSetProvider != null) {
-                var tokenDecryptionOperation = new TokenDecryptionOperation(encryptionJWKSetProvider);
-                decryptedToken = tokenDecryptionOperation.execute(token);
+                var tokenDecryptionOperation =
+                        new TokenDecryptionOperation(encryptionJWKSetProvider).setMetricsRecorder(metricsRecorder);
+                decryptedToken = tokenDecryptionOperation.execute(token, hash);
             } else {
                 decryptedToken = token;
             }
 
             // 2. Check signature of token.
-            var tokenVerifierOperation =
-                    new TokenVerifierOperation(signatureJWKSetProvider, expectedAudience, expectedIssuer);
-            var jwtClaims = tokenVerifierOperation.execute(decryptedToken);
+            var tokenVerifierOperation = new TokenVerifierOperation(
+                            signatureJWKSetProvider, expectedAudience, expectedIssuer, jwsVerifierCache)
+                    .setMetricsRecorder(metricsRecorder);
+            var verifiedToken = tokenVerifierOperation.verify(decryptedToken, hash);
+            var jwtClaims = verifiedToken.getPayload();
 
-            // 3. Finish
+            // 3. Cache the verified token.
+            if (verifiedTokenCache != null) {
+                verifiedTokenCache.put(
+                        cacheKey,
+                        expectedIssuer,
+                        expectedAudience,
+                        jwtClaims,
+                        verifiedToken.getExpirationTime(),
+                        verifiedToken.getSignatureJWKSetSnapshot(),
+                        verifiedToken.getSignatureJWK());
+            }
+
+            // 4. Finish
             LOGGER.debug("Token <{}> - Finish receiving.", hash);
             return jwtClaims;
+        } catch (ParseException e) {
+            LOGGER.error(e.getMessage(), e);
+            var notParseableException = new TokenNotParseableJOSEJWTException(e);
+            metricsRecorder.recordFailure(notParseableException);
+            throw notParseableException;
         } catch (JOSEJWTException e) {
             LOGGER.error(e.getMessage(), e);
+            metricsRecorder.recordFailure(e);
             throw e;
         }
     }
+
+    /**
+     * Reads the key ID from the header of a token, without parsing the rest of the token.
+     * @param token the token.
+     * @return the key ID, or <code>null</code> if the token has no key ID or is not parseable.
+     */
+    private static String peekKeyID(String token) {
+        return TokenPeeker.peekHeader(token, TokenPeeker.KID);
+    }
 }
@@ -0,0 +1,118 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+/**
+ * The outcome of the reception of a token within a batch.
+ * <br>
+ * @author Julb.
+ */
+public final class TokenReceiverResult {
+
+    /**
+     * The received token.
+     */
+    private final String token;
+
+    /**
+     * The JWT claims of the token, <code>null</code> if the token has been rejected.
+     */
+    private final String jwtClaims;
+
+    /**
+     * The reason why the token has been rejected, <code>null</code> if the token is valid.
+     */
+    private final RuntimeException error;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param token the received token.
+     * @param jwtClaims the JWT claims of the token.
+     * @param error the reason why the token has been rejected.
+     */
+    private TokenReceiverResult(String token, String jwtClaims, RuntimeException error) {
+        super();
+        this.token = token;
+        this.jwtClaims = jwtClaims;
+        this.error = error;
+    }
+
+    // ------------------------------------------ Factory methods.
+
+    /**
+     * Creates the result of a valid token.
+     * @param token the received token.
+     * @param jwtClaims the JWT claims of the token.
+     * @return the result.
+     */
+    static TokenReceiverResult valid(String token, String jwtClaims) {
+        return new TokenReceiverResult(token, jwtClaims, null);
+    }
+
+    /**
+     * Creates the result of a rejected token.
+     * @param token the received token.
+     * @param error the reason why the token has been rejected.
+     * @return the result.
+     */
+    static TokenReceiverResult rejected(String token, RuntimeException error) {
+        return new TokenReceiverResult(token, null, error);
+    }
+
+    // ------------------------------------------ Getters.
+
+    /**
+     * Getter for property token.
+     * @return Value of property token.
+     */
+    public String getToken() {
+        return this.token;
+    }
+
+    /**
+     * Getter for property jwtClaims.
+     * @return Value of property jwtClaims, <code>null</code> if the token has been rejected.
+     */
+    public String getJwtClaims() {
+        return this.jwtClaims;
+    }
+
+    /**
+     * Getter for property error.
+     * @return Value of property error, <code>null</code> if the token is valid.
+     */
+    public RuntimeException getError() {
+        return this.error;
+    }
+
+    /**
+     * Checks if the token is valid.
+     * @return <code>true</code> if the token is valid, <code>false</code> if it has been rejected.
+     */
+    public boolean isValid() {
+        return this.error == null;
+    }
+}
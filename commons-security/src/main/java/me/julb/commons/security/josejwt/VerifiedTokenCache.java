@@ -0,0 +1,321 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+
+import me.julb.commons.constants.Integers;
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
+
+/**
+ * A bounded cache of the tokens verified by a {@link TokenReceiver}.
+ * <br>
+ * Entries are keyed by token digest, expected issuer and expected audience. Each entry lives at most for the
+ * configured time-to-live, and never beyond the expiration time of the token itself, so that an expired token is
+ * never served from the cache.
+ * <br>
+ * An entry may be scoped to the key which has verified the signature of the token. Such an entry is served only while
+ * this key is still in the current signature JWK set, so that a token signed with a key which has been rotated out or
+ * revoked is verified again, and rejected, instead of being served from the cache.
+ * <br>
+ * @author Julb.
+ */
+public class VerifiedTokenCache {
+
+    /**
+     * The default maximum number of entries.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    /**
+     * The default time-to-live of an entry (5mn).
+     */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(Integers.FIVE);
+
+    /**
+     * The maximum number of entries.
+     */
+    private final int maximumSize;
+
+    /**
+     * The maximum time-to-live of an entry in milliseconds.
+     */
+    private final long timeToLiveInMillis;
+
+    /**
+     * The clock.
+     */
+    private final Clock clock;
+
+    /**
+     * The entries.
+     */
+    private final ConcurrentHashMap<CacheKey, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The hit counter.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * The miss counter.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    public VerifiedTokenCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * Constructor.
+     * @param maximumSize the maximum number of entries.
+     * @param timeToLive the maximum time-to-live of an entry.
+     */
+    public VerifiedTokenCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor.
+     * @param maximumSize the maximum number of entries.
+     * @param timeToLive the maximum time-to-live of an entry.
+     * @param clock the clock.
+     */
+    public VerifiedTokenCache(int maximumSize, Duration timeToLive, Clock clock) {
+        super();
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        if (timeToLive == null || timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("timeToLive must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLiveInMillis = timeToLive.toMillis();
+        this.clock = clock;
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Gets the claims of a verified token, without checking the key which has verified it.
+     * @param tokenDigest the token digest.
+     * @param expectedIssuer the expected issuer.
+     * @param expectedAudience the expected audience.
+     * @return the claims of the token, or <code>null</code> if not found or expired.
+     */
+    public String get(String tokenDigest, String expectedIssuer, String expectedAudience) {
+        return get(tokenDigest, expectedIssuer, expectedAudience, null);
+    }
+
+    /**
+     * Gets the claims of a verified token, provided that the key which has verified it is still in the current
+     * signature JWK set.
+     * @param tokenDigest the token digest.
+     * @param expectedIssuer the expected issuer.
+     * @param expectedAudience the expected audience.
+     * @param signatureJWKSetSnapshot the current snapshot of the signature JWK set, or <code>null</code> not to check
+     * the key.
+     * @return the claims of the token, or <code>null</code> if not found, expired or verified by a key which is no
+     * longer in the signature JWK set.
+     */
+    public String get(
+            String tokenDigest,
+            String expectedIssuer,
+            String expectedAudience,
+            JWKSetSnapshot signatureJWKSetSnapshot) {
+        var key = new CacheKey(tokenDigest, expectedIssuer, expectedAudience);
+        var entry = this.entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAtInMillis() > this.clock.millis()
+                    && isSignatureKeyCurrent(key, entry, signatureJWKSetSnapshot)) {
+                this.hitCount.increment();
+                return entry.claims();
+            }
+            this.entries.remove(key, entry);
+        }
+        this.missCount.increment();
+        return null;
+    }
+
+    /**
+     * Puts the claims of a verified token in the cache, without scoping the entry to a key.
+     * @param tokenDigest the token digest.
+     * @param expectedIssuer the expected issuer.
+     * @param expectedAudience the expected audience.
+     * @param claims the claims of the token.
+     * @param expirationTimeInSeconds the expiration time of the token in seconds since epoch.
+     */
+    public void put(
+            String tokenDigest,
+            String expectedIssuer,
+            String expectedAudience,
+            String claims,
+            long expirationTimeInSeconds) {
+        put(tokenDigest, expectedIssuer, expectedAudience, claims, expirationTimeInSeconds, null, null);
+    }
+
+    /**
+     * Puts the claims of a verified token in the cache, scoped to the key which has verified its signature.
+     * @param tokenDigest the token digest.
+     * @param expectedIssuer the expected issuer.
+     * @param expectedAudience the expected audience.
+     * @param claims the claims of the token.
+     * @param expirationTimeInSeconds the expiration time of the token in seconds since epoch.
+     * @param signatureJWKSetSnapshot the snapshot of the JWK set to which the signature key belongs, or
+     * <code>null</code> not to scope the entry.
+     * @param signatureJWK the key which has verified the signature, or <code>null</code> not to scope the entry.
+     */
+    public void put(
+            String tokenDigest,
+            String expectedIssuer,
+            String expectedAudience,
+            String claims,
+            long expirationTimeInSeconds,
+            JWKSetSnapshot signatureJWKSetSnapshot,
+            JWK signatureJWK) {
+        var nowInMillis = this.clock.millis();
+        var expiresAtInMillis =
+                Math.min(nowInMillis + this.timeToLiveInMillis, TimeUnit.SECONDS.toMillis(expirationTimeInSeconds));
+        if (expiresAtInMillis <= nowInMillis) {
+            return;
+        }
+
+        if (this.entries.size() >= this.maximumSize) {
+            evict(nowInMillis);
+        }
+
+        var scoped = signatureJWKSetSnapshot != null && signatureJWK != null;
+        this.entries.put(
+                new CacheKey(tokenDigest, expectedIssuer, expectedAudience),
+                new CacheEntry(
+                        claims,
+                        expiresAtInMillis,
+                        scoped ? signatureJWKSetSnapshot : null,
+                        scoped ? signatureJWK : null));
+    }
+
+    /**
+     * Clears the cache.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     * @return the number of entries.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     * @return the number of hits.
+     */
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * Gets the number of lookups not served from the cache.
+     * @return the number of misses.
+     */
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Checks if the key which has verified the token of an entry is still in the current signature JWK set.
+     * <br>
+     * The check is a reference comparison while the snapshot is unchanged. When it has changed, the key is looked up
+     * in the new snapshot once, and the entry is moved to the new snapshot if the key is still there.
+     * @param key the cache key.
+     * @param entry the entry.
+     * @param signatureJWKSetSnapshot the current snapshot of the signature JWK set, <code>null</code> not to check.
+     * @return <code>true</code> if the key is still current or not checked, <code>false</code> otherwise.
+     */
+    private boolean isSignatureKeyCurrent(CacheKey key, CacheEntry entry, JWKSetSnapshot signatureJWKSetSnapshot) {
+        if (signatureJWKSetSnapshot == null
+                || entry.signatureJWKSetSnapshot() == null
+                || entry.signatureJWKSetSnapshot() == signatureJWKSetSnapshot) {
+            return true;
+        }
+        var signatureJWK = entry.signatureJWK();
+        var stillPresent = signatureJWKSetSnapshot.select(signatureJWK.getKeyID(), KeyUse.SIGNATURE, false).stream()
+                .anyMatch(jwk -> jwk == signatureJWK || jwk.equals(signatureJWK));
+        if (stillPresent) {
+            this.entries.replace(
+                    key,
+                    entry,
+                    new CacheEntry(entry.claims(), entry.expiresAtInMillis(), signatureJWKSetSnapshot, signatureJWK));
+        }
+        return stillPresent;
+    }
+
+    /**
+     * Makes room for new entries: removes the expired entries first, then arbitrary entries if still above 90% of the
+     * maximum size, so that the next puts do not scan the cache again.
+     * @param nowInMillis the current time in milliseconds.
+     */
+    private void evict(long nowInMillis) {
+        this.entries.values().removeIf(entry -> entry.expiresAtInMillis() <= nowInMillis);
+
+        var excess = this.entries.size() - this.maximumSize * 9 / 10;
+        var iterator = this.entries.keySet().iterator();
+        for (int i = 0; i < excess && iterator.hasNext(); i++) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * The cache key.
+     * <br>
+     * @author Julb.
+     */
+    private record CacheKey(String tokenDigest, String expectedIssuer, String expectedAudience) {}
+
+    /**
+     * The cache entry.
+     * <br>
+     * @author Julb.
+     */
+    private record CacheEntry(
+            String claims, long expiresAtInMillis, JWKSetSnapshot signatureJWKSetSnapshot, JWK signatureJWK) {}
+}
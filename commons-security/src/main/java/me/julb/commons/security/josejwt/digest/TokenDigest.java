@@ -0,0 +1,110 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.digest;
+
+/**
+ * The digest of a token, shared by the operations of a single emission or reception for logging purpose.
+ * <br>
+ * The digest is computed lazily, the first time {@link #toString()} is called, and at most once. Passed as a log
+ * argument, it is therefore computed only if the log statement is actually written.
+ * <br>
+ * This class is not thread-safe: an instance is meant to be used by a single invocation.
+ * <br>
+ * @author Julb.
+ */
+public final class TokenDigest {
+
+    /**
+     * The token to hash.
+     */
+    private final String token;
+
+    /**
+     * The algorithm.
+     */
+    private final TokenDigestAlgorithm algorithm;
+
+    /**
+     * The digest, computed lazily.
+     */
+    private String value;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param token the token to hash.
+     * @param algorithm the algorithm.
+     */
+    private TokenDigest(String token, TokenDigestAlgorithm algorithm) {
+        super();
+        this.token = token;
+        this.algorithm = algorithm;
+    }
+
+    // ------------------------------------------ Factory methods.
+
+    /**
+     * Creates the lazy SHA-256 digest of a token.
+     * @param token the token to hash.
+     * @return the lazy digest.
+     */
+    public static TokenDigest of(String token) {
+        return new TokenDigest(token, TokenDigestAlgorithm.SHA_256);
+    }
+
+    /**
+     * Creates the lazy digest of a token.
+     * @param token the token to hash.
+     * @param algorithm the algorithm.
+     * @return the lazy digest.
+     */
+    public static TokenDigest of(String token, TokenDigestAlgorithm algorithm) {
+        return new TokenDigest(token, algorithm);
+    }
+
+    // ------------------------------------------ Getters.
+
+    /**
+     * Getter for property algorithm.
+     * @return Value of property algorithm.
+     */
+    public TokenDigestAlgorithm getAlgorithm() {
+        return this.algorithm;
+    }
+
+    // ------------------------------------------ Overridden methods.
+
+    /**
+     * Gets the digest of the token, computing it on the first call.
+     * @return the digest, as returned by {@link TokenDigestAlgorithm#digest(CharSequence)}.
+     */
+    @Override
+    public String toString() {
+        if (this.value == null) {
+            this.value = this.algorithm.digest(this.token);
+        }
+        return this.value;
+    }
+}
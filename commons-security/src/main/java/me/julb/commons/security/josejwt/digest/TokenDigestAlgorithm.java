@@ -0,0 +1,65 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.digest;
+
+/**
+ * The algorithms available to digest tokens for logging purpose.
+ * <br>
+ * @author Julb.
+ */
+public enum TokenDigestAlgorithm {
+
+    /**
+     * SHA-256, 64 hexadecimal characters.
+     */
+    SHA_256 {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String digest(CharSequence token) {
+            return TokenDigestUtility.hash(token);
+        }
+    },
+
+    /**
+     * 64-bit non-cryptographic fingerprint, 16 hexadecimal characters. Cheaper, but only suitable for log correlation.
+     */
+    FINGERPRINT_64 {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String digest(CharSequence token) {
+            return TokenDigestUtility.fingerprint(token);
+        }
+    };
+
+    /**
+     * Digests a token.
+     * @param token the token.
+     * @return the digest.
+     */
+    public abstract String digest(CharSequence token);
+}
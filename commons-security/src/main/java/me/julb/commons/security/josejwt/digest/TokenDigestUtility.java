@@ -23,7 +23,13 @@
  */
 package me.julb.commons.security.josejwt.digest;
 
-import org.apache.commons.codec.digest.DigestUtils;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -31,22 +37,388 @@ import lombok.NoArgsConstructor;
 /**
  * The operation hashes a token usable for logging.
  * <br>
+ * The SHA-256 digests reuse a {@link MessageDigest} per thread, and characters are encoded in UTF-8 through a small
+ * per-thread buffer instead of an intermediate byte array. The {@link #fingerprint(CharSequence)} methods offer a
+ * shorter 64-bit non-cryptographic fingerprint, suitable for log correlation only.
+ * <br>
  * @author Julb.
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class TokenDigestUtility {
 
+    /**
+     * The hexadecimal digits.
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * The size of the buffer used to encode characters, in bytes. A multiple of 8.
+     */
+    private static final int ENCODING_BUFFER_SIZE = 1024;
+
+    /**
+     * The maximum number of bytes of a character encoded in UTF-8.
+     */
+    private static final int MAX_BYTES_PER_CHAR = 4;
+
+    /**
+     * The first multiplier of the fingerprint, from MurmurHash3.
+     */
+    private static final long C1 = 0x87c37b91114253d5L;
+
+    /**
+     * The second multiplier of the fingerprint, from MurmurHash3.
+     */
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * The seed of the fingerprint.
+     */
+    private static final long SEED = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Reads little-endian longs from byte arrays.
+     */
+    private static final VarHandle LONG_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The engines, one per thread.
+     */
+    private static final ThreadLocal<Engine> ENGINES = ThreadLocal.withInitial(Engine::new);
+
     // ------------------------------------------ Utility methods.
 
     /**
      * Executes the operation.
+     * <br>
+     * Kept for binary compatibility with the callers compiled against this signature.
      * @param token the token to hash.
      * @return the token hashed.
      */
     public static String hash(String token) {
-        return DigestUtils.sha256Hex(token);
+        return hash((CharSequence) token);
+    }
+
+    /**
+     * Executes the operation.
+     * @param token the token to hash.
+     * @return the token hashed.
+     */
+    public static String hash(CharSequence token) {
+        return ENGINES.get().sha256(token);
+    }
+
+    /**
+     * Hashes raw bytes with SHA-256.
+     * @param bytes the bytes to hash.
+     * @return the hexadecimal SHA-256 digest.
+     */
+    public static String hash(byte[] bytes) {
+        return ENGINES.get().sha256(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Hashes the remaining bytes of a buffer with SHA-256. The position of the buffer is left unchanged.
+     * @param buffer the buffer to hash.
+     * @return the hexadecimal SHA-256 digest.
+     */
+    public static String hash(ByteBuffer buffer) {
+        return ENGINES.get().sha256(buffer.duplicate());
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of a token.
+     * <br>
+     * The fingerprint is not cryptographic: it must only be used to correlate log lines, never as an identifier.
+     * @param token the token.
+     * @return the fingerprint, as 16 hexadecimal characters.
+     */
+    public static String fingerprint(CharSequence token) {
+        return toHexString(fingerprint64(token));
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of raw bytes.
+     * @param bytes the bytes.
+     * @return the fingerprint, as 16 hexadecimal characters.
+     * @see #fingerprint(CharSequence)
+     */
+    public static String fingerprint(byte[] bytes) {
+        return toHexString(fingerprint64(bytes));
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of the remaining bytes of a buffer. The position of the buffer is left
+     * unchanged.
+     * @param buffer the buffer.
+     * @return the fingerprint, as 16 hexadecimal characters.
+     * @see #fingerprint(CharSequence)
+     */
+    public static String fingerprint(ByteBuffer buffer) {
+        return toHexString(fingerprint64(buffer));
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of a token, encoded in UTF-8.
+     * @param token the token.
+     * @return the fingerprint.
+     * @see #fingerprint(CharSequence)
+     */
+    public static long fingerprint64(CharSequence token) {
+        return ENGINES.get().fingerprint64(token);
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of raw bytes, without any allocation.
+     * @param bytes the bytes.
+     * @return the fingerprint.
+     * @see #fingerprint(CharSequence)
+     */
+    public static long fingerprint64(byte[] bytes) {
+        var hash = SEED;
+        var blocksEnd = bytes.length & ~(Long.BYTES - 1);
+        for (int i = 0; i < blocksEnd; i += Long.BYTES) {
+            hash = mixBlock(hash, (long) LONG_LE.get(bytes, i));
+        }
+        return finish(hash, bytes, blocksEnd, bytes.length - blocksEnd, bytes.length);
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of the remaining bytes of a buffer. The position of the buffer is left
+     * unchanged.
+     * @param buffer the buffer.
+     * @return the fingerprint.
+     * @see #fingerprint(CharSequence)
+     */
+    public static long fingerprint64(ByteBuffer buffer) {
+        var littleEndianBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        var hash = SEED;
+        var start = littleEndianBuffer.position();
+        var length = littleEndianBuffer.remaining();
+        var blocksEnd = start + (length & ~(Long.BYTES - 1));
+        for (int i = start; i < blocksEnd; i += Long.BYTES) {
+            hash = mixBlock(hash, littleEndianBuffer.getLong(i));
+        }
+        var tail = 0L;
+        for (int i = littleEndianBuffer.limit() - 1; i >= blocksEnd; i--) {
+            tail = (tail << Byte.SIZE) | (littleEndianBuffer.get(i) & 0xff);
+        }
+        return mixTail(hash, tail, length);
     }
 
     // ------------------------------------------ Private methods.
 
+    /**
+     * Mixes an 8-byte block into the fingerprint.
+     * @param hash the current fingerprint.
+     * @param block the block.
+     * @return the new fingerprint.
+     */
+    private static long mixBlock(long hash, long block) {
+        var k = Long.rotateLeft(block * C1, 31) * C2;
+        return Long.rotateLeft(hash ^ k, 27) * 5 + 0x52dce729;
+    }
+
+    /**
+     * Mixes the trailing bytes and the length into the fingerprint, and spreads its bits.
+     * @param hash the current fingerprint.
+     * @param bytes the array holding the trailing bytes.
+     * @param offset the offset of the trailing bytes.
+     * @param count the number of trailing bytes, less than 8.
+     * @param length the total number of bytes.
+     * @return the final fingerprint.
+     */
+    private static long finish(long hash, byte[] bytes, int offset, int count, long length) {
+        var tail = 0L;
+        for (int i = offset + count - 1; i >= offset; i--) {
+            tail = (tail << Byte.SIZE) | (bytes[i] & 0xff);
+        }
+        return mixTail(hash, tail, length);
+    }
+
+    /**
+     * Mixes the trailing bytes and the length into the fingerprint, and spreads its bits.
+     * @param hash the current fingerprint.
+     * @param tail the trailing bytes, as a little-endian long.
+     * @param length the total number of bytes.
+     * @return the final fingerprint.
+     */
+    private static long mixTail(long hash, long tail, long length) {
+        var mixed = hash ^ (Long.rotateLeft(tail * C2, 33) * C1) ^ length;
+        // Finalizer of MurmurHash3.
+        mixed ^= mixed >>> 33;
+        mixed *= 0xff51afd7ed558ccdL;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xc4ceb9fe1a85ec53L;
+        mixed ^= mixed >>> 33;
+        return mixed;
+    }
+
+    /**
+     * Formats a 64-bit value as 16 hexadecimal characters.
+     * @param value the value.
+     * @return the hexadecimal string.
+     */
+    private static String toHexString(long value) {
+        var chars = new char[Long.BYTES * 2];
+        var remaining = value;
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = HEX_DIGITS[(int) (remaining & 0xf)];
+            remaining >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * The digest engine of a thread.
+     * <br>
+     * @author Julb.
+     */
+    private static final class Engine {
+
+        /**
+         * The SHA-256 message digest.
+         */
+        private final MessageDigest messageDigest;
+
+        /**
+         * The buffer receiving the characters encoded in UTF-8.
+         */
+        private final byte[] encodingBuffer = new byte[ENCODING_BUFFER_SIZE];
+
+        /**
+         * The buffer receiving the SHA-256 digest.
+         */
+        private final byte[] digestBytes;
+
+        /**
+         * The buffer receiving the hexadecimal SHA-256 digest.
+         */
+        private final char[] hexChars;
+
+        /**
+         * The index of the next character to encode.
+         */
+        private int charIndex;
+
+        /**
+         * Constructor.
+         */
+        Engine() {
+            super();
+            try {
+                this.messageDigest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            this.digestBytes = new byte[this.messageDigest.getDigestLength()];
+            this.hexChars = new char[this.digestBytes.length * 2];
+        }
+
+        /**
+         * Digests characters encoded in UTF-8 with SHA-256.
+         * @param token the characters.
+         * @return the hexadecimal digest.
+         */
+        String sha256(CharSequence token) {
+            this.messageDigest.reset();
+            this.charIndex = 0;
+            do {
+                var count = encode(token, 0);
+                this.messageDigest.update(this.encodingBuffer, 0, count);
+            } while (this.charIndex < token.length());
+            return toHexDigest();
+        }
+
+        /**
+         * Digests bytes with SHA-256.
+         * @param buffer the bytes.
+         * @return the hexadecimal digest.
+         */
+        String sha256(ByteBuffer buffer) {
+            this.messageDigest.reset();
+            this.messageDigest.update(buffer);
+            return toHexDigest();
+        }
+
+        /**
+         * Computes the fingerprint of characters encoded in UTF-8.
+         * @param token the characters.
+         * @return the fingerprint.
+         */
+        long fingerprint64(CharSequence token) {
+            var hash = SEED;
+            var length = 0L;
+            var carry = 0;
+            this.charIndex = 0;
+            do {
+                var count = encode(token, carry);
+                var blocksEnd = count & ~(Long.BYTES - 1);
+                for (int i = 0; i < blocksEnd; i += Long.BYTES) {
+                    hash = mixBlock(hash, (long) LONG_LE.get(this.encodingBuffer, i));
+                }
+                length += blocksEnd;
+                carry = count - blocksEnd;
+                System.arraycopy(this.encodingBuffer, blocksEnd, this.encodingBuffer, 0, carry);
+            } while (this.charIndex < token.length());
+            return finish(hash, this.encodingBuffer, 0, carry, length + carry);
+        }
+
+        /**
+         * Encodes the next characters in UTF-8 into the encoding buffer, as String#getBytes does.
+         * @param token the characters.
+         * @param offset the offset in the buffer at which the encoding starts.
+         * @return the number of bytes in the buffer.
+         */
+        private int encode(CharSequence token, int offset) {
+            var buffer = this.encodingBuffer;
+            var position = offset;
+            var length = token.length();
+            var index = this.charIndex;
+            while (index < length && position <= buffer.length - MAX_BYTES_PER_CHAR) {
+                char c = token.charAt(index++);
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xc0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c)
+                        && index < length
+                        && Character.isLowSurrogate(token.charAt(index))) {
+                    int codePoint = Character.toCodePoint(c, token.charAt(index++));
+                    buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogates are replaced, as done by String#getBytes.
+                    buffer[position++] = (byte) '?';
+                } else {
+                    buffer[position++] = (byte) (0xe0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            this.charIndex = index;
+            return position;
+        }
+
+        /**
+         * Completes the SHA-256 digest and formats it in hexadecimal.
+         * @return the hexadecimal digest.
+         */
+        private String toHexDigest() {
+            try {
+                this.messageDigest.digest(this.digestBytes, 0, this.digestBytes.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            for (int i = 0; i < this.digestBytes.length; i++) {
+                this.hexChars[i * 2] = HEX_DIGITS[(this.digestBytes[i] >> 4) & 0xf];
+                this.hexChars[i * 2 + 1] = HEX_DIGITS[this.digestBytes[i] & 0xf];
+            }
+            return new String(this.hexChars);
+        }
+    }
 }
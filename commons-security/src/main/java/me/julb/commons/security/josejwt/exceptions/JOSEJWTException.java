@@ -68,4 +68,16 @@ public class JOSEJWTException extends RuntimeException {
     public JOSEJWTException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Constructor.
+     * @param message the message.
+     * @param cause the cause.
+     * @param enableSuppression whether or not suppression is enabled or disabled.
+     * @param writableStackTrace whether or not the stack trace should be writable.
+     */
+    protected JOSEJWTException(
+            String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
 }
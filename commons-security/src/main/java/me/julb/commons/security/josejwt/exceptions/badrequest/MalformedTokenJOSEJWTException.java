@@ -0,0 +1,67 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.exceptions.badrequest;
+
+import me.julb.commons.security.josejwt.TokenPreValidationResult;
+
+/**
+ * This exception is thrown when the token is rejected by the pre-validation, before being parsed.
+ * <br>
+ * The exception has no stack trace and no cause, so that rejecting a flood of malformed tokens remains cheap.
+ * <br>
+ * @author Julb.
+ */
+public class MalformedTokenJOSEJWTException extends TokenNotParseableJOSEJWTException {
+
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = 3981766427413705062L;
+
+    /**
+     * The reason of the rejection.
+     */
+    private final TokenPreValidationResult reason;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param reason the reason of the rejection.
+     */
+    public MalformedTokenJOSEJWTException(TokenPreValidationResult reason) {
+        super(null, false);
+        this.reason = reason;
+    }
+
+    // ------------------------------------------ Getters.
+
+    /**
+     * Getter for property reason.
+     * @return Value of property reason.
+     */
+    public TokenPreValidationResult getReason() {
+        return this.reason;
+    }
+}
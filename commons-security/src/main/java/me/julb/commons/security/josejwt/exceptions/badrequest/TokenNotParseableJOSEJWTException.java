@@ -47,6 +47,15 @@ public class TokenNotParseableJOSEJWTException extends JOSEJWTException {
         super(cause);
     }
 
+    /**
+     * Constructor.
+     * @param cause the cause.
+     * @param writableStackTrace whether or not the stack trace should be writable.
+     */
+    protected TokenNotParseableJOSEJWTException(Throwable cause, boolean writableStackTrace) {
+        super(null, cause, false, writableStackTrace);
+    }
+
     // ------------------------------------------ Overridden methods.
 
     /**
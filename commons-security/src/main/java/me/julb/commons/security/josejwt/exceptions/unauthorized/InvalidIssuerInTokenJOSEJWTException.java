@@ -60,6 +60,14 @@ public class InvalidIssuerInTokenJOSEJWTException extends JOSEJWTException {
         this.actual = actual;
     }
 
+    /**
+     * Constructor for an issuer which is not among the expected ones.
+     * @param actual the actual issuer.
+     */
+    public InvalidIssuerInTokenJOSEJWTException(String actual) {
+        this(null, actual);
+    }
+
     // ------------------------------------------ Overridden methods.
 
     /**
@@ -67,6 +75,9 @@ public class InvalidIssuerInTokenJOSEJWTException extends JOSEJWTException {
      */
     @Override
     public String getMessage() {
+        if (expected == null) {
+            return String.format("Invalid issuer in token. Unknown issuer: <%s>.", actual);
+        }
         return String.format("Invalid issuer in token. Expected: <%s> / Actual: <%s>.", expected, actual);
     }
 }
@@ -44,6 +44,29 @@ public interface IJWKSetProvider extends Supplier<JWKSet> {
         return get();
     }
 
+    /**
+     * Gets an indexed snapshot of the JWK set.
+     * <br>
+     * Implementations returning the same JWK set over several calls should cache the snapshot and compile a new one
+     * only when the JWK set changes. By default, the snapshot is memoized by content of the JWK set.
+     * @return the JWK set snapshot.
+     * @see JWKSetSnapshot#memoized(JWKSet)
+     */
+    default JWKSetSnapshot toJWKSetSnapshot() {
+        return JWKSetSnapshot.memoized(toJWKSet());
+    }
+
+    /**
+     * Gets the age of the JWK set, i.e. the time elapsed since it was last successfully fetched or loaded, measured
+     * with the clock of the provider.
+     * <br>
+     * By default, the age is unknown, e.g. for keys which are not loaded from an external source.
+     * @return the age of the JWK set in milliseconds, or <code>-1</code> if it is unknown.
+     */
+    default long getJWKSetAgeInMillis() {
+        return -1;
+    }
+
     /**
      * Refresh the JWKSet.
      * @return <code>true</code> if it has been refreshed, <code>false</code> otherwise.
@@ -52,6 +75,17 @@ public interface IJWKSetProvider extends Supplier<JWKSet> {
         return false;
     }
 
+    /**
+     * Refresh the JWKSet because a key has not been found.
+     * <br>
+     * Implementations may use the key ID to avoid refreshing again and again for a key which does not exist.
+     * @param kid the key ID which has not been found, may be <code>null</code>.
+     * @return <code>true</code> if it has been refreshed, <code>false</code> otherwise.
+     */
+    default boolean refreshJWKSet(String kid) {
+        return refreshJWKSet();
+    }
+
     /**
      * Generates a JSON string of the keys contained in this JWKSet.
      * @param publicKeyOnly <code>true</code> if only public keys should be exported, <code>false</code> otherwise.
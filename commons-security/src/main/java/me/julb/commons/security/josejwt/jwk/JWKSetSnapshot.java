@@ -0,0 +1,274 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.jwk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An immutable view of a {@link JWKSet} indexed by kid, use and private flag.
+ * <br>
+ * The index is compiled once when the snapshot is built, so that looking up a key is a single hash lookup instead of
+ * a scan of the whole set with a {@link com.nimbusds.jose.jwk.JWKSelector}. Lookups return the same keys as a
+ * {@link com.nimbusds.jose.jwk.JWKMatcher} configured with the same kid, use and private flag. The key thumbprints are
+ * computed on first use only.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public final class JWKSetSnapshot {
+
+    /**
+     * The number of slots of the memo of {@link #memoized(JWKSet)}, a power of two.
+     */
+    private static final int MEMO_SIZE = 64;
+
+    /**
+     * The thumbprint marker of a key whose thumbprint cannot be computed.
+     */
+    private static final String NO_THUMBPRINT = "";
+
+    /**
+     * The snapshots memoized by content of the JWK set, one per slot.
+     */
+    private static final AtomicReferenceArray<JWKSetSnapshot> MEMO = new AtomicReferenceArray<>(MEMO_SIZE);
+
+    /**
+     * The JWK set from which this snapshot has been compiled.
+     */
+    private final JWKSet jwkSet;
+
+    /**
+     * The keys indexed by kid, use and private flag.
+     */
+    private final Map<IndexKey, List<JWK>> index;
+
+    /**
+     * The position of the keys in the JWK set, indexed by key instance.
+     */
+    private final Map<JWK, Integer> positions;
+
+    /**
+     * The SHA-256 thumbprints of the keys by position, computed on first use.
+     */
+    private final AtomicReferenceArray<String> thumbprints;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param jwkSet the JWK set to compile.
+     */
+    private JWKSetSnapshot(JWKSet jwkSet) {
+        super();
+        this.jwkSet = jwkSet;
+        this.index = compile(jwkSet);
+        this.positions = positions(jwkSet);
+        this.thumbprints = new AtomicReferenceArray<>(jwkSet.getKeys().size());
+    }
+
+    // ------------------------------------------ Factory methods.
+
+    /**
+     * Compiles a snapshot of the given JWK set.
+     * @param jwkSet the JWK set.
+     * @return the snapshot.
+     */
+    public static JWKSetSnapshot of(JWKSet jwkSet) {
+        return new JWKSetSnapshot(jwkSet);
+    }
+
+    /**
+     * Compiles a snapshot of the given JWK set, or returns the one recently compiled from the same keys.
+     * <br>
+     * This is the fallback of the providers which do not cache their snapshot: a provider returning the same keys over
+     * several calls gets the same snapshot, without a lock, even if it builds a new JWK set instance on each call. The
+     * memo is keyed by the content of the keys and holds a bounded number of snapshots.
+     * @param jwkSet the JWK set.
+     * @return the snapshot.
+     */
+    public static JWKSetSnapshot memoized(JWKSet jwkSet) {
+        var keys = jwkSet.getKeys();
+        var slot = keys.hashCode() & (MEMO_SIZE - 1);
+        var snapshot = MEMO.get(slot);
+        if (snapshot == null || !(snapshot.isSnapshotOf(jwkSet) || snapshot.jwkSet.getKeys().equals(keys))) {
+            snapshot = new JWKSetSnapshot(jwkSet);
+            MEMO.set(slot, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the previous snapshot if it has been compiled from the given JWK set, or compiles a new one otherwise.
+     * @param previous the previous snapshot, may be <code>null</code>.
+     * @param jwkSet the current JWK set.
+     * @return the snapshot matching the current JWK set.
+     */
+    public static JWKSetSnapshot of(JWKSetSnapshot previous, JWKSet jwkSet) {
+        if (previous != null && previous.isSnapshotOf(jwkSet)) {
+            return previous;
+        }
+        return new JWKSetSnapshot(jwkSet);
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Gets the JWK set from which this snapshot has been compiled.
+     * @return the JWK set.
+     */
+    public JWKSet getJWKSet() {
+        return this.jwkSet;
+    }
+
+    /**
+     * Checks if this snapshot has been compiled from the given JWK set instance.
+     * @param otherJWKSet the JWK set.
+     * @return <code>true</code> if the snapshot has been compiled from this instance, <code>false</code> otherwise.
+     */
+    public boolean isSnapshotOf(JWKSet otherJWKSet) {
+        return this.jwkSet == otherJWKSet;
+    }
+
+    /**
+     * Selects the keys matching the given criteria.
+     * @param kid the key ID, or <code>null</code> to match any key ID.
+     * @param keyUse the key use.
+     * @param privateOnly <code>true</code> to match only private keys, <code>false</code> to match any key.
+     * @return the matching keys, never <code>null</code>.
+     */
+    public List<JWK> select(String kid, KeyUse keyUse, boolean privateOnly) {
+        return this.index.getOrDefault(new IndexKey(kid, keyUse, privateOnly), List.of());
+    }
+
+    /**
+     * Gets the SHA-256 thumbprint of a key of this snapshot, computed on first use and then kept with the snapshot.
+     * @param jwk the JWK, as returned by {@link #select(String, KeyUse, boolean)}.
+     * @return the thumbprint, or <code>null</code> if the key does not belong to this snapshot or has no thumbprint.
+     */
+    public String getThumbprint(JWK jwk) {
+        var position = this.positions.get(jwk);
+        if (position == null) {
+            return null;
+        }
+        var thumbprint = this.thumbprints.get(position);
+        if (thumbprint == null) {
+            thumbprint = computeThumbprint(jwk);
+            this.thumbprints.set(position, thumbprint);
+        }
+        return thumbprint == NO_THUMBPRINT ? null : thumbprint;
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Compiles the index of the given JWK set.
+     * @param jwkSet the JWK set.
+     * @return the index.
+     */
+    private static Map<IndexKey, List<JWK>> compile(JWKSet jwkSet) {
+        var mutableIndex = new HashMap<IndexKey, List<JWK>>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            // A key without use never matches a use-constrained lookup.
+            var keyUse = jwk.getKeyUse();
+            if (keyUse == null) {
+                continue;
+            }
+
+            // A null kid in the index stands for "any kid".
+            addToIndex(mutableIndex, new IndexKey(null, keyUse, false), jwk);
+            if (jwk.isPrivate()) {
+                addToIndex(mutableIndex, new IndexKey(null, keyUse, true), jwk);
+            }
+
+            var kid = jwk.getKeyID();
+            if (kid != null) {
+                addToIndex(mutableIndex, new IndexKey(kid, keyUse, false), jwk);
+                if (jwk.isPrivate()) {
+                    addToIndex(mutableIndex, new IndexKey(kid, keyUse, true), jwk);
+                }
+            }
+        }
+
+        var immutableIndex = new HashMap<IndexKey, List<JWK>>(mutableIndex.size());
+        mutableIndex.forEach((key, jwks) -> immutableIndex.put(key, List.copyOf(jwks)));
+        return Map.copyOf(immutableIndex);
+    }
+
+    /**
+     * Indexes the position of the keys of the given JWK set.
+     * @param jwkSet the JWK set.
+     * @return the positions indexed by key instance.
+     */
+    private static Map<JWK, Integer> positions(JWKSet jwkSet) {
+        var keyPositions = new IdentityHashMap<JWK, Integer>();
+        var keys = jwkSet.getKeys();
+        for (int i = 0; i < keys.size(); i++) {
+            keyPositions.put(keys.get(i), i);
+        }
+        return keyPositions;
+    }
+
+    /**
+     * Computes the thumbprint of a key.
+     * @param jwk the key.
+     * @return the thumbprint, or {@link #NO_THUMBPRINT} if it cannot be computed.
+     */
+    private static String computeThumbprint(JWK jwk) {
+        try {
+            return jwk.computeThumbprint().toString();
+        } catch (JOSEException e) {
+            LOGGER.debug("Unable to compute the thumbprint of the key <{}>.", jwk.getKeyID(), e);
+            return NO_THUMBPRINT;
+        }
+    }
+
+    /**
+     * Adds a key to the index.
+     * @param index the index.
+     * @param indexKey the index key.
+     * @param jwk the JWK.
+     */
+    private static void addToIndex(Map<IndexKey, List<JWK>> index, IndexKey indexKey, JWK jwk) {
+        index.computeIfAbsent(indexKey, k -> new ArrayList<>()).add(jwk);
+    }
+
+    /**
+     * The index key.
+     * <br>
+     * @author Julb.
+     */
+    private record IndexKey(String kid, KeyUse keyUse, boolean privateOnly) {}
+}
@@ -0,0 +1,445 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.jwk.impl;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.nimbusds.jose.jwk.JWKSet;
+
+import me.julb.commons.constants.Integers;
+import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A JWKS provider reading the JWKS from a file on the local disk.
+ * <br>
+ * The file is read and hashed on each reload, and the JWKS is parsed only when the hash of the content
+ * changes. When {@link Builder#watch(boolean)} is enabled, the file is reloaded by a background thread as soon as a
+ * {@link WatchService} reports a change in its directory. Spurious events are cheap as an unchanged file is not parsed
+ * again. When the file is missing or invalid, the last JWKS loaded keeps being served.
+ * <br>
+ * While the file is watched, refresh requests are ignored as the watcher already keeps the JWKS up to date. Otherwise,
+ * refreshes triggered by unknown key IDs are throttled as in {@link RemoteUrlJWKSetProvider}: no refresh happens more
+ * often than {@link Builder#minRefreshInterval(Integer)} seconds, and a key ID still unknown after a refresh does not
+ * trigger any refresh for {@link Builder#unknownKidCacheValidity(Integer)} seconds.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public class FileJWKSetProvider implements IJWKSetProvider, Closeable {
+
+    /**
+     * The digest algorithm used to detect content changes.
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * The empty JWKS snapshot, served when no JWKS has been loaded yet.
+     */
+    private static final JWKSetSnapshot EMPTY_SNAPSHOT = JWKSetSnapshot.of(new JWKSet());
+
+    /**
+     * The path of the JWKS file.
+     */
+    private Path path;
+
+    /**
+     * <code>true</code> to reload the file when it changes, <code>false</code> otherwise.
+     */
+    private boolean watch;
+
+    /**
+     * The clock.
+     */
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * The minimum interval between two refreshes triggered by unknown key IDs, in seconds.
+     */
+    private Integer minRefreshIntervalInSeconds = Integers.THIRTY;
+
+    /**
+     * The time during which an unknown key ID does not trigger any refresh, in seconds (5mn by default).
+     */
+    private Integer unknownKidCacheValidityInSeconds = (int) TimeUnit.MINUTES.toSeconds(Integers.FIVE);
+
+    /**
+     * The key IDs still unknown after a refresh.
+     */
+    private final UnknownKidCache unknownKids = new UnknownKidCache();
+
+    /**
+     * The time of the last reload attempt, in milliseconds since epoch.
+     */
+    private final AtomicLong lastReloadTimeInMillis = new AtomicLong();
+
+    /**
+     * The time of the last successful reload, in milliseconds since epoch, <code>-1</code> if none.
+     */
+    private volatile long lastSuccessfulReloadTimeInMillis = -1;
+
+    /**
+     * The last loaded content, published atomically.
+     */
+    private volatile LoadedContent loadedContent;
+
+    /**
+     * The watch service, if watching.
+     */
+    private WatchService watchService;
+
+    /**
+     * <code>true</code> while the watcher thread is running, <code>false</code> otherwise.
+     */
+    private volatile boolean watching;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    public FileJWKSetProvider() {
+        super();
+    }
+
+    // ------------------------------------------ Overridden methods.
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JWKSet get() {
+        return toJWKSetSnapshot().getJWKSet();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * While the file is missing or invalid, it is read again at most once per minimum refresh interval, by a single
+     * thread, so that the other threads never wait for a disk read.
+     */
+    @Override
+    public JWKSetSnapshot toJWKSetSnapshot() {
+        var currentContent = this.loadedContent;
+        if (currentContent == null) {
+            var nowInMillis = this.clock.millis();
+            var lastReload = this.lastReloadTimeInMillis.get();
+            if (nowInMillis >= lastReload + TimeUnit.SECONDS.toMillis(this.minRefreshIntervalInSeconds)
+                    && this.lastReloadTimeInMillis.compareAndSet(lastReload, nowInMillis)) {
+                reload();
+                currentContent = this.loadedContent;
+            }
+        }
+        return currentContent != null ? currentContent.snapshot() : EMPTY_SNAPSHOT;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The age is the time elapsed since the file was last read successfully, whether its content had changed or not.
+     */
+    @Override
+    public long getJWKSetAgeInMillis() {
+        var lastSuccessfulReload = this.lastSuccessfulReloadTimeInMillis;
+        return lastSuccessfulReload < 0 ? -1 : Math.max(0, this.clock.millis() - lastSuccessfulReload);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean refreshJWKSet() {
+        if (isWatching()) {
+            return false;
+        }
+        return reload();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The refresh is skipped if the file is watched, if the key ID was still unknown after a recent refresh, or if the
+     * last reload is more recent than the minimum refresh interval.
+     */
+    @Override
+    public boolean refreshJWKSet(String kid) {
+        if (kid == null) {
+            return refreshJWKSet();
+        }
+        if (isWatching()) {
+            return false;
+        }
+
+        // Skip key IDs which were still unknown after a previous refresh, and throttle refreshes.
+        var nowInMillis = this.clock.millis();
+        if (this.unknownKids.contains(kid, nowInMillis)
+                || nowInMillis
+                        < this.lastReloadTimeInMillis.get()
+                                + TimeUnit.SECONDS.toMillis(this.minRefreshIntervalInSeconds)) {
+            return false;
+        }
+
+        var changed = reload();
+
+        // Remember the key ID if still unknown.
+        var currentContent = this.loadedContent;
+        if (!UnknownKidCache.containsKid(currentContent != null ? currentContent.snapshot() : null, kid)) {
+            this.unknownKids.add(kid, nowInMillis, TimeUnit.SECONDS.toMillis(this.unknownKidCacheValidityInSeconds));
+        }
+        return changed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.watchService != null) {
+            this.watchService.close();
+        }
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Reads a file.
+     * @param path the path of the file.
+     * @return the content of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    static String read(Path path) throws IOException {
+        return Files.readString(path, StandardCharsets.UTF_8);
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Reloads the file, parsing it only if its content has changed.
+     * @return <code>true</code> if the JWKS has changed, <code>false</code> otherwise.
+     */
+    private synchronized boolean reload() {
+        var nowInMillis = this.clock.millis();
+        this.lastReloadTimeInMillis.set(nowInMillis);
+        try {
+            var content = Files.readAllBytes(this.path);
+            var digest = digest(content);
+
+            var currentContent = this.loadedContent;
+            if (currentContent != null && Arrays.equals(currentContent.digest(), digest)) {
+                this.lastSuccessfulReloadTimeInMillis = nowInMillis;
+                return false;
+            }
+
+            LOGGER.debug("Parsing the JWKS from file {}.", this.path);
+            var jwkSet = JWKSet.parse(new String(content, StandardCharsets.UTF_8));
+            this.loadedContent = new LoadedContent(digest, JWKSetSnapshot.of(jwkSet));
+            this.lastSuccessfulReloadTimeInMillis = nowInMillis;
+            return true;
+        } catch (IOException | ParseException e) {
+            LOGGER.error("Unable to load the JWKS from file {}.", this.path, e);
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the file is watched.
+     * @return <code>true</code> if the file is watched, <code>false</code> otherwise.
+     */
+    private boolean isWatching() {
+        return this.watching;
+    }
+
+    /**
+     * Starts the background thread reloading the file when it changes.
+     * @throws IOException if the directory cannot be watched.
+     */
+    private void startWatching() throws IOException {
+        var directory = this.path.toAbsolutePath().getParent();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        directory.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+        var thread = new Thread(this::watchLoop, "jwks-file-watcher");
+        thread.setDaemon(true);
+        this.watching = true;
+        thread.start();
+    }
+
+    /**
+     * Waits for changes in the directory of the file and reloads it, until the watch service is closed.
+     */
+    private void watchLoop() {
+        try {
+            while (true) {
+                var watchKey = this.watchService.take();
+                // Any event is considered as the file may be replaced through a rename or a symbolic link.
+                watchKey.pollEvents();
+                try {
+                    if (reload()) {
+                        LOGGER.info("JWKS reloaded from file {}.", this.path);
+                    }
+                } catch (RuntimeException e) {
+                    // Keep watching: the next change may fix the file, e.g. when it has been truncated mid-write.
+                    LOGGER.error("Unable to reload the JWKS from file {}.", this.path, e);
+                }
+                if (!watchKey.reset()) {
+                    LOGGER.warn("Directory of file {} is no longer watched.", this.path);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Stopped watching file {}.", this.path);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.watching = false;
+        }
+    }
+
+    /**
+     * Computes the digest of a content.
+     * @param content the content.
+     * @return the digest.
+     */
+    private static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The builder for JWKS.
+     * <br>
+     * @author Julb.
+     */
+    public static class Builder {
+
+        /**
+         * The built instance
+         */
+        private FileJWKSetProvider instance;
+
+        // ------------------------------------------ Constructors.
+
+        /**
+         * Constructor.
+         */
+        public Builder() {
+            super();
+            this.instance = new FileJWKSetProvider();
+        }
+
+        // ------------------------------------------ Getters/Setters.
+
+        /**
+         * Setter for property path.
+         * @param path New value of property path.
+         * @return the builder instance.
+         */
+        public Builder path(Path path) {
+            this.instance.path = path;
+            return this;
+        }
+
+        /**
+         * Setter for property watch.
+         * @param watch New value of property watch.
+         * @return the builder instance.
+         */
+        public Builder watch(boolean watch) {
+            this.instance.watch = watch;
+            return this;
+        }
+
+        /**
+         * Setter for property minRefreshIntervalInSeconds.
+         * @param minRefreshIntervalInSeconds New value of property minRefreshIntervalInSeconds.
+         * @return the builder instance.
+         */
+        public Builder minRefreshInterval(Integer minRefreshIntervalInSeconds) {
+            this.instance.minRefreshIntervalInSeconds = minRefreshIntervalInSeconds;
+            return this;
+        }
+
+        /**
+         * Setter for property unknownKidCacheValidityInSeconds.
+         * @param unknownKidCacheValidityInSeconds New value of property unknownKidCacheValidityInSeconds.
+         * @return the builder instance.
+         */
+        public Builder unknownKidCacheValidity(Integer unknownKidCacheValidityInSeconds) {
+            this.instance.unknownKidCacheValidityInSeconds = unknownKidCacheValidityInSeconds;
+            return this;
+        }
+
+        /**
+         * Setter for property clock.
+         * @param clock New value of property clock.
+         * @return the builder instance.
+         */
+        Builder clock(Clock clock) {
+            this.instance.clock = clock;
+            return this;
+        }
+
+        /**
+         * Returns the built instance, after loading the file and starting to watch it if enabled.
+         * @return the instance.
+         * @throws IOException if the directory of the file cannot be watched.
+         */
+        public FileJWKSetProvider build() throws IOException {
+            this.instance.reload();
+            if (this.instance.watch) {
+                this.instance.startWatching();
+            }
+            return this.instance;
+        }
+    }
+
+    /**
+     * The content loaded from the file.
+     * <br>
+     * @author Julb.
+     */
+    private record LoadedContent(byte[] digest, JWKSetSnapshot snapshot) {}
+}
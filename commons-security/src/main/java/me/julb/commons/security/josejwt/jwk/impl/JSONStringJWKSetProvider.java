@@ -29,6 +29,7 @@ import com.nimbusds.jose.jwk.JWKSet;
 
 import me.julb.commons.security.josejwt.exceptions.badrequest.TokenNotParseableJOSEJWTException;
 import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
 
 /**
  * A JWKS provider based on a stringified JSON.
@@ -42,6 +43,11 @@ public class JSONStringJWKSetProvider implements IJWKSetProvider {
      */
     private String s;
 
+    /**
+     * The snapshot compiled from the string, lazily initialized.
+     */
+    private volatile JWKSetSnapshot snapshot;
+
     // ------------------------------------------ Constructors.
 
     /**
@@ -68,6 +74,19 @@ public class JSONStringJWKSetProvider implements IJWKSetProvider {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public JWKSetSnapshot toJWKSetSnapshot() {
+        var currentSnapshot = this.snapshot;
+        if (currentSnapshot == null) {
+            currentSnapshot = JWKSetSnapshot.of(get());
+            this.snapshot = currentSnapshot;
+        }
+        return currentSnapshot;
+    }
+
     /**
      * The builder for JWKS.
      * <br>
@@ -99,6 +118,7 @@ public class JSONStringJWKSetProvider implements IJWKSetProvider {
          */
         public Builder fromJSONString(String s) {
             this.instance.s = s;
+            this.instance.snapshot = null;
             return this;
         }
 
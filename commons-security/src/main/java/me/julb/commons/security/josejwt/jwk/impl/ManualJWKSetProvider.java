@@ -31,9 +31,10 @@ import com.nimbusds.jose.jwk.JWKSet;
 
 import me.julb.commons.security.josejwt.jwk.IJWKProvider;
 import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
 
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 
 /**
  * The JWKS provider.
@@ -41,7 +42,6 @@ import lombok.Setter;
  * @author Julb.
  */
 @Getter
-@Setter
 public class ManualJWKSetProvider implements IJWKSetProvider {
 
     // @formatter:off
@@ -50,13 +50,25 @@ public class ManualJWKSetProvider implements IJWKSetProvider {
      * -- GETTER --
      * Getter for {@link #jwkProviders} property.
      * @return the value.
-     * -- SETTER --
-     * Setter for {@link #jwkProviders} property.
-     * @param jwkProviders the value to set.
      */
     // @formatter:on
     private Collection<IJWKProvider> jwkProviders = new ArrayList<>();
 
+    /**
+     * The snapshot compiled from the JWK providers, lazily initialized.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile JWKSetSnapshot snapshot;
+
+    /**
+     * Setter for {@link #jwkProviders} property.
+     * @param jwkProviders the value to set.
+     */
+    public void setJwkProviders(Collection<IJWKProvider> jwkProviders) {
+        this.jwkProviders = jwkProviders;
+        this.snapshot = null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -66,6 +78,22 @@ public class ManualJWKSetProvider implements IJWKSetProvider {
         return new JWKSet(jwks);
     }
 
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The snapshot is compiled on first use. It is compiled again only when the JWK providers are changed through
+     * {@link #setJwkProviders(Collection)} or the {@link Builder}.
+     */
+    @Override
+    public JWKSetSnapshot toJWKSetSnapshot() {
+        var currentSnapshot = this.snapshot;
+        if (currentSnapshot == null) {
+            currentSnapshot = JWKSetSnapshot.of(get());
+            this.snapshot = currentSnapshot;
+        }
+        return currentSnapshot;
+    }
+
     /**
      * The JWKSet builder.
      * <br>
@@ -106,6 +134,7 @@ public class ManualJWKSetProvider implements IJWKSetProvider {
          */
         public Builder addAllJWKProviders(Collection<IJWKProvider> jwkProviders) {
             this.instance.getJwkProviders().addAll(jwkProviders);
+            this.instance.snapshot = null;
             return this;
         }
 
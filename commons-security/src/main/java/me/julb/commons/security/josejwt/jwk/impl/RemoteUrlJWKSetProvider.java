@@ -26,29 +26,66 @@ package me.julb.commons.security.josejwt.jwk.impl;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.ParseException;
-import java.time.temporal.ChronoUnit;
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.commons.io.IOUtils;
 
 import com.nimbusds.jose.jwk.JWKSet;
 
 import me.julb.commons.constants.Integers;
-import me.julb.commons.security.josejwt.exceptions.badrequest.TokenNotParseableJOSEJWTException;
 import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
-import me.julb.commons.time.date.DateUtility;
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * A JWKS provider based on a stringified JSON.
+ * A JWKS provider fetching the JWKS from a remote URL.
+ * <br>
+ * The JWKS is cached for {@link Builder#cacheValidity(Integer)} seconds. Concurrent refreshes are de-duplicated so that
+ * a single request is sent to the remote URL at a time. The JWKS is parsed only when the content returned by the URL
+ * changes. When the remote URL fails, the last JWKS fetched keeps being served, and no new attempt is made before
+ * {@link Builder#notRetryBeforeInterval(Integer)} seconds.
+ * <br>
+ * When {@link Builder#refreshAhead(Integer)} is set, the JWKS is reloaded in background on the configured executor
+ * when it is about to expire, and callers are never blocked on the remote URL once a first JWKS has been fetched.
+ * <br>
+ * Refreshes requested by callers are throttled: no refresh happens more often than
+ * {@link Builder#minRefreshInterval(Integer)} seconds, and a key ID still unknown after a refresh is remembered for
+ * {@link Builder#unknownKidCacheValidity(Integer)} seconds, during which it does not trigger any refresh.
+ * <br>
+ * When {@link Builder#snapshotFile(Path)} is set, the last JWKS fetched is persisted to this local file, and loaded
+ * from it when the provider is built. The persisted JWKS is served right away and revalidated in background, so that
+ * tokens can be verified at startup without waiting on the remote URL.
+ * <br>
+ * The state of the provider is an immutable snapshot, replaced with a single atomic swap, so the provider is safe to
+ * use from concurrent threads.
  * <br>
  * @author Julb.
  */
 @Slf4j
 public class RemoteUrlJWKSetProvider implements IJWKSetProvider {
 
+    /**
+     * The connect and read timeout in milliseconds.
+     */
+    private static final int TIMEOUT_IN_MILLIS = (int) TimeUnit.SECONDS.toMillis(Integers.TEN);
+
+    /**
+     * The empty JWKS snapshot, served when no JWKS has been fetched yet.
+     */
+    private static final JWKSetSnapshot EMPTY_SNAPSHOT = JWKSetSnapshot.of(new JWKSet());
+
     /**
      * The URL returning the JSON.
      */
@@ -60,24 +97,69 @@ public class RemoteUrlJWKSetProvider implements IJWKSetProvider {
     private Integer cacheValidityInSeconds = (int) TimeUnit.MINUTES.toSeconds(Integers.THIRTY);
 
     /**
-     * The last JSON string.
+     * The not retry before internal in seconds.
+     */
+    private Integer notRetryBeforeIntervalInSeconds = Integers.THIRTY;
+
+    /**
+     * The time before expiry at which the JWKS is reloaded in background, in seconds. <code>null</code> if disabled.
      */
-    private String lastJSONString;
+    private Integer refreshAheadInSeconds;
 
     /**
-     * The not retry before date time.
+     * The executor running the background refreshes.
      */
-    private String notRetryBeforeDateTime;
+    private Executor executor = ForkJoinPool.commonPool();
 
     /**
-     * The not retry before internal in seconds.
+     * The clock.
      */
-    private Integer notRetryBeforeIntervalInSeconds = Integers.THIRTY;
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * The local file where the last JWKS fetched is persisted, <code>null</code> if disabled.
+     */
+    private Path snapshotFile;
+
+    /**
+     * The minimum interval between two refreshes triggered by unknown key IDs, in seconds.
+     */
+    private Integer minRefreshIntervalInSeconds = Integers.THIRTY;
 
     /**
-     * The expiry date time.
+     * The time during which an unknown key ID does not trigger any refresh, in seconds (5mn by default).
      */
-    private String expiryDateTime;
+    private Integer unknownKidCacheValidityInSeconds = (int) TimeUnit.MINUTES.toSeconds(Integers.FIVE);
+
+    /**
+     * The current state.
+     */
+    private final AtomicReference<State> state = new AtomicReference<>(State.INITIAL);
+
+    /**
+     * The key IDs still unknown after a refresh.
+     */
+    private final UnknownKidCache unknownKids = new UnknownKidCache();
+
+    /**
+     * The number of fetches of the remote URL.
+     */
+    private final LongAdder refreshCount = new LongAdder();
+
+    /**
+     * The number of refreshes skipped because of throttling.
+     */
+    private final LongAdder skippedRefreshCount = new LongAdder();
+
+    /**
+     * The number of refreshes skipped because the key ID is known to be unknown.
+     */
+    private final LongAdder unknownKidCacheHitCount = new LongAdder();
+
+    /**
+     * The refresh in progress, if any.
+     */
+    private final AtomicReference<CompletableFuture<Boolean>> inFlightRefresh = new AtomicReference<>();
 
     // ------------------------------------------ Constructors.
 
@@ -95,34 +177,288 @@ public class RemoteUrlJWKSetProvider implements IJWKSetProvider {
      */
     @Override
     public JWKSet get() {
-        try {
-            return JWKSet.parse(getJSONString());
-        } catch (ParseException e) {
-            throw new TokenNotParseableJOSEJWTException(e);
+        return toJWKSetSnapshot().getJWKSet();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The snapshot is compiled again only when the content fetched from the URL changes.
+     */
+    @Override
+    public JWKSetSnapshot toJWKSetSnapshot() {
+        var nowInMillis = this.clock.millis();
+        var currentState = this.state.get();
+
+        if (currentState.snapshot() == null || nowInMillis >= currentState.expiryTimeInMillis()) {
+            if (nowInMillis >= currentState.notRetryBeforeTimeInMillis()) {
+                if (currentState.snapshot() != null
+                        && (this.refreshAheadInSeconds != null || currentState.fromSnapshotFile())) {
+                    // Serve the stale JWKS while revalidating it.
+                    refresh(true);
+                } else {
+                    refresh(false).join();
+                }
+            }
+        } else if (this.refreshAheadInSeconds != null
+                && nowInMillis >= currentState.notRetryBeforeTimeInMillis()
+                && nowInMillis
+                        >= currentState.expiryTimeInMillis() - TimeUnit.SECONDS.toMillis(this.refreshAheadInSeconds)) {
+            refresh(true);
+        }
+
+        var snapshot = this.state.get().snapshot();
+        return snapshot != null ? snapshot : EMPTY_SNAPSHOT;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The refresh is skipped if the last fetch is more recent than the minimum refresh interval, or failed more
+     * recently than the not-retry-before interval.
+     */
+    @Override
+    public boolean refreshJWKSet() {
+        if (isRefreshThrottled(this.clock.millis())) {
+            this.skippedRefreshCount.increment();
+            return false;
+        }
+        return refresh(false).join();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The refresh is skipped if the key ID was still unknown after a recent refresh, or if the last fetch is more
+     * recent than the minimum refresh interval.
+     */
+    @Override
+    public boolean refreshJWKSet(String kid) {
+        if (kid == null) {
+            return refreshJWKSet();
+        }
+
+        // Skip key IDs which were still unknown after a previous refresh.
+        var nowInMillis = this.clock.millis();
+        if (this.unknownKids.contains(kid, nowInMillis)) {
+            this.unknownKidCacheHitCount.increment();
+            this.skippedRefreshCount.increment();
+            return false;
         }
+
+        // Throttle refreshes.
+        if (isRefreshThrottled(nowInMillis)) {
+            this.skippedRefreshCount.increment();
+            return false;
+        }
+
+        var changed = refresh(false).join().booleanValue();
+
+        // Remember the key ID if still unknown.
+        if (!UnknownKidCache.containsKid(this.state.get().snapshot(), kid)) {
+            this.unknownKids.add(kid, nowInMillis, TimeUnit.SECONDS.toMillis(this.unknownKidCacheValidityInSeconds));
+        }
+        return changed;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The age is the time elapsed since the last successful fetch, whether the keys had changed or not. When the keys
+     * come from the snapshot file, it is the time elapsed since the file was written.
+     */
+    @Override
+    public long getJWKSetAgeInMillis() {
+        var lastSuccessfulFetch = this.state.get().lastSuccessfulFetchTimeInMillis();
+        return lastSuccessfulFetch < 0 ? -1 : Math.max(0, this.clock.millis() - lastSuccessfulFetch);
+    }
+
+    // ------------------------------------------ Metrics.
+
+    /**
+     * Gets the number of fetches of the remote URL.
+     * @return the number of fetches.
+     */
+    public long getRefreshCount() {
+        return this.refreshCount.sum();
+    }
+
+    /**
+     * Gets the number of refreshes skipped because of throttling or unknown key IDs.
+     * @return the number of skipped refreshes.
+     */
+    public long getSkippedRefreshCount() {
+        return this.skippedRefreshCount.sum();
+    }
+
+    /**
+     * Gets the number of refreshes skipped because the key ID was known to be unknown.
+     * @return the number of unknown key ID cache hits.
+     */
+    public long getUnknownKidCacheHitCount() {
+        return this.unknownKidCacheHitCount.sum();
     }
 
     // ------------------------------------------ Fetch URL.
 
     /**
-     * Refresh the JSON string.
+     * Checks if a refresh requested by a caller must be skipped, because the last fetch is more recent than the
+     * minimum refresh interval or has failed more recently than the not-retry-before interval.
+     * @param nowInMillis the current time in milliseconds.
+     * @return <code>true</code> if the refresh must be skipped, <code>false</code> otherwise.
+     */
+    private boolean isRefreshThrottled(long nowInMillis) {
+        var currentState = this.state.get();
+        return nowInMillis < currentState.notRetryBeforeTimeInMillis()
+                || nowInMillis
+                        < currentState.lastFetchTimeInMillis()
+                                + TimeUnit.SECONDS.toMillis(this.minRefreshIntervalInSeconds);
+    }
+
+    /**
+     * Refreshes the JWKS, joining the refresh in progress if any.
+     * @param async <code>true</code> to run the refresh on the executor, <code>false</code> to run it on the calling
+     * thread.
+     * @return a future completed with <code>true</code> if the JWKS has changed, <code>false</code> otherwise.
      */
-    private String getJSONString() {
-        if ((this.expiryDateTime == null
-                        || DateUtility.dateTimeBeforeNow(this.expiryDateTime).booleanValue())
-                && DateUtility.dateTimeAfterNow(this.notRetryBeforeDateTime).booleanValue()) {
+    private CompletableFuture<Boolean> refresh(boolean async) {
+        var future = new CompletableFuture<Boolean>();
+        var currentRefresh = this.inFlightRefresh.compareAndExchange(null, future);
+        if (currentRefresh != null) {
+            return currentRefresh;
+        }
+
+        Runnable task = () -> {
+            var changed = false;
+            try {
+                changed = fetch();
+            } finally {
+                this.inFlightRefresh.compareAndSet(future, null);
+                future.complete(changed);
+            }
+        };
+
+        if (async) {
             try {
-                LOGGER.debug("Fetching the JWKS from url {}.", this.url);
-                this.lastJSONString = IOUtils.toString(new URL(url), StandardCharsets.UTF_8);
-                this.notRetryBeforeDateTime = null;
-                this.expiryDateTime = DateUtility.dateTimePlus(this.cacheValidityInSeconds, ChronoUnit.SECONDS);
-            } catch (IOException e) {
-                LOGGER.error("Unable to fetch the JWKS from the given URL.", e);
-                this.notRetryBeforeDateTime =
-                        DateUtility.dateTimePlus(this.notRetryBeforeIntervalInSeconds, ChronoUnit.SECONDS);
+                this.executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("Unable to schedule the refresh of the JWKS from url {}.", this.url, e);
+                this.inFlightRefresh.compareAndSet(future, null);
+                future.complete(false);
+            }
+        } else {
+            task.run();
+        }
+        return future;
+    }
+
+    /**
+     * Fetches the JWKS from the URL.
+     * <br>
+     * Only one fetch runs at a time, so the state is replaced without contention.
+     * @return <code>true</code> if the JWKS has changed, <code>false</code> otherwise.
+     */
+    private boolean fetch() {
+        this.refreshCount.increment();
+        var currentState = this.state.get();
+        try {
+            LOGGER.debug("Fetching the JWKS from url {}.", this.url);
+            var jsonString = read();
+            var nowInMillis = this.clock.millis();
+            var expiryTimeInMillis = nowInMillis + TimeUnit.SECONDS.toMillis(this.cacheValidityInSeconds);
+
+            if (currentState.snapshot() != null && jsonString.equals(currentState.jsonString())) {
+                this.state.set(new State(
+                        currentState.jsonString(),
+                        currentState.snapshot(),
+                        expiryTimeInMillis,
+                        0,
+                        nowInMillis,
+                        nowInMillis,
+                        false));
+                return false;
             }
+
+            var snapshot = JWKSetSnapshot.of(JWKSet.parse(jsonString));
+            this.state.set(new State(jsonString, snapshot, expiryTimeInMillis, 0, nowInMillis, nowInMillis, false));
+            writeSnapshotFile(jsonString);
+            return true;
+        } catch (IOException | ParseException e) {
+            LOGGER.error("Unable to fetch the JWKS from the given URL.", e);
+            var nowInMillis = this.clock.millis();
+            this.state.set(new State(
+                    currentState.jsonString(),
+                    currentState.snapshot(),
+                    currentState.expiryTimeInMillis(),
+                    nowInMillis + TimeUnit.SECONDS.toMillis(this.notRetryBeforeIntervalInSeconds),
+                    nowInMillis,
+                    currentState.lastSuccessfulFetchTimeInMillis(),
+                    currentState.fromSnapshotFile()));
+            return false;
+        }
+    }
+
+    /**
+     * Loads the JWKS persisted in the snapshot file, if any.
+     */
+    private void readSnapshotFile() {
+        if (this.snapshotFile == null || !Files.isRegularFile(this.snapshotFile)) {
+            return;
+        }
+        try {
+            var jsonString = FileJWKSetProvider.read(this.snapshotFile);
+            var snapshot = JWKSetSnapshot.of(JWKSet.parse(jsonString));
+            // The snapshot file is written right after a successful fetch.
+            var fetchTimeInMillis = Files.getLastModifiedTime(this.snapshotFile).toMillis();
+            this.state.set(new State(
+                    jsonString, snapshot, 0, 0, State.INITIAL.lastFetchTimeInMillis(), fetchTimeInMillis, true));
+            LOGGER.debug("JWKS loaded from snapshot file {}.", this.snapshotFile);
+        } catch (IOException | ParseException e) {
+            LOGGER.warn("Unable to load the JWKS from snapshot file {}.", this.snapshotFile, e);
+        }
+    }
+
+    /**
+     * Persists the JWKS in the snapshot file, if enabled.
+     * <br>
+     * The content is written to a temporary file which is then moved over the snapshot file, so that a reader never
+     * sees a partially written file.
+     * @param jsonString the JWKS.
+     */
+    private void writeSnapshotFile(String jsonString) {
+        if (this.snapshotFile == null) {
+            return;
+        }
+        try {
+            var directory = this.snapshotFile.toAbsolutePath().getParent();
+            var temporaryFile = Files.createTempFile(directory, this.snapshotFile.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temporaryFile, jsonString, StandardCharsets.UTF_8);
+                Files.move(
+                        temporaryFile,
+                        this.snapshotFile,
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to persist the JWKS to snapshot file {}.", this.snapshotFile, e);
+        }
+    }
+
+    /**
+     * Reads the content of the URL.
+     * @return the content of the URL.
+     * @throws IOException if the URL cannot be read.
+     */
+    private String read() throws IOException {
+        var connection = new URL(this.url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_IN_MILLIS);
+        connection.setReadTimeout(TIMEOUT_IN_MILLIS);
+        try (var inputStream = connection.getInputStream()) {
+            return IOUtils.toString(inputStream, StandardCharsets.UTF_8);
         }
-        return this.lastJSONString;
     }
 
     /**
@@ -170,11 +506,102 @@ public class RemoteUrlJWKSetProvider implements IJWKSetProvider {
         }
 
         /**
-         * Returns the built instance.
+         * Setter for property notRetryBeforeIntervalInSeconds.
+         * @param notRetryBeforeIntervalInSeconds New value of property notRetryBeforeIntervalInSeconds.
+         * @return the builder instance.
+         */
+        public Builder notRetryBeforeInterval(Integer notRetryBeforeIntervalInSeconds) {
+            this.instance.notRetryBeforeIntervalInSeconds = notRetryBeforeIntervalInSeconds;
+            return this;
+        }
+
+        /**
+         * Setter for property snapshotFile.
+         * @param snapshotFile New value of property snapshotFile.
+         * @return the builder instance.
+         */
+        public Builder snapshotFile(Path snapshotFile) {
+            this.instance.snapshotFile = snapshotFile;
+            return this;
+        }
+
+        /**
+         * Setter for property minRefreshIntervalInSeconds.
+         * @param minRefreshIntervalInSeconds New value of property minRefreshIntervalInSeconds.
+         * @return the builder instance.
+         */
+        public Builder minRefreshInterval(Integer minRefreshIntervalInSeconds) {
+            this.instance.minRefreshIntervalInSeconds = minRefreshIntervalInSeconds;
+            return this;
+        }
+
+        /**
+         * Setter for property unknownKidCacheValidityInSeconds.
+         * @param unknownKidCacheValidityInSeconds New value of property unknownKidCacheValidityInSeconds.
+         * @return the builder instance.
+         */
+        public Builder unknownKidCacheValidity(Integer unknownKidCacheValidityInSeconds) {
+            this.instance.unknownKidCacheValidityInSeconds = unknownKidCacheValidityInSeconds;
+            return this;
+        }
+
+        /**
+         * Enables the refresh-ahead mode.
+         * @param refreshAheadInSeconds the time before expiry at which the JWKS is reloaded in background, in seconds.
+         * @return the builder instance.
+         */
+        public Builder refreshAhead(Integer refreshAheadInSeconds) {
+            this.instance.refreshAheadInSeconds = refreshAheadInSeconds;
+            return this;
+        }
+
+        /**
+         * Setter for property executor.
+         * @param executor New value of property executor.
+         * @return the builder instance.
+         */
+        public Builder executor(Executor executor) {
+            this.instance.executor = executor;
+            return this;
+        }
+
+        /**
+         * Setter for property clock.
+         * @param clock New value of property clock.
+         * @return the builder instance.
+         */
+        Builder clock(Clock clock) {
+            this.instance.clock = clock;
+            return this;
+        }
+
+        /**
+         * Returns the built instance, after loading the snapshot file if enabled.
          * @return the instance.
          */
         public RemoteUrlJWKSetProvider build() {
+            this.instance.readSnapshotFile();
             return this.instance;
         }
     }
+
+    /**
+     * The state of the provider.
+     * <br>
+     * @author Julb.
+     */
+    private record State(
+            String jsonString,
+            JWKSetSnapshot snapshot,
+            long expiryTimeInMillis,
+            long notRetryBeforeTimeInMillis,
+            long lastFetchTimeInMillis,
+            long lastSuccessfulFetchTimeInMillis,
+            boolean fromSnapshotFile) {
+
+        /**
+         * The initial state, before any fetch.
+         */
+        private static final State INITIAL = new State(null, null, 0, 0, Long.MIN_VALUE / 2, -1, false);
+    }
 }
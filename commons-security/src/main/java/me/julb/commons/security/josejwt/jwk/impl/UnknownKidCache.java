@@ -0,0 +1,92 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.jwk.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
+
+/**
+ * A bounded cache of the key IDs still unknown after a refresh of a JWK set provider.
+ * <br>
+ * A key ID in the cache does not trigger any refresh until its entry expires, so that tokens with forged key IDs
+ * cannot force the provider to reload its keys again and again.
+ * <br>
+ * @author Julb.
+ */
+final class UnknownKidCache {
+
+    /**
+     * The maximum number of unknown key IDs remembered.
+     */
+    static final int MAXIMUM_SIZE = 1024;
+
+    /**
+     * The unknown key IDs, with the time until which they do not trigger any refresh, in milliseconds since epoch.
+     */
+    private final ConcurrentHashMap<String, Long> unknownKids = new ConcurrentHashMap<>();
+
+    /**
+     * Checks if a key ID is known to be unknown, forgetting it if its entry has expired.
+     * @param kid the key ID.
+     * @param nowInMillis the current time in milliseconds since epoch.
+     * @return <code>true</code> if the key ID should not trigger any refresh, <code>false</code> otherwise.
+     */
+    boolean contains(String kid, long nowInMillis) {
+        var unknownUntilInMillis = this.unknownKids.get(kid);
+        if (unknownUntilInMillis == null) {
+            return false;
+        }
+        if (nowInMillis < unknownUntilInMillis) {
+            return true;
+        }
+        this.unknownKids.remove(kid, unknownUntilInMillis);
+        return false;
+    }
+
+    /**
+     * Remembers a key ID which is still unknown after a refresh.
+     * @param kid the key ID.
+     * @param nowInMillis the current time in milliseconds since epoch.
+     * @param validityInMillis the time during which the key ID does not trigger any refresh, in milliseconds.
+     */
+    void add(String kid, long nowInMillis, long validityInMillis) {
+        if (this.unknownKids.size() >= MAXIMUM_SIZE) {
+            this.unknownKids.values().removeIf(unknownUntilInMillis -> unknownUntilInMillis <= nowInMillis);
+        }
+        if (this.unknownKids.size() < MAXIMUM_SIZE) {
+            this.unknownKids.put(kid, nowInMillis + validityInMillis);
+        }
+    }
+
+    /**
+     * Checks if a snapshot contains a key ID.
+     * @param snapshot the snapshot, may be <code>null</code>.
+     * @param kid the key ID.
+     * @return <code>true</code> if a key has this ID, <code>false</code> otherwise.
+     */
+    static boolean containsKid(JWKSetSnapshot snapshot, String kid) {
+        return snapshot != null && snapshot.getJWKSet().getKeyByKeyId(kid) != null;
+    }
+}
@@ -0,0 +1,268 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.keyloader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPair;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.internalservererror.MissingPasswordPEMKeyException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A loader of all the PEM keys of a directory.
+ * <br>
+ * The files whose name ends with {@link Builder#extension(String)} are loaded in parallel with
+ * {@link PEMKeyLoader#loadKey(java.io.InputStream)}, or with
+ * {@link PEMKeyLoader#loadPasswordProtectedPrivateKey(java.io.InputStream, String)} when they are encrypted and a
+ * password is configured. On {@link #reload()}, only the files whose size or last modification time changed are
+ * loaded again. A file which cannot be loaded is skipped, and keeps its previous key if it had one.
+ * <br>
+ * The keys are indexed by file name without the extension.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public class PEMKeyDirectoryLoader {
+
+    /**
+     * The default extension of PEM files.
+     */
+    public static final String DEFAULT_EXTENSION = ".pem";
+
+    /**
+     * The directory.
+     */
+    private Path directory;
+
+    /**
+     * The extension of the PEM files.
+     */
+    private String extension = DEFAULT_EXTENSION;
+
+    /**
+     * The password of the encrypted keys, <code>null</code> if none.
+     */
+    private String password;
+
+    /**
+     * The files loaded, indexed by path.
+     */
+    private Map<Path, LoadedFile> loadedFiles = Map.of();
+
+    /**
+     * The keys, indexed by file name without the extension.
+     */
+    private volatile Map<String, KeyPair> keys = Map.of();
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    PEMKeyDirectoryLoader() {
+        super();
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Gets the keys loaded.
+     * @return the keys, indexed by file name without the extension.
+     */
+    public Map<String, KeyPair> getKeys() {
+        return this.keys;
+    }
+
+    /**
+     * Scans the directory and loads the files which have been added or changed since the last scan.
+     * @return the keys, indexed by file name without the extension.
+     * @throws JOSEJWTException if the directory cannot be listed.
+     */
+    public synchronized Map<String, KeyPair> reload() throws JOSEJWTException {
+        List<Path> paths;
+        try (var directoryPaths = Files.list(this.directory)) {
+            paths = directoryPaths.filter(path -> path.getFileName().toString().endsWith(this.extension)).toList();
+        } catch (IOException e) {
+            throw new JOSEJWTException(e);
+        }
+
+        // @formatter:off
+        var newLoadedFiles = paths.parallelStream()
+                .map(this::load)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableMap(LoadedFile::path, loadedFile -> loadedFile));
+        // @formatter:on
+
+        var newKeys = new HashMap<String, KeyPair>();
+        for (LoadedFile loadedFile : newLoadedFiles.values()) {
+            newKeys.put(keyName(loadedFile.path()), loadedFile.keyPair());
+        }
+        this.loadedFiles = newLoadedFiles;
+        this.keys = Collections.unmodifiableMap(newKeys);
+        return this.keys;
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Loads a file, unless it has not changed since it has been loaded.
+     * @param path the file.
+     * @return the file loaded, its previous version if it cannot be loaded, or <code>null</code> if there is none.
+     */
+    private LoadedFile load(Path path) {
+        var previous = this.loadedFiles.get(path);
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            if (previous != null
+                    && previous.size() == attributes.size()
+                    && previous.lastModifiedTime().equals(attributes.lastModifiedTime())) {
+                return previous;
+            }
+
+            var keyPair = loadKey(path);
+            LOGGER.debug("PEM key <{}> loaded.", path);
+            return new LoadedFile(path, attributes.size(), attributes.lastModifiedTime(), keyPair);
+        } catch (IOException | JOSEJWTException e) {
+            LOGGER.error("Unable to load the PEM key <{}>.", path, e);
+            return previous;
+        }
+    }
+
+    /**
+     * Loads the key of a file.
+     * @param path the file.
+     * @return the key pair.
+     * @throws IOException if the file cannot be read.
+     */
+    private KeyPair loadKey(Path path) throws IOException {
+        try {
+            return PEMKeyLoader.loadKey(Files.newInputStream(path));
+        } catch (MissingPasswordPEMKeyException e) {
+            if (this.password == null) {
+                throw e;
+            }
+            return PEMKeyLoader.loadPasswordProtectedPrivateKey(Files.newInputStream(path), this.password);
+        }
+    }
+
+    /**
+     * Gets the name of the key of a file.
+     * @param path the file.
+     * @return the file name without the extension.
+     */
+    private String keyName(Path path) {
+        var fileName = path.getFileName().toString();
+        return fileName.substring(0, fileName.length() - this.extension.length());
+    }
+
+    /**
+     * A file loaded.
+     * <br>
+     * @author Julb.
+     */
+    private record LoadedFile(Path path, long size, FileTime lastModifiedTime, KeyPair keyPair) {}
+
+    /**
+     * The builder for the loader.
+     * <br>
+     * @author Julb.
+     */
+    public static class Builder {
+
+        /**
+         * The built instance
+         */
+        private PEMKeyDirectoryLoader instance;
+
+        // ------------------------------------------ Constructors.
+
+        /**
+         * Constructor.
+         */
+        public Builder() {
+            super();
+            this.instance = new PEMKeyDirectoryLoader();
+        }
+
+        // ------------------------------------------ Getters/Setters.
+
+        /**
+         * Setter for property directory.
+         * @param directory New value of property directory.
+         * @return the builder instance.
+         */
+        public Builder directory(Path directory) {
+            this.instance.directory = directory;
+            return this;
+        }
+
+        /**
+         * Setter for property extension.
+         * @param extension New value of property extension.
+         * @return the builder instance.
+         */
+        public Builder extension(String extension) {
+            this.instance.extension = extension;
+            return this;
+        }
+
+        /**
+         * Setter for property password.
+         * @param password New value of property password.
+         * @return the builder instance.
+         */
+        public Builder password(String password) {
+            this.instance.password = password;
+            return this;
+        }
+
+        /**
+         * Returns the built instance, after loading the keys of the directory.
+         * @return the instance.
+         * @throws JOSEJWTException if the directory cannot be listed.
+         */
+        public PEMKeyDirectoryLoader build() throws JOSEJWTException {
+            if (this.instance.directory == null || this.instance.extension == null) {
+                throw new IllegalArgumentException("directory and extension are required");
+            }
+            this.instance.reload();
+            return this.instance;
+        }
+    }
+}
@@ -23,6 +23,7 @@
  */
 package me.julb.commons.security.josejwt.keyloader;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -30,7 +31,13 @@ import java.nio.charset.StandardCharsets;
 import java.security.KeyPair;
 import java.security.PublicKey;
 import java.security.Security;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.EncryptionException;
@@ -50,11 +57,45 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * A loader to build {@link java.security.PublicKey} and {@link java.security.PrivateKey} from PEM files.
  * <br>
+ * The keys are cached by SHA-256 digest of their PEM content, and of their password if any, so that loading the same
+ * key again does not parse nor decrypt it again. The cache is bounded to {@link #MAXIMUM_CACHE_SIZE} keys: once
+ * full, the least recently used key is evicted.
+ * <br>
  * @author Julb.
  */
 @Slf4j
 public final class PEMKeyLoader {
 
+    /**
+     * The maximum number of keys kept in the cache.
+     */
+    public static final int MAXIMUM_CACHE_SIZE = 256;
+
+    /**
+     * The converter from PEM objects to JCA keys.
+     */
+    private static final JcaPEMKeyConverter CONVERTER = new JcaPEMKeyConverter();
+
+    /**
+     * The keys already loaded, indexed by digest of their PEM content, in least recently used order.
+     */
+    private static final Map<CacheKey, Object> CACHE =
+            Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, Object> eldest) {
+                    return size() > MAXIMUM_CACHE_SIZE;
+                }
+            });
+
+    static {
+        // Registering the provider is expensive: do it once.
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
     // ------------------------------------------ Constructors.
 
     /**
@@ -73,9 +114,122 @@ public final class PEMKeyLoader {
      * @throws JOSEJWTException if an error occurs.
      */
     public static PublicKey loadPublicKey(InputStream inputStream) throws JOSEJWTException {
-        Security.addProvider(new BouncyCastleProvider());
+        var content = readContent(inputStream);
+        return load(content, null, LoadMode.PUBLIC_KEY, () -> parsePublicKey(new ByteArrayInputStream(content)));
+    }
 
-        LOGGER.debug("Loading PEM public key from input stream.");
+    /**
+     * Loads a key from a file not protected by password.
+     * @param inputStream the private key file.
+     * @return the key pair
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public static KeyPair loadKey(InputStream inputStream) throws JOSEJWTException {
+        var content = readContent(inputStream);
+        return load(content, null, LoadMode.KEY, () -> parseKey(new ByteArrayInputStream(content)));
+    }
+
+    /**
+     * Loads a private key from a file not protected by password.
+     * @param inputStream the private key file.
+     * @return the key pair
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public static KeyPair loadPrivateKey(InputStream inputStream) throws JOSEJWTException {
+        var content = readContent(inputStream);
+        return load(content, null, LoadMode.PRIVATE_KEY, () -> parsePrivateKey(new ByteArrayInputStream(content)));
+    }
+
+    /**
+     * Loads a private key from an input stream protected by a password.
+     * @param inputStream the input stream.
+     * @param password the password.
+     * @return the keypair.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public static KeyPair loadPasswordProtectedPrivateKey(InputStream inputStream, String password)
+            throws JOSEJWTException {
+        var content = readContent(inputStream);
+        return load(
+                content,
+                password,
+                LoadMode.PASSWORD_PROTECTED_PRIVATE_KEY,
+                () -> parsePasswordProtectedPrivateKey(new ByteArrayInputStream(content), password));
+    }
+
+    /**
+     * Clears the cache of the keys already loaded.
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Reads and closes the input stream.
+     * @param inputStream the input stream.
+     * @return the content of the input stream.
+     * @throws JOSEJWTException if the input stream cannot be read.
+     */
+    private static byte[] readContent(InputStream inputStream) throws JOSEJWTException {
+        try (inputStream) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new JOSEJWTException(e);
+        }
+    }
+
+    /**
+     * Gets a key from the cache, parsing it if it is not cached yet.
+     * @param <T> the type of key.
+     * @param content the PEM content.
+     * @param password the password, <code>null</code> if none.
+     * @param loadMode the load mode.
+     * @param parser the parser of the content.
+     * @return the key.
+     * @throws JOSEJWTException if the content cannot be parsed.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T load(byte[] content, String password, LoadMode loadMode, Supplier<T> parser)
+            throws JOSEJWTException {
+        var cacheKey = new CacheKey(digest(content, password), loadMode);
+        var key = (T) CACHE.get(cacheKey);
+        if (key != null) {
+            LOGGER.debug("PEM key loaded from cache.");
+            return key;
+        }
+
+        key = parser.get();
+        var cached = (T) CACHE.putIfAbsent(cacheKey, key);
+        return cached != null ? cached : key;
+    }
+
+    /**
+     * Computes the digest identifying a PEM content and a password.
+     * @param content the PEM content.
+     * @param password the password, <code>null</code> if none.
+     * @return the hexadecimal digest.
+     */
+    private static String digest(byte[] content, String password) {
+        var messageDigest = DigestUtils.getSha256Digest();
+        messageDigest.update(content);
+        if (password != null) {
+            // A wrong password must never hit the entry of the right one.
+            messageDigest.update((byte) 0);
+            messageDigest.update(password.getBytes(StandardCharsets.UTF_8));
+        }
+        return Hex.encodeHexString(messageDigest.digest());
+    }
+
+    /**
+     * Parses a public key.
+     * @param inputStream the input stream.
+     * @return the public key.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    private static PublicKey parsePublicKey(InputStream inputStream) throws JOSEJWTException {
+        LOGGER.debug("Parsing PEM public key from input stream.");
 
         try (var pemParser = new PEMParser(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
             var o = pemParser.readObject();
@@ -87,15 +241,13 @@ public final class PEMKeyLoader {
 
             if (o instanceof PEMKeyPair pemkeyPair) {
                 // Convert to Java (JCA) format
-                var converter = new JcaPEMKeyConverter();
-                var publicKey = converter.getKeyPair(pemkeyPair).getPublic();
+                var publicKey = CONVERTER.getKeyPair(pemkeyPair).getPublic();
 
                 LOGGER.debug("Public key successfully loaded from a keypair.");
                 return publicKey;
             } else if (o instanceof SubjectPublicKeyInfo subjectPublicKeyInfo) {
                 // Convert to Java (JCA) format
-                var converter = new JcaPEMKeyConverter();
-                var publicKey = converter.getPublicKey(subjectPublicKeyInfo);
+                var publicKey = CONVERTER.getPublicKey(subjectPublicKeyInfo);
 
                 LOGGER.debug("Public key successfully loaded from a pubkey.");
                 return publicKey;
@@ -111,15 +263,13 @@ public final class PEMKeyLoader {
     }
 
     /**
-     * Loads a key from a file not protected by password.
+     * Parses a key from a file not protected by password.
      * @param inputStream the private key file.
      * @return the key pair
      * @throws JOSEJWTException if an error occurs.
      */
-    public static KeyPair loadKey(InputStream inputStream) throws JOSEJWTException {
-        Security.addProvider(new BouncyCastleProvider());
-
-        LOGGER.debug("Loading PEM unprotected private key from input stream.");
+    private static KeyPair parseKey(InputStream inputStream) throws JOSEJWTException {
+        LOGGER.debug("Parsing PEM unprotected private key from input stream.");
 
         try (var pemParserSign = new PEMParser(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
             var o = pemParserSign.readObject();
@@ -131,12 +281,10 @@ public final class PEMKeyLoader {
 
             if (o instanceof PEMKeyPair pemkeyPair) {
                 // Convert to Java (JCA) format
-                var converter = new JcaPEMKeyConverter();
-                return converter.getKeyPair(pemkeyPair);
+                return CONVERTER.getKeyPair(pemkeyPair);
             } else if (o instanceof SubjectPublicKeyInfo subjectPublicKeyInfo) {
                 // Convert to Java (JCA) format
-                var converter = new JcaPEMKeyConverter();
-                var publicKey = converter.getPublicKey(subjectPublicKeyInfo);
+                var publicKey = CONVERTER.getPublicKey(subjectPublicKeyInfo);
                 LOGGER.debug("Public key successfully loaded from a pubkey.");
                 return new KeyPair(publicKey, null);
             } else if (o instanceof PEMEncryptedKeyPair) {
@@ -154,15 +302,13 @@ public final class PEMKeyLoader {
     }
 
     /**
-     * Loads a private key from a file not protected by password.
+     * Parses a private key from a file not protected by password.
      * @param inputStream the private key file.
      * @return the key pair
      * @throws JOSEJWTException if an error occurs.
      */
-    public static KeyPair loadPrivateKey(InputStream inputStream) throws JOSEJWTException {
-        Security.addProvider(new BouncyCastleProvider());
-
-        LOGGER.debug("Loading PEM unprotected private key from input stream.");
+    private static KeyPair parsePrivateKey(InputStream inputStream) throws JOSEJWTException {
+        LOGGER.debug("Parsing PEM unprotected private key from input stream.");
 
         try (var pemParserSign = new PEMParser(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
             var o = pemParserSign.readObject();
@@ -174,8 +320,7 @@ public final class PEMKeyLoader {
 
             if (o instanceof PEMKeyPair pemkeyPair) {
                 // Convert to Java (JCA) format
-                var converter = new JcaPEMKeyConverter();
-                var keyPair = converter.getKeyPair(pemkeyPair);
+                var keyPair = CONVERTER.getKeyPair(pemkeyPair);
 
                 LOGGER.debug("PEM unprotected private key loaded from a keypair.");
                 return keyPair;
@@ -197,17 +342,15 @@ public final class PEMKeyLoader {
     }
 
     /**
-     * Loads a private key from an input stream protected by a password.
+     * Parses a private key from an input stream protected by a password.
      * @param inputStream the input stream.
      * @param password the password.
      * @return the keypair.
      * @throws JOSEJWTException if an error occurs.
      */
-    public static KeyPair loadPasswordProtectedPrivateKey(InputStream inputStream, String password)
+    private static KeyPair parsePasswordProtectedPrivateKey(InputStream inputStream, String password)
             throws JOSEJWTException {
-        Security.addProvider(new BouncyCastleProvider());
-
-        LOGGER.debug("Loading PEM password-protected private key from input stream.");
+        LOGGER.debug("Parsing PEM password-protected private key from input stream.");
 
         try (var pemParserSign = new PEMParser(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
             var o = pemParserSign.readObject();
@@ -217,14 +360,11 @@ public final class PEMKeyLoader {
                 throw new InvalidPEMKeyFormatException();
             }
 
-            // Build a converter.
-            var converter = new JcaPEMKeyConverter();
-
             if (o instanceof PEMKeyPair pemkeyPair) {
                 LOGGER.warn("Private key should be encrypted but this is not the case. Ignoring password parameter.");
 
                 // Convert to Java (JCA) format
-                var keyPair = converter.getKeyPair(pemkeyPair);
+                var keyPair = CONVERTER.getKeyPair(pemkeyPair);
                 LOGGER.debug("PEM Private key loaded from a keypair.");
                 return keyPair;
             } else if (o instanceof PEMEncryptedKeyPair pemEncryptedKeyPair) {
@@ -237,7 +377,7 @@ public final class PEMKeyLoader {
                 var decryptedKeyPair = pemEncryptedKeyPair.decryptKeyPair(pemDecryptorProvider);
 
                 // Extract private key.
-                var keyPair = converter.getKeyPair(decryptedKeyPair);
+                var keyPair = CONVERTER.getKeyPair(decryptedKeyPair);
 
                 LOGGER.debug("PEM Private key loaded from a protected file.");
                 return keyPair;
@@ -256,4 +396,38 @@ public final class PEMKeyLoader {
             throw new JOSEJWTException(e);
         }
     }
+
+    /**
+     * The load modes, which check the type of key differently.
+     * <br>
+     * @author Julb.
+     */
+    private enum LoadMode {
+        /**
+         * {@link PEMKeyLoader#loadPublicKey(InputStream)}.
+         */
+        PUBLIC_KEY,
+
+        /**
+         * {@link PEMKeyLoader#loadKey(InputStream)}.
+         */
+        KEY,
+
+        /**
+         * {@link PEMKeyLoader#loadPrivateKey(InputStream)}.
+         */
+        PRIVATE_KEY,
+
+        /**
+         * {@link PEMKeyLoader#loadPasswordProtectedPrivateKey(InputStream, String)}.
+         */
+        PASSWORD_PROTECTED_PRIVATE_KEY;
+    }
+
+    /**
+     * The cache key.
+     * <br>
+     * @author Julb.
+     */
+    private record CacheKey(String digest, LoadMode loadMode) {}
 }
@@ -0,0 +1,89 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.metrics;
+
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+
+/**
+ * The recorder of the metrics of the emission and the reception of tokens.
+ * <br>
+ * All the methods do nothing by default, so that implementations only override the metrics they export, e.g. to a
+ * monitoring library. Implementations must be thread-safe and cheap, as they are called on the hot path.
+ * <br>
+ * @author Julb.
+ */
+public interface ITokenMetricsRecorder {
+
+    /**
+     * The recorder recording nothing, used by default.
+     */
+    ITokenMetricsRecorder NOOP = new ITokenMetricsRecorder() {};
+
+    /**
+     * Records the duration of a stage.
+     * @param stage the stage.
+     * @param durationInNanos the duration, in nanoseconds.
+     */
+    default void recordStage(TokenStage stage, long durationInNanos) {
+        // Nothing by default.
+    }
+
+    /**
+     * Records the key resolved to decrypt or verify a token.
+     * <br>
+     * Only the keys actually found in the JWK set are recorded, so that the key IDs of forged tokens do not grow the
+     * set of recorded values.
+     * @param kid the key ID, may be <code>null</code>.
+     * @param algorithm the algorithm of the token.
+     */
+    default void recordKey(String kid, String algorithm) {
+        // Nothing by default.
+    }
+
+    /**
+     * Records the failure of the emission or the reception of a token.
+     * @param exception the failure.
+     */
+    default void recordFailure(JOSEJWTException exception) {
+        // Nothing by default.
+    }
+
+    /**
+     * Records a refresh of the JWK set triggered by a key ID not found.
+     * @param refreshed <code>true</code> if the JWK set has been refreshed, <code>false</code> if the refresh has been
+     * skipped or has not changed anything.
+     */
+    default void recordJWKSetRefresh(boolean refreshed) {
+        // Nothing by default.
+    }
+
+    /**
+     * Records the age of the JWK set used to resolve a key, i.e. the time since it was last successfully fetched or
+     * loaded. Nothing is recorded when the provider does not know the age of its keys.
+     * @param ageInMillis the age, in milliseconds.
+     */
+    default void recordJWKSetAge(long ageInMillis) {
+        // Nothing by default.
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.metrics;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+
+/**
+ * A recorder keeping the metrics in memory, mostly meant for tests.
+ * <br>
+ * The stages are recorded in {@link LatencyHistogram}s, and the keys, algorithms and failures in counters. The
+ * failures are counted by exception simple name.
+ * <br>
+ * @author Julb.
+ */
+public class InMemoryTokenMetricsRecorder implements ITokenMetricsRecorder {
+
+    /**
+     * The value used for the key IDs not provided.
+     */
+    public static final String NO_KID = "<none>";
+
+    /**
+     * The durations, per stage.
+     */
+    private final Map<TokenStage, LatencyHistogram> stageHistograms = new EnumMap<>(TokenStage.class);
+
+    /**
+     * The number of keys resolved, per key ID.
+     */
+    private final ConcurrentHashMap<String, LongAdder> kidCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The number of keys resolved, per algorithm.
+     */
+    private final ConcurrentHashMap<String, LongAdder> algorithmCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The number of failures, per exception type.
+     */
+    private final ConcurrentHashMap<String, LongAdder> failureCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The number of refreshes of the JWK set requested.
+     */
+    private final LongAdder jwkSetRefreshRequestCount = new LongAdder();
+
+    /**
+     * The number of refreshes of the JWK set which changed it.
+     */
+    private final LongAdder jwkSetRefreshCount = new LongAdder();
+
+    /**
+     * The last age of the JWK set recorded, in milliseconds.
+     */
+    private volatile long lastJWKSetAgeInMillis;
+
+    /**
+     * The maximum age of the JWK set recorded, in milliseconds.
+     */
+    private final LongAccumulator maxJWKSetAgeInMillis = new LongAccumulator(Math::max, 0);
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    public InMemoryTokenMetricsRecorder() {
+        super();
+        for (TokenStage stage : TokenStage.values()) {
+            stageHistograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    // ------------------------------------------ Overridden methods.
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordStage(TokenStage stage, long durationInNanos) {
+        stageHistograms.get(stage).record(durationInNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordKey(String kid, String algorithm) {
+        increment(kidCounts, kid != null ? kid : NO_KID);
+        if (algorithm != null) {
+            increment(algorithmCounts, algorithm);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordFailure(JOSEJWTException exception) {
+        increment(failureCounts, exception.getClass().getSimpleName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordJWKSetRefresh(boolean refreshed) {
+        jwkSetRefreshRequestCount.increment();
+        if (refreshed) {
+            jwkSetRefreshCount.increment();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordJWKSetAge(long ageInMillis) {
+        lastJWKSetAgeInMillis = ageInMillis;
+        maxJWKSetAgeInMillis.accumulate(ageInMillis);
+    }
+
+    // ------------------------------------------ Getters.
+
+    /**
+     * Gets the histogram of the durations of a stage.
+     * @param stage the stage.
+     * @return the histogram.
+     */
+    public LatencyHistogram getStageHistogram(TokenStage stage) {
+        return stageHistograms.get(stage);
+    }
+
+    /**
+     * Gets the number of keys resolved, per key ID.
+     * @return a copy of the counts, the key IDs not provided being counted as {@link #NO_KID}.
+     */
+    public Map<String, Long> getKidCounts() {
+        return toMap(kidCounts);
+    }
+
+    /**
+     * Gets the number of keys resolved, per algorithm.
+     * @return a copy of the counts.
+     */
+    public Map<String, Long> getAlgorithmCounts() {
+        return toMap(algorithmCounts);
+    }
+
+    /**
+     * Gets the number of failures, per exception simple name.
+     * @return a copy of the counts.
+     */
+    public Map<String, Long> getFailureCounts() {
+        return toMap(failureCounts);
+    }
+
+    /**
+     * Gets the number of failures of the given type.
+     * @param exceptionType the exception type.
+     * @return the number of failures.
+     */
+    public long getFailureCount(Class<? extends JOSEJWTException> exceptionType) {
+        var failureCount = failureCounts.get(exceptionType.getSimpleName());
+        return failureCount != null ? failureCount.sum() : 0;
+    }
+
+    /**
+     * Gets the number of refreshes of the JWK set requested because of a key ID not found.
+     * @return the number of refreshes requested.
+     */
+    public long getJWKSetRefreshRequestCount() {
+        return jwkSetRefreshRequestCount.sum();
+    }
+
+    /**
+     * Gets the number of refreshes of the JWK set which changed it.
+     * @return the number of refreshes.
+     */
+    public long getJWKSetRefreshCount() {
+        return jwkSetRefreshCount.sum();
+    }
+
+    /**
+     * Getter for property lastJWKSetAgeInMillis.
+     * @return Value of property lastJWKSetAgeInMillis.
+     */
+    public long getLastJWKSetAgeInMillis() {
+        return lastJWKSetAgeInMillis;
+    }
+
+    /**
+     * Gets the maximum age of the JWK set recorded.
+     * @return the maximum age, in milliseconds.
+     */
+    public long getMaxJWKSetAgeInMillis() {
+        return maxJWKSetAgeInMillis.get();
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Resets all the metrics.
+     */
+    public void reset() {
+        stageHistograms.values().forEach(LatencyHistogram::reset);
+        kidCounts.clear();
+        algorithmCounts.clear();
+        failureCounts.clear();
+        jwkSetRefreshRequestCount.reset();
+        jwkSetRefreshCount.reset();
+        lastJWKSetAgeInMillis = 0;
+        maxJWKSetAgeInMillis.reset();
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Increments a counter.
+     * @param counts the counters.
+     * @param key the key of the counter.
+     */
+    private static void increment(ConcurrentHashMap<String, LongAdder> counts, String key) {
+        var counter = counts.get(key);
+        if (counter == null) {
+            counter = counts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Copies counters to a map of values.
+     * @param counts the counters.
+     * @return the values.
+     */
+    private static Map<String, Long> toMap(ConcurrentHashMap<String, LongAdder> counts) {
+        var values = new HashMap<String, Long>();
+        counts.forEach((key, counter) -> values.put(key, counter.sum()));
+        return values;
+    }
+}
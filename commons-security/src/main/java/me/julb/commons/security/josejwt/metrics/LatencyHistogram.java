@@ -0,0 +1,187 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with power-of-two buckets.
+ * <br>
+ * The bucket <code>i</code> counts the durations whose highest bit is <code>i</code>, so percentiles are approximated
+ * by the upper bound of their bucket, i.e. within a factor of two.
+ * <br>
+ * @author Julb.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The number of buckets.
+     */
+    private static final int BUCKET_COUNT = Long.SIZE;
+
+    /**
+     * The count per bucket.
+     */
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+    /**
+     * The number of durations recorded.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The sum of the durations recorded.
+     */
+    private final LongAdder totalInNanos = new LongAdder();
+
+    /**
+     * The maximum duration recorded.
+     */
+    private final LongAccumulator maxInNanos = new LongAccumulator(Math::max, 0);
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    public LatencyHistogram() {
+        super();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Records a duration.
+     * @param durationInNanos the duration, in nanoseconds. Negative durations are recorded as zero.
+     */
+    public void record(long durationInNanos) {
+        var duration = Math.max(durationInNanos, 0);
+        buckets[bucketOf(duration)].increment();
+        count.increment();
+        totalInNanos.add(duration);
+        maxInNanos.accumulate(duration);
+    }
+
+    /**
+     * Gets the number of durations recorded.
+     * @return the number of durations.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the sum of the durations recorded.
+     * @return the sum, in nanoseconds.
+     */
+    public long getTotalInNanos() {
+        return totalInNanos.sum();
+    }
+
+    /**
+     * Gets the maximum duration recorded.
+     * @return the maximum, in nanoseconds.
+     */
+    public long getMaxInNanos() {
+        return maxInNanos.get();
+    }
+
+    /**
+     * Gets the mean of the durations recorded.
+     * @return the mean, in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getMeanInNanos() {
+        var currentCount = getCount();
+        return currentCount == 0 ? 0 : getTotalInNanos() / currentCount;
+    }
+
+    /**
+     * Gets an approximation of a percentile of the durations recorded.
+     * @param percentile the percentile, between 0 and 100.
+     * @return the upper bound of the bucket of the percentile, capped to the maximum, in nanoseconds, or 0 if nothing
+     * has been recorded.
+     */
+    public long getPercentileInNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+
+        // Snapshot the buckets to get a consistent total.
+        var counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        var rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long cumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank) {
+                return Math.min(upperBoundOf(i), getMaxInNanos());
+            }
+        }
+        return getMaxInNanos();
+    }
+
+    /**
+     * Resets the histogram.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalInNanos.reset();
+        maxInNanos.reset();
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Gets the bucket of a duration.
+     * @param durationInNanos the positive duration.
+     * @return the bucket.
+     */
+    private static int bucketOf(long durationInNanos) {
+        return durationInNanos == 0 ? 0 : Long.SIZE - 1 - Long.numberOfLeadingZeros(durationInNanos);
+    }
+
+    /**
+     * Gets the upper bound of a bucket.
+     * @param bucket the bucket.
+     * @return the upper bound, inclusive.
+     */
+    private static long upperBoundOf(int bucket) {
+        return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.metrics;
+
+/**
+ * The stages of the emission and the reception of a token, timed by an {@link ITokenMetricsRecorder}.
+ * <br>
+ * @author Julb.
+ */
+public enum TokenStage {
+
+    /**
+     * Parsing of the token, before decryption or verification.
+     */
+    PARSE,
+
+    /**
+     * Resolution of the key among the JWK set, including the refresh of the JWK set if any.
+     */
+    KEY_RESOLVE,
+
+    /**
+     * Decryption of the token.
+     */
+    DECRYPT,
+
+    /**
+     * Verification of the signature of the token.
+     */
+    VERIFY,
+
+    /**
+     * Checks of the expiration, the issuer and the audience of the token.
+     */
+    CLAIMS_CHECK,
+
+    /**
+     * Signature of the token.
+     */
+    SIGN,
+
+    /**
+     * Encryption of the token.
+     */
+    ENCRYPT;
+}
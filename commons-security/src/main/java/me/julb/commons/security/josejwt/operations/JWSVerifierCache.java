@@ -0,0 +1,268 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.operations;
+
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.unauthorized.UnsupportedKeyTypeJOSEJWTException;
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A bounded and thread-safe cache of {@link JWSVerifier} keyed by JWK thumbprint.
+ * <br>
+ * The cache follows the {@link JWKSetSnapshot} it is used with: when a new snapshot is seen, the verifiers of its
+ * signature keys are created upfront and the verifiers of the keys which are no longer in the snapshot are evicted.
+ * While a snapshot is being loaded, the other lookups do not wait and fall back to the verifiers already cached.
+ * A cache instance is hence meant to be used with a single JWK set provider.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public class JWSVerifierCache {
+
+    /**
+     * The default maximum number of verifiers kept in the cache.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 128;
+
+    /**
+     * The maximum number of verifiers kept in the cache.
+     */
+    private final int maximumSize;
+
+    /**
+     * The verifiers indexed by JWK thumbprint.
+     */
+    private final ConcurrentHashMap<String, JWSVerifier> verifiers;
+
+    /**
+     * The hit counter.
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * The miss counter.
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * The lock guarding the loads.
+     */
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /**
+     * The last snapshot loaded in the cache.
+     */
+    private volatile JWKSetSnapshot loadedSnapshot;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    public JWSVerifierCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param maximumSize the maximum number of verifiers kept in the cache.
+     */
+    public JWSVerifierCache(int maximumSize) {
+        super();
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.verifiers = new ConcurrentHashMap<>();
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Gets the verifier of a key, creating it if it is not cached yet.
+     * @param jwkSetSnapshot the snapshot from which the key has been selected.
+     * @param jwk the key.
+     * @return the verifier for the key.
+     * @throws JOSEJWTException if the verifier cannot be created.
+     */
+    public JWSVerifier getVerifier(JWKSetSnapshot jwkSetSnapshot, JWK jwk) throws JOSEJWTException {
+        if (jwkSetSnapshot != this.loadedSnapshot && this.loadLock.tryLock()) {
+            try {
+                doLoad(jwkSetSnapshot);
+            } finally {
+                this.loadLock.unlock();
+            }
+        }
+
+        var thumbprint = jwkSetSnapshot.getThumbprint(jwk);
+        if (thumbprint != null) {
+            var verifier = this.verifiers.get(thumbprint);
+            if (verifier != null) {
+                this.hitCount.increment();
+                return verifier;
+            }
+        }
+
+        this.missCount.increment();
+        var verifier = newJWSVerifier(jwk);
+        if (thumbprint != null && this.verifiers.size() < this.maximumSize) {
+            this.verifiers.putIfAbsent(thumbprint, verifier);
+        }
+        return verifier;
+    }
+
+    /**
+     * Loads a snapshot in the cache: creates the verifiers of its signature keys and evicts the verifiers of the keys
+     * which are not part of it anymore.
+     * @param jwkSetSnapshot the snapshot.
+     */
+    public void load(JWKSetSnapshot jwkSetSnapshot) {
+        this.loadLock.lock();
+        try {
+            doLoad(jwkSetSnapshot);
+        } finally {
+            this.loadLock.unlock();
+        }
+    }
+
+    /**
+     * Clears the cache.
+     */
+    public void clear() {
+        this.loadLock.lock();
+        try {
+            this.verifiers.clear();
+            this.loadedSnapshot = null;
+        } finally {
+            this.loadLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of verifiers in the cache.
+     * @return the number of verifiers in the cache.
+     */
+    public int size() {
+        return this.verifiers.size();
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     * @return the number of hits.
+     */
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * Gets the number of lookups which required to create a verifier.
+     * @return the number of misses.
+     */
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Loads a snapshot in the cache, the load lock being held.
+     * @param jwkSetSnapshot the snapshot.
+     */
+    private void doLoad(JWKSetSnapshot jwkSetSnapshot) {
+        if (jwkSetSnapshot == this.loadedSnapshot) {
+            return;
+        }
+
+        var signatureKeys = jwkSetSnapshot.select(null, KeyUse.SIGNATURE, false);
+        var thumbprints = new HashSet<String>();
+        for (JWK jwk : signatureKeys) {
+            var thumbprint = jwkSetSnapshot.getThumbprint(jwk);
+            if (thumbprint != null) {
+                thumbprints.add(thumbprint);
+            }
+        }
+
+        // Evict keys rotated out.
+        this.verifiers.keySet().retainAll(thumbprints);
+
+        // Pre-warm the verifiers of the new keys.
+        for (JWK jwk : signatureKeys) {
+            var thumbprint = jwkSetSnapshot.getThumbprint(jwk);
+            if (thumbprint != null
+                    && !this.verifiers.containsKey(thumbprint)
+                    && this.verifiers.size() < this.maximumSize) {
+                try {
+                    this.verifiers.put(thumbprint, newJWSVerifier(jwk));
+                } catch (JOSEJWTException e) {
+                    LOGGER.debug("Unable to create a verifier for key <{}>.", jwk.getKeyID(), e);
+                }
+            }
+        }
+
+        this.loadedSnapshot = jwkSetSnapshot;
+    }
+
+    // ------------------------------------------ Package methods.
+
+    /**
+     * Returns a new {@link JWSVerifier} instance based on the public key.
+     * @param jwk the JWK.
+     * @return the appropriate JWS verifier.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    static JWSVerifier newJWSVerifier(JWK jwk) throws JOSEJWTException {
+        try {
+            if (jwk instanceof ECKey ecKey) {
+                return new ECDSAVerifier(ecKey);
+            } else if (jwk instanceof RSAKey rsaKey) {
+                return new RSASSAVerifier(rsaKey);
+            } else if (jwk instanceof OctetSequenceKey octetSequenceKey) {
+                return new MACVerifier(octetSequenceKey);
+            } else {
+                throw new UnsupportedKeyTypeJOSEJWTException(jwk.getKeyType().getValue());
+            }
+        } catch (JOSEException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new JOSEJWTException(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.operations;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEEncrypter;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.jwk.JWK;
+
+import me.julb.commons.security.josejwt.digest.TokenDigest;
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An encryption prepared for a given key.
+ * <br>
+ * The encrypter and the header are resolved once, and then reused for every token. Instances are immutable and safe
+ * for concurrent use.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public final class PreparedEncryption {
+
+    /**
+     * The JWK used to encrypt the tokens.
+     */
+    private final JWK jwk;
+
+    /**
+     * The encrypter.
+     */
+    private final JWEEncrypter jweEncrypter;
+
+    /**
+     * The header of the encrypted tokens.
+     */
+    private final JWEHeader jweHeader;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param jwk the JWK used to encrypt the tokens.
+     * @param jweEncrypter the encrypter.
+     * @param jweHeader the header of the encrypted tokens.
+     */
+    private PreparedEncryption(JWK jwk, JWEEncrypter jweEncrypter, JWEHeader jweHeader) {
+        super();
+        this.jwk = jwk;
+        this.jweEncrypter = jweEncrypter;
+        this.jweHeader = jweHeader;
+    }
+
+    // ------------------------------------------ Factory methods.
+
+    /**
+     * Prepares the encryption with the given key.
+     * @param jwk the JWK used to encrypt the tokens.
+     * @return the prepared encryption.
+     * @throws JOSEJWTException if the key is not supported.
+     */
+    public static PreparedEncryption of(JWK jwk) throws JOSEJWTException {
+        var jweEncrypter = TokenEncryptionOperation.getJWEEncrypter(jwk);
+
+        // @formatter:off
+        var jweHeader = new JWEHeader.Builder(
+                        TokenEncryptionOperation.getJWEAlgorithm(jwk), TokenEncryptionOperation.getEncryptionMethod())
+                .contentType("JWT")
+                .keyID(jwk.getKeyID())
+                .build();
+        // @formatter:on
+
+        return new PreparedEncryption(jwk, jweEncrypter, jweHeader);
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Encrypts a token.
+     * @param token the JWT token.
+     * @return the token encrypted with the key.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public String encrypt(String token) throws JOSEJWTException {
+        return encrypt(token, TokenDigest.of(token));
+    }
+
+    /**
+     * Encrypts a token.
+     * @param token the JWT token.
+     * @param tokenDigest the digest of the token being processed, for logging purpose.
+     * @return the token encrypted with the key.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public String encrypt(String token, TokenDigest tokenDigest) throws JOSEJWTException {
+        try {
+            LOGGER.debug("Token <{}> - Encrypting the token.", tokenDigest);
+
+            var encryptedJWT = new JWEObject(this.jweHeader, new Payload(token));
+            encryptedJWT.encrypt(this.jweEncrypter);
+            var serialize = encryptedJWT.serialize();
+
+            LOGGER.debug("Token <{}> - Token encrypted successfully.", tokenDigest);
+
+            return serialize;
+        } catch (JOSEException e) {
+            throw new JOSEJWTException(e);
+        }
+    }
+
+    /**
+     * Getter for property jwk.
+     * @return Value of property jwk.
+     */
+    public JWK getJWK() {
+        return this.jwk;
+    }
+
+    /**
+     * Getter for property jweHeader.
+     * @return Value of property jweHeader.
+     */
+    public JWEHeader getJWEHeader() {
+        return this.jweHeader;
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.operations;
+
+import java.text.ParseException;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import me.julb.commons.security.josejwt.digest.TokenDigest;
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.badrequest.TokenNotParseableJOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.internalservererror.UnsupportedJWSAlgorithmJOSEJWTException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A signature prepared for a given key.
+ * <br>
+ * The signer, the algorithm and the header are resolved and checked once, and then reused for every token. Instances
+ * are immutable and safe for concurrent use.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public final class PreparedSignature {
+
+    /**
+     * The JWK used to sign the tokens.
+     */
+    private final JWK jwk;
+
+    /**
+     * The signer.
+     */
+    private final JWSSigner jwsSigner;
+
+    /**
+     * The header of the signed tokens.
+     */
+    private final JWSHeader jwsHeader;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param jwk the JWK used to sign the tokens.
+     * @param jwsSigner the signer.
+     * @param jwsHeader the header of the signed tokens.
+     */
+    private PreparedSignature(JWK jwk, JWSSigner jwsSigner, JWSHeader jwsHeader) {
+        super();
+        this.jwk = jwk;
+        this.jwsSigner = jwsSigner;
+        this.jwsHeader = jwsHeader;
+    }
+
+    // ------------------------------------------ Factory methods.
+
+    /**
+     * Prepares the signature with the given key.
+     * @param jwk the JWK used to sign the tokens.
+     * @return the prepared signature.
+     * @throws JOSEJWTException if the key or its algorithm is not supported.
+     */
+    public static PreparedSignature of(JWK jwk) throws JOSEJWTException {
+        var jwsSigner = TokenSignatureOperation.getJWSSigner(jwk);
+        var jwsAlgorithm = TokenSignatureOperation.getJWSAlgorithm(jwk);
+        var supportedJWSAlgorithms = jwsSigner.supportedJWSAlgorithms();
+        if (!supportedJWSAlgorithms.contains(jwsAlgorithm)) {
+            var algorithmList =
+                    supportedJWSAlgorithms.stream().map(JWSAlgorithm::getName).toList();
+            throw new UnsupportedJWSAlgorithmJOSEJWTException(algorithmList, jwsAlgorithm.getName());
+        }
+
+        // @formatter:off
+        var jwsHeader =
+                new JWSHeader.Builder(jwsAlgorithm).keyID(jwk.getKeyID()).build();
+        // @formatter:on
+
+        return new PreparedSignature(jwk, jwsSigner, jwsHeader);
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Signs a token.
+     * @param token the token to sign.
+     * @return the token signed with the key.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public String sign(String token) throws JOSEJWTException {
+        return sign(token, TokenDigest.of(token));
+    }
+
+    /**
+     * Signs a token.
+     * @param token the token to sign.
+     * @param tokenDigest the digest of the token being processed, for logging purpose.
+     * @return the token signed with the key.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public String sign(String token, TokenDigest tokenDigest) throws JOSEJWTException {
+        try {
+            LOGGER.debug("Token <{}> - Signing the token.", tokenDigest);
+
+            // Parse the token
+            var jwtClaimsSet = JWTClaimsSet.parse(token);
+
+            // Sign the token.
+            var signedJWT = new SignedJWT(this.jwsHeader, jwtClaimsSet);
+            signedJWT.sign(this.jwsSigner);
+            var signedSerializedToken = signedJWT.serialize();
+
+            LOGGER.debug("Token <{}> - Token signed successfully.", tokenDigest);
+
+            return signedSerializedToken;
+        } catch (ParseException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new TokenNotParseableJOSEJWTException(e);
+        } catch (JOSEException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw new JOSEJWTException(e);
+        }
+    }
+
+    /**
+     * Getter for property jwk.
+     * @return Value of property jwk.
+     */
+    public JWK getJWK() {
+        return this.jwk;
+    }
+
+    /**
+     * Getter for property jwsHeader.
+     * @return Value of property jwsHeader.
+     */
+    public JWSHeader getJWSHeader() {
+        return this.jwsHeader;
+    }
+}
@@ -32,20 +32,20 @@ import com.nimbusds.jose.crypto.ECDHDecrypter;
 import com.nimbusds.jose.crypto.RSADecrypter;
 import com.nimbusds.jose.jwk.ECKey;
 import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKMatcher;
-import com.nimbusds.jose.jwk.JWKSelector;
 import com.nimbusds.jose.jwk.KeyUse;
 import com.nimbusds.jose.jwk.OctetSequenceKey;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.EncryptedJWT;
 
 import me.julb.commons.constants.Integers;
-import me.julb.commons.security.josejwt.digest.TokenDigestUtility;
+import me.julb.commons.security.josejwt.digest.TokenDigest;
 import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
 import me.julb.commons.security.josejwt.exceptions.badrequest.TokenNotParseableJOSEJWTException;
 import me.julb.commons.security.josejwt.exceptions.unauthorized.UnresolvableKeyJOSEJWTException;
 import me.julb.commons.security.josejwt.exceptions.unauthorized.UnsupportedKeyTypeJOSEJWTException;
 import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.metrics.ITokenMetricsRecorder;
+import me.julb.commons.security.josejwt.metrics.TokenStage;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -62,6 +62,11 @@ public class TokenDecryptionOperation {
      */
     private IJWKSetProvider jwkSetProvider;
 
+    /**
+     * The metrics recorder.
+     */
+    private ITokenMetricsRecorder metricsRecorder = ITokenMetricsRecorder.NOOP;
+
     // ------------------------------------------ Constructors.
 
     /**
@@ -73,6 +78,18 @@ public class TokenDecryptionOperation {
         this.jwkSetProvider = jwkSetProvider;
     }
 
+    // ------------------------------------------ Builder methods.
+
+    /**
+     * Setter for property metricsRecorder.
+     * @param metricsRecorder New value of property metricsRecorder.
+     * @return the current instance.
+     */
+    public TokenDecryptionOperation setMetricsRecorder(ITokenMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+        return this;
+    }
+
     // ------------------------------------------ Utility methods.
 
     /**
@@ -82,36 +99,50 @@ public class TokenDecryptionOperation {
      * @throws JOSEJWTException if an error occurs.
      */
     public String execute(String token) throws JOSEJWTException {
-        try {
-            var safeHash = TokenDigestUtility.hash(token);
+        return execute(token, TokenDigest.of(token));
+    }
 
-            LOGGER.debug("Token <{}> - Decrypting the token.", safeHash);
+    /**
+     * Execute the operation.
+     * @param token the token to decrypt.
+     * @param tokenDigest the digest of the token being processed, for logging purpose.
+     * @return the token decrypted with the private key.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public String execute(String token, TokenDigest tokenDigest) throws JOSEJWTException {
+        try {
+            LOGGER.debug("Token <{}> - Decrypting the token.", tokenDigest);
 
             // Parse the encrypted JWT
+            var startTime = System.nanoTime();
             var jweObject = EncryptedJWT.parse(token);
+            startTime = recordStage(TokenStage.PARSE, startTime);
 
             // Get the key ID for the signature.
             var alg = jweObject.getHeader().getAlgorithm();
             var enc = jweObject.getHeader().getEncryptionMethod();
             var kid = jweObject.getHeader().getKeyID();
 
-            LOGGER.debug("Token <{}> - alg/enc/kid used to sign the token is <{},{},{}>.", safeHash, alg, enc, kid);
+            LOGGER.debug("Token <{}> - alg/enc/kid used to sign the token is <{},{},{}>.", tokenDigest, alg, enc, kid);
 
             // Get the corresponding JWK.
-            LOGGER.debug("Token <{}> - Searching JWK among the JWKSet.", safeHash);
+            LOGGER.debug("Token <{}> - Searching JWK among the JWKSet.", tokenDigest);
             var jwk = getDecryptionJWK(kid, KeyUse.ENCRYPTION);
+            startTime = recordStage(TokenStage.KEY_RESOLVE, startTime);
+            metricsRecorder.recordKey(kid, alg.getName());
 
-            LOGGER.debug("Token <{}> - Key has been resolved.", safeHash);
+            LOGGER.debug("Token <{}> - Key has been resolved.", tokenDigest);
 
             // Decrypt.
             jweObject.decrypt(getJWEDecrypter(jwk));
+            recordStage(TokenStage.DECRYPT, startTime);
 
-            LOGGER.debug("Token <{}> - Decryption OK.", safeHash);
+            LOGGER.debug("Token <{}> - Decryption OK.", tokenDigest);
 
             // Decrypt the token.
             var decryptedToken = jweObject.getPayload().toString();
 
-            LOGGER.debug("Token <{}> - Token decrypted successfully.", safeHash);
+            LOGGER.debug("Token <{}> - Token decrypted successfully.", tokenDigest);
 
             return decryptedToken;
         } catch (ParseException e) {
@@ -125,6 +156,18 @@ public class TokenDecryptionOperation {
 
     // ------------------------------------------ Private methods.
 
+    /**
+     * Records the duration of a stage.
+     * @param stage the stage.
+     * @param startTime the start time of the stage, in nanoseconds.
+     * @return the end time of the stage, in nanoseconds.
+     */
+    private long recordStage(TokenStage stage, long startTime) {
+        var endTime = System.nanoTime();
+        metricsRecorder.recordStage(stage, endTime - startTime);
+        return endTime;
+    }
+
     /**
      * Returns a {@link JWEDecrypter} instance based on the private key.
      * @return the appropriate JWE decrypter.
@@ -154,20 +197,22 @@ public class TokenDecryptionOperation {
      * @return the corresponding JWK.
      */
     private JWK getDecryptionJWK(String kid, KeyUse keyUse) throws JOSEJWTException {
-        // @formatter:off
-        var jwkMatcherBuilder =
-                new JWKMatcher.Builder().keyUse(keyUse).privateOnly(true).keyID(kid);
-        // @formatter:on
-
-        // Get the JWK matching.
-        var jwkSet = this.jwkSetProvider.toJWKSet();
-        var jwkSelector = new JWKSelector(jwkMatcherBuilder.build());
-        var jwks = jwkSelector.select(jwkSet);
+        // Get the JWK matching from the indexed snapshot.
+        var jwkSetSnapshot = this.jwkSetProvider.toJWKSetSnapshot();
+        var jwks = jwkSetSnapshot.select(kid, keyUse, true);
 
         // No key matching. Refresh & Retry.
-        if (jwks.isEmpty() && this.jwkSetProvider.refreshJWKSet()) {
-            jwkSet = this.jwkSetProvider.toJWKSet();
-            jwks = jwkSelector.select(jwkSet);
+        if (jwks.isEmpty()) {
+            var refreshed = this.jwkSetProvider.refreshJWKSet(kid);
+            metricsRecorder.recordJWKSetRefresh(refreshed);
+            if (refreshed) {
+                jwkSetSnapshot = this.jwkSetProvider.toJWKSetSnapshot();
+                jwks = jwkSetSnapshot.select(kid, keyUse, true);
+            }
+        }
+        var jwkSetAgeInMillis = this.jwkSetProvider.getJWKSetAgeInMillis();
+        if (jwkSetAgeInMillis >= 0) {
+            metricsRecorder.recordJWKSetAge(jwkSetAgeInMillis);
         }
 
         var keyCount = jwks.size();
@@ -27,9 +27,6 @@ import com.nimbusds.jose.EncryptionMethod;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWEAlgorithm;
 import com.nimbusds.jose.JWEEncrypter;
-import com.nimbusds.jose.JWEHeader;
-import com.nimbusds.jose.JWEObject;
-import com.nimbusds.jose.Payload;
 import com.nimbusds.jose.crypto.DirectEncrypter;
 import com.nimbusds.jose.crypto.ECDHEncrypter;
 import com.nimbusds.jose.crypto.RSAEncrypter;
@@ -38,19 +35,16 @@ import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.OctetSequenceKey;
 import com.nimbusds.jose.jwk.RSAKey;
 
-import me.julb.commons.security.josejwt.digest.TokenDigestUtility;
+import me.julb.commons.security.josejwt.digest.TokenDigest;
 import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
 import me.julb.commons.security.josejwt.exceptions.unauthorized.UnsupportedKeyTypeJOSEJWTException;
 import me.julb.commons.security.josejwt.jwk.IJWKProvider;
 
-import lombok.extern.slf4j.Slf4j;
-
 /**
  * The operation that signs a token with a private key.
  * <br>
  * @author Julb.
  */
-@Slf4j
 public class TokenEncryptionOperation {
 
     /**
@@ -78,35 +72,21 @@ public class TokenEncryptionOperation {
      * @throws JOSEJWTException if an error occurs.
      */
     public String execute(String token) throws JOSEJWTException {
-        try {
-            var safeHash = TokenDigestUtility.hash(token);
-
-            LOGGER.debug("Token <{}> - Encrypting the token.", safeHash);
-
-            // Extract JWK.
-            var jwk = this.jwkProvider.toJWK();
-
-            // Encrypt the token.
-            // @formatter:off
-            var jweHeader = new JWEHeader.Builder(getJWEAlgorithm(jwk), getEncryptionMethod())
-                    .contentType("JWT")
-                    .keyID(jwk.getKeyID())
-                    .build();
-            // @formatter:on
-
-            var encryptedJWT = new JWEObject(jweHeader, new Payload(token));
-            encryptedJWT.encrypt(TokenEncryptionOperation.getJWEEncrypter(jwk));
-            var serialize = encryptedJWT.serialize();
-
-            LOGGER.debug("Token <{}> - Token encrypted successfully.", safeHash);
+        return execute(token, TokenDigest.of(token));
+    }
 
-            return serialize;
-        } catch (JOSEException e) {
-            throw new JOSEJWTException(e);
-        }
+    /**
+     * Executes the operation.
+     * @param token the JWT token.
+     * @param tokenDigest the digest of the token being processed, for logging purpose.
+     * @return the token signed with the private key.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public String execute(String token, TokenDigest tokenDigest) throws JOSEJWTException {
+        return PreparedEncryption.of(this.jwkProvider.toJWK()).encrypt(token, tokenDigest);
     }
 
-    // ------------------------------------------ Private methods.
+    // ------------------------------------------ Package-private methods.
 
     /**
      * Returns a {@link JWEEncrypter} instance based on the public key.
@@ -114,7 +94,7 @@ public class TokenEncryptionOperation {
      * @return the appropriate JWE encrypter.
      * @throws JOSEJWTException if an error occurs.
      */
-    private static JWEEncrypter getJWEEncrypter(JWK jwk) throws JOSEJWTException {
+    static JWEEncrypter getJWEEncrypter(JWK jwk) throws JOSEJWTException {
         try {
             if (jwk instanceof ECKey ecKey) {
                 return new ECDHEncrypter(ecKey);
@@ -136,7 +116,7 @@ public class TokenEncryptionOperation {
      * @return the appropriate JWE algorithm.
      * @throws JOSEJWTException if an error occurs.
      */
-    private static JWEAlgorithm getJWEAlgorithm(JWK jwk) throws JOSEJWTException {
+    static JWEAlgorithm getJWEAlgorithm(JWK jwk) throws JOSEJWTException {
         if (jwk.getAlgorithm() != null) {
             return new JWEAlgorithm(jwk.getAlgorithm().getName());
         } else if (jwk instanceof ECKey) {
@@ -155,7 +135,7 @@ public class TokenEncryptionOperation {
      * @return the appropriate encryption method.
      * @throws JOSEJWTException if an error occurs.
      */
-    private static EncryptionMethod getEncryptionMethod() throws JOSEJWTException {
+    static EncryptionMethod getEncryptionMethod() throws JOSEJWTException {
         return EncryptionMethod.A256GCM;
     }
 }
@@ -23,11 +23,8 @@
  */
 package me.julb.commons.security.josejwt.operations;
 
-import java.text.ParseException;
-
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSSigner;
 import com.nimbusds.jose.crypto.ECDSASigner;
 import com.nimbusds.jose.crypto.MACSigner;
@@ -36,13 +33,9 @@ import com.nimbusds.jose.jwk.ECKey;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.OctetSequenceKey;
 import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
 
-import me.julb.commons.security.josejwt.digest.TokenDigestUtility;
+import me.julb.commons.security.josejwt.digest.TokenDigest;
 import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
-import me.julb.commons.security.josejwt.exceptions.badrequest.TokenNotParseableJOSEJWTException;
-import me.julb.commons.security.josejwt.exceptions.internalservererror.UnsupportedJWSAlgorithmJOSEJWTException;
 import me.julb.commons.security.josejwt.exceptions.unauthorized.UnsupportedKeyTypeJOSEJWTException;
 import me.julb.commons.security.josejwt.jwk.IJWKProvider;
 
@@ -81,49 +74,21 @@ public class TokenSignatureOperation {
      * @throws JOSEJWTException if an error occurs.
      */
     public String execute(String token) throws JOSEJWTException {
-        try {
-            var safeHash = TokenDigestUtility.hash(token);
-
-            LOGGER.debug("Token <{}> - Signing the token.", safeHash);
-
-            // Extract JWK.
-            var jwk = this.jwkProvider.toJWK();
-            var jwsSigner = TokenSignatureOperation.getJWSSigner(jwk);
-            var jwsAlgorithm = TokenSignatureOperation.getJWSAlgorithm(jwk);
-            var supportedJWSAlgorithms = jwsSigner.supportedJWSAlgorithms();
-            if (!supportedJWSAlgorithms.contains(jwsAlgorithm)) {
-                var algorithmList = supportedJWSAlgorithms.stream()
-                        .map(JWSAlgorithm::getName)
-                        .toList();
-                throw new UnsupportedJWSAlgorithmJOSEJWTException(algorithmList, jwsAlgorithm.getName());
-            }
-
-            // Parse the token
-            var jwtClaimsSet = JWTClaimsSet.parse(token);
-
-            // Sign the token.
-            // @formatter:off
-            var jwsHeader =
-                    new JWSHeader.Builder(jwsAlgorithm).keyID(jwk.getKeyID()).build();
-            // @formatter:on
-
-            var signedJWT = new SignedJWT(jwsHeader, jwtClaimsSet);
-            signedJWT.sign(jwsSigner);
-            var signedSerializedToken = signedJWT.serialize();
-
-            LOGGER.debug("Token <{}> - Token signed successfully.", safeHash);
+        return execute(token, TokenDigest.of(token));
+    }
 
-            return signedSerializedToken;
-        } catch (ParseException e) {
-            LOGGER.error(e.getMessage(), e);
-            throw new TokenNotParseableJOSEJWTException(e);
-        } catch (JOSEException e) {
-            LOGGER.error(e.getMessage(), e);
-            throw new JOSEJWTException(e);
-        }
+    /**
+     * Execute the operation.
+     * @param token the token to sign.
+     * @param tokenDigest the digest of the token being processed, for logging purpose.
+     * @return the token signed with the key.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public String execute(String token, TokenDigest tokenDigest) throws JOSEJWTException {
+        return PreparedSignature.of(this.jwkProvider.toJWK()).sign(token, tokenDigest);
     }
 
-    // ------------------------------------------ Private methods.
+    // ------------------------------------------ Package-private methods.
 
     /**
      * Returns a {@link JWSSigner} instance based on the private key.
@@ -131,7 +96,7 @@ public class TokenSignatureOperation {
      * @return the appropriate JWS signer.
      * @throws JOSEJWTException if an error occurs.
      */
-    private static JWSSigner getJWSSigner(JWK jwk) throws JOSEJWTException {
+    static JWSSigner getJWSSigner(JWK jwk) throws JOSEJWTException {
         try {
             if (jwk instanceof ECKey ecKey) {
                 return new ECDSASigner(ecKey);
@@ -154,7 +119,7 @@ public class TokenSignatureOperation {
      * @return the appropriate JWS algorithm.
      * @throws JOSEJWTException if an error occurs.
      */
-    private static JWSAlgorithm getJWSAlgorithm(JWK jwk) throws JOSEJWTException {
+    static JWSAlgorithm getJWSAlgorithm(JWK jwk) throws JOSEJWTException {
         if (jwk.getAlgorithm() != null) {
             return new JWSAlgorithm(jwk.getAlgorithm().getName());
         } else if (jwk instanceof ECKey) {
@@ -30,22 +30,13 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.JWSObject;
 import com.nimbusds.jose.JWSVerifier;
-import com.nimbusds.jose.crypto.ECDSAVerifier;
-import com.nimbusds.jose.crypto.MACVerifier;
-import com.nimbusds.jose.crypto.RSASSAVerifier;
-import com.nimbusds.jose.jwk.ECKey;
 import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKMatcher;
-import com.nimbusds.jose.jwk.JWKSelector;
 import com.nimbusds.jose.jwk.KeyUse;
-import com.nimbusds.jose.jwk.OctetSequenceKey;
-import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.SignedJWT;
 
 import me.julb.commons.constants.Integers;
-import me.julb.commons.security.josejwt.digest.TokenDigestUtility;
+import me.julb.commons.security.josejwt.digest.TokenDigest;
 import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
 import me.julb.commons.security.josejwt.exceptions.badrequest.MissingAudienceInTokenJOSEJWTException;
 import me.julb.commons.security.josejwt.exceptions.badrequest.MissingExpirationInTokenJOSEJWTException;
@@ -56,8 +47,10 @@ import me.julb.commons.security.josejwt.exceptions.unauthorized.InvalidAudienceI
 import me.julb.commons.security.josejwt.exceptions.unauthorized.InvalidIssuerInTokenJOSEJWTException;
 import me.julb.commons.security.josejwt.exceptions.unauthorized.InvalidSignatureInTokenJOSEJWTException;
 import me.julb.commons.security.josejwt.exceptions.unauthorized.UnresolvableKeyJOSEJWTException;
-import me.julb.commons.security.josejwt.exceptions.unauthorized.UnsupportedKeyTypeJOSEJWTException;
 import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
+import me.julb.commons.security.josejwt.metrics.ITokenMetricsRecorder;
+import me.julb.commons.security.josejwt.metrics.TokenStage;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -84,6 +77,16 @@ public class TokenVerifierOperation {
      */
     private String expectedIssuer;
 
+    /**
+     * The verifier cache, or <code>null</code> to create a verifier for each token.
+     */
+    private JWSVerifierCache jwsVerifierCache;
+
+    /**
+     * The metrics recorder.
+     */
+    private ITokenMetricsRecorder metricsRecorder = ITokenMetricsRecorder.NOOP;
+
     // ------------------------------------------ Constructors.
 
     /**
@@ -101,10 +104,38 @@ public class TokenVerifierOperation {
      * @param expectedIssuer the expected issuer.
      */
     public TokenVerifierOperation(IJWKSetProvider jwkSetProvider, String expectedAudience, String expectedIssuer) {
+        this(jwkSetProvider, expectedAudience, expectedIssuer, null);
+    }
+
+    /**
+     * Constructor.
+     * @param jwkSetProvider the JWK set provider.
+     * @param expectedAudience the expected audience.
+     * @param expectedIssuer the expected issuer.
+     * @param jwsVerifierCache the verifier cache, or <code>null</code> to create a verifier for each token.
+     */
+    public TokenVerifierOperation(
+            IJWKSetProvider jwkSetProvider,
+            String expectedAudience,
+            String expectedIssuer,
+            JWSVerifierCache jwsVerifierCache) {
         super();
         this.jwkSetProvider = jwkSetProvider;
         this.expectedAudience = expectedAudience;
         this.expectedIssuer = expectedIssuer;
+        this.jwsVerifierCache = jwsVerifierCache;
+    }
+
+    // ------------------------------------------ Builder methods.
+
+    /**
+     * Setter for property metricsRecorder.
+     * @param metricsRecorder New value of property metricsRecorder.
+     * @return the current instance.
+     */
+    public TokenVerifierOperation setMetricsRecorder(ITokenMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+        return this;
     }
 
     // ------------------------------------------ Utility methods.
@@ -116,91 +147,132 @@ public class TokenVerifierOperation {
      * @throws JOSEJWTException if an error occurs.
      */
     public String execute(String token) throws JOSEJWTException {
-        try {
-            var safeHash = TokenDigestUtility.hash(token);
+        return verify(token).getPayload();
+    }
 
-            LOGGER.debug("Token <{}> - Verifying the token.", safeHash);
+    /**
+     * Executes the operation.
+     * @param token the JWT claims set.
+     * @param tokenDigest the digest of the token being processed, for logging purpose.
+     * @return the token verified against signature.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public String execute(String token, TokenDigest tokenDigest) throws JOSEJWTException {
+        return verify(token, tokenDigest).getPayload();
+    }
 
-            var jwsObject = JWSObject.parse(token);
+    /**
+     * Verifies the token.
+     * <br>
+     * The token is parsed once: the claims required for the checks are read from the verified token, and the payload
+     * is decoded only once.
+     * @param token the JWT claims set.
+     * @return the token verified against signature.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public VerifiedToken verify(String token) throws JOSEJWTException {
+        return verify(token, TokenDigest.of(token));
+    }
+
+    /**
+     * Verifies the token.
+     * <br>
+     * The token is parsed once: the claims required for the checks are read from the verified token, and the payload
+     * is decoded only once.
+     * @param token the JWT claims set.
+     * @param tokenDigest the digest of the token being processed, for logging purpose.
+     * @return the token verified against signature.
+     * @throws JOSEJWTException if an error occurs.
+     */
+    public VerifiedToken verify(String token, TokenDigest tokenDigest) throws JOSEJWTException {
+        try {
+            LOGGER.debug("Token <{}> - Verifying the token.", tokenDigest);
+
+            var startTime = System.nanoTime();
+            var signedJWT = SignedJWT.parse(token);
+            var verifiedToken = new VerifiedToken(signedJWT);
+            startTime = recordStage(TokenStage.PARSE, startTime);
 
             // Get the key ID for the signature.
-            var alg = jwsObject.getHeader().getAlgorithm().getName();
-            var kid = jwsObject.getHeader().getKeyID();
+            var alg = verifiedToken.getAlgorithm();
+            var kid = verifiedToken.getKeyID();
 
-            LOGGER.debug("Token <{}> - alg/kid used to sign the token is <{},{}>.", safeHash, alg, kid);
+            LOGGER.debug("Token <{}> - alg/kid used to sign the token is <{},{}>.", tokenDigest, alg, kid);
 
             // Get the corresponding JWK.
-            LOGGER.debug("Token <{}> - Searching JWK among the JWKSet.", safeHash);
-            var jwk = getSignatureJWK(kid, KeyUse.SIGNATURE);
-            LOGGER.debug("Token <{}> - Key has been resolved.", safeHash);
+            LOGGER.debug("Token <{}> - Searching JWK among the JWKSet.", tokenDigest);
+            var resolvedJWK = getSignatureJWK(kid, KeyUse.SIGNATURE);
+            startTime = recordStage(TokenStage.KEY_RESOLVE, startTime);
+            metricsRecorder.recordKey(kid, alg);
+            LOGGER.debug("Token <{}> - Key has been resolved.", tokenDigest);
 
             // Checking the signature.
-            if (!jwsObject.verify(getJWSVerifier(jwk))) {
-                LOGGER.warn("Token <{}> - The signature used does not match any provided one. Reject token.", safeHash);
+            var signatureValid = signedJWT.verify(getJWSVerifier(resolvedJWK));
+            startTime = recordStage(TokenStage.VERIFY, startTime);
+            if (!signatureValid) {
+                LOGGER.warn("Token <{}> - The signature used does not match any provided one. Reject token.", tokenDigest);
                 throw new InvalidSignatureInTokenJOSEJWTException();
             }
 
-            LOGGER.debug("Token <{}> - Signature OK.", safeHash);
-
-            // Parse token.
-            var signedJWT = SignedJWT.parse(token);
+            LOGGER.debug("Token <{}> - Signature OK.", tokenDigest);
+            verifiedToken.setSignatureKey(resolvedJWK.jwkSetSnapshot(), resolvedJWK.jwk());
 
             // Check expiration time present
-            var expirationDateTime = signedJWT.getJWTClaimsSet().getExpirationTime();
-            if (expirationDateTime == null) {
-                LOGGER.warn("Token <{}> - The token does not contain any expiration.", safeHash);
+            var expirationEpochSeconds = verifiedToken.getExpirationTime();
+            if (expirationEpochSeconds == null) {
+                LOGGER.warn("Token <{}> - The token does not contain any expiration.", tokenDigest);
                 throw new MissingExpirationInTokenJOSEJWTException();
             }
 
             // Verify Expiration time
             var nowEpochSeconds = Instant.now().getEpochSecond();
-            var expirationEpochSeconds = expirationDateTime.toInstant().getEpochSecond();
             if (expirationEpochSeconds < nowEpochSeconds) {
-                LOGGER.debug("Token <{}> - The token is expired.", safeHash);
+                LOGGER.debug("Token <{}> - The token is expired.", tokenDigest);
                 throw new ExpiredTokenJOSEJWTException(expirationEpochSeconds, nowEpochSeconds);
             }
 
-            LOGGER.debug("Token <{}> - Expiration OK.", safeHash);
+            LOGGER.debug("Token <{}> - Expiration OK.", tokenDigest);
 
             // Verify Issuer
             if (StringUtils.isNotBlank(this.expectedIssuer)) {
-                var tokenIssuer = signedJWT.getJWTClaimsSet().getIssuer();
+                var tokenIssuer = verifiedToken.getIssuer();
                 if (StringUtils.isBlank(tokenIssuer)) {
-                    LOGGER.warn("Token <{}> - The token does not contain an issuer.", safeHash);
+                    LOGGER.warn("Token <{}> - The token does not contain an issuer.", tokenDigest);
                     throw new MissingIssuerInTokenJOSEJWTException();
                 }
                 if (!tokenIssuer.equalsIgnoreCase(this.expectedIssuer)) {
-                    LOGGER.debug("Token <{}> - The token does not provide a valid issuer.", safeHash);
+                    LOGGER.debug("Token <{}> - The token does not provide a valid issuer.", tokenDigest);
                     throw new InvalidIssuerInTokenJOSEJWTException(this.expectedIssuer, tokenIssuer);
                 }
 
-                LOGGER.debug("Token <{}> - Issuer OK.", safeHash);
+                LOGGER.debug("Token <{}> - Issuer OK.", tokenDigest);
             } else {
-                LOGGER.debug("Token <{}> - Issuer not checked (not specified).", safeHash);
+                LOGGER.debug("Token <{}> - Issuer not checked (not specified).", tokenDigest);
             }
 
             // Verify Audience
             if (StringUtils.isNotBlank(this.expectedAudience)) {
-                var tokenAudiences = signedJWT.getJWTClaimsSet().getAudience();
+                var tokenAudiences = verifiedToken.getAudience();
                 if (CollectionUtils.isEmpty(tokenAudiences)) {
-                    LOGGER.warn("Token <{}> - The token does not contain any audience.", safeHash);
+                    LOGGER.warn("Token <{}> - The token does not contain any audience.", tokenDigest);
                     throw new MissingAudienceInTokenJOSEJWTException();
                 }
                 var tokenAudienceMatches = tokenAudiences.stream()
                         .anyMatch(tokenAudience -> StringUtils.equalsIgnoreCase(tokenAudience, this.expectedAudience));
                 if (!tokenAudienceMatches) {
-                    LOGGER.debug("Token <{}> - The token audience does not match the expected ones.", safeHash);
+                    LOGGER.debug("Token <{}> - The token audience does not match the expected ones.", tokenDigest);
                     throw new InvalidAudienceInTokenJOSEJWTException(this.expectedAudience, tokenAudiences);
                 }
 
-                LOGGER.debug("Token <{}> - Audience OK.", safeHash);
+                LOGGER.debug("Token <{}> - Audience OK.", tokenDigest);
             } else {
-                LOGGER.debug("Token <{}> - Audience not checked (not specified).", safeHash);
+                LOGGER.debug("Token <{}> - Audience not checked (not specified).", tokenDigest);
             }
 
-            LOGGER.debug("Token <{}> - Token is valid.", safeHash);
+            recordStage(TokenStage.CLAIMS_CHECK, startTime);
+            LOGGER.debug("Token <{}> - Token is valid.", tokenDigest);
 
-            return signedJWT.getPayload().toString();
+            return verifiedToken;
         } catch (ParseException e) {
             LOGGER.error(e.getMessage(), e);
             throw new TokenNotParseableJOSEJWTException(e);
@@ -212,25 +284,29 @@ public class TokenVerifierOperation {
 
     // ------------------------------------------ Private methods.
 
+    /**
+     * Records the duration of a stage.
+     * @param stage the stage.
+     * @param startTime the start time of the stage, in nanoseconds.
+     * @return the end time of the stage, in nanoseconds.
+     */
+    private long recordStage(TokenStage stage, long startTime) {
+        var endTime = System.nanoTime();
+        metricsRecorder.recordStage(stage, endTime - startTime);
+        return endTime;
+    }
+
     /**
      * Returns a {@link JWSVerifier} instance based on the public key.
+     * @param resolvedJWK the resolved JWK.
      * @return the appropriate JWS verifier.
      * @throws JOSEJWTException if an error occurs.
      */
-    private JWSVerifier getJWSVerifier(JWK jwk) throws JOSEJWTException {
-        try {
-            if (jwk instanceof ECKey ecKey) {
-                return new ECDSAVerifier(ecKey);
-            } else if (jwk instanceof RSAKey rsaKey) {
-                return new RSASSAVerifier(rsaKey);
-            } else if (jwk instanceof OctetSequenceKey octetSequenceKey) {
-                return new MACVerifier(octetSequenceKey);
-            } else {
-                throw new UnsupportedKeyTypeJOSEJWTException(jwk.getKeyType().getValue());
-            }
-        } catch (JOSEException e) {
-            LOGGER.error(e.getMessage(), e);
-            throw new JOSEJWTException(e);
+    private JWSVerifier getJWSVerifier(ResolvedJWK resolvedJWK) throws JOSEJWTException {
+        if (this.jwsVerifierCache != null) {
+            return this.jwsVerifierCache.getVerifier(resolvedJWK.jwkSetSnapshot(), resolvedJWK.jwk());
+        } else {
+            return JWSVerifierCache.newJWSVerifier(resolvedJWK.jwk());
         }
     }
 
@@ -238,22 +314,25 @@ public class TokenVerifierOperation {
      * Gets the signature JWK.
      * @param kid the KID.
      * @param keyUse the key use.
-     * @return the corresponding JWK.
+     * @return the corresponding JWK, along with the snapshot it belongs to.
      */
-    private JWK getSignatureJWK(String kid, KeyUse keyUse) throws JOSEJWTException {
-        // @formatter:off
-        var jwkMatcherBuilder = new JWKMatcher.Builder().keyUse(keyUse).keyID(kid);
-        // @formatter:on
-
-        // Get the JWK matching.
-        var jwkSet = this.jwkSetProvider.toJWKSet();
-        var jwkSelector = new JWKSelector(jwkMatcherBuilder.build());
-        var jwks = jwkSelector.select(jwkSet);
+    private ResolvedJWK getSignatureJWK(String kid, KeyUse keyUse) throws JOSEJWTException {
+        // Get the JWK matching from the indexed snapshot.
+        var jwkSetSnapshot = this.jwkSetProvider.toJWKSetSnapshot();
+        var jwks = jwkSetSnapshot.select(kid, keyUse, false);
 
         // No key matching. Refresh & Retry.
-        if (jwks.isEmpty() && this.jwkSetProvider.refreshJWKSet()) {
-            jwkSet = this.jwkSetProvider.toJWKSet();
-            jwks = jwkSelector.select(jwkSet);
+        if (jwks.isEmpty()) {
+            var refreshed = this.jwkSetProvider.refreshJWKSet(kid);
+            metricsRecorder.recordJWKSetRefresh(refreshed);
+            if (refreshed) {
+                jwkSetSnapshot = this.jwkSetProvider.toJWKSetSnapshot();
+                jwks = jwkSetSnapshot.select(kid, keyUse, false);
+            }
+        }
+        var jwkSetAgeInMillis = this.jwkSetProvider.getJWKSetAgeInMillis();
+        if (jwkSetAgeInMillis >= 0) {
+            metricsRecorder.recordJWKSetAge(jwkSetAgeInMillis);
         }
 
         var keyCount = jwks.size();
@@ -274,6 +353,13 @@ public class TokenVerifierOperation {
             throw new UnresolvableKeyJOSEJWTException(kid, keyUse.identifier());
         }
 
-        return jwks.get(0);
+        return new ResolvedJWK(jwkSetSnapshot, jwks.get(0));
     }
+
+    /**
+     * A JWK resolved from a snapshot.
+     * <br>
+     * @author Julb.
+     */
+    private record ResolvedJWK(JWKSetSnapshot jwkSetSnapshot, JWK jwk) {}
 }
@@ -0,0 +1,223 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.operations;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
+
+/**
+ * A token whose signature has been verified by a {@link TokenVerifierOperation}.
+ * <br>
+ * The token is parsed only once. The payload is decoded and its claims are read only when needed, and the full
+ * {@link JWTClaimsSet} is built only if the caller asks for it. This class is not thread-safe.
+ * <br>
+ * @author Julb.
+ */
+public final class VerifiedToken {
+
+    /**
+     * The expiration time claim name.
+     */
+    private static final String EXPIRATION_TIME_CLAIM = "exp";
+
+    /**
+     * The issuer claim name.
+     */
+    private static final String ISSUER_CLAIM = "iss";
+
+    /**
+     * The audience claim name.
+     */
+    private static final String AUDIENCE_CLAIM = "aud";
+
+    /**
+     * The verified token.
+     */
+    private final SignedJWT signedJWT;
+
+    /**
+     * The decoded payload, lazily initialized.
+     */
+    private String payload;
+
+    /**
+     * The claims, lazily initialized.
+     */
+    private Map<String, Object> claims;
+
+    /**
+     * The claims set, lazily initialized.
+     */
+    private JWTClaimsSet jwtClaimsSet;
+
+    /**
+     * The snapshot of the JWK set to which the signature key belongs.
+     */
+    private JWKSetSnapshot signatureJWKSetSnapshot;
+
+    /**
+     * The key which has verified the signature.
+     */
+    private JWK signatureJWK;
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     * @param signedJWT the verified token.
+     */
+    VerifiedToken(SignedJWT signedJWT) {
+        super();
+        this.signedJWT = signedJWT;
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Gets the key ID used to sign the token.
+     * @return the key ID.
+     */
+    public String getKeyID() {
+        return this.signedJWT.getHeader().getKeyID();
+    }
+
+    /**
+     * Gets the algorithm used to sign the token.
+     * @return the algorithm name.
+     */
+    public String getAlgorithm() {
+        return this.signedJWT.getHeader().getAlgorithm().getName();
+    }
+
+    /**
+     * Gets the payload of the token as it has been signed.
+     * @return the payload.
+     */
+    public String getPayload() {
+        if (this.payload == null) {
+            this.payload = this.signedJWT.getPayload().toString();
+        }
+        return this.payload;
+    }
+
+    /**
+     * Gets the expiration time of the token.
+     * @return the expiration time in seconds since epoch, or <code>null</code> if not present.
+     * @throws ParseException if the claim is not a number.
+     */
+    public Long getExpirationTime() throws ParseException {
+        var readClaims = getClaims();
+        if (readClaims.get(EXPIRATION_TIME_CLAIM) == null) {
+            return null;
+        }
+        return JSONObjectUtils.getLong(readClaims, EXPIRATION_TIME_CLAIM);
+    }
+
+    /**
+     * Gets the issuer of the token.
+     * @return the issuer, or <code>null</code> if not present.
+     * @throws ParseException if the claim is not a string.
+     */
+    public String getIssuer() throws ParseException {
+        return JSONObjectUtils.getString(getClaims(), ISSUER_CLAIM);
+    }
+
+    /**
+     * Gets the audience of the token.
+     * @return the audience, or an empty list if not present.
+     * @throws ParseException if the claim is neither a string nor an array of strings.
+     */
+    public List<String> getAudience() throws ParseException {
+        var readClaims = getClaims();
+        var audience = readClaims.get(AUDIENCE_CLAIM);
+        if (audience == null) {
+            return List.of();
+        } else if (audience instanceof String singleAudience) {
+            return List.of(singleAudience);
+        } else {
+            return JSONObjectUtils.getStringList(readClaims, AUDIENCE_CLAIM);
+        }
+    }
+
+    /**
+     * Gets the full claims set of the token.
+     * @return the claims set.
+     * @throws ParseException if the claims set cannot be parsed.
+     */
+    public JWTClaimsSet getJWTClaimsSet() throws ParseException {
+        if (this.jwtClaimsSet == null) {
+            this.jwtClaimsSet = JWTClaimsSet.parse(getClaims());
+        }
+        return this.jwtClaimsSet;
+    }
+
+    /**
+     * Getter for property signatureJWKSetSnapshot.
+     * @return Value of property signatureJWKSetSnapshot, the snapshot of the JWK set to which the signature key
+     * belongs.
+     */
+    public JWKSetSnapshot getSignatureJWKSetSnapshot() {
+        return this.signatureJWKSetSnapshot;
+    }
+
+    /**
+     * Getter for property signatureJWK.
+     * @return Value of property signatureJWK, the key which has verified the signature.
+     */
+    public JWK getSignatureJWK() {
+        return this.signatureJWK;
+    }
+
+    /**
+     * Records the key which has verified the signature.
+     * @param jwkSetSnapshot the snapshot of the JWK set to which the key belongs.
+     * @param jwk the key.
+     */
+    void setSignatureKey(JWKSetSnapshot jwkSetSnapshot, JWK jwk) {
+        this.signatureJWKSetSnapshot = jwkSetSnapshot;
+        this.signatureJWK = jwk;
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Gets the claims of the token, parsed from the payload once.
+     * @return the claims.
+     * @throws ParseException if the payload is not a JSON object.
+     */
+    private Map<String, Object> getClaims() throws ParseException {
+        if (this.claims == null) {
+            this.claims = JSONObjectUtils.parse(getPayload());
+        }
+        return this.claims;
+    }
+}
@@ -26,20 +26,19 @@ package me.julb.commons.security.otp;
 import java.util.ArrayList;
 
 import me.julb.commons.constants.Integers;
-import me.julb.commons.exceptions.InternalServerErrorException;
 
-import dev.samstevens.totp.code.DefaultCodeGenerator;
 import dev.samstevens.totp.code.HashingAlgorithm;
-import dev.samstevens.totp.exceptions.CodeGenerationException;
 import dev.samstevens.totp.qr.QrData;
 import dev.samstevens.totp.secret.DefaultSecretGenerator;
-import dev.samstevens.totp.time.SystemTimeProvider;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
 /**
  * A TOTP utility.
  * <br>
+ * The methods without a {@link TotpVerifier} parameter use SHA1, 6 digits, 30 seconds and the system clock. The
+ * overloads with a {@link TotpVerifier} use its settings instead, e.g. another clock in tests.
+ * <br>
  * @author Julb.
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -65,6 +64,17 @@ public final class TotpUtility {
      */
     private static final Integer TOTP_CODE_DIGIT_LENGTH = Integers.SIX;
 
+    /**
+     * The TOTP verifier.
+     */
+    // @formatter:off
+    private static final TotpVerifier TOTP_VERIFIER = new TotpVerifier.Builder()
+            .hashingAlgorithm(TOTP_CODE_HASHING_ALGORITHM)
+            .digits(TOTP_CODE_DIGIT_LENGTH)
+            .timePeriod(TOTP_TIME_PERIOD)
+            .build();
+    // @formatter:on
+
     /**
      * Generates a random TOTP secret.
      * @return the random TOTP secret.
@@ -81,14 +91,26 @@ public final class TotpUtility {
      * @return the QRCode URI.
      */
     public static String generateQrcodeUri(String label, String issuer, String secret) {
+        return generateQrcodeUri(label, issuer, secret, TOTP_VERIFIER);
+    }
+
+    /**
+     * Generates a QRCode URI for this TOTP secret, with the settings of the given verifier.
+     * @param label the label.
+     * @param issuer the issuer.
+     * @param secret the secret.
+     * @param totpVerifier the verifier.
+     * @return the QRCode URI.
+     */
+    public static String generateQrcodeUri(String label, String issuer, String secret, TotpVerifier totpVerifier) {
         // @formatter:off
         return new QrData.Builder()
                 .label(label)
                 .secret(secret)
                 .issuer(issuer)
-                .algorithm(TOTP_CODE_HASHING_ALGORITHM)
-                .digits(TOTP_CODE_DIGIT_LENGTH)
-                .period(TOTP_TIME_PERIOD)
+                .algorithm(totpVerifier.getHashingAlgorithm())
+                .digits(totpVerifier.getDigits())
+                .period(totpVerifier.getTimePeriodInSeconds())
                 .build()
                 .getUri();
         // @formatter:on
@@ -111,22 +133,55 @@ public final class TotpUtility {
      * @return the TOTP corresponding to the secret.
      */
     public static Iterable<String> generateValidTotps(String secret, int totpAllowedTimePeriodDiscrepancy) {
-        var totpTimeProvider = new SystemTimeProvider();
-        var codeGenerator = new DefaultCodeGenerator(TOTP_CODE_HASHING_ALGORITHM, TOTP_CODE_DIGIT_LENGTH);
-
-        try {
-            // Get current bucket.
-            var currentBucket = Math.floorDiv(totpTimeProvider.getTime(), TOTP_TIME_PERIOD);
-
-            // Build a list of valid TOTPs.
-            var validTotps = new ArrayList<String>();
-            for (int i = -totpAllowedTimePeriodDiscrepancy; i <= totpAllowedTimePeriodDiscrepancy; i++) {
-                validTotps.add(codeGenerator.generate(secret, currentBucket + i));
-            }
-
-            return validTotps;
-        } catch (CodeGenerationException e) {
-            throw new InternalServerErrorException(e);
+        return generateValidTotps(secret, totpAllowedTimePeriodDiscrepancy, TOTP_VERIFIER);
+    }
+
+    /**
+     * Generates valid TOTPs corresponding to the secret (+/- number if discrepancy), with the settings of the given
+     * verifier.
+     * @param secret the secret.
+     * @param totpAllowedTimePeriodDiscrepancy the TOTP allowed time period discrepancy.
+     * @param totpVerifier the verifier.
+     * @return the TOTP corresponding to the secret.
+     */
+    public static Iterable<String> generateValidTotps(String secret, int totpAllowedTimePeriodDiscrepancy,
+        TotpVerifier totpVerifier) {
+        // Get current bucket.
+        var currentBucket = totpVerifier.currentTimePeriod();
+
+        // Build a list of valid TOTPs.
+        var validTotps = new ArrayList<String>();
+        for (int i = -totpAllowedTimePeriodDiscrepancy; i <= totpAllowedTimePeriodDiscrepancy; i++) {
+            validTotps.add(totpVerifier.format(totpVerifier.generate(secret, currentBucket + i)));
         }
+
+        return validTotps;
+    }
+
+    /**
+     * Generates valid TOTPs corresponding to several secrets (+/- number if discrepancy), in one pass.
+     * @param secrets the secrets.
+     * @param totpAllowedTimePeriodDiscrepancy the TOTP allowed time period discrepancy.
+     * @param parallel <code>true</code> to generate the TOTPs of the secrets in parallel, <code>false</code> otherwise.
+     * @return the TOTPs, <code>2 * totpAllowedTimePeriodDiscrepancy + 1</code> per secret in the order of the secrets.
+     * @see TotpVerifier#generateAll(String[], int, boolean)
+     */
+    public static int[] generateValidTotps(String[] secrets, int totpAllowedTimePeriodDiscrepancy, boolean parallel) {
+        return TOTP_VERIFIER.generateAll(secrets, totpAllowedTimePeriodDiscrepancy, parallel);
+    }
+
+    /**
+     * Verifies a TOTP, rejecting it from now on if it is valid.
+     * <br>
+     * Unlike scanning {@link #generateValidTotps(String, int)}, this method computes the codes without allocating
+     * strings, compares them in constant time and rejects replayed codes.
+     * @param secret the secret.
+     * @param totp the TOTP to verify.
+     * @param totpAllowedTimePeriodDiscrepancy the TOTP allowed time period discrepancy.
+     * @return <code>true</code> if the TOTP is valid and has not been used yet, <code>false</code> otherwise.
+     * @see TotpVerifier
+     */
+    public static boolean verify(String secret, String totp, int totpAllowedTimePeriodDiscrepancy) {
+        return TOTP_VERIFIER.verify(secret, totp, totpAllowedTimePeriodDiscrepancy);
     }
 }
@@ -0,0 +1,546 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.otp;
+
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.codec.binary.Base32;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import me.julb.commons.constants.Integers;
+import me.julb.commons.exceptions.InternalServerErrorException;
+
+import dev.samstevens.totp.code.HashingAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A TOTP verifier.
+ * <br>
+ * The hashing algorithm, the number of digits, the time period and the clock are configurable through the
+ * {@link Builder}, and default to SHA1, 6 digits, 30 seconds and the system clock.
+ * <br>
+ * Each thread keeps its own {@link Mac}, initialized with the last secret it has verified a code for, so that
+ * verifying a code allocates no string and computes one HMAC per time period of the window. The codes are compared as
+ * integers, in a time which does not depend on which period of the window matches, if any.
+ * <br>
+ * A code which has been accepted once is rejected afterwards, as well as any code of the same or an earlier time
+ * period for the same secret. The accepted time periods are kept in a cache bounded to
+ * {@link Builder#replayCacheSize(int)} secrets, from which they are evicted once out of their window. The cache is
+ * keyed by the SHA-256 digest of the secrets, so that the secrets themselves are not retained.
+ * <br>
+ * Instances are thread-safe and meant to be shared.
+ * <br>
+ * @author Julb.
+ */
+@Slf4j
+public final class TotpVerifier {
+
+    /**
+     * The default maximum number of secrets kept in the replay cache.
+     */
+    public static final int DEFAULT_REPLAY_CACHE_SIZE = 100_000;
+
+    /**
+     * The powers of ten, indexed by number of digits.
+     */
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+        100_000_000, 1_000_000_000};
+
+    /**
+     * The TOTP hashing algorithm.
+     */
+    private HashingAlgorithm hashingAlgorithm = HashingAlgorithm.SHA1;
+
+    /**
+     * The TOTP code digit length.
+     */
+    private int digits = Integers.SIX;
+
+    /**
+     * The TOTP time period, in seconds.
+     */
+    private int timePeriodInSeconds = Integers.THIRTY;
+
+    /**
+     * The maximum number of secrets kept in the replay cache.
+     */
+    private int replayCacheSize = DEFAULT_REPLAY_CACHE_SIZE;
+
+    /**
+     * The clock.
+     */
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * The HMAC engines, one per thread.
+     */
+    private final ThreadLocal<HmacEngine> hmacEngines = ThreadLocal.withInitial(() -> new HmacEngine(this));
+
+    /**
+     * The last time period accepted per secret, indexed by the SHA-256 digest of the secret.
+     */
+    private final ConcurrentHashMap<String, AcceptedTimePeriod> acceptedTimePeriods = new ConcurrentHashMap<>();
+
+    // ------------------------------------------ Constructors.
+
+    /**
+     * Constructor.
+     */
+    TotpVerifier() {
+        super();
+    }
+
+    // ------------------------------------------ Utility methods.
+
+    /**
+     * Verifies a TOTP code, and rejects it from now on if it is valid.
+     * @param secret the secret.
+     * @param code the code to verify.
+     * @param window the number of time periods accepted before and after the current one.
+     * @return <code>true</code> if the code is valid and has not been used yet, <code>false</code> otherwise, in
+     * particular if the secret is not a valid Base32 key.
+     */
+    public boolean verify(String secret, String code, int window) {
+        var expectedCode = parseCode(code);
+        if (expectedCode < 0 || !this.hmacEngines.get().tryInit(secret)) {
+            return false;
+        }
+
+        var currentTimePeriod = currentTimePeriod();
+        var matchingTimePeriod = findMatchingTimePeriod(secret, expectedCode, currentTimePeriod, window);
+        if (matchingTimePeriod == Long.MIN_VALUE) {
+            return false;
+        }
+        return accept(secret, matchingTimePeriod, currentTimePeriod, window);
+    }
+
+    /**
+     * Generates the TOTP code of a secret for a time period.
+     * @param secret the secret.
+     * @param timePeriod the time period, i.e. the number of periods since epoch.
+     * @return the code.
+     * @throws InternalServerErrorException if the secret is not a valid Base32 key.
+     */
+    public int generate(String secret, long timePeriod) {
+        return this.hmacEngines.get().generate(secret, timePeriod);
+    }
+
+    /**
+     * Generates the TOTP codes of several secrets for all the time periods of a window around the current one.
+     * <br>
+     * The codes of a secret are computed in one pass with the same HMAC key. The codes of the secret at index
+     * <code>i</code> are at indexes <code>[i * (2 * window + 1), (i + 1) * (2 * window + 1))</code> of the result,
+     * from the oldest time period to the newest.
+     * @param secrets the secrets.
+     * @param window the number of time periods before and after the current one.
+     * @param parallel <code>true</code> to compute the codes of the secrets in parallel, <code>false</code> otherwise.
+     * @return the codes.
+     */
+    public int[] generateAll(String[] secrets, int window, boolean parallel) {
+        var firstTimePeriod = currentTimePeriod() - window;
+        var codesPerSecret = 2 * window + 1;
+        var codes = new int[Math.multiplyExact(secrets.length, codesPerSecret)];
+
+        var secretIndexes = IntStream.range(0, secrets.length);
+        if (parallel) {
+            secretIndexes = secretIndexes.parallel();
+        }
+        secretIndexes.forEach(i -> {
+            var hmacEngine = this.hmacEngines.get();
+            for (int j = 0; j < codesPerSecret; j++) {
+                codes[i * codesPerSecret + j] = hmacEngine.generate(secrets[i], firstTimePeriod + j);
+            }
+        });
+        return codes;
+    }
+
+    /**
+     * Formats a code with leading zeros.
+     * @param code the code.
+     * @return the code as a string of {@link #getDigits()} digits.
+     */
+    public String format(int code) {
+        return StringUtils.leftPad(Integer.toString(code), this.digits, '0');
+    }
+
+    /**
+     * Gets the current time period.
+     * @return the number of periods since epoch.
+     */
+    public long currentTimePeriod() {
+        return Math.floorDiv(TimeUnit.MILLISECONDS.toSeconds(this.clock.millis()), this.timePeriodInSeconds);
+    }
+
+    /**
+     * Getter for property hashingAlgorithm.
+     * @return Value of property hashingAlgorithm.
+     */
+    public HashingAlgorithm getHashingAlgorithm() {
+        return this.hashingAlgorithm;
+    }
+
+    /**
+     * Getter for property digits.
+     * @return Value of property digits.
+     */
+    public int getDigits() {
+        return this.digits;
+    }
+
+    /**
+     * Getter for property timePeriodInSeconds.
+     * @return Value of property timePeriodInSeconds.
+     */
+    public int getTimePeriodInSeconds() {
+        return this.timePeriodInSeconds;
+    }
+
+    /**
+     * Gets the number of secrets in the replay cache.
+     * @return the number of secrets.
+     */
+    public int getReplayCacheSize() {
+        return this.acceptedTimePeriods.size();
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Parses a code without allocation.
+     * @param code the code.
+     * @return the code as an integer, or <code>-1</code> if it is not made of exactly {@link #digits} ASCII digits.
+     */
+    private int parseCode(String code) {
+        if (code == null || code.length() != this.digits) {
+            return -1;
+        }
+        var value = 0;
+        for (int i = 0; i < code.length(); i++) {
+            var digit = code.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Finds the time period of the window whose code matches the expected code.
+     * <br>
+     * All the time periods of the window are computed and compared, whether one matches or not.
+     * @param secret the secret.
+     * @param expectedCode the expected code.
+     * @param currentTimePeriod the current time period.
+     * @param window the number of time periods accepted before and after the current one.
+     * @return the matching time period, or {@link Long#MIN_VALUE} if none matches.
+     */
+    private long findMatchingTimePeriod(String secret, int expectedCode, long currentTimePeriod, int window) {
+        var hmacEngine = this.hmacEngines.get();
+        var matchingTimePeriod = Long.MIN_VALUE;
+        for (long timePeriod = currentTimePeriod - window; timePeriod <= currentTimePeriod + window; timePeriod++) {
+            var difference = hmacEngine.generate(secret, timePeriod) ^ expectedCode;
+            // All ones if the codes are equal, zero otherwise.
+            long mask = ((difference | -difference) >>> 31) - 1;
+            matchingTimePeriod = (timePeriod & mask) | (matchingTimePeriod & ~mask);
+        }
+        return matchingTimePeriod;
+    }
+
+    /**
+     * Records the time period accepted for a secret, unless it or a later one has already been accepted.
+     * @param secret the secret.
+     * @param timePeriod the time period to accept.
+     * @param currentTimePeriod the current time period.
+     * @param window the number of time periods accepted before and after the current one.
+     * @return <code>true</code> if the time period is accepted, <code>false</code> if it is a replay.
+     */
+    private boolean accept(String secret, long timePeriod, long currentTimePeriod, int window) {
+        var secretDigest = DigestUtils.sha256Hex(secret);
+        var acceptedTimePeriod = new AcceptedTimePeriod(timePeriod, timePeriod + window);
+        while (true) {
+            var previous = this.acceptedTimePeriods.get(secretDigest);
+            if (previous != null && previous.timePeriod() >= timePeriod) {
+                LOGGER.debug("TOTP code replay rejected.");
+                return false;
+            }
+            if (previous == null) {
+                if (this.acceptedTimePeriods.size() >= this.replayCacheSize) {
+                    evict(currentTimePeriod);
+                }
+                if (this.acceptedTimePeriods.putIfAbsent(secretDigest, acceptedTimePeriod) == null) {
+                    return true;
+                }
+            } else if (this.acceptedTimePeriods.replace(secretDigest, previous, acceptedTimePeriod)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Evicts the time periods which are out of their window, then arbitrary ones if the cache is still full.
+     * @param currentTimePeriod the current time period.
+     */
+    private void evict(long currentTimePeriod) {
+        this.acceptedTimePeriods.values().removeIf(accepted -> accepted.lastValidTimePeriod() < currentTimePeriod);
+
+        var excess = this.acceptedTimePeriods.size() - this.replayCacheSize * 9 / 10;
+        if (excess > 0) {
+            LOGGER.warn("TOTP replay cache full, evicting {} secrets still in their window.", excess);
+            Iterator<String> iterator = this.acceptedTimePeriods.keySet().iterator();
+            for (int i = 0; i < excess && iterator.hasNext(); i++) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * A time period accepted for a secret.
+     * <br>
+     * @author Julb.
+     */
+    private record AcceptedTimePeriod(long timePeriod, long lastValidTimePeriod) {}
+
+    /**
+     * The HMAC engine of a thread.
+     * <br>
+     * @author Julb.
+     */
+    private static final class HmacEngine {
+
+        /**
+         * The verifier.
+         */
+        private final TotpVerifier verifier;
+
+        /**
+         * The MAC.
+         */
+        private final Mac mac;
+
+        /**
+         * The buffer holding the counter.
+         */
+        private final byte[] counter = new byte[Long.BYTES];
+
+        /**
+         * The buffer receiving the HMAC.
+         */
+        private final byte[] hash;
+
+        /**
+         * The secret with which the MAC is initialized.
+         */
+        private String initializedSecret;
+
+        /**
+         * Constructor.
+         * @param verifier the verifier.
+         */
+        HmacEngine(TotpVerifier verifier) {
+            super();
+            this.verifier = verifier;
+            try {
+                this.mac = Mac.getInstance(verifier.hashingAlgorithm.getHmacAlgorithm());
+            } catch (GeneralSecurityException e) {
+                throw new InternalServerErrorException(e);
+            }
+            this.hash = new byte[this.mac.getMacLength()];
+        }
+
+        /**
+         * Initializes the MAC with a secret if it is a valid Base32 key.
+         * @param secret the secret.
+         * @return <code>true</code> if the MAC is initialized with the secret, <code>false</code> if the secret is not
+         * a valid Base32 key.
+         */
+        boolean tryInit(String secret) {
+            try {
+                init(secret);
+                return true;
+            } catch (GeneralSecurityException | RuntimeException e) {
+                LOGGER.debug("Invalid TOTP secret: {}.", e.getClass().getSimpleName());
+                return false;
+            }
+        }
+
+        /**
+         * Generates the code of a secret for a time period, as specified by RFC 6238.
+         * @param secret the secret.
+         * @param timePeriod the time period.
+         * @return the code.
+         * @throws InternalServerErrorException if the secret is not a valid Base32 key.
+         */
+        int generate(String secret, long timePeriod) {
+            try {
+                init(secret);
+            } catch (GeneralSecurityException | RuntimeException e) {
+                throw new InternalServerErrorException(e);
+            }
+
+            var value = timePeriod;
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                this.counter[i] = (byte) value;
+                value >>>= Byte.SIZE;
+            }
+            this.mac.update(this.counter);
+            try {
+                this.mac.doFinal(this.hash, 0);
+            } catch (ShortBufferException e) {
+                throw new InternalServerErrorException(e);
+            }
+
+            var offset = this.hash[this.hash.length - 1] & 0xf;
+            // @formatter:off
+            var binary = ((this.hash[offset] & 0x7f) << 24)
+                | ((this.hash[offset + 1] & 0xff) << 16)
+                | ((this.hash[offset + 2] & 0xff) << 8)
+                | (this.hash[offset + 3] & 0xff);
+            // @formatter:on
+            return binary % POWERS_OF_TEN[this.verifier.digits];
+        }
+
+        /**
+         * Initializes the MAC with a secret, unless it is already initialized with it.
+         * @param secret the secret.
+         * @throws GeneralSecurityException if the key is rejected by the MAC.
+         */
+        private void init(String secret) throws GeneralSecurityException {
+            Objects.requireNonNull(secret, "secret");
+            if (!secret.equals(this.initializedSecret)) {
+                this.initializedSecret = null;
+                var key = new Base32().decode(secret);
+                this.mac.init(new SecretKeySpec(key, this.verifier.hashingAlgorithm.getHmacAlgorithm()));
+                this.initializedSecret = secret;
+            }
+        }
+    }
+
+    /**
+     * The builder for the TOTP verifier.
+     * <br>
+     * @author Julb.
+     */
+    public static class Builder {
+
+        /**
+         * The built instance
+         */
+        private TotpVerifier instance;
+
+        // ------------------------------------------ Constructors.
+
+        /**
+         * Constructor.
+         */
+        public Builder() {
+            super();
+            this.instance = new TotpVerifier();
+        }
+
+        // ------------------------------------------ Getters/Setters.
+
+        /**
+         * Setter for property hashingAlgorithm.
+         * @param hashingAlgorithm New value of property hashingAlgorithm.
+         * @return the builder instance.
+         */
+        public Builder hashingAlgorithm(HashingAlgorithm hashingAlgorithm) {
+            this.instance.hashingAlgorithm = hashingAlgorithm;
+            return this;
+        }
+
+        /**
+         * Setter for property digits.
+         * @param digits New value of property digits.
+         * @return the builder instance.
+         */
+        public Builder digits(int digits) {
+            this.instance.digits = digits;
+            return this;
+        }
+
+        /**
+         * Setter for property timePeriod.
+         * @param timePeriodInSeconds New value of property timePeriod.
+         * @return the builder instance.
+         */
+        public Builder timePeriod(int timePeriodInSeconds) {
+            this.instance.timePeriodInSeconds = timePeriodInSeconds;
+            return this;
+        }
+
+        /**
+         * Setter for property replayCacheSize.
+         * @param replayCacheSize New value of property replayCacheSize.
+         * @return the builder instance.
+         */
+        public Builder replayCacheSize(int replayCacheSize) {
+            this.instance.replayCacheSize = replayCacheSize;
+            return this;
+        }
+
+        /**
+         * Sets the clock giving the current time, e.g. to compensate a known drift or to test time-based behaviours.
+         * @param clock New value of property clock.
+         * @return the builder instance.
+         */
+        public Builder clock(Clock clock) {
+            this.instance.clock = clock;
+            return this;
+        }
+
+        /**
+         * Returns the built instance.
+         * @return the instance.
+         */
+        public TotpVerifier build() {
+            if (this.instance.hashingAlgorithm == null || this.instance.clock == null) {
+                throw new IllegalArgumentException("hashingAlgorithm and clock are required");
+            }
+            if (this.instance.digits <= 0 || this.instance.digits >= POWERS_OF_TEN.length) {
+                throw new IllegalArgumentException("digits must be between 1 and " + (POWERS_OF_TEN.length - 1));
+            }
+            if (this.instance.timePeriodInSeconds <= 0) {
+                throw new IllegalArgumentException("timePeriod must be positive");
+            }
+            if (this.instance.replayCacheSize <= 0) {
+                throw new IllegalArgumentException("replayCacheSize must be positive");
+            }
+            return this.instance;
+        }
+    }
+}
@@ -23,8 +23,11 @@
  */
 package me.julb.commons.security.crypto.aes;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.encrypt.Encryptors;
 
 /**
  * This class enables encryption and decryption of a {@link String} using AES256.
@@ -64,4 +67,78 @@ class AESEncryptorTest {
             AESEncryptor.decrypt(cipheredText, falseKey, falseSalt);
         });
     }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenEncryptingDecrypting_thenCompatibleWithSpringEncryptors() {
+        String key = "aaaabbbbccccddddaaaabbbbccccdddd";
+        String salt = "aaaabbbbccccaaaabbbbccccaaaabbbb";
+        var springEncryptor = Encryptors.text(key, salt);
+
+        String cipheredText = AESEncryptor.encrypt("textToEncrypt", key, salt);
+        Assertions.assertEquals("textToEncrypt", springEncryptor.decrypt(cipheredText));
+        Assertions.assertEquals("téxt€", AESEncryptor.decrypt(springEncryptor.encrypt("téxt€"), key, salt));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingEncryptorTwice_thenSameInstance() {
+        String key = "aaaabbbbccccddddaaaabbbbccccdddd";
+        String salt = "aaaabbbbccccaaaabbbbccccaaaabbbb";
+
+        Assertions.assertSame(AESEncryptor.of(key, salt), AESEncryptor.of(key, salt));
+        Assertions.assertNotSame(AESEncryptor.of(key, salt), AESEncryptor.of(key, "bbbbccccddddaaaabbbbccccddddaaaa"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCacheFull_thenLeastRecentlyUsedEvicted() {
+        String salt = "aaaabbbbccccaaaabbbbccccaaaabbbb";
+        AESEncryptor.clearCache();
+        var recentlyUsed = AESEncryptor.of("recently-used", salt);
+        var leastRecentlyUsed = AESEncryptor.of("least-recently-used", salt);
+
+        for (int i = 0; i < AESEncryptor.MAXIMUM_CACHE_SIZE; i++) {
+            Assertions.assertSame(recentlyUsed, AESEncryptor.of("recently-used", salt));
+            AESEncryptor.of("key" + i, salt);
+        }
+
+        Assertions.assertSame(recentlyUsed, AESEncryptor.of("recently-used", salt));
+        Assertions.assertNotSame(leastRecentlyUsed, AESEncryptor.of("least-recently-used", salt));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenClearingCache_thenKeyDerivedAgain() {
+        String key = "aaaabbbbccccddddaaaabbbbccccdddd";
+        String salt = "aaaabbbbccccaaaabbbbccccaaaabbbb";
+        var encryptor = AESEncryptor.of(key, salt);
+
+        AESEncryptor.clearCache();
+
+        Assertions.assertNotSame(encryptor, AESEncryptor.of(key, salt));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenEncryptingDecryptingAll_thenItWorks() {
+        String key = "aaaabbbbccccddddaaaabbbbccccdddd";
+        String salt = "aaaabbbbccccaaaabbbbccccaaaabbbb";
+        List<String> rawTexts = List.of("text1", "", "text3");
+
+        List<String> cipheredTexts = AESEncryptor.encryptAll(rawTexts, key, salt);
+        Assertions.assertEquals(3, cipheredTexts.size());
+        Assertions.assertEquals("text1", AESEncryptor.decrypt(cipheredTexts.get(0), key, salt));
+        Assertions.assertEquals(rawTexts, AESEncryptor.decryptAll(cipheredTexts, key, salt));
+    }
 }
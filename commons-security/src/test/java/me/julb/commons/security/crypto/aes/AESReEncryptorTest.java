@@ -0,0 +1,134 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.crypto.aes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link AESReEncryptor} class.
+ * <br>
+ * @author Julb.
+ */
+class AESReEncryptorTest {
+
+    /**
+     * The old key.
+     */
+    private static final String OLD_KEY = "aaaabbbbccccddddaaaabbbbccccdddd";
+
+    /**
+     * The old salt.
+     */
+    private static final String OLD_SALT = "aaaabbbbccccaaaabbbbccccaaaabbbb";
+
+    /**
+     * The new key.
+     */
+    private static final String NEW_KEY = "bbbbccccddddaaaabbbbccccddddaaaa";
+
+    /**
+     * The new salt.
+     */
+    private static final String NEW_SALT = "bbbbccccddddaaaabbbbccccddddaaaa";
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReEncrypting_thenChunksInSourceOrder() {
+        var plainTexts = IntStream.range(0, 2500).mapToObj(i -> "value" + i).toList();
+        var cipherTexts = AESEncryptor.encryptAll(plainTexts, OLD_KEY, OLD_SALT);
+        var executor = Executors.newFixedThreadPool(4);
+        var chunks = new ArrayList<AESReEncryptionChunk>();
+        var progresses = new ArrayList<AESReEncryptionProgress>();
+        try {
+            // @formatter:off
+            var reEncryptor = new AESReEncryptor.Builder()
+                .oldKey(OLD_KEY, OLD_SALT)
+                .newKey(NEW_KEY, NEW_SALT)
+                .chunkSize(100)
+                .maxInFlightChunks(3)
+                .executor(executor)
+                .progressListener(progresses::add)
+                .build();
+            // @formatter:on
+
+            var progress = reEncryptor.reEncrypt(cipherTexts.iterator(), chunks::add);
+            Assertions.assertEquals(2500, progress.getProcessedCount());
+            Assertions.assertEquals(0, progress.getFailureCount());
+            Assertions.assertTrue(progress.getThroughputPerSecond() > 0);
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertEquals(25, chunks.size());
+        Assertions.assertEquals(25, progresses.size());
+        Assertions.assertEquals(100, progresses.get(0).getProcessedCount());
+        var reEncryptedCipherTexts = new ArrayList<String>();
+        for (int i = 0; i < chunks.size(); i++) {
+            Assertions.assertEquals(i * 100L, chunks.get(i).getOffset());
+            Assertions.assertEquals(cipherTexts.subList(i * 100, i * 100 + 100), chunks.get(i).getCipherTexts());
+            reEncryptedCipherTexts.addAll(chunks.get(i).getReEncryptedCipherTexts());
+        }
+        Assertions.assertEquals(plainTexts, AESEncryptor.decryptAll(reEncryptedCipherTexts, NEW_KEY, NEW_SALT));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReEncryptingInvalidValues_thenFailuresReported() {
+        var validCipherText = AESEncryptor.encrypt("value", OLD_KEY, OLD_SALT);
+        var invalidCipherText = "notAnHexValue";
+        var chunks = new ArrayList<AESReEncryptionChunk>();
+
+        var reEncryptor = new AESReEncryptor.Builder().oldKey(OLD_KEY, OLD_SALT).newKey(NEW_KEY, NEW_SALT).build();
+        var progress = reEncryptor.reEncrypt(Arrays.asList(validCipherText, invalidCipherText, null).iterator(),
+            chunks::add);
+
+        Assertions.assertEquals(3, progress.getProcessedCount());
+        Assertions.assertEquals(2, progress.getFailureCount());
+        Assertions.assertEquals(1, chunks.size());
+        List<String> reEncryptedCipherTexts = chunks.get(0).getReEncryptedCipherTexts();
+        Assertions.assertEquals("value", AESEncryptor.decrypt(reEncryptedCipherTexts.get(0), NEW_KEY, NEW_SALT));
+        Assertions.assertNull(reEncryptedCipherTexts.get(1));
+        Assertions.assertNull(reEncryptedCipherTexts.get(2));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenBuildingWithoutKeys_thenThrow() {
+        var builder = new AESReEncryptor.Builder().oldKey(OLD_KEY, OLD_SALT);
+        Assertions.assertThrows(IllegalArgumentException.class, builder::build);
+    }
+}
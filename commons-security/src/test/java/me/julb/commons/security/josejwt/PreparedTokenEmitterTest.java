@@ -0,0 +1,202 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.util.Calendar;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+import me.julb.commons.security.josejwt.jwk.IJWKProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualAsymmetricJWKProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualSymmetricJWKProvider;
+
+import net.javacrumbs.jsonunit.JsonAssert;
+
+/**
+ * Unit test class for {@link PreparedTokenEmitter}.
+ * <br>
+ * @author Julb.
+ */
+class PreparedTokenEmitterTest {
+
+    /**
+     * A raw JSON web token.
+     */
+    private JWTClaimsSet jwtClaimsSet;
+
+    /**
+     * The symmetric JWK provider.
+     */
+    private IJWKProvider symmetricJWKProvider;
+
+    /**
+     * The asymmetric RSA JWK provider.
+     */
+    private IJWKProvider asymmetricRSAJWKProvider;
+
+    // ------------------------------------------ Constructors.
+
+    // ------------------------------------------ Before/After methods.
+
+    /**
+     * Sets-up the test.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        Calendar issueTime = Calendar.getInstance();
+
+        Calendar expirationTime = Calendar.getInstance();
+        expirationTime.add(Calendar.HOUR, 1);
+
+        // @formatter:off
+        this.jwtClaimsSet = new JWTClaimsSet.Builder()
+                .issuer("API_Gateway")
+                .audience("API_Audience")
+                .jwtID("jwtId")
+                .subject("contact@julb.io")
+                .claim("typ", "U2M")
+                .issueTime(issueTime.getTime())
+                .expirationTime(expirationTime.getTime())
+                .build();
+        // @formatter:on
+
+        // @formatter:off
+        RSAKey rsaKey = new RSAKeyGenerator(2048).generate();
+        this.asymmetricRSAJWKProvider = new ManualAsymmetricJWKProvider.Builder()
+                .algorithm(JWSAlgorithm.RS384.getName())
+                .keyId(UUID.randomUUID().toString())
+                .keyPair(rsaKey.toRSAPrivateKey(), rsaKey.toRSAPublicKey())
+                .useForSignature()
+                .build();
+        // @formatter:on
+
+        // @formatter:off
+        this.symmetricJWKProvider = new ManualSymmetricJWKProvider.Builder()
+                .algorithm("dir")
+                .keyId(UUID.randomUUID().toString())
+                .secretKey("aaaaaaaabbbbbbbbccccccccdddddddd")
+                .useForEncryption()
+                .build();
+        // @formatter:on
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenEmittingToken_thenReturnTokenReceivable() throws Exception {
+        // @formatter:off
+        var tokenEmitter = new PreparedTokenEmitter()
+                .setSignatureJWKProvider(asymmetricRSAJWKProvider)
+                .setEncryptionJWKProvider(symmetricJWKProvider);
+        var tokenReceiver = new TokenReceiver()
+                .setSignatureJWKSetProvider(new ManualJWKSetProvider.Builder()
+                        .addJWKProvider(asymmetricRSAJWKProvider)
+                        .build())
+                .setEncryptionJWKSetProvider(new ManualJWKSetProvider.Builder()
+                        .addJWKProvider(symmetricJWKProvider)
+                        .build());
+        // @formatter:on
+
+        for (int i = 0; i < 3; i++) {
+            var emittedToken = tokenEmitter.emit(this.jwtClaimsSet.toString());
+            var receivedToken = tokenReceiver.receive(emittedToken, "API_Gateway", "API_Audience");
+            JsonAssert.assertJsonEquals(this.jwtClaimsSet.toString(), receivedToken);
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRotatingSignatureKey_thenSignWithNewKey() throws Exception {
+        // @formatter:off
+        RSAKey rsaKey = new RSAKeyGenerator(2048).generate();
+        var rotatedJWKProvider = new ManualAsymmetricJWKProvider.Builder()
+                .algorithm(JWSAlgorithm.RS256.getName())
+                .keyId("rotated")
+                .keyPair(rsaKey.toRSAPrivateKey(), rsaKey.toRSAPublicKey())
+                .useForSignature()
+                .build();
+        // @formatter:on
+
+        var tokenEmitter = new PreparedTokenEmitter().setSignatureJWKProvider(asymmetricRSAJWKProvider);
+        var firstToken = SignedJWT.parse(tokenEmitter.emit(this.jwtClaimsSet.toString()));
+
+        tokenEmitter.setSignatureJWKProvider(rotatedJWKProvider);
+        var secondToken = SignedJWT.parse(tokenEmitter.emit(this.jwtClaimsSet.toString()));
+
+        Assertions.assertEquals(asymmetricRSAJWKProvider.toJWK().getKeyID(), firstToken.getHeader().getKeyID());
+        Assertions.assertEquals("rotated", secondToken.getHeader().getKeyID());
+        Assertions.assertEquals(JWSAlgorithm.RS256, secondToken.getHeader().getAlgorithm());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRotatingToUnsupportedKey_thenKeepCurrentKey() throws Exception {
+        // @formatter:off
+        var unsupportedJWKProvider = new ManualSymmetricJWKProvider.Builder()
+                .algorithm(JWSAlgorithm.HS256.getName())
+                .keyId("too-short")
+                .secretKey("short")
+                .useForSignature()
+                .build();
+        // @formatter:on
+
+        var tokenEmitter = new PreparedTokenEmitter().setSignatureJWKProvider(asymmetricRSAJWKProvider);
+
+        Assertions.assertThrows(JOSEJWTException.class, () -> {
+            tokenEmitter.setSignatureJWKProvider(unsupportedJWKProvider);
+        });
+
+        var token = SignedJWT.parse(tokenEmitter.emit(this.jwtClaimsSet.toString()));
+        Assertions.assertEquals(asymmetricRSAJWKProvider.toJWK().getKeyID(), token.getHeader().getKeyID());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenEmittingTokenWithoutSignature_thenThrowIllegalArgumentException() throws Exception {
+        var tokenEmitter = new PreparedTokenEmitter().setEncryptionJWKProvider(symmetricJWKProvider);
+        var jwtClaimsSetString = this.jwtClaimsSet.toString();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            tokenEmitter.emit(jwtClaimsSetString);
+        });
+    }
+}
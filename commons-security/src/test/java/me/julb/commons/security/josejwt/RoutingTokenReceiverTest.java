@@ -0,0 +1,268 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.util.Calendar;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+
+import me.julb.commons.security.josejwt.exceptions.badrequest.MissingIssuerInTokenJOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.unauthorized.InvalidAudienceInTokenJOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.unauthorized.InvalidIssuerInTokenJOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.unauthorized.UnresolvableKeyJOSEJWTException;
+import me.julb.commons.security.josejwt.jwk.IJWKProvider;
+import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualAsymmetricJWKProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualSymmetricJWKProvider;
+
+import net.javacrumbs.jsonunit.JsonAssert;
+
+/**
+ * Unit test class for {@link RoutingTokenReceiver}.
+ * <br>
+ * @author Julb.
+ */
+class RoutingTokenReceiverTest {
+
+    /**
+     * The signature keys of the first issuer.
+     */
+    private IJWKProvider firstIssuerSignatureJWKProvider;
+
+    /**
+     * The signature keys of the second issuer.
+     */
+    private IJWKProvider secondIssuerSignatureJWKProvider;
+
+    /**
+     * The symmetric JWK provider.
+     */
+    private IJWKProvider symmetricJWKProvider;
+
+    /**
+     * The receiver.
+     */
+    private RoutingTokenReceiver receiver;
+
+    // ------------------------------------------ Before/After methods.
+
+    /**
+     * Sets-up the test.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.firstIssuerSignatureJWKProvider = newSignatureJWKProvider();
+        this.secondIssuerSignatureJWKProvider = newSignatureJWKProvider();
+
+        // @formatter:off
+        this.symmetricJWKProvider = new ManualSymmetricJWKProvider.Builder()
+                .algorithm("dir")
+                .keyId(UUID.randomUUID().toString())
+                .secretKey("aaaaaaaabbbbbbbbccccccccdddddddd")
+                .useForEncryption()
+                .build();
+
+        this.receiver = new RoutingTokenReceiver()
+                .setEncryptionJWKSetProvider(toJWKSetProvider(symmetricJWKProvider))
+                .addIssuer("first", "first_audience", toVerifyJWKSetProvider(firstIssuerSignatureJWKProvider))
+                .addIssuer("second", "second_audience", toVerifyJWKSetProvider(secondIssuerSignatureJWKProvider));
+        // @formatter:on
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingTokensOfSeveralIssuers_thenRoutedToTheirKeys() throws Exception {
+        var firstClaims = newJWTClaimsSet("first", "first_audience");
+        var secondClaims = newJWTClaimsSet("second", "second_audience");
+
+        var firstToken = emit(firstIssuerSignatureJWKProvider, firstClaims);
+        var secondToken = emit(secondIssuerSignatureJWKProvider, secondClaims);
+
+        JsonAssert.assertJsonEquals(firstClaims.toString(), receiver.receive(firstToken));
+        JsonAssert.assertJsonEquals(secondClaims.toString(), receiver.receive(secondToken));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingTokenSignedWithKeyOfOtherIssuer_thenThrow() throws Exception {
+        var token = emit(secondIssuerSignatureJWKProvider, newJWTClaimsSet("first", "first_audience"));
+
+        Assertions.assertThrows(UnresolvableKeyJOSEJWTException.class, () -> receiver.receive(token));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingTokenWithAudienceOfOtherIssuer_thenThrow() throws Exception {
+        var token = emit(firstIssuerSignatureJWKProvider, newJWTClaimsSet("first", "second_audience"));
+
+        Assertions.assertThrows(InvalidAudienceInTokenJOSEJWTException.class, () -> receiver.receive(token));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingTokenOfUnknownIssuer_thenThrow() throws Exception {
+        var unknownToken = emit(firstIssuerSignatureJWKProvider, newJWTClaimsSet("unknown", "first_audience"));
+        Assertions.assertThrows(InvalidIssuerInTokenJOSEJWTException.class, () -> receiver.receive(unknownToken));
+
+        receiver.removeIssuer("first");
+        var removedToken = emit(firstIssuerSignatureJWKProvider, newJWTClaimsSet("first", "first_audience"));
+        Assertions.assertThrows(InvalidIssuerInTokenJOSEJWTException.class, () -> receiver.receive(removedToken));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingTokenWithIssuerInOtherCase_thenRoutedToIssuer() throws Exception {
+        var claims = newJWTClaimsSet("FIRST", "first_audience");
+        var token = emit(firstIssuerSignatureJWKProvider, claims);
+
+        JsonAssert.assertJsonEquals(claims.toString(), receiver.receive(token));
+
+        receiver.removeIssuer("First");
+        Assertions.assertThrows(InvalidIssuerInTokenJOSEJWTException.class, () -> receiver.receive(token));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingTokenOfUnknownIssuer_thenMessageContainsOnlyThisIssuer() throws Exception {
+        var token = emit(firstIssuerSignatureJWKProvider, newJWTClaimsSet("unknown", "first_audience"));
+
+        var e = Assertions.assertThrows(InvalidIssuerInTokenJOSEJWTException.class, () -> receiver.receive(token));
+        Assertions.assertTrue(e.getMessage().contains("unknown"));
+        Assertions.assertFalse(e.getMessage().contains("first"));
+        Assertions.assertFalse(e.getMessage().contains("second"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingTokenWithoutIssuer_thenThrow() throws Exception {
+        var token = emit(firstIssuerSignatureJWKProvider, newJWTClaimsSet(null, "first_audience"));
+
+        Assertions.assertThrows(MissingIssuerInTokenJOSEJWTException.class, () -> receiver.receive(token));
+    }
+
+    /**
+     * Emits an encrypted token.
+     * @param signatureJWKProvider the signature key.
+     * @param jwtClaimsSet the claims.
+     * @return the token.
+     */
+    private String emit(IJWKProvider signatureJWKProvider, JWTClaimsSet jwtClaimsSet) {
+        // @formatter:off
+        return new TokenEmitter()
+                .setSignatureJWKProvider(signatureJWKProvider)
+                .setEncryptionJWKProvider(symmetricJWKProvider)
+                .emit(jwtClaimsSet.toString());
+        // @formatter:on
+    }
+
+    /**
+     * Creates claims.
+     * @param issuer the issuer.
+     * @param audience the audience.
+     * @return the claims.
+     */
+    private JWTClaimsSet newJWTClaimsSet(String issuer, String audience) {
+        Calendar expirationTime = Calendar.getInstance();
+        expirationTime.add(Calendar.HOUR, 1);
+
+        // @formatter:off
+        return new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .audience(audience)
+                .subject("contact@julb.io")
+                .issueTime(Calendar.getInstance().getTime())
+                .expirationTime(expirationTime.getTime())
+                .build();
+        // @formatter:on
+    }
+
+    /**
+     * Creates a signature key.
+     * @return the signature key.
+     */
+    private IJWKProvider newSignatureJWKProvider() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).generate();
+
+        // @formatter:off
+        return new ManualAsymmetricJWKProvider.Builder()
+                .algorithm(JWSAlgorithm.RS256.getName())
+                .keyId(UUID.randomUUID().toString())
+                .keyPair(rsaKey.toRSAPrivateKey(), rsaKey.toRSAPublicKey())
+                .useForSignature()
+                .build();
+        // @formatter:on
+    }
+
+    /**
+     * Creates the verification keys of a signature key.
+     * @param signatureJWKProvider the signature key.
+     * @return the verification keys.
+     */
+    private IJWKSetProvider toVerifyJWKSetProvider(IJWKProvider signatureJWKProvider) throws Exception {
+        var rsaKey = signatureJWKProvider.get().toRSAKey();
+
+        // @formatter:off
+        var verifyJWKProvider = new ManualAsymmetricJWKProvider.Builder()
+                .algorithm(JWSAlgorithm.RS256.getName())
+                .keyId(rsaKey.getKeyID())
+                .publicKey(rsaKey.toRSAPublicKey())
+                .useForSignature()
+                .build();
+        // @formatter:on
+
+        return toJWKSetProvider(verifyJWKProvider);
+    }
+
+    /**
+     * Wraps a key in a JWK set provider.
+     * @param jwkProvider the key.
+     * @return the JWK set provider.
+     */
+    private IJWKSetProvider toJWKSetProvider(IJWKProvider jwkProvider) {
+        return new ManualJWKSetProvider.Builder().addJWKProvider(jwkProvider).build();
+    }
+}
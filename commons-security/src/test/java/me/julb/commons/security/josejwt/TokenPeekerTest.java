@@ -0,0 +1,90 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test class for {@link TokenPeeker}.
+ * <br>
+ * @author Julb.
+ */
+class TokenPeekerTest {
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenPeekingHeader_thenReturnTopLevelString() {
+        var token = part("{\"alg\":\"RS256\", \"jwk\": {\"kid\": \"nested\"}, \"kid\" : \"key-1\"}") + ".e30.c2ln";
+
+        Assertions.assertEquals("key-1", TokenPeeker.peekHeader(token, TokenPeeker.KID));
+        Assertions.assertEquals("RS256", TokenPeeker.peekHeader(token, "alg"));
+        Assertions.assertNull(TokenPeeker.peekHeader(token, TokenPeeker.ISS));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenPeekingClaim_thenReturnTopLevelString() {
+        // @formatter:off
+        var payload = "{\"aud\":[\"a\",\"iss\"],\"n\":-1.5e3,\"b\":true,\"o\":{\"iss\":\"x\"},"
+                + "\"iss\":\"https:\\/\\/idp.example.com\\u002fr\\u00e9alm\",\"sub\":\"café\"}";
+        // @formatter:on
+        var token = part("{\"alg\":\"HS256\"}") + "." + part(payload) + ".c2ln";
+
+        Assertions.assertEquals("https://idp.example.com/réalm", TokenPeeker.peekClaim(token, TokenPeeker.ISS));
+        Assertions.assertEquals("café", TokenPeeker.peekClaim(token, "sub"));
+        Assertions.assertNull(TokenPeeker.peekClaim(token, "b"));
+        Assertions.assertNull(TokenPeeker.peekClaim(token, "missing"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenPeekingMalformedToken_thenReturnNull() {
+        Assertions.assertNull(TokenPeeker.peekHeader(null, TokenPeeker.KID));
+        Assertions.assertNull(TokenPeeker.peekHeader("", TokenPeeker.KID));
+        Assertions.assertNull(TokenPeeker.peekHeader("!!!.e30.c2ln", TokenPeeker.KID));
+        Assertions.assertNull(TokenPeeker.peekHeader(part("[\"kid\"]") + ".e30.c2ln", TokenPeeker.KID));
+        Assertions.assertNull(TokenPeeker.peekHeader(part("{\"kid\":\"unterminated}") + ".e30.c2ln", "kid"));
+        Assertions.assertNull(TokenPeeker.peekClaim(part("{}") + "." + part("{\"iss\":\"x\"}"), TokenPeeker.ISS));
+        Assertions.assertNull(TokenPeeker.peekClaim(part("{}") + ".a.b.c.d", TokenPeeker.ISS));
+    }
+
+    /**
+     * Encodes a token part.
+     * @param json the JSON.
+     * @return the Base64URL encoded part.
+     */
+    private String part(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test class for {@link TokenPreValidator}.
+ * <br>
+ * @author Julb.
+ */
+class TokenPreValidatorTest {
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenValidatingWellFormedTokens_thenValid() {
+        var validator = new TokenPreValidator();
+        var header = part(" {\"alg\":\"dir\",\"enc\":\"A128GCM\"}\n");
+
+        Assertions.assertEquals(TokenPreValidationResult.VALID, validator.validateJWS(header + ".e30.c2lnbmF0dXJl"));
+        Assertions.assertEquals(TokenPreValidationResult.VALID, validator.validateJWS(header + ".e30."));
+        Assertions.assertEquals(TokenPreValidationResult.VALID, validator.validateJWE(header + "..aXY.Y2lwaGVy.dGFn"));
+        Assertions.assertEquals(3, validator.getCount(TokenPreValidationResult.VALID));
+        Assertions.assertEquals(0, validator.getRejectedCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenValidatingLongTokenWithDefaultValidator_thenValid() {
+        var validator = new TokenPreValidator();
+        var token = part("{\"alg\":\"RS256\"}") + "." + "e30".repeat(100000) + ".c2ln";
+
+        Assertions.assertEquals(TokenPreValidator.UNLIMITED_LENGTH, validator.getMaximumLength());
+        Assertions.assertEquals(TokenPreValidationResult.VALID, validator.validateJWS(token));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenValidatingMalformedTokens_thenRejectAndCount() {
+        var validator = new TokenPreValidator(64);
+        var header = part("{\"alg\":\"RS256\"}");
+
+        Assertions.assertEquals(TokenPreValidationResult.BLANK, validator.validateJWS(null));
+        Assertions.assertEquals(TokenPreValidationResult.BLANK, validator.validateJWS(""));
+        Assertions.assertEquals(TokenPreValidationResult.TOO_LONG, validator.validateJWS("a".repeat(65)));
+        Assertions.assertEquals(TokenPreValidationResult.INVALID_SEGMENT_COUNT, validator.validateJWS(header + ".e30"));
+        Assertions.assertEquals(
+                TokenPreValidationResult.INVALID_SEGMENT_COUNT, validator.validateJWS(header + ".e30.c2ln.c2ln"));
+        Assertions.assertEquals(
+                TokenPreValidationResult.INVALID_SEGMENT_COUNT, validator.validateJWE(header + ".e30.c2ln"));
+        Assertions.assertEquals(TokenPreValidationResult.INVALID_ENCODING, validator.validateJWS(header + ".e3+.c2ln"));
+        Assertions.assertEquals(
+                TokenPreValidationResult.INVALID_ENCODING, validator.validateJWS(header + ".e30=.c2ln"));
+        Assertions.assertEquals(TokenPreValidationResult.INVALID_ENCODING, validator.validateJWS(header + ".e30.é"));
+        Assertions.assertEquals(
+                TokenPreValidationResult.INVALID_ENCODING, validator.validateJWS(header + ".e30a1.c2ln"));
+        Assertions.assertEquals(TokenPreValidationResult.INVALID_HEADER, validator.validateJWS(".e30.c2ln"));
+        Assertions.assertEquals(
+                TokenPreValidationResult.INVALID_HEADER, validator.validateJWS(part("[]") + ".e30.c2ln"));
+        Assertions.assertEquals(
+                TokenPreValidationResult.INVALID_HEADER, validator.validateJWS(part("{") + ".e30.c2ln"));
+
+        Assertions.assertEquals(13, validator.getRejectedCount());
+        Assertions.assertEquals(3, validator.getCount(TokenPreValidationResult.INVALID_SEGMENT_COUNT));
+        Assertions.assertEquals(0, validator.getCount(TokenPreValidationResult.VALID));
+
+        validator.resetCounts();
+        Assertions.assertEquals(0, validator.getRejectedCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCreatingValidatorWithInvalidMaximumLength_thenThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TokenPreValidator(0));
+    }
+
+    /**
+     * Encodes a token part.
+     * @param json the JSON.
+     * @return the Base64URL encoded part.
+     */
+    private String part(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
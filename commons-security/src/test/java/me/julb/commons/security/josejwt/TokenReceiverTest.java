@@ -23,22 +23,35 @@
  */
 package me.julb.commons.security.josejwt;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
 import com.nimbusds.jwt.JWTClaimsSet;
 
+import me.julb.commons.security.josejwt.exceptions.JOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.badrequest.MalformedTokenJOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.unauthorized.InvalidIssuerInTokenJOSEJWTException;
+import me.julb.commons.security.josejwt.exceptions.unauthorized.UnresolvableKeyJOSEJWTException;
 import me.julb.commons.security.josejwt.jwk.IJWKProvider;
+import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
 import me.julb.commons.security.josejwt.jwk.impl.ManualAsymmetricJWKProvider;
 import me.julb.commons.security.josejwt.jwk.impl.ManualJWKSetProvider;
 import me.julb.commons.security.josejwt.jwk.impl.ManualSymmetricJWKProvider;
+import me.julb.commons.security.josejwt.metrics.InMemoryTokenMetricsRecorder;
+import me.julb.commons.security.josejwt.metrics.TokenStage;
 
 import net.javacrumbs.jsonunit.JsonAssert;
 
@@ -153,6 +166,293 @@ class TokenReceiverTest {
         JsonAssert.assertJsonEquals(this.jwtClaimsSet.toString(), receivedToken);
     }
 
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingTokensWithMetricsRecorder_thenRecordMetrics() throws Exception {
+        var metricsRecorder = new InMemoryTokenMetricsRecorder();
+
+        // @formatter:off
+        String emittedToken = new TokenEmitter()
+                .setSignatureJWKProvider(asymmetricRSASignatureJWKProvider)
+                .setEncryptionJWKProvider(symmetricJWKProvider)
+                .setMetricsRecorder(metricsRecorder)
+                .emit(this.jwtClaimsSet.toString());
+
+        var receiver = new TokenReceiver()
+                .setSignatureJWKSetProvider(new IJWKSetProvider() {
+                    private final IJWKSetProvider delegate = new ManualJWKSetProvider.Builder()
+                            .addJWKProvider(asymmetricRSAVerifyJWKProvider)
+                            .build();
+
+                    @Override
+                    public JWKSet get() {
+                        return delegate.get();
+                    }
+
+                    @Override
+                    public long getJWKSetAgeInMillis() {
+                        return 42_000;
+                    }
+                })
+                .setEncryptionJWKSetProvider(new ManualJWKSetProvider.Builder()
+                        .addJWKProvider(symmetricJWKProvider)
+                        .build())
+                .setMetricsRecorder(metricsRecorder);
+        // @formatter:on
+
+        var issuer = this.jwtClaimsSet.getIssuer();
+        var audience = this.jwtClaimsSet.getAudience().get(0);
+        receiver.receive(emittedToken, issuer, audience);
+        Assertions.assertThrows(JOSEJWTException.class, () -> receiver.receive(emittedToken, "other", audience));
+        Assertions.assertThrows(JOSEJWTException.class, () -> receiver.receive("garbage", issuer, audience));
+
+        for (TokenStage stage : TokenStage.values()) {
+            // The decryption and the verification both parse the token and resolve a key.
+            var expectedCount = switch (stage) {
+                case PARSE, KEY_RESOLVE -> 4;
+                case DECRYPT, VERIFY -> 2;
+                default -> 1;
+            };
+            Assertions.assertEquals(expectedCount, metricsRecorder.getStageHistogram(stage).getCount(), stage.name());
+        }
+
+        var signatureKid = asymmetricRSAVerifyJWKProvider.get().getKeyID();
+        var encryptionKid = symmetricJWKProvider.get().getKeyID();
+        Assertions.assertEquals(Map.of(signatureKid, 2L, encryptionKid, 2L), metricsRecorder.getKidCounts());
+        Assertions.assertEquals(Map.of("RS384", 2L, "dir", 2L), metricsRecorder.getAlgorithmCounts());
+        Assertions.assertEquals(1, metricsRecorder.getFailureCount(InvalidIssuerInTokenJOSEJWTException.class));
+        Assertions.assertEquals(1, metricsRecorder.getFailureCount(MalformedTokenJOSEJWTException.class));
+        Assertions.assertEquals(0, metricsRecorder.getJWKSetRefreshRequestCount());
+        // Only the signature keys know their age.
+        Assertions.assertEquals(42_000, metricsRecorder.getLastJWKSetAgeInMillis());
+        Assertions.assertEquals(42_000, metricsRecorder.getMaxJWKSetAgeInMillis());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingMalformedToken_thenThrowMalformedTokenJOSEJWTException() throws Exception {
+        // @formatter:off
+        var receiver = new TokenReceiver()
+                .setSignatureJWKSetProvider(new ManualJWKSetProvider.Builder()
+                        .addJWKProvider(asymmetricRSAVerifyJWKProvider)
+                        .build())
+                .setEncryptionJWKSetProvider(new ManualJWKSetProvider.Builder()
+                        .addJWKProvider(symmetricJWKProvider)
+                        .build());
+        // @formatter:on
+
+        var issuer = this.jwtClaimsSet.getIssuer();
+        var audience = this.jwtClaimsSet.getAudience().get(0);
+        var e = Assertions.assertThrows(
+                MalformedTokenJOSEJWTException.class, () -> receiver.receive("garbage.token", issuer, audience));
+
+        Assertions.assertEquals(TokenPreValidationResult.INVALID_SEGMENT_COUNT, e.getReason());
+        Assertions.assertEquals(0, e.getStackTrace().length);
+        Assertions.assertEquals(1, receiver.getTokenPreValidator().getRejectedCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingTokenTwiceWithCache_thenServeFromCache() throws Exception {
+        // @formatter:off
+        String emittedToken = new TokenEmitter()
+                .setSignatureJWKProvider(asymmetricRSASignatureJWKProvider)
+                .setEncryptionJWKProvider(symmetricJWKProvider)
+                .emit(this.jwtClaimsSet.toString());
+        // @formatter:on
+
+        // @formatter:off
+        var verifiedTokenCache = new VerifiedTokenCache();
+        var receiver = new TokenReceiver()
+                .setSignatureJWKSetProvider(new ManualJWKSetProvider.Builder()
+                        .addJWKProvider(asymmetricRSAVerifyJWKProvider)
+                        .build())
+                .setEncryptionJWKSetProvider(new ManualJWKSetProvider.Builder()
+                        .addJWKProvider(symmetricJWKProvider)
+                        .build())
+                .setVerifiedTokenCache(verifiedTokenCache);
+        // @formatter:on
+
+        var issuer = this.jwtClaimsSet.getIssuer();
+        var audience = this.jwtClaimsSet.getAudience().get(0);
+        String firstReceivedToken = receiver.receive(emittedToken, issuer, audience);
+        String secondReceivedToken = receiver.receive(emittedToken, issuer, audience);
+
+        JsonAssert.assertJsonEquals(this.jwtClaimsSet.toString(), secondReceivedToken);
+        Assertions.assertEquals(firstReceivedToken, secondReceivedToken);
+        Assertions.assertEquals(1, verifiedTokenCache.getHitCount());
+        Assertions.assertEquals(1, verifiedTokenCache.getMissCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenSignatureKeyRevokedAfterCaching_thenVerifyAgainAndThrow() throws Exception {
+        // @formatter:off
+        String emittedToken = new TokenEmitter()
+                .setSignatureJWKProvider(asymmetricRSASignatureJWKProvider)
+                .setEncryptionJWKProvider(symmetricJWKProvider)
+                .emit(this.jwtClaimsSet.toString());
+        // @formatter:on
+
+        var signatureJWKSet = new AtomicReference<>(new JWKSet(asymmetricRSAVerifyJWKProvider.get()));
+        var verifiedTokenCache = new VerifiedTokenCache();
+        // @formatter:off
+        var receiver = new TokenReceiver()
+                .setSignatureJWKSetProvider(signatureJWKSet::get)
+                .setEncryptionJWKSetProvider(new ManualJWKSetProvider.Builder()
+                        .addJWKProvider(symmetricJWKProvider)
+                        .build())
+                .setVerifiedTokenCache(verifiedTokenCache);
+        // @formatter:on
+
+        var issuer = this.jwtClaimsSet.getIssuer();
+        var audience = this.jwtClaimsSet.getAudience().get(0);
+        receiver.receive(emittedToken, issuer, audience);
+
+        // Same keys in a new JWK set: still served from the cache.
+        signatureJWKSet.set(new JWKSet(asymmetricRSAVerifyJWKProvider.get()));
+        receiver.receive(emittedToken, issuer, audience);
+        Assertions.assertEquals(1, verifiedTokenCache.getHitCount());
+
+        // Key revoked: verified again and rejected.
+        var otherKey = new RSAKeyGenerator(2048).keyID("other").generate().toPublicJWK();
+        signatureJWKSet.set(new JWKSet(otherKey));
+        Assertions.assertThrows(
+                UnresolvableKeyJOSEJWTException.class, () -> receiver.receive(emittedToken, issuer, audience));
+        Assertions.assertEquals(1, verifiedTokenCache.getHitCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingBatch_thenReturnResultPerTokenInOrder() throws Exception {
+        // @formatter:off
+        var tokenEmitter = new TokenEmitter()
+                .setSignatureJWKProvider(asymmetricRSASignatureJWKProvider)
+                .setEncryptionJWKProvider(symmetricJWKProvider);
+        // @formatter:on
+
+        var tokens = new ArrayList<String>();
+        for (int i = 0; i < 150; i++) {
+            tokens.add(tokenEmitter.emit(this.jwtClaimsSet.toString()));
+        }
+        tokens.add(40, "not-a-token");
+        tokens.add(100, "");
+
+        // @formatter:off
+        var batchExecutor = Executors.newFixedThreadPool(4);
+        var refreshCount = new AtomicInteger();
+        var signatureJWKSetProvider = new ManualJWKSetProvider.Builder()
+                .addJWKProvider(asymmetricRSAVerifyJWKProvider)
+                .build();
+        var receiver = new TokenReceiver()
+                .setSignatureJWKSetProvider(signatureJWKSetProvider)
+                .setEncryptionJWKSetProvider(new IJWKSetProvider() {
+                    private final IJWKSetProvider delegate = new ManualJWKSetProvider.Builder()
+                            .addJWKProvider(symmetricJWKProvider)
+                            .build();
+
+                    @Override
+                    public JWKSet get() {
+                        return delegate.get();
+                    }
+
+                    @Override
+                    public boolean refreshJWKSet(String kid) {
+                        refreshCount.incrementAndGet();
+                        return false;
+                    }
+                })
+                .setBatchExecutor(batchExecutor);
+        // @formatter:on
+
+        var results = receiver.receiveAll(
+                tokens, this.jwtClaimsSet.getIssuer(), this.jwtClaimsSet.getAudience().get(0));
+        batchExecutor.shutdown();
+
+        Assertions.assertEquals(tokens.size(), results.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            var result = results.get(i);
+            Assertions.assertSame(tokens.get(i), result.getToken());
+            if (i == 40) {
+                Assertions.assertFalse(result.isValid());
+                Assertions.assertNull(result.getJwtClaims());
+                Assertions.assertTrue(result.getError() instanceof JOSEJWTException);
+            } else if (i == 100) {
+                Assertions.assertFalse(result.isValid());
+                Assertions.assertTrue(result.getError() instanceof IllegalArgumentException);
+            } else {
+                Assertions.assertTrue(result.isValid());
+                JsonAssert.assertJsonEquals(this.jwtClaimsSet.toString(), result.getJwtClaims());
+            }
+        }
+        Assertions.assertEquals(0, refreshCount.get());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReceivingBatchWithUnknownKid_thenRefreshOnceAndRejectTokens() throws Exception {
+        // @formatter:off
+        var unknownSymmetricJWKProvider = new ManualSymmetricJWKProvider.Builder()
+                .algorithm("dir")
+                .keyId("unknown")
+                .secretKey("aaaaaaaabbbbbbbbccccccccdddddddd")
+                .useForEncryption()
+                .build();
+        var tokenEmitter = new TokenEmitter()
+                .setSignatureJWKProvider(asymmetricRSASignatureJWKProvider)
+                .setEncryptionJWKProvider(unknownSymmetricJWKProvider);
+        // @formatter:on
+
+        var tokens = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            tokens.add(tokenEmitter.emit(this.jwtClaimsSet.toString()));
+        }
+
+        // @formatter:off
+        var refreshCount = new AtomicInteger();
+        var receiver = new TokenReceiver()
+                .setSignatureJWKSetProvider(new ManualJWKSetProvider.Builder()
+                        .addJWKProvider(asymmetricRSAVerifyJWKProvider)
+                        .build())
+                .setEncryptionJWKSetProvider(new IJWKSetProvider() {
+                    private final IJWKSetProvider delegate = new ManualJWKSetProvider.Builder()
+                            .addJWKProvider(symmetricJWKProvider)
+                            .build();
+
+                    @Override
+                    public JWKSet get() {
+                        return delegate.get();
+                    }
+
+                    @Override
+                    public boolean refreshJWKSet(String kid) {
+                        refreshCount.incrementAndGet();
+                        return false;
+                    }
+                });
+        // @formatter:on
+
+        var results = receiver.receiveAll(
+                tokens, this.jwtClaimsSet.getIssuer(), this.jwtClaimsSet.getAudience().get(0));
+
+        Assertions.assertTrue(results.stream().noneMatch(TokenReceiverResult::isValid));
+        Assertions.assertTrue(results.stream()
+                .allMatch(result -> result.getError() instanceof UnresolvableKeyJOSEJWTException));
+        Assertions.assertEquals(1, refreshCount.get());
+    }
+
     /**
      * Test method.
      */
@@ -0,0 +1,229 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import me.julb.commons.security.josejwt.jwk.JWKSetSnapshot;
+
+/**
+ * Unit test class for {@link VerifiedTokenCache}.
+ * <br>
+ * @author Julb.
+ */
+class VerifiedTokenCacheTest {
+
+    /**
+     * The current time.
+     */
+    private static final Instant NOW = Instant.parse("2022-01-01T00:00:00Z");
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingCachedToken_thenReturnClaims() {
+        var cache = new VerifiedTokenCache();
+        var expirationTime = Instant.now().plusSeconds(60).getEpochSecond();
+
+        cache.put("digest", "issuer", "audience", "{}", expirationTime);
+
+        Assertions.assertEquals("{}", cache.get("digest", "issuer", "audience"));
+        Assertions.assertEquals(1, cache.getHitCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingCachedTokenWithOtherIssuerOrAudience_thenReturnNull() {
+        var cache = new VerifiedTokenCache();
+        var expirationTime = Instant.now().plusSeconds(60).getEpochSecond();
+
+        cache.put("digest", "issuer", "audience", "{}", expirationTime);
+
+        Assertions.assertNull(cache.get("digest", "otherIssuer", "audience"));
+        Assertions.assertNull(cache.get("digest", "issuer", "otherAudience"));
+        Assertions.assertEquals(2, cache.getMissCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenTokenExpiresBeforeTimeToLive_thenEntryExpiresWithToken() {
+        var clock = new MutableClock(NOW);
+        var cache = new VerifiedTokenCache(10, Duration.ofMinutes(10), clock);
+
+        cache.put("digest", "issuer", "audience", "{}", NOW.plusSeconds(30).getEpochSecond());
+        Assertions.assertNotNull(cache.get("digest", "issuer", "audience"));
+
+        clock.instant = NOW.plusSeconds(30);
+        Assertions.assertNull(cache.get("digest", "issuer", "audience"));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenTimeToLiveExpiresBeforeToken_thenEntryExpiresWithTimeToLive() {
+        var clock = new MutableClock(NOW);
+        var cache = new VerifiedTokenCache(10, Duration.ofSeconds(10), clock);
+
+        cache.put("digest", "issuer", "audience", "{}", NOW.plusSeconds(3600).getEpochSecond());
+
+        clock.instant = NOW.plusSeconds(10);
+        Assertions.assertNull(cache.get("digest", "issuer", "audience"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenPuttingExpiredToken_thenDoNotCache() {
+        var clock = new MutableClock(NOW);
+        var cache = new VerifiedTokenCache(10, Duration.ofSeconds(10), clock);
+
+        cache.put("digest", "issuer", "audience", "{}", NOW.minusSeconds(1).getEpochSecond());
+
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCacheIsFull_thenDoNotExceedMaximumSize() {
+        var cache = new VerifiedTokenCache(2, Duration.ofMinutes(1));
+        var expirationTime = Instant.now().plusSeconds(60).getEpochSecond();
+
+        cache.put("digest1", "issuer", "audience", "{}", expirationTime);
+        cache.put("digest2", "issuer", "audience", "{}", expirationTime);
+        cache.put("digest3", "issuer", "audience", "{}", expirationTime);
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNotNull(cache.get("digest3", "issuer", "audience"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCacheIsFull_thenEvictBatchOfEntries() {
+        var cache = new VerifiedTokenCache(100, Duration.ofMinutes(1));
+        var expirationTime = Instant.now().plusSeconds(60).getEpochSecond();
+        for (int i = 0; i < 100; i++) {
+            cache.put("digest" + i, "issuer", "audience", "{}", expirationTime);
+        }
+        Assertions.assertEquals(100, cache.size());
+
+        cache.put("digest100", "issuer", "audience", "{}", expirationTime);
+        Assertions.assertEquals(91, cache.size());
+        Assertions.assertNotNull(cache.get("digest100", "issuer", "audience"));
+
+        for (int i = 101; i < 110; i++) {
+            cache.put("digest" + i, "issuer", "audience", "{}", expirationTime);
+        }
+        Assertions.assertEquals(100, cache.size());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenSignatureKeyNoLongerInJWKSet_thenReturnNull() throws Exception {
+        var cache = new VerifiedTokenCache();
+        var expirationTime = Instant.now().plusSeconds(60).getEpochSecond();
+        var signatureJWK = new RSAKeyGenerator(2048).keyID("kid1").keyUse(KeyUse.SIGNATURE).generate().toPublicJWK();
+        var otherJWK = new RSAKeyGenerator(2048).keyID("kid2").keyUse(KeyUse.SIGNATURE).generate().toPublicJWK();
+        var snapshot = JWKSetSnapshot.of(new JWKSet(signatureJWK));
+
+        cache.put("digest", "issuer", "audience", "{}", expirationTime, snapshot, signatureJWK);
+
+        Assertions.assertEquals("{}", cache.get("digest", "issuer", "audience", snapshot));
+        Assertions.assertEquals("{}", cache.get("digest", "issuer", "audience", JWKSetSnapshot.of(
+                new JWKSet(List.of(otherJWK, signatureJWK)))));
+        Assertions.assertNull(cache.get("digest", "issuer", "audience", JWKSetSnapshot.of(new JWKSet(otherJWK))));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    /**
+     * A clock which can be moved forward.
+     * <br>
+     * @author Julb.
+     */
+    private static class MutableClock extends Clock {
+
+        /**
+         * The current instant.
+         */
+        private Instant instant;
+
+        /**
+         * Constructor.
+         * @param instant the current instant.
+         */
+        MutableClock(Instant instant) {
+            super();
+            this.instant = instant;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.digest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test for lazy token digest.
+ * <br>
+ * @author Julb.
+ */
+class TokenDigestTest {
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenFormattingDigest_thenReturnTokenHash() throws Exception {
+        var tokenDigest = TokenDigest.of("token");
+
+        Assertions.assertEquals(TokenDigestUtility.hash("token"), tokenDigest.toString());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenFormattingDigestTwice_thenComputeOnce() throws Exception {
+        var tokenDigest = TokenDigest.of("token");
+
+        Assertions.assertSame(tokenDigest.toString(), tokenDigest.toString());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenFormattingFingerprintDigest_thenReturnTokenFingerprint() throws Exception {
+        var tokenDigest = TokenDigest.of("token", TokenDigestAlgorithm.FINGERPRINT_64);
+
+        Assertions.assertEquals(TokenDigestUtility.fingerprint("token"), tokenDigest.toString());
+    }
+}
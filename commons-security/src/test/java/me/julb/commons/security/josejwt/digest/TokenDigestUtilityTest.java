@@ -23,8 +23,13 @@
  */
 package me.julb.commons.security.josejwt.digest;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -82,4 +87,76 @@ class TokenDigestUtilityTest {
 
         Assertions.assertEquals(64, hashedToken.length());
     }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenLookingUpStringHash_thenMethodExistsForCompiledCallers() throws Exception {
+        var method = TokenDigestUtility.class.getMethod("hash", String.class);
+
+        Assertions.assertEquals(String.class, method.getReturnType());
+        Assertions.assertEquals(TokenDigestUtility.hash((CharSequence) "token"), method.invoke(null, "token"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenHashingCharacters_thenReturnSha256Hex() throws Exception {
+        // @formatter:off
+        var tokens = List.of(
+                "",
+                this.jwtClaimsSet.toString(),
+                "h\u00e9llo \u20ac \ud83d\ude00 unpaired \ud83d end",
+                "x".repeat(10_000) + "\u00e9".repeat(1_000));
+        // @formatter:on
+
+        for (String token : tokens) {
+            var expected = DigestUtils.sha256Hex(token);
+            Assertions.assertEquals(expected, TokenDigestUtility.hash(token));
+            Assertions.assertEquals(expected, TokenDigestUtility.hash(new StringBuilder(token)));
+            Assertions.assertEquals(expected, TokenDigestUtility.hash(token.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenHashingBuffer_thenHashRemainingBytesAndKeepPosition() throws Exception {
+        var buffer = ByteBuffer.wrap("prefix-token".getBytes(StandardCharsets.UTF_8));
+        buffer.position(7);
+
+        Assertions.assertEquals(DigestUtils.sha256Hex("token"), TokenDigestUtility.hash(buffer));
+        Assertions.assertEquals(7, buffer.position());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenFingerprintingToken_thenReturnSameFingerprintForCharactersAndBytes() throws Exception {
+        for (String token : List.of("", this.jwtClaimsSet.toString(), "h\u00e9llo \u20ac \ud83d\ude00 \ud83d end")) {
+            var bytes = token.getBytes(StandardCharsets.UTF_8);
+            var fingerprint = TokenDigestUtility.fingerprint(token);
+
+            Assertions.assertEquals(16, fingerprint.length());
+            Assertions.assertEquals(fingerprint, TokenDigestUtility.fingerprint(bytes));
+            Assertions.assertEquals(fingerprint, TokenDigestUtility.fingerprint(ByteBuffer.wrap(bytes)));
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenFingerprintingDistinctTokens_thenReturnDistinctFingerprints() throws Exception {
+        var fingerprints = new HashSet<Long>();
+        for (int i = 0; i < 10_000; i++) {
+            fingerprints.add(TokenDigestUtility.fingerprint64("token-" + i));
+        }
+
+        Assertions.assertEquals(10_000, fingerprints.size());
+    }
 }
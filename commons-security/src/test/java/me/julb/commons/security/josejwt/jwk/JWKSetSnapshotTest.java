@@ -0,0 +1,249 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.jwk;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+import me.julb.commons.security.josejwt.jwk.impl.ManualAsymmetricJWKProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualSymmetricJWKProvider;
+
+/**
+ * Unit test class for {@link JWKSetSnapshot}.
+ * <br>
+ * @author Julb.
+ */
+class JWKSetSnapshotTest {
+
+    /**
+     * The symmetric signature JWK provider.
+     */
+    private IJWKProvider symmetricSignatureJWKProvider;
+
+    /**
+     * The asymmetric public signature JWK provider.
+     */
+    private IJWKProvider asymmetricPublicSignatureJWKProvider;
+
+    /**
+     * The asymmetric private encryption JWK provider.
+     */
+    private IJWKProvider asymmetricPrivateEncryptionJWKProvider;
+
+    /**
+     * The JWK set provider.
+     */
+    private ManualJWKSetProvider jwkSetProvider;
+
+    // ------------------------------------------ Before/After methods.
+
+    /**
+     * Sets-up the test.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        // @formatter:off
+        this.symmetricSignatureJWKProvider = new ManualSymmetricJWKProvider.Builder()
+                .algorithm(JWSAlgorithm.HS256.getName())
+                .keyId(UUID.randomUUID().toString())
+                .secretKey("aaaaaaaabbbbbbbbccccccccdddddddd")
+                .useForSignature()
+                .build();
+        // @formatter:on
+
+        // @formatter:off
+        RSAKey signatureKey = new RSAKeyGenerator(2048).generate();
+        this.asymmetricPublicSignatureJWKProvider = new ManualAsymmetricJWKProvider.Builder()
+                .algorithm(JWSAlgorithm.RS384.getName())
+                .keyId(UUID.randomUUID().toString())
+                .publicKey(signatureKey.toRSAPublicKey())
+                .useForSignature()
+                .build();
+        // @formatter:on
+
+        // @formatter:off
+        RSAKey encryptionKey = new RSAKeyGenerator(2048).generate();
+        this.asymmetricPrivateEncryptionJWKProvider = new ManualAsymmetricJWKProvider.Builder()
+                .algorithm(JWEAlgorithm.RSA_OAEP_256.getName())
+                .keyId(UUID.randomUUID().toString())
+                .keyPair(encryptionKey.toRSAPrivateKey(), encryptionKey.toRSAPublicKey())
+                .useForEncryption()
+                .build();
+        // @formatter:on
+
+        // @formatter:off
+        this.jwkSetProvider = new ManualJWKSetProvider.Builder()
+                .addJWKProvider(
+                        symmetricSignatureJWKProvider,
+                        asymmetricPublicSignatureJWKProvider,
+                        asymmetricPrivateEncryptionJWKProvider)
+                .build();
+        // @formatter:on
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenSelectingByKidAndUse_thenReturnMatchingKey() {
+        var snapshot = this.jwkSetProvider.toJWKSetSnapshot();
+        var kid = this.asymmetricPublicSignatureJWKProvider.toJWK().getKeyID();
+
+        var jwks = snapshot.select(kid, KeyUse.SIGNATURE, false);
+
+        Assertions.assertEquals(1, jwks.size());
+        Assertions.assertEquals(kid, jwks.get(0).getKeyID());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenSelectingByKidAndWrongUse_thenReturnEmpty() {
+        var snapshot = this.jwkSetProvider.toJWKSetSnapshot();
+        var kid = this.asymmetricPublicSignatureJWKProvider.toJWK().getKeyID();
+
+        Assertions.assertTrue(snapshot.select(kid, KeyUse.ENCRYPTION, false).isEmpty());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenSelectingUnknownKid_thenReturnEmpty() {
+        var snapshot = this.jwkSetProvider.toJWKSetSnapshot();
+
+        Assertions.assertTrue(snapshot.select("unknown", KeyUse.SIGNATURE, false).isEmpty());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenSelectingWithoutKid_thenReturnAllKeysWithUse() {
+        var snapshot = this.jwkSetProvider.toJWKSetSnapshot();
+
+        Assertions.assertEquals(2, snapshot.select(null, KeyUse.SIGNATURE, false).size());
+        Assertions.assertEquals(1, snapshot.select(null, KeyUse.ENCRYPTION, false).size());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenSelectingPrivateOnly_thenExcludePublicKeys() {
+        var snapshot = this.jwkSetProvider.toJWKSetSnapshot();
+        var publicKid = this.asymmetricPublicSignatureJWKProvider.toJWK().getKeyID();
+        var privateKid = this.asymmetricPrivateEncryptionJWKProvider.toJWK().getKeyID();
+
+        Assertions.assertTrue(snapshot.select(publicKid, KeyUse.SIGNATURE, true).isEmpty());
+        Assertions.assertEquals(1, snapshot.select(privateKid, KeyUse.ENCRYPTION, true).size());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingSnapshotTwice_thenReturnSameInstance() {
+        var snapshot = this.jwkSetProvider.toJWKSetSnapshot();
+
+        Assertions.assertSame(snapshot, this.jwkSetProvider.toJWKSetSnapshot());
+        Assertions.assertSame(snapshot, JWKSetSnapshot.of(snapshot, snapshot.getJWKSet()));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenChangingJWKProviders_thenCompileNewSnapshot() {
+        var snapshot = this.jwkSetProvider.toJWKSetSnapshot();
+
+        this.jwkSetProvider.setJwkProviders(List.of(this.symmetricSignatureJWKProvider));
+
+        var newSnapshot = this.jwkSetProvider.toJWKSetSnapshot();
+        Assertions.assertNotSame(snapshot, newSnapshot);
+        Assertions.assertEquals(1, newSnapshot.select(null, KeyUse.SIGNATURE, false).size());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingSnapshotFromDefaultProvider_thenReturnMemoizedInstance() {
+        var jwkSet = this.jwkSetProvider.toJWKSet();
+        IJWKSetProvider defaultProvider = () -> jwkSet;
+
+        var snapshot = defaultProvider.toJWKSetSnapshot();
+        Assertions.assertSame(snapshot, defaultProvider.toJWKSetSnapshot());
+        Assertions.assertTrue(snapshot.isSnapshotOf(jwkSet));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenDefaultProviderBuildsNewJWKSetPerCall_thenReturnMemoizedInstance() throws Exception {
+        var jsonObject = this.jwkSetProvider.toJWKSet().toJSONObject(false);
+        IJWKSetProvider defaultProvider = () -> {
+            try {
+                return JWKSet.parse(jsonObject);
+            } catch (ParseException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        var snapshot = defaultProvider.toJWKSetSnapshot();
+        Assertions.assertSame(snapshot, defaultProvider.toJWKSetSnapshot());
+
+        IJWKSetProvider otherProvider = () -> new JWKSet(this.symmetricSignatureJWKProvider.get());
+        Assertions.assertNotSame(snapshot, otherProvider.toJWKSetSnapshot());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingThumbprint_thenComputeItOnce() throws Exception {
+        var snapshot = JWKSetSnapshot.of(this.jwkSetProvider.toJWKSet());
+        var jwk = snapshot.select(null, KeyUse.SIGNATURE, false).get(0);
+
+        var thumbprint = snapshot.getThumbprint(jwk);
+        Assertions.assertEquals(jwk.computeThumbprint().toString(), thumbprint);
+        Assertions.assertSame(thumbprint, snapshot.getThumbprint(jwk));
+        Assertions.assertNull(snapshot.getThumbprint(this.symmetricSignatureJWKProvider.get()));
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.jwk.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+/**
+ * Unit test class for {@link FileJWKSetProvider}.
+ * <br>
+ * @author Julb.
+ */
+class FileJWKSetProviderTest {
+
+    /**
+     * The temporary directory.
+     */
+    @TempDir
+    Path temporaryDirectory;
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenBuildingProvider_thenLoadJWKSetFromFile() throws Exception {
+        var path = writeJWKSetFile("kid1");
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).build()) {
+            Assertions.assertEquals("kid1", provider.get().getKeys().get(0).getKeyID());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshingUnchangedFile_thenKeepParsedJWKSet() throws Exception {
+        var path = writeJWKSetFile("kid1");
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).build()) {
+            var snapshot = provider.toJWKSetSnapshot();
+
+            Assertions.assertFalse(provider.refreshJWKSet());
+            Assertions.assertSame(snapshot, provider.toJWKSetSnapshot());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshingChangedFile_thenReplaceJWKSet() throws Exception {
+        var path = writeJWKSetFile("kid1");
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).build()) {
+            writeJWKSetFile("kid2");
+
+            Assertions.assertTrue(provider.refreshJWKSet());
+            Assertions.assertEquals("kid2", provider.get().getKeys().get(0).getKeyID());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenFileBecomesInvalid_thenKeepLastJWKSet() throws Exception {
+        var path = writeJWKSetFile("kid1");
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).build()) {
+            Files.writeString(path, "{invalid", StandardCharsets.UTF_8);
+
+            Assertions.assertFalse(provider.refreshJWKSet());
+            Assertions.assertEquals("kid1", provider.get().getKeys().get(0).getKeyID());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenFileIsMissing_thenReturnEmptyJWKSet() throws Exception {
+        var path = this.temporaryDirectory.resolve("missing.json");
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).build()) {
+            Assertions.assertTrue(provider.get().getKeys().isEmpty());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingJWKSetAge_thenTimeSinceLastSuccessfulLoad() throws Exception {
+        var missingPath = this.temporaryDirectory.resolve("missing.json");
+        var clock = Clock.fixed(Instant.ofEpochSecond(1_650_000_000L), ZoneOffset.UTC);
+
+        try (var provider = new FileJWKSetProvider.Builder().path(missingPath).clock(clock).build()) {
+            provider.get();
+            Assertions.assertEquals(-1, provider.getJWKSetAgeInMillis());
+        }
+
+        var path = writeJWKSetFile("kid1");
+        try (var provider = new FileJWKSetProvider.Builder().path(path).clock(clock).build()) {
+            provider.get();
+            Assertions.assertEquals(0, provider.getJWKSetAgeInMillis());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenFileIsMissing_thenThrottleReloads() throws Exception {
+        var path = this.temporaryDirectory.resolve("jwks.json");
+        var clock = new MutableClock(Instant.ofEpochSecond(1_650_000_000L));
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).clock(clock).build()) {
+            writeJWKSetFile("kid1");
+            Assertions.assertTrue(provider.get().getKeys().isEmpty());
+
+            clock.instant = clock.instant.plusSeconds(31);
+            Assertions.assertEquals("kid1", provider.get().getKeys().get(0).getKeyID());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenWatchingAndFileChanges_thenReloadInBackground() throws Exception {
+        var path = writeJWKSetFile("kid1");
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).watch(true).build()) {
+            writeJWKSetFile("kid2");
+
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!"kid2".equals(provider.get().getKeys().get(0).getKeyID()) && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            Assertions.assertEquals("kid2", provider.get().getKeys().get(0).getKeyID());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshingForUnknownKidWithinMinimumInterval_thenSkipReload() throws Exception {
+        var path = writeJWKSetFile("kid1");
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).build()) {
+            writeJWKSetFile("kid2");
+
+            Assertions.assertFalse(provider.refreshJWKSet("kid2"));
+            Assertions.assertEquals("kid1", provider.get().getKeys().get(0).getKeyID());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshingForStillUnknownKid_thenSkipNextReloads() throws Exception {
+        var path = writeJWKSetFile("kid1");
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).minRefreshInterval(0).build()) {
+            writeJWKSetFile("kid2");
+            Assertions.assertTrue(provider.refreshJWKSet("forged"));
+            Assertions.assertEquals("kid2", provider.get().getKeys().get(0).getKeyID());
+
+            writeJWKSetFile("kid3");
+            Assertions.assertFalse(provider.refreshJWKSet("forged"));
+            Assertions.assertEquals("kid2", provider.get().getKeys().get(0).getKeyID());
+
+            Assertions.assertTrue(provider.refreshJWKSet("kid3"));
+            Assertions.assertEquals("kid3", provider.get().getKeys().get(0).getKeyID());
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshingWhileWatching_thenSkipReload() throws Exception {
+        var path = writeJWKSetFile("kid1");
+
+        try (var provider = new FileJWKSetProvider.Builder().path(path).watch(true).minRefreshInterval(0).build()) {
+            Assertions.assertFalse(provider.refreshJWKSet());
+            Assertions.assertFalse(provider.refreshJWKSet("kid2"));
+        }
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Writes a JWKS file with a single key.
+     * @param kid the key ID.
+     * @return the path of the file.
+     */
+    private Path writeJWKSetFile(String kid) throws Exception {
+        var rsaKey = new RSAKeyGenerator(2048).keyID(kid).generate();
+        var path = this.temporaryDirectory.resolve("jwks.json");
+        Files.writeString(path, new JWKSet(List.of(rsaKey.toPublicJWK())).toString(), StandardCharsets.UTF_8);
+        return path;
+    }
+
+    /**
+     * A clock which can be moved forward.
+     * <br>
+     * @author Julb.
+     */
+    private static class MutableClock extends Clock {
+
+        /**
+         * The current instant.
+         */
+        private volatile Instant instant;
+
+        /**
+         * Constructor.
+         * @param instant the current instant.
+         */
+        MutableClock(Instant instant) {
+            super();
+            this.instant = instant;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
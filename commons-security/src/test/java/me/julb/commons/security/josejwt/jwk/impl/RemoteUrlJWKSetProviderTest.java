@@ -0,0 +1,536 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.jwk.impl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit test class for {@link RemoteUrlJWKSetProvider}.
+ * <br>
+ * @author Julb.
+ */
+class RemoteUrlJWKSetProviderTest {
+
+    /**
+     * The current time.
+     */
+    private static final Instant NOW = Instant.parse("2022-01-01T00:00:00Z");
+
+    /**
+     * The local HTTP stub.
+     */
+    private HttpServer httpServer;
+
+    /**
+     * The number of requests received by the stub.
+     */
+    private AtomicInteger requestCount;
+
+    /**
+     * The status code returned by the stub.
+     */
+    private volatile int statusCode;
+
+    /**
+     * The body returned by the stub.
+     */
+    private volatile String body;
+
+    /**
+     * The delay before the stub answers, in milliseconds.
+     */
+    private volatile long delayInMillis;
+
+    /**
+     * The clock.
+     */
+    private MutableClock clock;
+
+    /**
+     * The temporary directory.
+     */
+    @TempDir
+    Path temporaryDirectory;
+
+    // ------------------------------------------ Before/After methods.
+
+    /**
+     * Sets-up the test.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.requestCount = new AtomicInteger();
+        this.statusCode = 200;
+        this.body = newJWKSetJSONString("kid1");
+        this.delayInMillis = 0;
+        this.clock = new MutableClock(NOW);
+
+        this.httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.httpServer.createContext("/jwks", this::handle);
+        this.httpServer.setExecutor(Executors.newCachedThreadPool());
+        this.httpServer.start();
+    }
+
+    /**
+     * Tears-down the test.
+     */
+    @AfterEach
+    public void tearDown() {
+        this.httpServer.stop(0);
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingJWKSetTwice_thenFetchAndParseOnce() {
+        var provider = newBuilder().build();
+
+        var jwkSet = provider.get();
+
+        Assertions.assertEquals("kid1", jwkSet.getKeys().get(0).getKeyID());
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(1, this.requestCount.get());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCacheExpiresAndContentUnchanged_thenKeepParsedJWKSet() {
+        var provider = newBuilder().build();
+
+        var jwkSet = provider.get();
+        this.clock.instant = NOW.plusSeconds(61);
+
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(2, this.requestCount.get());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCacheExpiresAndContentChanged_thenReplaceJWKSet() throws Exception {
+        var provider = newBuilder().build();
+
+        provider.get();
+        this.body = newJWKSetJSONString("kid2");
+        this.clock.instant = NOW.plusSeconds(61);
+
+        Assertions.assertEquals("kid2", provider.get().getKeys().get(0).getKeyID());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRemoteFails_thenServeStaleJWKSetAndBackOff() {
+        var provider = newBuilder().build();
+
+        var jwkSet = provider.get();
+        this.statusCode = 500;
+        this.clock.instant = NOW.plusSeconds(61);
+
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(2, this.requestCount.get());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingJWKSetAge_thenTimeSinceLastSuccessfulFetch() {
+        var provider = newBuilder().build();
+        Assertions.assertEquals(-1, provider.getJWKSetAgeInMillis());
+
+        var jwkSet = provider.get();
+        this.clock.instant = NOW.plusSeconds(10);
+        Assertions.assertEquals(10_000, provider.getJWKSetAgeInMillis());
+
+        // An unchanged content keeps the parsed JWK set but is still a successful fetch.
+        this.clock.instant = NOW.plusSeconds(61);
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(0, provider.getJWKSetAgeInMillis());
+
+        // A failed fetch does not make the JWK set younger.
+        this.statusCode = 500;
+        this.clock.instant = NOW.plusSeconds(122);
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(61_000, provider.getJWKSetAgeInMillis());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRemoteFailsOnFirstFetch_thenReturnEmptyJWKSet() {
+        this.statusCode = 500;
+        var provider = newBuilder().build();
+
+        Assertions.assertTrue(provider.get().getKeys().isEmpty());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshingConcurrently_thenFetchOnce() throws Exception {
+        this.delayInMillis = 300;
+        var provider = newBuilder().build();
+
+        var threadCount = 8;
+        var startLatch = new CountDownLatch(1);
+        var threads = new ArrayList<Thread>();
+        var results = new ArrayList<Integer>();
+        for (int i = 0; i < threadCount; i++) {
+            var thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                    var size = provider.get().getKeys().size();
+                    synchronized (results) {
+                        results.add(size);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        Assertions.assertEquals(1, this.requestCount.get());
+        Assertions.assertEquals(threadCount, results.size());
+        Assertions.assertTrue(results.stream().allMatch(size -> size == 1));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshAheadAndCloseToExpiry_thenRefreshInBackground() throws Exception {
+        var pendingTasks = new ArrayList<Runnable>();
+        var provider = newBuilder().refreshAhead(10).executor(pendingTasks::add).build();
+
+        var jwkSet = provider.get();
+        this.body = newJWKSetJSONString("kid2");
+        this.clock.instant = NOW.plusSeconds(55);
+
+        // Served without waiting for the refresh.
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(1, pendingTasks.size());
+        Assertions.assertEquals(1, this.requestCount.get());
+
+        pendingTasks.get(0).run();
+
+        Assertions.assertEquals("kid2", provider.get().getKeys().get(0).getKeyID());
+        Assertions.assertEquals(2, this.requestCount.get());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshAheadFails_thenBackOffBeforeRefreshingAgain() throws Exception {
+        var pendingTasks = new ArrayList<Runnable>();
+        var provider = newBuilder().refreshAhead(10).executor(pendingTasks::add).build();
+
+        var jwkSet = provider.get();
+        this.statusCode = 500;
+        this.clock.instant = NOW.plusSeconds(55);
+
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(1, pendingTasks.size());
+        pendingTasks.get(0).run();
+        Assertions.assertEquals(2, this.requestCount.get());
+
+        // Still within the refresh-ahead window, but the failed fetch must not be retried before the back-off.
+        this.clock.instant = NOW.plusSeconds(58);
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(1, pendingTasks.size());
+        Assertions.assertEquals(2, this.requestCount.get());
+
+        this.clock.instant = NOW.plusSeconds(86);
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(2, pendingTasks.size());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshAheadAndExpired_thenServeStaleWhileRevalidating() throws Exception {
+        var pendingTasks = new ArrayList<Runnable>();
+        var provider = newBuilder().refreshAhead(10).executor(pendingTasks::add).build();
+
+        var jwkSet = provider.get();
+        this.clock.instant = NOW.plusSeconds(120);
+
+        Assertions.assertSame(jwkSet, provider.get());
+        Assertions.assertEquals(1, pendingTasks.size());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenForcingRefreshWithinMinInterval_thenSkipFetch() throws Exception {
+        var provider = newBuilder().build();
+        provider.get();
+
+        this.body = newJWKSetJSONString("kid2");
+        Assertions.assertFalse(provider.refreshJWKSet());
+        Assertions.assertFalse(provider.refreshJWKSet());
+        Assertions.assertEquals(1, this.requestCount.get());
+        Assertions.assertEquals(2, provider.getSkippedRefreshCount());
+
+        this.clock.instant = NOW.plusSeconds(31);
+        Assertions.assertTrue(provider.refreshJWKSet());
+        Assertions.assertEquals(2, this.requestCount.get());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenForcingRefresh_thenReturnTrueOnlyIfChanged() throws Exception {
+        var provider = newBuilder().minRefreshInterval(0).build();
+        provider.get();
+
+        Assertions.assertFalse(provider.refreshJWKSet());
+
+        this.body = newJWKSetJSONString("kid2");
+        Assertions.assertTrue(provider.refreshJWKSet());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshingForUnknownKid_thenRememberKidAndSkipNextRefreshes() {
+        var provider = newBuilder().minRefreshInterval(0).unknownKidCacheValidity(300).build();
+        provider.get();
+
+        Assertions.assertFalse(provider.refreshJWKSet("unknown"));
+        Assertions.assertFalse(provider.refreshJWKSet("unknown"));
+        Assertions.assertFalse(provider.refreshJWKSet("unknown"));
+
+        Assertions.assertEquals(2, this.requestCount.get());
+        Assertions.assertEquals(2, provider.getRefreshCount());
+        Assertions.assertEquals(2, provider.getUnknownKidCacheHitCount());
+        Assertions.assertEquals(2, provider.getSkippedRefreshCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenUnknownKidCacheExpires_thenRefreshAgain() throws Exception {
+        var provider = newBuilder().minRefreshInterval(0).unknownKidCacheValidity(300).build();
+        provider.get();
+        provider.refreshJWKSet("kid2");
+
+        this.body = newJWKSetJSONString("kid2");
+        this.clock.instant = NOW.plusSeconds(301);
+
+        Assertions.assertTrue(provider.refreshJWKSet("kid2"));
+        Assertions.assertEquals("kid2", provider.get().getKeys().get(0).getKeyID());
+        Assertions.assertEquals(3, this.requestCount.get());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRefreshingForDistinctKidsWithinMinInterval_thenFetchOnce() {
+        var provider = newBuilder().minRefreshInterval(30).build();
+        provider.get();
+
+        Assertions.assertFalse(provider.refreshJWKSet("kid2"));
+        Assertions.assertFalse(provider.refreshJWKSet("kid3"));
+
+        Assertions.assertEquals(1, this.requestCount.get());
+        Assertions.assertEquals(2, provider.getSkippedRefreshCount());
+
+        this.clock.instant = NOW.plusSeconds(31);
+        provider.refreshJWKSet("kid3");
+        Assertions.assertEquals(2, this.requestCount.get());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenSnapshotFileConfigured_thenPersistFetchedJWKSet() throws Exception {
+        var snapshotFile = this.temporaryDirectory.resolve("jwks.json");
+        var provider = newBuilder().snapshotFile(snapshotFile).build();
+
+        provider.get();
+
+        Assertions.assertEquals(this.body, Files.readString(snapshotFile, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenSnapshotFileExists_thenServeItAndRevalidateInBackground() throws Exception {
+        var snapshotFile = this.temporaryDirectory.resolve("jwks.json");
+        Files.writeString(snapshotFile, newJWKSetJSONString("kid0"), StandardCharsets.UTF_8);
+        var pendingTasks = new ArrayList<Runnable>();
+        var provider = newBuilder().snapshotFile(snapshotFile).executor(pendingTasks::add).build();
+
+        Assertions.assertEquals("kid0", provider.get().getKeys().get(0).getKeyID());
+        Assertions.assertEquals(0, this.requestCount.get());
+        Assertions.assertEquals(1, pendingTasks.size());
+
+        pendingTasks.get(0).run();
+
+        Assertions.assertEquals("kid1", provider.get().getKeys().get(0).getKeyID());
+        Assertions.assertEquals(this.body, Files.readString(snapshotFile, StandardCharsets.UTF_8));
+    }
+
+    // ------------------------------------------ Private methods.
+
+    /**
+     * Creates a builder pointing to the stub.
+     * @return the builder.
+     */
+    private RemoteUrlJWKSetProvider.Builder newBuilder() {
+        // @formatter:off
+        return new RemoteUrlJWKSetProvider.Builder()
+                .url("http://127.0.0.1:" + this.httpServer.getAddress().getPort() + "/jwks")
+                .cacheValidity(60)
+                .notRetryBeforeInterval(30)
+                .clock(this.clock);
+        // @formatter:on
+    }
+
+    /**
+     * Handles a request received by the stub.
+     * @param exchange the exchange.
+     * @throws IOException if an error occurs.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        this.requestCount.incrementAndGet();
+        try {
+            Thread.sleep(this.delayInMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        var bytes = this.body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(this.statusCode, bytes.length);
+        try (var outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * Generates a JSON JWKS with a single key.
+     * @param kid the key ID.
+     * @return the JSON JWKS.
+     */
+    private static String newJWKSetJSONString(String kid) throws Exception {
+        var rsaKey = new RSAKeyGenerator(2048).keyID(kid).generate();
+        return new JWKSet(List.of(rsaKey.toPublicJWK())).toString();
+    }
+
+    /**
+     * A clock which can be moved forward.
+     * <br>
+     * @author Julb.
+     */
+    private static class MutableClock extends Clock {
+
+        /**
+         * The current instant.
+         */
+        private volatile Instant instant;
+
+        /**
+         * Constructor.
+         * @param instant the current instant.
+         */
+        MutableClock(Instant instant) {
+            super();
+            this.instant = instant;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.keyloader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for {@link PEMKeyDirectoryLoader} class.
+ * <br>
+ * @author Julb.
+ */
+class PEMKeyDirectoryLoaderTest {
+
+    /**
+     * The temporary directory.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenLoadingDirectory_thenAllKeysLoaded() throws Exception {
+        var firstKeyPair = generateKeyPair();
+        var secondKeyPair = generateKeyPair();
+        Files.writeString(this.directory.resolve("first.pem"), PEMKeyLoaderTest.toPem(firstKeyPair, null));
+        Files.writeString(this.directory.resolve("second.pem"), PEMKeyLoaderTest.toPem(secondKeyPair, "password"));
+        Files.writeString(this.directory.resolve("invalid.pem"), "invalid");
+        Files.writeString(this.directory.resolve("ignored.txt"), PEMKeyLoaderTest.toPem(firstKeyPair, null));
+
+        var loader = new PEMKeyDirectoryLoader.Builder().directory(this.directory).password("password").build();
+
+        var keys = loader.getKeys();
+        Assertions.assertEquals(2, keys.size());
+        Assertions.assertEquals(firstKeyPair.getPrivate(), keys.get("first").getPrivate());
+        Assertions.assertEquals(secondKeyPair.getPrivate(), keys.get("second").getPrivate());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReloadingDirectory_thenOnlyChangedFilesReloaded() throws Exception {
+        var firstKeyPair = generateKeyPair();
+        var secondKeyPair = generateKeyPair();
+        var firstFile = this.directory.resolve("first.pem");
+        var secondFile = this.directory.resolve("second.pem");
+        Files.writeString(firstFile, PEMKeyLoaderTest.toPem(firstKeyPair, null));
+        Files.writeString(secondFile, PEMKeyLoaderTest.toPem(secondKeyPair, null));
+
+        var loader = new PEMKeyDirectoryLoader.Builder().directory(this.directory).build();
+        var firstLoadedKeyPair = loader.getKeys().get("first");
+
+        // Change the second file, corrupt the first one without changing its attributes, add a third one.
+        var thirdKeyPair = generateKeyPair();
+        var lastModifiedTime = Files.getLastModifiedTime(firstFile);
+        var firstContent = Files.readString(firstFile);
+        Files.writeString(firstFile, "x".repeat(firstContent.length()));
+        Files.setLastModifiedTime(firstFile, lastModifiedTime);
+        Files.writeString(secondFile, PEMKeyLoaderTest.toPem(thirdKeyPair, null));
+        Files.setLastModifiedTime(secondFile, FileTime.from(Instant.now().plusSeconds(10)));
+        Files.writeString(this.directory.resolve("third.pem"), PEMKeyLoaderTest.toPem(thirdKeyPair, null));
+
+        var keys = loader.reload();
+        Assertions.assertEquals(3, keys.size());
+        Assertions.assertSame(firstLoadedKeyPair, keys.get("first"));
+        Assertions.assertEquals(thirdKeyPair.getPrivate(), keys.get("second").getPrivate());
+        Assertions.assertEquals(thirdKeyPair.getPrivate(), keys.get("third").getPrivate());
+
+        // Delete a file.
+        Files.delete(secondFile);
+        Assertions.assertEquals(2, loader.reload().size());
+    }
+
+    /**
+     * Generates a key pair.
+     * @return the key pair.
+     */
+    private KeyPair generateKeyPair() throws NoSuchAlgorithmException, IOException {
+        var keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.keyloader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
+import org.bouncycastle.openssl.jcajce.JcePEMEncryptorBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import me.julb.commons.security.josejwt.exceptions.internalservererror.InvalidPEMKeyFormatException;
+import me.julb.commons.security.josejwt.exceptions.internalservererror.InvalidPasswordPEMKeyException;
+import me.julb.commons.security.josejwt.exceptions.internalservererror.MissingPasswordPEMKeyException;
+
+/**
+ * Test class for {@link PEMKeyLoader} class.
+ * <br>
+ * @author Julb.
+ */
+class PEMKeyLoaderTest {
+
+    /**
+     * The key pair.
+     */
+    private static KeyPair keyPair;
+
+    /**
+     * The PEM of the key pair.
+     */
+    private static String privateKeyPem;
+
+    /**
+     * The PEM of the public key.
+     */
+    private static String publicKeyPem;
+
+    /**
+     * The PEM of the key pair encrypted with a password.
+     */
+    private static String encryptedPrivateKeyPem;
+
+    /**
+     * Generates the PEM files.
+     */
+    @BeforeAll
+    static void setUp() throws NoSuchAlgorithmException, IOException {
+        var keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        keyPair = keyPairGenerator.generateKeyPair();
+        privateKeyPem = toPem(keyPair, null);
+        publicKeyPem = toPem(keyPair.getPublic(), null);
+        encryptedPrivateKeyPem = toPem(keyPair, "password");
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenLoadingKeys_thenSameKeys() {
+        Assertions.assertEquals(keyPair.getPublic(), PEMKeyLoader.loadPublicKey(stream(publicKeyPem)));
+        Assertions.assertEquals(keyPair.getPublic(), PEMKeyLoader.loadPublicKey(stream(privateKeyPem)));
+        Assertions.assertEquals(keyPair.getPrivate(), PEMKeyLoader.loadKey(stream(privateKeyPem)).getPrivate());
+        Assertions.assertNull(PEMKeyLoader.loadKey(stream(publicKeyPem)).getPrivate());
+        Assertions.assertEquals(keyPair.getPrivate(), PEMKeyLoader.loadPrivateKey(stream(privateKeyPem)).getPrivate());
+        Assertions.assertEquals(keyPair.getPrivate(),
+            PEMKeyLoader.loadPasswordProtectedPrivateKey(stream(encryptedPrivateKeyPem), "password").getPrivate());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenLoadingSameContentTwice_thenCached() {
+        Assertions.assertSame(PEMKeyLoader.loadKey(stream(privateKeyPem)), PEMKeyLoader.loadKey(stream(privateKeyPem)));
+        Assertions.assertSame(PEMKeyLoader.loadPasswordProtectedPrivateKey(stream(encryptedPrivateKeyPem), "password"),
+            PEMKeyLoader.loadPasswordProtectedPrivateKey(stream(encryptedPrivateKeyPem), "password"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCacheFull_thenLeastRecentlyUsedEvicted() {
+        PEMKeyLoader.clearCache();
+        var recentlyUsed = PEMKeyLoader.loadKey(stream(privateKeyPem));
+        var leastRecentlyUsed = PEMKeyLoader.loadPublicKey(stream(publicKeyPem));
+
+        var paddedPublicKeyPem = new StringBuilder(publicKeyPem);
+        for (int i = 0; i < PEMKeyLoader.MAXIMUM_CACHE_SIZE; i++) {
+            Assertions.assertSame(recentlyUsed, PEMKeyLoader.loadKey(stream(privateKeyPem)));
+            PEMKeyLoader.loadPublicKey(stream(paddedPublicKeyPem.append('\n').toString()));
+        }
+
+        Assertions.assertSame(recentlyUsed, PEMKeyLoader.loadKey(stream(privateKeyPem)));
+        Assertions.assertNotSame(leastRecentlyUsed, PEMKeyLoader.loadPublicKey(stream(publicKeyPem)));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenLoadingCachedContentWithWrongPassword_thenThrow() {
+        PEMKeyLoader.loadPasswordProtectedPrivateKey(stream(encryptedPrivateKeyPem), "password");
+
+        Assertions.assertThrows(InvalidPasswordPEMKeyException.class,
+            () -> PEMKeyLoader.loadPasswordProtectedPrivateKey(stream(encryptedPrivateKeyPem), "wrong"));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenLoadingCachedContentWithOtherMode_thenModeChecked() {
+        PEMKeyLoader.loadKey(stream(publicKeyPem));
+        PEMKeyLoader.loadPasswordProtectedPrivateKey(stream(encryptedPrivateKeyPem), "password");
+
+        Assertions.assertThrows(InvalidPEMKeyFormatException.class,
+            () -> PEMKeyLoader.loadPrivateKey(stream(publicKeyPem)));
+        Assertions.assertThrows(MissingPasswordPEMKeyException.class,
+            () -> PEMKeyLoader.loadKey(stream(encryptedPrivateKeyPem)));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenLoadingInvalidContent_thenThrow() {
+        Assertions.assertThrows(InvalidPEMKeyFormatException.class, () -> PEMKeyLoader.loadKey(stream("invalid")));
+    }
+
+    /**
+     * Converts content to an input stream.
+     * @param content the content.
+     * @return the input stream.
+     */
+    static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes an object as PEM.
+     * @param object the object.
+     * @param password the password, <code>null</code> if none.
+     * @return the PEM.
+     */
+    static String toPem(Object object, String password) throws IOException {
+        var writer = new StringWriter();
+        try (var pemWriter = new JcaPEMWriter(writer)) {
+            if (password == null) {
+                pemWriter.writeObject(object);
+            } else {
+                var encryptorBuilder = new JcePEMEncryptorBuilder("AES-256-CBC");
+                encryptorBuilder.setProvider(new BouncyCastleProvider());
+                pemWriter.writeObject(object, encryptorBuilder.build(password.toCharArray()));
+            }
+        }
+        return writer.toString();
+    }
+}
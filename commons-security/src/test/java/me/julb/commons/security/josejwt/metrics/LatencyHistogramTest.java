@@ -0,0 +1,86 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test class for {@link LatencyHistogram}.
+ * <br>
+ * @author Julb.
+ */
+class LatencyHistogramTest {
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRecordingDurations_thenComputeStatistics() {
+        var histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        Assertions.assertEquals(100, histogram.getCount());
+        Assertions.assertEquals(5050000, histogram.getTotalInNanos());
+        Assertions.assertEquals(100000, histogram.getMaxInNanos());
+        Assertions.assertEquals(50500, histogram.getMeanInNanos());
+
+        // Percentiles are the upper bound of their power-of-two bucket.
+        var median = histogram.getPercentileInNanos(50);
+        Assertions.assertTrue(median >= 50000 && median < 100000, String.valueOf(median));
+        Assertions.assertEquals(100000, histogram.getPercentileInNanos(100));
+        Assertions.assertEquals(1023, histogram.getPercentileInNanos(0));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenRecordingNothingOrResetting_thenZero() {
+        var histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.getPercentileInNanos(99));
+        Assertions.assertEquals(0, histogram.getMeanInNanos());
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        Assertions.assertEquals(2, histogram.getCount());
+        Assertions.assertEquals(1, histogram.getPercentileInNanos(50));
+        Assertions.assertEquals(Long.MAX_VALUE, histogram.getPercentileInNanos(100));
+
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.getCount());
+        Assertions.assertEquals(0, histogram.getMaxInNanos());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGettingInvalidPercentile_thenThrowIllegalArgumentException() {
+        var histogram = new LatencyHistogram();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileInNanos(101));
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.josejwt.operations;
+
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+
+import me.julb.commons.security.josejwt.jwk.IJWKProvider;
+import me.julb.commons.security.josejwt.jwk.IJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualAsymmetricJWKProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualJWKSetProvider;
+import me.julb.commons.security.josejwt.jwk.impl.ManualSymmetricJWKProvider;
+
+/**
+ * Unit test class for {@link JWSVerifierCache}.
+ * <br>
+ * @author Julb.
+ */
+class JWSVerifierCacheTest {
+
+    /**
+     * A raw JSON web token.
+     */
+    private JWTClaimsSet jwtClaimsSet;
+
+    /**
+     * The symmetric JWK provider.
+     */
+    private IJWKProvider symmetricJWKProvider;
+
+    /**
+     * The asymmetric RSA JWK provider.
+     */
+    private IJWKProvider asymmetricRSAJWKProvider;
+
+    // ------------------------------------------ Before/After methods.
+
+    /**
+     * Sets-up the test.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        Calendar expirationTime = Calendar.getInstance();
+        expirationTime.add(Calendar.HOUR, 1);
+
+        // @formatter:off
+        this.jwtClaimsSet = new JWTClaimsSet.Builder()
+                .issuer("API_Gateway")
+                .audience("API_backend")
+                .subject("contact@julb.io")
+                .expirationTime(expirationTime.getTime())
+                .build();
+        // @formatter:on
+
+        // @formatter:off
+        this.symmetricJWKProvider = new ManualSymmetricJWKProvider.Builder()
+                .algorithm(JWSAlgorithm.HS256.getName())
+                .keyId(UUID.randomUUID().toString())
+                .secretKey("aaaaaaaabbbbbbbbccccccccdddddddd")
+                .useForSignature()
+                .build();
+        // @formatter:on
+
+        // @formatter:off
+        RSAKey rsaKey = new RSAKeyGenerator(2048).generate();
+        this.asymmetricRSAJWKProvider = new ManualAsymmetricJWKProvider.Builder()
+                .algorithm(JWSAlgorithm.RS384.getName())
+                .keyId(UUID.randomUUID().toString())
+                .keyPair(rsaKey.toRSAPrivateKey(), rsaKey.toRSAPublicKey())
+                .useForSignature()
+                .build();
+        // @formatter:on
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenLoadingSnapshot_thenPreWarmVerifiers() {
+        // @formatter:off
+        var jwkSetProvider = new ManualJWKSetProvider.Builder()
+                .addJWKProvider(symmetricJWKProvider, asymmetricRSAJWKProvider)
+                .build();
+        // @formatter:on
+
+        var cache = new JWSVerifierCache();
+        cache.load(jwkSetProvider.toJWKSetSnapshot());
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(0, cache.getHitCount());
+        Assertions.assertEquals(0, cache.getMissCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenVerifyingTokensWithCache_thenReuseVerifier() throws Exception {
+        // @formatter:off
+        String signedToken = new TokenSignatureOperation(symmetricJWKProvider).execute(this.jwtClaimsSet.toString());
+        var jwkSetProvider = new ManualJWKSetProvider.Builder()
+                .addJWKProvider(symmetricJWKProvider)
+                .build();
+        // @formatter:on
+
+        var cache = new JWSVerifierCache();
+        var operation = new TokenVerifierOperation(jwkSetProvider, null, null, cache);
+        operation.execute(signedToken);
+        operation.execute(signedToken);
+
+        Assertions.assertEquals(2, cache.getHitCount());
+        Assertions.assertEquals(0, cache.getMissCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenProviderBuildsNewJWKSetPerCall_thenLoadSnapshotOnce() throws Exception {
+        String signedToken = new TokenSignatureOperation(symmetricJWKProvider).execute(this.jwtClaimsSet.toString());
+        var jsonObject = new JWKSet(symmetricJWKProvider.get()).toJSONObject(false);
+        IJWKSetProvider jwkSetProvider = () -> {
+            try {
+                return JWKSet.parse(jsonObject);
+            } catch (ParseException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        var cache = new JWSVerifierCache();
+        var operation = new TokenVerifierOperation(jwkSetProvider, null, null, cache);
+        operation.execute(signedToken);
+        operation.execute(signedToken);
+
+        Assertions.assertSame(jwkSetProvider.toJWKSetSnapshot(), jwkSetProvider.toJWKSetSnapshot());
+        Assertions.assertEquals(2, cache.getHitCount());
+        Assertions.assertEquals(0, cache.getMissCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenKeyRotatesOut_thenEvictVerifier() {
+        // @formatter:off
+        var jwkSetProvider = new ManualJWKSetProvider.Builder()
+                .addJWKProvider(symmetricJWKProvider, asymmetricRSAJWKProvider)
+                .build();
+        // @formatter:on
+
+        var cache = new JWSVerifierCache();
+        cache.load(jwkSetProvider.toJWKSetSnapshot());
+        Assertions.assertEquals(2, cache.size());
+
+        var rotatedJWKSetProvider = new ManualJWKSetProvider.Builder()
+                .addJWKProvider(asymmetricRSAJWKProvider)
+                .build();
+        var rotatedSnapshot = rotatedJWKSetProvider.toJWKSetSnapshot();
+        cache.load(rotatedSnapshot);
+        Assertions.assertEquals(1, cache.size());
+
+        var rsaJWK = rotatedSnapshot.select(null, KeyUse.SIGNATURE, false).get(0);
+        Assertions.assertNotNull(cache.getVerifier(rotatedSnapshot, rsaJWK));
+        Assertions.assertEquals(1, cache.getHitCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCacheIsFull_thenDoNotExceedMaximumSize() {
+        // @formatter:off
+        var jwkSetProvider = new ManualJWKSetProvider.Builder()
+                .addJWKProvider(symmetricJWKProvider, asymmetricRSAJWKProvider)
+                .build();
+        // @formatter:on
+
+        var cache = new JWSVerifierCache(1);
+        var snapshot = jwkSetProvider.toJWKSetSnapshot();
+        for (var jwk : snapshot.select(null, KeyUse.SIGNATURE, false)) {
+            Assertions.assertNotNull(cache.getVerifier(snapshot, jwk));
+        }
+
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCreatingCacheWithInvalidSize_thenThrowIllegalArgumentException() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new JWSVerifierCache(0));
+    }
+}
@@ -491,4 +491,33 @@ class TokenVerifierOperationTest {
             operation.execute(signedToken);
         });
     }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenVerifyingToken_thenReturnVerifiedTokenWithClaims() throws Exception {
+        // @formatter:off
+        String signedToken = new TokenSignatureOperation(symmetricJWKProvider).execute(this.jwtClaimsSet.toString());
+        // @formatter:on
+
+        // @formatter:off
+        IJWKSetProvider jwkSetProvider = new ManualJWKSetProvider.Builder()
+                .addJWKProvider(symmetricJWKProvider)
+                .build();
+        VerifiedToken verifiedToken = new TokenVerifierOperation(
+                        jwkSetProvider, this.jwtClaimsSet.getAudience().get(0), this.jwtClaimsSet.getIssuer())
+                .verify(signedToken);
+        // @formatter:on
+
+        Assertions.assertEquals(symmetricJWKProvider.toJWK().getKeyID(), verifiedToken.getKeyID());
+        Assertions.assertEquals(JWSAlgorithm.HS256.getName(), verifiedToken.getAlgorithm());
+        Assertions.assertEquals(this.jwtClaimsSet.getIssuer(), verifiedToken.getIssuer());
+        Assertions.assertEquals(this.jwtClaimsSet.getAudience(), verifiedToken.getAudience());
+        Assertions.assertEquals(
+                this.jwtClaimsSet.getExpirationTime().toInstant().getEpochSecond(),
+                verifiedToken.getExpirationTime());
+        Assertions.assertEquals(this.jwtClaimsSet.getSubject(), verifiedToken.getJWTClaimsSet().getSubject());
+        JsonAssert.assertJsonEquals(this.jwtClaimsSet.toString(), new JSONObject(verifiedToken.getPayload()));
+    }
 }
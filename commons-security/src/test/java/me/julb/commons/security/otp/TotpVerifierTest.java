@@ -0,0 +1,271 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2022 Julb
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.julb.commons.security.otp;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import me.julb.commons.exceptions.InternalServerErrorException;
+
+import dev.samstevens.totp.code.DefaultCodeGenerator;
+import dev.samstevens.totp.code.HashingAlgorithm;
+import dev.samstevens.totp.exceptions.CodeGenerationException;
+import dev.samstevens.totp.secret.DefaultSecretGenerator;
+
+/**
+ * Test class for {@link TotpVerifier} class.
+ * <br>
+ * @author Julb.
+ */
+class TotpVerifierTest {
+
+    /**
+     * The secret.
+     */
+    private static final String SECRET = "JBSWY3DPEHPK3PXPJBSWY3DPEHPK3PXP";
+
+    /**
+     * The other secret.
+     */
+    private static final String OTHER_SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    /**
+     * The fixed time, in seconds since epoch.
+     */
+    private static final long NOW_IN_SECONDS = 1_650_000_015L;
+
+    /**
+     * The time period of the fixed time.
+     */
+    private static final long NOW_TIME_PERIOD = NOW_IN_SECONDS / 30;
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGeneratingCode_thenSameAsDefaultCodeGenerator() throws CodeGenerationException {
+        var verifier = newVerifier();
+        var codeGenerator = new DefaultCodeGenerator(HashingAlgorithm.SHA1, 6);
+        for (long timePeriod = NOW_TIME_PERIOD - 50; timePeriod < NOW_TIME_PERIOD + 50; timePeriod++) {
+            Assertions.assertEquals(codeGenerator.generate(SECRET, timePeriod), code(verifier, SECRET, timePeriod));
+            Assertions.assertEquals(codeGenerator.generate(OTHER_SECRET, timePeriod),
+                code(verifier, OTHER_SECRET, timePeriod));
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenVerifyingCodeWithinWindow_thenTrue() {
+        var verifier = newVerifier();
+
+        Assertions.assertTrue(verifier.verify(SECRET, code(verifier, SECRET, NOW_TIME_PERIOD - 1), 1));
+        Assertions.assertTrue(verifier.verify(OTHER_SECRET, code(verifier, OTHER_SECRET, NOW_TIME_PERIOD + 1), 1));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenVerifyingCodeOutsideWindow_thenFalse() {
+        var verifier = newVerifier();
+
+        Assertions.assertFalse(verifier.verify(SECRET, code(verifier, SECRET, NOW_TIME_PERIOD - 2), 1));
+        Assertions.assertFalse(verifier.verify(SECRET, code(verifier, SECRET, NOW_TIME_PERIOD + 1), 0));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenVerifyingMalformedCode_thenFalse() {
+        var verifier = newVerifier();
+
+        Assertions.assertFalse(verifier.verify(SECRET, null, 1));
+        Assertions.assertFalse(verifier.verify(SECRET, "", 1));
+        Assertions.assertFalse(verifier.verify(SECRET, "12345", 1));
+        Assertions.assertFalse(verifier.verify(SECRET, "1234567", 1));
+        Assertions.assertFalse(verifier.verify(SECRET, "12a456", 1));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenVerifyingWithInvalidSecret_thenFalse() {
+        var verifier = newVerifier();
+        var code = code(verifier, SECRET, NOW_TIME_PERIOD);
+
+        Assertions.assertFalse(verifier.verify(null, code, 1));
+        Assertions.assertFalse(verifier.verify("", code, 1));
+        Assertions.assertFalse(verifier.verify("   ", code, 1));
+        Assertions.assertFalse(verifier.verify("0189", code, 1));
+        Assertions.assertTrue(verifier.verify(SECRET, code, 1));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGeneratingWithInvalidSecret_thenThrow() {
+        var verifier = newVerifier();
+
+        Assertions.assertThrows(InternalServerErrorException.class, () -> verifier.generate(null, NOW_TIME_PERIOD));
+        Assertions.assertThrows(InternalServerErrorException.class, () -> verifier.generate("", NOW_TIME_PERIOD));
+        Assertions.assertThrows(InternalServerErrorException.class, () -> verifier.generate("0189", NOW_TIME_PERIOD));
+        Assertions.assertEquals(verifier.generate(SECRET, NOW_TIME_PERIOD), verifier.generate(SECRET, NOW_TIME_PERIOD));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenVerifyingCodeTwice_thenReplayRejected() {
+        var verifier = newVerifier();
+        var code = code(verifier, SECRET, NOW_TIME_PERIOD);
+
+        Assertions.assertTrue(verifier.verify(SECRET, code, 1));
+        Assertions.assertFalse(verifier.verify(SECRET, code, 1));
+        Assertions.assertFalse(verifier.verify(SECRET, code(verifier, SECRET, NOW_TIME_PERIOD - 1), 1));
+        Assertions.assertTrue(verifier.verify(SECRET, code(verifier, SECRET, NOW_TIME_PERIOD + 1), 1));
+        Assertions.assertTrue(verifier.verify(OTHER_SECRET, code(verifier, OTHER_SECRET, NOW_TIME_PERIOD), 1));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenReplayCacheFull_thenBounded() {
+        // @formatter:off
+        var verifier = new TotpVerifier.Builder()
+            .replayCacheSize(10)
+            .clock(Clock.fixed(Instant.ofEpochSecond(NOW_IN_SECONDS), ZoneOffset.UTC))
+            .build();
+        // @formatter:on
+
+        for (int i = 0; i < 100; i++) {
+            var secret = new DefaultSecretGenerator().generate();
+            Assertions.assertTrue(verifier.verify(secret, code(verifier, secret, NOW_TIME_PERIOD), 1));
+            Assertions.assertTrue(verifier.getReplayCacheSize() <= 10);
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenGeneratingAll_thenSameAsGenerate() {
+        var verifier = newVerifier();
+        var secrets = new String[] {SECRET, OTHER_SECRET, SECRET};
+
+        for (boolean parallel : new boolean[] {false, true}) {
+            var codes = verifier.generateAll(secrets, 2, parallel);
+            Assertions.assertEquals(15, codes.length);
+            for (int i = 0; i < secrets.length; i++) {
+                for (int j = 0; j < 5; j++) {
+                    Assertions.assertEquals(verifier.generate(secrets[i], NOW_TIME_PERIOD - 2 + j), codes[i * 5 + j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenCustomSettings_thenSameAsDefaultCodeGenerator() throws CodeGenerationException {
+        // @formatter:off
+        var verifier = new TotpVerifier.Builder()
+            .hashingAlgorithm(HashingAlgorithm.SHA256)
+            .digits(8)
+            .timePeriod(60)
+            .clock(Clock.fixed(Instant.ofEpochSecond(NOW_IN_SECONDS), ZoneOffset.UTC))
+            .build();
+        // @formatter:on
+        var codeGenerator = new DefaultCodeGenerator(HashingAlgorithm.SHA256, 8);
+
+        Assertions.assertEquals(NOW_IN_SECONDS / 60, verifier.currentTimePeriod());
+        var expectedCode = codeGenerator.generate(SECRET, NOW_IN_SECONDS / 60);
+        Assertions.assertEquals(expectedCode, verifier.format(verifier.generate(SECRET, NOW_IN_SECONDS / 60)));
+        Assertions.assertTrue(verifier.verify(SECRET, expectedCode, 0));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenClockDrifts_thenWindowAbsorbsDrift() {
+        var serverVerifier = newVerifier();
+        var code = code(serverVerifier, SECRET, NOW_TIME_PERIOD);
+
+        var fixedClock = Clock.fixed(Instant.ofEpochSecond(NOW_IN_SECONDS), ZoneOffset.UTC);
+        var driftingClock = Clock.offset(fixedClock, Duration.ofSeconds(45));
+        var driftingVerifier = new TotpVerifier.Builder().clock(driftingClock).build();
+        Assertions.assertFalse(driftingVerifier.verify(SECRET, code, 0));
+        Assertions.assertTrue(driftingVerifier.verify(SECRET, code, 2));
+    }
+
+    /**
+     * Test method.
+     */
+    @Test
+    void whenBuildingWithInvalidSettings_thenThrow() {
+        var zeroDigitsBuilder = new TotpVerifier.Builder().digits(0);
+        Assertions.assertThrows(IllegalArgumentException.class, zeroDigitsBuilder::build);
+        var tenDigitsBuilder = new TotpVerifier.Builder().digits(10);
+        Assertions.assertThrows(IllegalArgumentException.class, tenDigitsBuilder::build);
+        var zeroTimePeriodBuilder = new TotpVerifier.Builder().timePeriod(0);
+        Assertions.assertThrows(IllegalArgumentException.class, zeroTimePeriodBuilder::build);
+    }
+
+    /**
+     * Creates a verifier at a fixed time.
+     * @return the verifier.
+     */
+    private TotpVerifier newVerifier() {
+        // @formatter:off
+        return new TotpVerifier.Builder()
+            .clock(Clock.fixed(Instant.ofEpochSecond(NOW_IN_SECONDS), ZoneOffset.UTC))
+            .build();
+        // @formatter:on
+    }
+
+    /**
+     * Generates the code of a secret for a time period.
+     * @param verifier the verifier.
+     * @param secret the secret.
+     * @param timePeriod the time period.
+     * @return the code, padded with zeros.
+     */
+    private String code(TotpVerifier verifier, String secret, long timePeriod) {
+        return StringUtils.leftPad(Integer.toString(verifier.generate(secret, timePeriod)), 6, '0');
+    }
+}